@@ -0,0 +1,25 @@
+package com.dooapp.gaedo.benchmarks;
+
+/**
+ * Finder service implementations compared by benchmarks. Names are used as JMH parameter values.
+ * @author ndx
+ *
+ */
+public enum Backend {
+	/**
+	 * {@link com.dooapp.gaedo.finders.collections.CollectionBackedFinderService}, and its id supporting variant for posts
+	 */
+	collection,
+	/**
+	 * {@link com.dooapp.gaedo.prevalence.services.PrevalenceFinderService} over a file backed execution space
+	 */
+	prevalence,
+	/**
+	 * {@link com.dooapp.gaedo.blueprints.indexable.IndexableGraphBackedFinderService} over an in-memory TinkerGraph
+	 */
+	tinker,
+	/**
+	 * {@link com.dooapp.gaedo.blueprints.indexable.IndexableGraphBackedFinderService} over an embedded Neo4j database
+	 */
+	neo4j;
+}
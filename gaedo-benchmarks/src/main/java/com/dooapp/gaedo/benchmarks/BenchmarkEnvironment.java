@@ -0,0 +1,154 @@
+package com.dooapp.gaedo.benchmarks;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import com.dooapp.gaedo.blueprints.indexable.IndexableGraphBackedFinderService;
+import com.dooapp.gaedo.finders.FinderCrudService;
+import com.dooapp.gaedo.finders.Informer;
+import com.dooapp.gaedo.finders.collections.CollectionBackedFinderService;
+import com.dooapp.gaedo.finders.collections.IdSupportingCollectionBackedFinderService;
+import com.dooapp.gaedo.finders.id.AnnotationUtils;
+import com.dooapp.gaedo.finders.repository.InheriterRepository;
+import com.dooapp.gaedo.finders.repository.ServiceBackedFieldLocator;
+import com.dooapp.gaedo.finders.repository.ServiceRepository;
+import com.dooapp.gaedo.finders.root.BasicFieldInformerLocator;
+import com.dooapp.gaedo.finders.root.CumulativeFieldInformerLocator;
+import com.dooapp.gaedo.finders.root.LazyInterfaceInformerLocator;
+import com.dooapp.gaedo.finders.root.ProxyBackedInformerFactory;
+import com.dooapp.gaedo.finders.root.ReflectionBackedInformerFactory;
+import com.dooapp.gaedo.prevalence.services.PrevalenceFinderService;
+import com.dooapp.gaedo.prevalence.space.ExecutionSpace;
+import com.dooapp.gaedo.prevalence.space.basic.SimpleExecutionSpace;
+import com.dooapp.gaedo.properties.CachingPropertyProvider;
+import com.dooapp.gaedo.properties.FieldBackedPropertyProvider;
+import com.dooapp.gaedo.properties.PropertyProvider;
+import com.dooapp.gaedo.test.beans.Post;
+import com.dooapp.gaedo.test.beans.PostInformer;
+import com.dooapp.gaedo.test.beans.Tag;
+import com.dooapp.gaedo.test.beans.TagInformer;
+import com.dooapp.gaedo.test.beans.User;
+import com.dooapp.gaedo.test.beans.UserInformer;
+import com.dooapp.gaedo.test.beans.specific.Theme;
+import com.dooapp.gaedo.test.beans.specific.ThemeInformer;
+import com.tinkerpop.blueprints.IndexableGraph;
+import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+
+/**
+ * Set of gaedo components (repository, informer factory and services) used by one benchmark trial. Components are wired the same way
+ * tests wire them, for the {@link Post}, {@link User}, {@link Tag} and {@link Theme} test beans.
+ * @author ndx
+ *
+ */
+public class BenchmarkEnvironment {
+	private final Backend backend;
+
+	/**
+	 * Directory where persistent backends store their data. Deleted on {@link #close()}
+	 */
+	private final File directory;
+
+	private final ServiceRepository repository;
+
+	private final PropertyProvider provider;
+
+	private final ProxyBackedInformerFactory informerFactory;
+
+	/**
+	 * Graph used by graph backends, null for others
+	 */
+	private IndexableGraph graph;
+
+	/**
+	 * Execution space used by prevalence backend, null for others
+	 */
+	private ExecutionSpace<String> executionSpace;
+
+	private final FinderCrudService<Post, PostInformer> postService;
+
+	public BenchmarkEnvironment(Backend backend, File directory) {
+		this.backend = backend;
+		this.directory = directory;
+		repository = new InheriterRepository();
+		provider = new CachingPropertyProvider(new FieldBackedPropertyProvider());
+		CumulativeFieldInformerLocator locator = new CumulativeFieldInformerLocator();
+		locator.add(new BasicFieldInformerLocator());
+		locator.add(new ServiceBackedFieldLocator(repository));
+		locator.add(new LazyInterfaceInformerLocator());
+		informerFactory = new ProxyBackedInformerFactory(new ReflectionBackedInformerFactory(locator, provider));
+		switch(backend) {
+		case prevalence:
+			directory.mkdirs();
+			executionSpace = new SimpleExecutionSpace<String>(directory);
+			break;
+		case tinker:
+			graph = new TinkerGraph();
+			break;
+		case neo4j:
+			directory.mkdirs();
+			graph = new Neo4jGraph(directory.getAbsolutePath());
+			break;
+		default:
+			break;
+		}
+		repository.add(createService(Tag.class, TagInformer.class));
+		repository.add(createService(User.class, UserInformer.class));
+		repository.add(createService(Theme.class, ThemeInformer.class));
+		postService = createService(Post.class, PostInformer.class);
+		repository.add(postService);
+		informerFactory.warmup(repository.values());
+	}
+
+	private <Type extends Serializable, InformerType extends Informer<Type>> FinderCrudService<Type, InformerType> createService(Class<Type> beanClass, Class<InformerType> informerClass) {
+		switch(backend) {
+		case collection:
+			if(Post.class.equals(beanClass)) {
+				return new IdSupportingCollectionBackedFinderService<Type, InformerType>(beanClass, informerClass, informerFactory,
+								Arrays.asList(AnnotationUtils.locateIdField(provider, beanClass, Long.TYPE, Long.class)));
+			}
+			return new CollectionBackedFinderService<Type, InformerType>(beanClass, informerClass, informerFactory);
+		case prevalence:
+			return new PrevalenceFinderService<Type, InformerType>(beanClass, informerClass, informerFactory, executionSpace);
+		case tinker:
+		case neo4j:
+			return new IndexableGraphBackedFinderService<Type, InformerType>(graph, beanClass, informerClass, informerFactory, repository, provider);
+		default:
+			throw new UnsupportedOperationException("backend "+backend+" is not supported");
+		}
+	}
+
+	/**
+	 * Release all resources used by backend, and delete its data
+	 */
+	public void close() {
+		if(graph!=null) {
+			graph.shutdown();
+			graph = null;
+		}
+		delete(directory);
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if(children!=null) {
+			for(File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	public Backend getBackend() {
+		return backend;
+	}
+
+	public ServiceRepository getRepository() {
+		return repository;
+	}
+
+	public FinderCrudService<Post, PostInformer> getPostService() {
+		return postService;
+	}
+}
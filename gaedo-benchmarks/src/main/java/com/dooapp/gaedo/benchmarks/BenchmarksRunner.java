@@ -0,0 +1,26 @@
+package com.dooapp.gaedo.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Main class of benchmarks jar. It accepts all JMH command line options, and always enables the GC profiler, which reports
+ * allocation rate per operation (<code>gc.alloc.rate.norm</code>) next to throughput.
+ * When no benchmark is selected on command line, all gaedo benchmarks are run.
+ * Typical usage, to keep a baseline to compare to : <code>java -jar target/benchmarks.jar -rf json -rff baseline.json</code>
+ * @author ndx
+ *
+ */
+public class BenchmarksRunner {
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		OptionsBuilder options = new OptionsBuilder();
+		options.parent(commandLine).addProfiler(GCProfiler.class);
+		if(commandLine.getIncludes().isEmpty()) {
+			options.include(BenchmarksRunner.class.getPackage().getName()+".*");
+		}
+		new Runner(options.build()).run();
+	}
+}
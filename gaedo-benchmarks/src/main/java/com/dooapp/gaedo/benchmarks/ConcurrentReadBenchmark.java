@@ -0,0 +1,123 @@
+package com.dooapp.gaedo.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dooapp.gaedo.finders.FinderCrudService;
+import com.dooapp.gaedo.finders.QueryBuilder;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.test.beans.Post;
+import com.dooapp.gaedo.test.beans.PostInformer;
+
+/**
+ * Benchmarks of read queries performed by threads sharing the same graph backed services. Comparing throughput of the same read
+ * with 1, 4 and as many threads as cores shows how well these reads scale.
+ * @author ndx
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcurrentReadBenchmark {
+	/**
+	 * Services of a graph backend shared by all benchmark threads, filled with {@link #size} posts (created as {@link PostServiceState} does)
+	 * @author ndx
+	 *
+	 */
+	@State(Scope.Benchmark)
+	public static class SharedGraphState {
+		@Param({"tinker", "neo4j"})
+		public Backend backend;
+
+		@Param({"1000"})
+		public int size;
+
+		private BenchmarkEnvironment environment;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			File directory = File.createTempFile("gaedo-benchmarks-", "-"+backend.name());
+			directory.delete();
+			environment = new BenchmarkEnvironment(backend, directory);
+			for (int index = 1; index <= size; index++) {
+				getService().create(PostServiceState.createPost(index));
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			environment.close();
+		}
+
+		public FinderCrudService<Post, PostInformer> getService() {
+			return environment.getPostService();
+		}
+	}
+
+	/**
+	 * Random generator of each benchmark thread, so that threads don't contend on it
+	 * @author ndx
+	 *
+	 */
+	@State(Scope.Thread)
+	public static class ReaderState {
+		private final Random random = new Random(Thread.currentThread().getId());
+
+		/**
+		 * @param shared
+		 * @return index of one of the posts created during setup
+		 */
+		public int randomIndex(SharedGraphState shared) {
+			return 1+random.nextInt(shared.size);
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Post oneReader(SharedGraphState shared, ReaderState reader) {
+		return equality(shared, reader);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Post fourReaders(SharedGraphState shared, ReaderState reader) {
+		return equality(shared, reader);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public Post oneReaderPerCore(SharedGraphState shared, ReaderState reader) {
+		return equality(shared, reader);
+	}
+
+	/**
+	 * Find a post by its (unique) text, which uses query planning, navigation and object loading
+	 */
+	private static Post equality(SharedGraphState shared, ReaderState reader) {
+		final String text = PostServiceState.TEXT_PREFIX+reader.randomIndex(shared);
+		return shared.getService().find().matching(new QueryBuilder<PostInformer>() {
+			public QueryExpression createMatchingExpression(PostInformer informer) {
+				return informer.getText().equalsTo(text);
+			}
+		}).getFirst();
+	}
+}
@@ -0,0 +1,85 @@
+package com.dooapp.gaedo.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dooapp.gaedo.finders.QueryBuilder;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.finders.id.IdBasedService;
+import com.dooapp.gaedo.test.beans.Post;
+import com.dooapp.gaedo.test.beans.PostInformer;
+
+/**
+ * Benchmarks of write operations and of loading by id
+ * @author ndx
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CrudBenchmark {
+	/**
+	 * Create a new post. Notice stored data grows during that benchmark.
+	 */
+	@Benchmark
+	public Post create(PostServiceState state) {
+		return state.getService().create(state.nextPost());
+	}
+
+	/**
+	 * Load an existing post and update its publication date. Stored instance is the one modified, as some backends
+	 * update their stored value in place. Publication date is used as it is not part of {@link Post#equals(Object)} nor of
+	 * {@link Post#hashCode()}, which backends use to locate the stored value.
+	 */
+	@Benchmark
+	public Post update(PostServiceState state) {
+		Post updated = load(state, state.randomIndex());
+		updated.publicationDate = new Date(updated.publicationDate.getTime()+1000);
+		return state.getService().update(updated);
+	}
+
+	/**
+	 * Create then delete a post, in order for stored data to stay the same
+	 */
+	@Benchmark
+	public Post createAndDelete(PostServiceState state) {
+		Post created = state.getService().create(state.nextPost());
+		state.getService().delete(created);
+		return created;
+	}
+
+	/**
+	 * Load a post by id. Services that are not {@link IdBasedService} are queried for a post having that id.
+	 */
+	@Benchmark
+	public Post findById(PostServiceState state) {
+		return load(state, state.randomIndex());
+	}
+
+	/**
+	 * Load post having given id from benchmarked service
+	 * @param state benchmark state
+	 * @param id post id
+	 * @return stored post
+	 */
+	private Post load(PostServiceState state, final long id) {
+		if(state.getService() instanceof IdBasedService) {
+			return ((IdBasedService<Post>) state.getService()).findById(id);
+		}
+		return state.getService().find().matching(new QueryBuilder<PostInformer>() {
+			public QueryExpression createMatchingExpression(PostInformer informer) {
+				return informer.getId().equalsTo(id);
+			}
+		}).getFirst();
+	}
+}
@@ -0,0 +1,88 @@
+package com.dooapp.gaedo.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.dooapp.gaedo.finders.FinderCrudService;
+import com.dooapp.gaedo.test.beans.Post;
+import com.dooapp.gaedo.test.beans.PostInformer;
+import com.dooapp.gaedo.test.beans.State;
+
+/**
+ * Benchmark state : a post service of the benchmarked backend, filled with {@link #size} posts before the trial starts.
+ * Post number i has id i, text {@link #TEXT_PREFIX}i, note i%100 and publication date {@link #FIRST_PUBLICATION}+i seconds.
+ * Posts are numbered from 1, as graph backends replace a 0 id by a generated one (post id is a {@link javax.persistence.GeneratedValue}).
+ * @author ndx
+ *
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class PostServiceState {
+	public static final String TEXT_PREFIX = "post ";
+
+	public static final long FIRST_PUBLICATION = 1000000000000l;
+
+	@Param({"collection", "prevalence", "tinker", "neo4j"})
+	public Backend backend;
+
+	@Param({"1000"})
+	public int size;
+
+	private BenchmarkEnvironment environment;
+
+	/**
+	 * Next id given to a created post
+	 */
+	private AtomicLong nextId;
+
+	private final Random random = new Random(0);
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		File directory = File.createTempFile("gaedo-benchmarks-", "-"+backend.name());
+		directory.delete();
+		environment = new BenchmarkEnvironment(backend, directory);
+		FinderCrudService<Post, PostInformer> service = getService();
+		for (int index = 1; index <= size; index++) {
+			service.create(createPost(index));
+		}
+		nextId = new AtomicLong(size+1);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		environment.close();
+	}
+
+	public static Post createPost(long index) {
+		Post returned = new Post(index, TEXT_PREFIX+index, index%100, State.PUBLIC, null);
+		returned.publicationDate = new Date(FIRST_PUBLICATION+index*1000);
+		return returned;
+	}
+
+	/**
+	 * @return a new post, which id is not used by any stored one
+	 */
+	public Post nextPost() {
+		return createPost(nextId.getAndIncrement());
+	}
+
+	/**
+	 * @return index of one of the posts created during setup
+	 */
+	public int randomIndex() {
+		return 1+random.nextInt(size);
+	}
+
+	public FinderCrudService<Post, PostInformer> getService() {
+		return environment.getPostService();
+	}
+}
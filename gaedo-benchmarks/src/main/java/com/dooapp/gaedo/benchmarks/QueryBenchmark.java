@@ -0,0 +1,115 @@
+package com.dooapp.gaedo.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dooapp.gaedo.finders.QueryBuilder;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.finders.SortingBuilder;
+import com.dooapp.gaedo.finders.SortingExpression;
+import com.dooapp.gaedo.finders.projection.ProjectionBuilder;
+import com.dooapp.gaedo.finders.projection.ValueFetcher;
+import com.dooapp.gaedo.test.beans.Post;
+import com.dooapp.gaedo.test.beans.PostInformer;
+
+/**
+ * Benchmarks of read queries. None of them modify stored data.
+ * @author ndx
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QueryBenchmark {
+	/**
+	 * Size of pages read by {@link #sortedPage(PostServiceState, Blackhole)}
+	 */
+	public static final int PAGE_SIZE = 20;
+
+	private static final QueryBuilder<PostInformer> ALL_POSTS = new QueryBuilder<PostInformer>() {
+		public QueryExpression createMatchingExpression(PostInformer informer) {
+			return informer.getText().startsWith(PostServiceState.TEXT_PREFIX);
+		}
+	};
+
+	/**
+	 * Find a post by its (unique) text
+	 */
+	@Benchmark
+	public Post equality(PostServiceState state) {
+		final String text = PostServiceState.TEXT_PREFIX+state.randomIndex();
+		return state.getService().find().matching(new QueryBuilder<PostInformer>() {
+			public QueryExpression createMatchingExpression(PostInformer informer) {
+				return informer.getText().equalsTo(text);
+			}
+		}).getFirst();
+	}
+
+	/**
+	 * Count posts published after a random date
+	 */
+	@Benchmark
+	public int range(PostServiceState state) {
+		final Date date = new Date(PostServiceState.FIRST_PUBLICATION+state.randomIndex()*1000l);
+		return state.getService().find().matching(new QueryBuilder<PostInformer>() {
+			public QueryExpression createMatchingExpression(PostInformer informer) {
+				return informer.getPublicationDate().greaterThan(date);
+			}
+		}).count();
+	}
+
+	/**
+	 * Read all posts which text starts with a random digit
+	 */
+	@Benchmark
+	public void string(PostServiceState state, Blackhole blackhole) {
+		final String prefix = PostServiceState.TEXT_PREFIX+(state.randomIndex()%10);
+		consume(state.getService().find().matching(new QueryBuilder<PostInformer>() {
+			public QueryExpression createMatchingExpression(PostInformer informer) {
+				return informer.getText().startsWith(prefix);
+			}
+		}).getAll(), blackhole);
+	}
+
+	/**
+	 * Read a random page of all posts sorted by descending note
+	 */
+	@Benchmark
+	public void sortedPage(PostServiceState state, Blackhole blackhole) {
+		int start = Math.max(0, state.randomIndex()-PAGE_SIZE);
+		consume(state.getService().find().matching(ALL_POSTS).sortBy(new SortingBuilder<PostInformer>() {
+			public SortingExpression createSortingExpression(PostInformer informer) {
+				return SortingExpression.Build.sort().withDescending(informer.getNote());
+			}
+		}).get(start, start+PAGE_SIZE), blackhole);
+	}
+
+	/**
+	 * Read texts of all posts
+	 */
+	@Benchmark
+	public void projection(PostServiceState state, Blackhole blackhole) {
+		consume(state.getService().find().matching(ALL_POSTS).projectOn(new ProjectionBuilder<String, Post, PostInformer>() {
+			public String project(PostInformer informer, ValueFetcher fetcher) {
+				return fetcher.getValue(informer.getText());
+			}
+		}).getAll(), blackhole);
+	}
+
+	private static void consume(Iterable<?> values, Blackhole blackhole) {
+		for(Object value : values) {
+			blackhole.consume(value);
+		}
+	}
+}
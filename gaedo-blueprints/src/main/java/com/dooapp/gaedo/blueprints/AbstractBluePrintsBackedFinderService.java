@@ -3,7 +3,6 @@ package com.dooapp.gaedo.blueprints;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.SortedSet;
@@ -15,6 +14,7 @@ import java.util.logging.Logger;
 import javax.persistence.CascadeType;
 
 import com.dooapp.gaedo.blueprints.indexable.IndexableGraphBackedFinderService;
+import com.dooapp.gaedo.blueprints.queries.plans.GraphStatistics;
 import com.dooapp.gaedo.blueprints.strategies.GraphMappingStrategy;
 import com.dooapp.gaedo.blueprints.strategies.StrategyType;
 import com.dooapp.gaedo.blueprints.strategies.StrategyUtils;
@@ -43,7 +43,15 @@ import com.tinkerpop.blueprints.TransactionalGraph;
 import com.tinkerpop.blueprints.Vertex;
 
 /**
- * Base class for all finder service using blueprints graphs as storage
+ * Base class for all finder service using blueprints graphs as storage.
+ * <h2>Thread safety</h2>
+ * A service can be shared by any number of threads, provided the underlying graph itself supports concurrent access. Service state
+ * (mapping strategy and its caches of class properties, driver) is either immutable or stored in concurrent maps, and the caches shared between
+ * services of a graph ({@link LoadedObjectsCache}, {@link com.dooapp.gaedo.blueprints.indexable.VertexLookupCache}) are safe for concurrent use.
+ * All other state is confined to the thread performing an operation : each operation uses its own {@link ObjectCache}, each query execution its own
+ * navigation memo, while {@link UnitOfWork} and {@link BulkLoader} are bound to the thread that started them. Objects returned by a service are
+ * NOT thread-safe, except for the loading of their lazy collections (see {@link AbstractLazyLoader#load()}), since objects kept in
+ * {@link LoadedObjectsCache} are shared between threads.
  *
  * @author ndx
  *
@@ -59,12 +67,26 @@ public abstract class AbstractBluePrintsBackedFinderService<GraphClass extends G
 	private class DelegatingDriver implements GraphDatabaseDriver {
 		@Override
 		public Vertex loadVertexFor(String objectVertexId, String className) {
-			return AbstractBluePrintsBackedFinderService.this.loadVertexFor(objectVertexId, className);
+			Map<String, Vertex> loaded = BulkLoader.getLoadedVertices(database);
+			if(loaded==null)
+				return AbstractBluePrintsBackedFinderService.this.loadVertexFor(objectVertexId, className);
+			String key = BulkLoader.getKey(className, objectVertexId);
+			Vertex returned = loaded.get(key);
+			if(returned==null) {
+				returned = AbstractBluePrintsBackedFinderService.this.loadVertexFor(objectVertexId, className);
+				if(returned!=null)
+					loaded.put(key, returned);
+			}
+			return returned;
 		}
 
 		@Override
 		public Vertex createEmptyVertex(Class<? extends Object> valueClass, String vertexId, Object value) {
-			return AbstractBluePrintsBackedFinderService.this.createEmptyVertex(vertexId, valueClass, value);
+			Vertex returned = AbstractBluePrintsBackedFinderService.this.createEmptyVertex(vertexId, valueClass, value);
+			Map<String, Vertex> loaded = BulkLoader.getLoadedVertices(database);
+			if(loaded!=null)
+				loaded.put(BulkLoader.getKey(valueClass.getName(), vertexId), returned);
+			return returned;
 		}
 
 		@Override
@@ -111,10 +133,9 @@ public abstract class AbstractBluePrintsBackedFinderService<GraphClass extends G
 	 */
 	protected final TransactionalGraph transactionSupport;
 	/**
-	 * Accelerator cache linking classes objects to the collection of properties
-	 * and cascade informations associated to persist those fields.
+	 * Driver view of this service. As it has no state, it is shared by all callers of {@link #getDriver()}
 	 */
-	protected Map<Class<?>, Map<Property, Collection<CascadeType>>> classes = new HashMap<Class<?>, Map<Property, Collection<CascadeType>>>();
+	private final GraphDatabaseDriver driver = new DelegatingDriver();
 	/**
 	 * Property provider indicating what, and how, saving infos from object
 	 */
@@ -138,6 +159,17 @@ public abstract class AbstractBluePrintsBackedFinderService<GraphClass extends G
 	 */
 	protected SortedSet<String> lens = new TreeSet<String>(Arrays.asList(GraphUtils.GAEDO_CONTEXT));
 
+	/**
+	 * Cardinality statistics used to plan queries
+	 */
+	private final GraphStatistics statistics = new GraphStatistics();
+
+	/**
+	 * Number of lazy collections (or maps) of the same property loaded together when one of them is accessed, among those
+	 * of objects loaded by the same operation (see {@link ObjectCache#getPrefetchSize()}). 1 means no prefetch.
+	 */
+	private int prefetchSize = 1;
+
 	public AbstractBluePrintsBackedFinderService(GraphClass graph, Class<DataType> containedClass, Class<InformerType> informerClass, InformerFactory factory,
 					ServiceRepository repository, PropertyProvider provider) {
 		this(graph, containedClass, informerClass, factory, repository, provider, StrategyType.beanBased);
@@ -210,6 +242,25 @@ public abstract class AbstractBluePrintsBackedFinderService<GraphClass extends G
 	 */
 	protected abstract Vertex createEmptyVertex(String vertexId, Class<? extends Object> valueClass, Object value);
 
+	/**
+	 * Hook called by {@link BluePrintsPersister} once a monovalued property of an object has been written. Does nothing by default.
+	 * @param objectVertex vertex of written object
+	 * @param property written property
+	 * @param value written value, may be null
+	 */
+	protected void singlePropertyUpdated(Vertex objectVertex, Property property, Object value) {
+	}
+
+	/**
+	 * Get vertices of objects having the given value for the given property, using an index of that property values.
+	 * @param property a monovalued property of managed class
+	 * @param value expected value
+	 * @return a lazy iterable over those vertices, or null if that property is not indexed (in which case they can only be found by navigating graph)
+	 */
+	public Iterable<Vertex> getIndexedVertices(Property property, Object value) {
+		return null;
+	}
+
 	/**
 	 * To put object in graph, we have to find all its fields, then put them in
 	 * graph elements. Notice this method directly calls
@@ -223,13 +274,18 @@ public abstract class AbstractBluePrintsBackedFinderService<GraphClass extends G
 	 */
 	@Override
 	public DataType create(final DataType toCreate) {
-		return new TransactionalOperation<DataType, DataType, InformerType>(this) {
+		try {
+			return new TransactionalOperation<DataType, DataType, InformerType>(this) {
 
-			@Override
-			protected DataType doPerform() {
-				return doUpdate(toCreate, CascadeType.PERSIST, ObjectCache.create(CascadeType.PERSIST));
-			}
-		}.perform();
+				@Override
+				protected DataType doPerform() {
+					return doUpdate(toCreate, CascadeType.PERSIST, ObjectCache.create(CascadeType.PERSIST));
+				}
+			}.perform();
+		} finally {
+			invalidateQueryCache();
+			statistics.modified();
+		}
 	}
 
 	/**
@@ -241,14 +297,19 @@ public abstract class AbstractBluePrintsBackedFinderService<GraphClass extends G
 	@Override
 	public void delete(final DataType toDelete) {
 		if (toDelete != null) {
-			new TransactionalOperation<Void, DataType, InformerType>(this) {
-
-				@Override
-				protected Void doPerform() {
-					doDelete(toDelete, ObjectCache.create(CascadeType.REMOVE));
-					return null;
-				}
-			}.perform();
+			try {
+				new TransactionalOperation<Void, DataType, InformerType>(this) {
+
+					@Override
+					protected Void doPerform() {
+						doDelete(toDelete, ObjectCache.create(CascadeType.REMOVE));
+						return null;
+					}
+				}.perform();
+			} finally {
+				invalidateQueryCache();
+				statistics.modified();
+			}
 		}
 	}
 
@@ -355,13 +416,36 @@ public abstract class AbstractBluePrintsBackedFinderService<GraphClass extends G
 
 	@Override
 	public DataType update(final DataType toUpdate) {
-		return new TransactionalOperation<DataType, DataType, InformerType>(this) {
+		try {
+			return new TransactionalOperation<DataType, DataType, InformerType>(this) {
 
-			@Override
-			protected DataType doPerform() {
-				return doUpdate(toUpdate, CascadeType.MERGE, ObjectCache.create(CascadeType.MERGE));
-			}
-		}.perform();
+				@Override
+				protected DataType doPerform() {
+					return doUpdate(toUpdate, CascadeType.MERGE, ObjectCache.create(CascadeType.MERGE));
+				}
+			}.perform();
+		} finally {
+			invalidateQueryCache();
+			statistics.modified();
+		}
+	}
+
+	/**
+	 * Create all given objects using a default {@link BulkLoader}. Use a loader directly to change its settings.
+	 * @param toCreate objects to create
+	 * @return number of created objects
+	 */
+	public int createAll(Iterable<? extends DataType> toCreate) {
+		return new BulkLoader<DataType>(this).createAll(toCreate);
+	}
+
+	/**
+	 * Update all given objects using a default {@link BulkLoader}. Use a loader directly to change its settings.
+	 * @param toUpdate objects to update
+	 * @return number of updated objects
+	 */
+	public int updateAll(Iterable<? extends DataType> toUpdate) {
+		return new BulkLoader<DataType>(this).updateAll(toUpdate);
 	}
 
 	/**
@@ -378,7 +462,7 @@ public abstract class AbstractBluePrintsBackedFinderService<GraphClass extends G
 	 * @param treeMap
 	 *            map of objects already used
 	 */
-	private DataType doUpdate(DataType toUpdate, CascadeType cascade, ObjectCache treeMap) {
+	DataType doUpdate(DataType toUpdate, CascadeType cascade, ObjectCache treeMap) {
 		boolean generatesId = strategy.isIdGenerationRequired() ? (CascadeType.PERSIST == cascade) : false;
 		String objectVertexId = getIdVertexId(toUpdate, generatesId);
 		Class<? extends Object> toUpdateClass = toUpdate.getClass();
@@ -595,7 +679,7 @@ public abstract class AbstractBluePrintsBackedFinderService<GraphClass extends G
             }).getFirst();
 		} else {
 			// root vertex can be directly found ! so load it immediatly
-			return loadObject(vertexIdValue, ObjectCache.create(CascadeType.REFRESH));
+			return loadObject(vertexIdValue, ObjectCache.create(CascadeType.REFRESH, prefetchSize));
 		}
 	}
 
@@ -613,7 +697,7 @@ public abstract class AbstractBluePrintsBackedFinderService<GraphClass extends G
 	 * @return
 	 */
 	public DataType getObjectFromKey(String key) {
-		return loadObject(key, ObjectCache.create(CascadeType.REFRESH));
+		return loadObject(key, ObjectCache.create(CascadeType.REFRESH, prefetchSize));
 	}
 
 	/**
@@ -692,10 +776,10 @@ public abstract class AbstractBluePrintsBackedFinderService<GraphClass extends G
 	 * low-level infos to graph without breaking huigh-level abstraction of a
 	 * FinderService.
 	 *
-	 * @return
+	 * @return a driver that can be shared between threads
 	 */
 	public GraphDatabaseDriver getDriver() {
-		return new DelegatingDriver();
+		return driver;
 	}
 
 
@@ -705,6 +789,34 @@ public abstract class AbstractBluePrintsBackedFinderService<GraphClass extends G
 						this, repository);
 	}
 
+	/**
+	 * @return the statistics used to plan queries on that service
+	 * @category getter
+	 * @category statistics
+	 */
+	public GraphStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @return the prefetchSize
+	 * @category getter
+	 * @category prefetchSize
+	 */
+	public int getPrefetchSize() {
+		return prefetchSize;
+	}
+
+	/**
+	 * @param prefetchSize number of lazy collections of the same property loaded together when one of them is accessed. As an example,
+	 * using the size of a page of posts allows accessing tags of first post to load tags of all posts of that page.
+	 * @category setter
+	 * @category prefetchSize
+	 */
+	public void setPrefetchSize(int prefetchSize) {
+		this.prefetchSize = prefetchSize;
+	}
+
 	/**
 	 * @return the strategy
 	 * @category getter
@@ -729,6 +841,38 @@ public abstract class AbstractBluePrintsBackedFinderService<GraphClass extends G
 		this.strategy.reloadWith(this);
 	}
 
+	/**
+	 * Query cache stores the id of object vertex, as loaded objects (and their lazy loaders) must not be shared between callers
+	 * @param object
+	 * @return id of object vertex
+	 * @see com.dooapp.gaedo.finders.root.AbstractFinderService#getReferenceTo(java.lang.Object)
+	 */
+	@Override
+	public Object getReferenceTo(DataType object) {
+		return getIdVertexFor(object, false).getId();
+	}
+
+	/**
+	 * Load a new object from the vertex having the given id
+	 * @param reference id of object vertex
+	 * @return a newly loaded object, or null if that vertex no more exists
+	 * @see com.dooapp.gaedo.finders.root.AbstractFinderService#dereference(java.lang.Object)
+	 */
+	@Override
+	public DataType dereference(Object reference) {
+		Vertex objectVertex = getDatabase().getVertex(reference);
+		return objectVertex==null ? null : loadObject(objectVertex, ObjectCache.create(CascadeType.REFRESH, prefetchSize));
+	}
+
+	/**
+	 * Overriden to be callable by {@link BulkLoader}
+	 * @see com.dooapp.gaedo.finders.root.AbstractFinderService#invalidateQueryCache()
+	 */
+	@Override
+	protected void invalidateQueryCache() {
+		super.invalidateQueryCache();
+	}
+
 	/**
 	 * Informer factory has been made public to allow use of lens in finders
 	 * @param informerFactory
@@ -1,19 +1,26 @@
 package com.dooapp.gaedo.blueprints;
 
 import java.io.ObjectStreamException;
-import java.util.Map;
+import java.lang.reflect.Proxy;
 
 import com.dooapp.gaedo.blueprints.strategies.GraphMappingStrategy;
 import com.dooapp.gaedo.finders.repository.ServiceRepository;
 import com.dooapp.gaedo.properties.Property;
 import com.tinkerpop.blueprints.Vertex;
 
+/**
+ * Base class of lazy loaders. A lazy loader is created for each lazy collection or map of a loaded object, and registered in
+ * the {@link ObjectCache} used to load that object. When a lazy loader is loaded, some other not yet loaded ones of the same property
+ * registered in that cache are loaded as well (see {@link ObjectCache#getPrefetchSize()}).
+ * @author ndx
+ *
+ */
 public abstract class AbstractLazyLoader {
 
 	protected transient Property property;
 	protected transient Vertex rootVertex;
 	protected transient ServiceRepository repository;
-	protected boolean loaded = false;
+	protected volatile boolean loaded = false;
 	protected ClassLoader classLoader;
 	protected ObjectCache objectsBeingAccessed;
 	/**
@@ -37,6 +44,68 @@ public abstract class AbstractLazyLoader {
 		this.repository = repository;
 		this.classLoader = classLoader;
 		this.objectsBeingAccessed = objectsBeingAccessed;
+		if(objectsBeingAccessed!=null)
+			objectsBeingAccessed.addPendingLoader(this);
+	}
+
+	/**
+	 * Load content, if not already done, then prefetch the pending loaders of the same property given by {@link ObjectCache#takePendingLoaders(AbstractLazyLoader)}.
+	 * Loading is synchronized, as objects kept in {@link LoadedObjectsCache} (and so their lazy collections) are shared between threads.
+	 * Siblings are loaded once the lock on that loader has been released, so that two threads prefetching each other's loaders can't deadlock.
+	 */
+	public void load() {
+		if(loadContent() && objectsBeingAccessed!=null) {
+			for(AbstractLazyLoader sibling : objectsBeingAccessed.takePendingLoaders(this)) {
+				sibling.loadContent();
+			}
+		}
+	}
+
+	/**
+	 * Load content, if not already done
+	 * @return true if content was loaded by that call
+	 */
+	private synchronized boolean loadContent() {
+		if(loaded)
+			return false;
+		doLoad();
+		return true;
+	}
+
+	/**
+	 * Check if the given value is a lazy collection (or map) of the given property of the given vertex that has never been loaded.
+	 * Such a value can't have been modified since it was read from graph.
+	 * @param value a property value
+	 * @param rootVertex vertex of object containing that value
+	 * @param property property containing that value
+	 * @return true if value is an untouched lazy value read from that vertex property
+	 */
+	public static boolean isNotLoaded(Object value, Vertex rootVertex, Property property) {
+		AbstractLazyLoader loader = null;
+		if(value instanceof LazyList) {
+			loader = ((LazyList<?>) value).getLoader();
+		} else if(value instanceof LazySet) {
+			loader = ((LazySet<?>) value).getLoader();
+		} else if(value instanceof LazyMap) {
+			loader = ((LazyMap<?, ?>) value).getLoader();
+		} else if(Proxy.isProxyClass(value.getClass()) && Proxy.getInvocationHandler(value) instanceof AbstractLazyLoader) {
+			loader = (AbstractLazyLoader) Proxy.getInvocationHandler(value);
+		}
+		return loader!=null && !loader.loaded && property.equals(loader.property) && rootVertex.equals(loader.rootVertex);
+	}
+
+	/**
+	 * Effectively load content. Must set {@link #loaded} to true.
+	 */
+	protected abstract void doLoad();
+
+	/**
+	 * @return the loaded
+	 * @category getter
+	 * @category loaded
+	 */
+	public boolean isLoaded() {
+		return loaded;
 	}
 
 	private Object writeReplace() throws ObjectStreamException {
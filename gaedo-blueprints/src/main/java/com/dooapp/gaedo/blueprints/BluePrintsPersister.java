@@ -3,7 +3,9 @@ package com.dooapp.gaedo.blueprints;
 import java.io.Serializable;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -25,7 +27,6 @@ import com.dooapp.gaedo.finders.id.AnnotationsFinder.Annotations;
 import com.dooapp.gaedo.finders.repository.ServiceRepository;
 import com.dooapp.gaedo.patterns.WriteReplaceable;
 import com.dooapp.gaedo.properties.Property;
-import com.dooapp.gaedo.utils.CollectionUtils;
 import com.dooapp.gaedo.utils.Utils;
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
@@ -39,6 +40,19 @@ public class BluePrintsPersister {
     public BluePrintsPersister(Kind node) {
     }
 
+    /**
+     * Remove any cached version of the given object, and make the running unit of work (if any) remove it again once written data is committed,
+     * as other threads may load it from graph in between
+     * @param database graph in which object is written
+     * @param objectVertexId object vertex id
+     */
+    private void evictLoaded(Graph database, String objectVertexId) {
+        if(LoadedObjectsCache.removed(database, objectVertexId)) {
+            UnitOfWork work = UnitOfWork.current();
+            if(work!=null)
+                work.evictOnCommit(database, objectVertexId);
+        }
+    }
 
     /**
      * Create or update given object
@@ -55,6 +69,8 @@ public class BluePrintsPersister {
      */
     public <DataType> Object performUpdate(AbstractBluePrintsBackedFinderService<? extends Graph, DataType, ?> service, String objectVertexId, Vertex objectVertex, Class<?> valueClass, Map<Property, Collection<CascadeType>> containedProperties, Object toUpdate, CascadeType cascade, ObjectCache objectsBeingUpdated) {
         Graph database = service.getDatabase();
+        // any cached version of that object is outdated
+        evictLoaded(database, objectVertexId);
         // it's in fact an object creation
         if (objectVertex == null) {
             if (logger.isLoggable(Level.FINER)) {
@@ -93,6 +109,7 @@ public class BluePrintsPersister {
      */
     public <DataType> void performDelete(AbstractBluePrintsBackedFinderService<? extends Graph, DataType, ?> service, String objectVertexId, Vertex objectVertex, Class<?> valueClass, Map<Property, Collection<CascadeType>> containedProperties, DataType toDelete, CascadeType cascade, ObjectCache objectsBeingAccessed) {
         Graph database = service.getDatabase();
+        evictLoaded(database, objectVertexId);
         for (Map.Entry<Property, Collection<CascadeType>> entry : containedProperties.entrySet()) {
         	Property p = entry.getKey();
             // Static properties are by design not written
@@ -286,8 +303,9 @@ public class BluePrintsPersister {
     private <DataType> void updateMap(AbstractBluePrintsBackedFinderService<? extends Graph, DataType, ?> service, Graph database, Property p, Object toUpdate, Vertex rootVertex, CascadeType cascade, ObjectCache objectsBeingAccessed) {
         // Cast should work like a charm
         Map<?, ?> value = (Map<?, ?>) p.get(toUpdate);
-        // As a convention, null values are never stored
-        if (value != null /* && value.size()>0 that case precisely created https://github.com/Riduidel/gaedo/issues/13 */) {
+        // As a convention, null values are never stored (and a lazy map that has never been loaded can't have been modified)
+        if (value != null /* && value.size()>0 that case precisely created https://github.com/Riduidel/gaedo/issues/13 */
+                        && !AbstractLazyLoader.isNotLoaded(value, rootVertex, p)) {
             // Get previously existing vertices
             Iterable<Edge> existingIterator = service.getStrategy().getOutEdgesFor(rootVertex, p);
             // Do not change previously existing vertices if they correspond to new ones
@@ -328,11 +346,18 @@ public class BluePrintsPersister {
         // Cast should work like a charm
         Collection<?> value = (Collection<?>) p.get(toUpdate);
         // As a convention, null values are never stored
-        if (value != null /* && value.size()>0 that case precisely created https://github.com/Riduidel/gaedo/issues/13 */) {
-            // Get previously existing vertices
-            Iterable<Edge> previousEdges = service.getStrategy().getOutEdgesFor(rootVertex, p);
+        // A lazy collection that has never been loaded can't have been modified, so there is nothing to update
+        if (value != null /* && value.size()>0 that case precisely created https://github.com/Riduidel/gaedo/issues/13 */
+                        && !AbstractLazyLoader.isNotLoaded(value, rootVertex, p)) {
+            // Get previously existing edges, in collection order (so that an unchanged collection keeps its edges)
+            List<Edge> previousEdges = new ArrayList<Edge>();
+            for (Edge e : service.getStrategy().getOutEdgesFor(rootVertex, p)) {
+                previousEdges.add(e);
+            }
+            Collections.sort(previousEdges, CollectionLazyLoader.COLLECTION_EDGE_COMPARATOR);
             // Get the new, updated Collection of vertices (which is already sorted).
             Collection<Vertex> allVertices = createCollectionVerticesFor(service, value, cascade, objectsBeingAccessed);
+            Set<Vertex> distinctVertices = new HashSet<Vertex>(allVertices);
             // Keep track of the edges that correspond to each vertex (for later ordering)...
             Map<Vertex, List<Edge>> savedEdges = new HashMap<Vertex, List<Edge>>();
             // ...and put the old, invalid vertices aside for later deletion.
@@ -340,7 +365,7 @@ public class BluePrintsPersister {
 
             for (Edge e : previousEdges) {
             	Vertex inVertex = e.getVertex(Direction.IN);
-                if (allVertices.contains(inVertex)) {
+                if (distinctVertices.contains(inVertex)) {
                 	if(!savedEdges.containsKey(inVertex))
                 		savedEdges.put(inVertex, new LinkedList<Edge>());
                     savedEdges.get(inVertex).add(e);
@@ -354,7 +379,7 @@ public class BluePrintsPersister {
             	GraphUtils.removeSafely(database, edge);
             }
 
-            // Then, go through the updated Vertices. Create edges if necessary, then always set the order property.
+            // Then, go through the updated Vertices. Create edges if necessary, then set the order property when it has changed.
             // This is possible since #createCollectionVerticesFor maintains the ordering.
             int order = 0;
             for (Vertex vertex : allVertices) {
@@ -366,11 +391,13 @@ public class BluePrintsPersister {
             			savedEdges.remove(vertex);
             	} else
             		edgeForVertex = service.getDriver().createEdgeFor(rootVertex, vertex, p);
-            	
+
                 // Add a fancy-schmancy property to maintain order in this town
-                edgeForVertex.setProperty(Properties.collection_index.name(), order++);
+            	Integer index = order++;
+            	if(!index.equals(edgeForVertex.getProperty(Properties.collection_index.name())))
+            		edgeForVertex.setProperty(Properties.collection_index.name(), index);
             }
-            
+
             // Finally, delete any remaining edges.
             for(Vertex vertex : savedEdges.keySet())
             	for(Edge edge : savedEdges.get(vertex))
@@ -435,11 +462,11 @@ public class BluePrintsPersister {
          */
         Edge link = null;
         // Get previously existing vertex
-        List<Edge> matching = CollectionUtils.asList(service.getStrategy().getOutEdgesFor(rootVertex, p));
+        Iterator<Edge> edges = service.getStrategy().getOutEdgesFor(rootVertex, p).iterator();
+        Edge existing = edges.hasNext() ? edges.next() : null;
         // property is single-valued, so iteration can be done at most one
-        if (matching.size()==1) {
+        if (existing!=null && !edges.hasNext()) {
             // There is an existing edge, change its target and maybe delete previous one
-            Edge existing = matching.get(0);
             if (valueVertex != null && existing.getVertex(Direction.IN).equals(valueVertex)) {
                 // Nothing to do
                 link = existing;
@@ -449,7 +476,12 @@ public class BluePrintsPersister {
                 if (value != null)
                     link = service.getDriver().createEdgeFor(rootVertex, valueVertex, p);
             }
-        } else if (matching.size()>1) {
+        } else if (existing!=null) {
+            List<Edge> matching = new LinkedList<Edge>();
+            matching.add(existing);
+            while (edges.hasNext()) {
+                matching.add(edges.next());
+            }
             if (logger.isLoggable(Level.SEVERE)) {
                 // There is some incoherent data in graph .. log it !
                 StringBuilder sOut = new StringBuilder("An object with the following monovalued property\n").append(p.toGenericString()).append(" is linked to more than one vertex :");
@@ -465,6 +497,7 @@ public class BluePrintsPersister {
         }
         if (link == null && value != null)
             link = service.getDriver().createEdgeFor(rootVertex, valueVertex, p);
+        service.singlePropertyUpdated(rootVertex, p, value);
     }
 
     public <DataType> DataType loadObject(AbstractBluePrintsBackedFinderService<? extends Graph, DataType, ?> service, Vertex objectVertex, ObjectCache objectsBeingAccessed) {
@@ -478,6 +511,7 @@ public class BluePrintsPersister {
      * @param objectVertexId
      * @param objectVertex
      * @param objectsBeingAccessed map of objects currently being accessed, it avoid some loops during loading, but is absolutely NOT a persistent cache
+     * (the persistent one being {@link LoadedObjectsCache}, used when enabled for service class)
      * @return loaded object
      */
     public <DataType> DataType loadObject(AbstractBluePrintsBackedFinderService<? extends Graph, DataType, ?> service, String objectVertexId, Vertex objectVertex, ObjectCache objectsBeingAccessed) {
@@ -489,6 +523,15 @@ public class BluePrintsPersister {
             objectsBeingAccessed.put(objectVertexId, null);
             return null;
         } else {
+        	LoadedObjectsCache loadedObjects = LoadedObjectsCache.forGraph(service.getDatabase());
+        	boolean useLoadedObjects = loadedObjects.isCached(service.getContainedClass());
+        	if(useLoadedObjects) {
+        		cached = (DataType) loadedObjects.get(objectVertexId);
+        		if(cached!=null) {
+        			objectsBeingAccessed.put(objectVertexId, cached);
+        			return cached;
+        		}
+        	}
             ClassLoader classLoader = service.getContainedClass().getClassLoader();
             ServiceRepository repository = service.getRepository();
             DataType returned = (DataType) GraphUtils.createInstance(service.getDriver(), service.getStrategy(), classLoader, objectVertex, Object.class /* we use object here, as this default type should not be used */, repository, objectsBeingAccessed);
@@ -497,6 +540,9 @@ public class BluePrintsPersister {
                     Map<Property, Collection<CascadeType>> containedProperties = service.getStrategy().getContainedProperties(returned, objectVertex, CascadeType.MERGE);
                     objectsBeingAccessed.put(objectVertexId, returned);
                     loadObjectProperties(service.getDriver(), service.getStrategy(), classLoader, repository, objectVertex, returned, containedProperties, objectsBeingAccessed);
+                    // only fully loaded objects can be reused
+                    if(useLoadedObjects)
+                    	loadedObjects.put(objectVertexId, returned);
                 }
                 return returned;
             } finally {
@@ -551,6 +597,8 @@ public class BluePrintsPersister {
         if (eagerLoad) {
             handler.loadMap(generatedCollection, objectsBeingAccessed);
             p.set(returned, generatedCollection);
+        } else if (Map.class.equals(p.getType())) {
+            p.set(returned, new LazyMap<Object, Object>(handler, generatedCollection));
         } else {
             // Java proxy code
             p.set(returned, Proxy.newProxyInstance(
@@ -575,7 +623,13 @@ public class BluePrintsPersister {
             // yeah, there is a value !
             Edge edge = iterator.next();
             Vertex firstVertex = edge.getVertex(Direction.IN);
-            Object value = GraphUtils.createInstance(driver, strategy, classloader, firstVertex, p.getType(), repository, objectsBeingAccessed);
+            // objects shared by loaded ones (typically, authors of a page of posts) are only loaded once
+            Object value = objectsBeingAccessed.getLoaded(driver, firstVertex);
+            if (value != null) {
+                p.set(returned, value);
+                return;
+            }
+            value = GraphUtils.createInstance(driver, strategy, classloader, firstVertex, p.getType(), repository, objectsBeingAccessed);
             if (repository.containsKey(value.getClass())) {
                 // value requires fields loading
                 AbstractBluePrintsBackedFinderService<IndexableGraph, DataType, ?> blueprints = (AbstractBluePrintsBackedFinderService<IndexableGraph, DataType, ?>) repository.get(value.getClass());
@@ -629,6 +683,11 @@ public class BluePrintsPersister {
         if (eagerLoad) {
             handler.loadCollection(generatedCollection, objectsBeingAccessed);
             p.set(returned, generatedCollection);
+        } else if (generatedCollection instanceof List && (List.class.equals(p.getType()) || Collection.class.equals(p.getType()))) {
+            // no need for a proxy when a concrete lazy collection can be used
+            p.set(returned, new LazyList<Object>(handler, (List<Object>) generatedCollection));
+        } else if (generatedCollection instanceof Set && Set.class.equals(p.getType())) {
+            p.set(returned, new LazySet<Object>(handler, (Set<Object>) generatedCollection));
         } else {
             // Java proxy code
             p.set(returned, Proxy.newProxyInstance(
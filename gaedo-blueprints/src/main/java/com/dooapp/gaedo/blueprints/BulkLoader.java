@@ -0,0 +1,219 @@
+package com.dooapp.gaedo.blueprints;
+
+import java.beans.PropertyChangeEvent;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.CascadeType;
+
+import com.dooapp.gaedo.finders.repository.ServiceRepository;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Loader writing a large number of objects in a graph-backed service. Compared to a loop calling {@link AbstractBluePrintsBackedFinderService#create(Object)},
+ * that loader
+ * <ul>
+ * <li>keeps all vertices loaded or created by {@link GraphDatabaseDriver#loadVertexFor(String, String)} and
+ * {@link GraphDatabaseDriver#createEmptyVertex(Class, String, Object)} (class vertices, literal values, ...), so that each of them is looked up in
+ * index only once</li>
+ * <li>when graph is a transactional one, writes each chunk of {@link #getChunkSize()} objects in its own {@link UnitOfWork}</li>
+ * <li>after each chunk, reports the number of written objects through a {@link #PROGRESS_PROPERTY} event sent to service repository
+ * {@link ServiceRepository#getSupport()}</li>
+ * </ul>
+ * When an object fails to be written, current chunk unit of work is rolled back (if graph is transactional) and exception is rethrown. Previous chunks stay committed.
+ * When a {@link UnitOfWork} is already running in current thread, each written object is an operation of that unit of work, which decides when to commit
+ * (and which is rolled back on failure).
+ * A loader is not thread-safe, but different threads can use different loaders concurrently.
+ * @author ndx
+ *
+ * @param <DataType> type of loaded objects
+ */
+public class BulkLoader<DataType> {
+	/**
+	 * Name of progress property. Old and new values of that property are the numbers of objects written before and after a chunk.
+	 */
+	public static final String PROGRESS_PROPERTY = "bulkLoadProgress";
+
+	/**
+	 * Default number of objects written between two commits
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+	/**
+	 * Default maximum number of vertices kept by loader
+	 */
+	public static final int DEFAULT_MAX_VERTICES = 100000;
+
+	/**
+	 * Loader running in current thread, if any
+	 */
+	private static final ThreadLocal<BulkLoader<?>> running = new ThreadLocal<BulkLoader<?>>();
+
+	private final AbstractBluePrintsBackedFinderService<?, DataType, ?> service;
+
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	private int maxVertices = DEFAULT_MAX_VERTICES;
+
+	/**
+	 * Vertices loaded or created during load, by class name and vertex id
+	 */
+	private final Map<String, Vertex> vertices = new HashMap<String, Vertex>();
+
+	public BulkLoader(AbstractBluePrintsBackedFinderService<?, DataType, ?> service) {
+		this.service = service;
+	}
+
+	/**
+	 * Get vertices known by the loader running in current thread
+	 * @param database graph in which vertices are searched
+	 * @return a map of vertices by class name and vertex id, or null if no loader is running in current thread for that graph
+	 */
+	static Map<String, Vertex> getLoadedVertices(Graph database) {
+		BulkLoader<?> loader = running.get();
+		if(loader!=null && loader.service.getDatabase()==database)
+			return loader.vertices;
+		return null;
+	}
+
+	/**
+	 * Key used to store a vertex in map returned by {@link #getLoadedVertices(Graph)}
+	 * @param className
+	 * @param vertexId
+	 * @return
+	 */
+	static String getKey(String className, String vertexId) {
+		return className+":"+vertexId;
+	}
+
+	/**
+	 * Create all given objects
+	 * @param toCreate objects to create
+	 * @return number of created objects
+	 */
+	public int createAll(Iterable<? extends DataType> toCreate) {
+		return load(toCreate, CascadeType.PERSIST);
+	}
+
+	/**
+	 * Update all given objects
+	 * @param toUpdate objects to update
+	 * @return number of updated objects
+	 */
+	public int updateAll(Iterable<? extends DataType> toUpdate) {
+		return load(toUpdate, CascadeType.MERGE);
+	}
+
+	private int load(Iterable<? extends DataType> values, CascadeType cascade) {
+		BulkLoader<?> previous = running.get();
+		running.set(this);
+		int written = 0;
+		try {
+			Iterator<? extends DataType> iterator = values.iterator();
+			while(iterator.hasNext()) {
+				int inChunk = loadChunk(iterator, cascade);
+				endChunk(written, written+inChunk);
+				written += inChunk;
+			}
+			return written;
+		} catch(RuntimeException e) {
+			// rolled back vertices may be in map
+			vertices.clear();
+			throw e;
+		} finally {
+			service.invalidateQueryCache();
+			if(previous==null)
+				running.remove();
+			else
+				running.set(previous);
+		}
+	}
+
+	/**
+	 * Write one chunk of objects. When graph is transactional, chunk is written in the unit of work running in current thread or, if there is none,
+	 * in its own unit of work, committed once chunk is written.
+	 * @param values iterator over objects to write
+	 * @param cascade cascade type used to write them
+	 * @return number of objects written in that chunk
+	 */
+	private int loadChunk(Iterator<? extends DataType> values, CascadeType cascade) {
+		UnitOfWork work = null;
+		UnitOfWork chunk = null;
+		if(service.transactionSupport!=null) {
+			work = UnitOfWork.current();
+			if(work==null) {
+				chunk = UnitOfWork.begin(chunkSize, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+				work = chunk;
+			}
+		}
+		try {
+			int returned = 0;
+			try {
+				while(returned<chunkSize && values.hasNext()) {
+					if(work!=null)
+						work.ensureActive();
+					service.doUpdate(values.next(), cascade, ObjectCache.create(cascade));
+					service.getStatistics().modified();
+					if(work!=null)
+						work.performed(service);
+					returned++;
+				}
+			} catch(RuntimeException e) {
+				if(work!=null)
+					work.failed(service);
+				throw e;
+			}
+			if(chunk!=null)
+				chunk.commit();
+			return returned;
+		} finally {
+			if(chunk!=null)
+				chunk.close();
+		}
+	}
+
+	private void endChunk(int before, int after) {
+		if(vertices.size()>maxVertices)
+			vertices.clear();
+		service.getRepository().getSupport().firePropertyChange(new PropertyChangeEvent(this, PROGRESS_PROPERTY, before, after));
+	}
+
+	/**
+	 * @return the chunkSize
+	 * @category getter
+	 * @category chunkSize
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * @param chunkSize number of objects written between two commits
+	 * @category setter
+	 * @category chunkSize
+	 */
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @return the maxVertices
+	 * @category getter
+	 * @category maxVertices
+	 */
+	public int getMaxVertices() {
+		return maxVertices;
+	}
+
+	/**
+	 * @param maxVertices maximum number of vertices kept by loader. Once reached, kept vertices are forgotten at the end of current chunk.
+	 * @category setter
+	 * @category maxVertices
+	 */
+	public void setMaxVertices(int maxVertices) {
+		this.maxVertices = maxVertices;
+	}
+}
@@ -4,10 +4,10 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
@@ -37,7 +37,7 @@ public class CollectionLazyLoader extends AbstractLazyLoader implements Invocati
 	 * (probably) created by a previous version of gaedo, and were thus in the Collection
 	 * BEFORE the ordered Edges.
 	 */
-	private static Comparator<Edge> COLLECTION_EDGE_COMPARATOR = new Comparator<Edge>() {
+	static final Comparator<Edge> COLLECTION_EDGE_COMPARATOR = new Comparator<Edge>() {
 		@Override
 		public int compare(Edge o1, Edge o2) {
 			Integer o1Idx = (Integer) o1.getProperty(Properties.collection_index.name());
@@ -70,9 +70,7 @@ public class CollectionLazyLoader extends AbstractLazyLoader implements Invocati
 
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-		if(!loaded) {
-			loadCollection(collection, objectsBeingAccessed);
-		}
+		load();
 		if(method.getDeclaringClass().equals(WriteReplaceable.class)) {
 			// there is only writeReplace there, so writeReplace !
 			return collection;
@@ -80,11 +78,16 @@ public class CollectionLazyLoader extends AbstractLazyLoader implements Invocati
 		return method.invoke(collection, args);
 	}
 
+	@Override
+	protected void doLoad() {
+		loadCollection(collection, objectsBeingAccessed);
+	}
+
 	@SuppressWarnings("unchecked")
 	public void loadCollection(Collection collection, ObjectCache objectsBeingAccessed) {
 		try {
 			// Use the magic order property to try to put the elements in the correct order (if the property is there)
-			List<Edge> edges = new LinkedList<Edge>();
+			List<Edge> edges = new ArrayList<Edge>();
 			boolean needToSort = false;
 			for(Edge e : strategy.getOutEdgesFor(rootVertex, property)) {
 				edges.add(e);
@@ -97,6 +100,12 @@ public class CollectionLazyLoader extends AbstractLazyLoader implements Invocati
 			// Now that everything is in order, we can load the real collection
 			for(Edge e : edges) {
 				Vertex value = e.getVertex(Direction.IN);
+				// objects shared by loaded ones (typically, tags of a page of posts) are only loaded once
+				Object alreadyLoaded = objectsBeingAccessed.getLoaded(driver, value);
+				if(alreadyLoaded!=null) {
+					collection.add(alreadyLoaded);
+					continue;
+				}
 				try {
 					Object temporaryValue = GraphUtils.createInstance(driver, strategy, classLoader, value, property.getType(), repository, objectsBeingAccessed);
 					if(repository.containsKey(temporaryValue.getClass())) {
@@ -122,9 +131,7 @@ public class CollectionLazyLoader extends AbstractLazyLoader implements Invocati
 
 	@Override
 	public Object writeReplace() throws ObjectStreamException {
-		if(!loaded) {
-			loadCollection(collection, objectsBeingAccessed);
-		}
+		load();
 		return collection;
 	}
 }
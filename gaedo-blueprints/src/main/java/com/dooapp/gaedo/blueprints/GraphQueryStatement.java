@@ -10,6 +10,7 @@ import javax.persistence.CascadeType;
 import com.dooapp.gaedo.blueprints.queries.BluePrintsQueryBuilder;
 import com.dooapp.gaedo.blueprints.queries.DataTypeIterable;
 import com.dooapp.gaedo.blueprints.queries.executable.GraphExecutableQuery;
+import com.dooapp.gaedo.blueprints.utils.NavigationCache;
 import com.dooapp.gaedo.blueprints.utils.VertexPathNavigator;
 import com.dooapp.gaedo.blueprints.utils.VertexPathNavigator.VertexLocation;
 import com.dooapp.gaedo.exceptions.range.BadRangeDefinitionException;
@@ -73,7 +74,7 @@ public class GraphQueryStatement<
 
 			@Override
 			public <Type> Type getValue(FieldInformer<Type> propertyDescriptor) {
-				VertexPathNavigator navigator = new VertexPathNavigator(service.getStrategy(), input);
+				VertexPathNavigator navigator = new VertexPathNavigator(navigation, input);
 				VertexLocation destination = navigator.navigateOn(propertyDescriptor.getFieldPath());
 				return (Type) service.loadObject(destination.vertex(), cache);
 			}
@@ -82,6 +83,11 @@ public class GraphQueryStatement<
 
 		private ObjectCache cache = createPrepopulatedCache();
 
+		/**
+		 * Navigations performed to fetch projected values
+		 */
+		private NavigationCache navigation = new NavigationCache(service.getStrategy());
+
 		public ValueType get(Vertex input) {
 			return projector.project(service.getInformer(), getFetcherFor(input));
 		}
@@ -123,15 +129,25 @@ public class GraphQueryStatement<
 	 */
 	private ProjectionBuilder<ValueType, DataType, InformerType> projector = new NoopProjectionBuilder();
 
+	/**
+	 * Lazily build filter expression from query. Once built, it is memorized in {@link #filterExpression}, which allows visitors
+	 * (see {@link #accept(QueryExpressionContainerVisitor)}) to be used before query is run.
+	 * @return the filter expression
+	 */
+	private QueryExpression getFilterExpression() {
+		if(filterExpression==null) {
+			filterExpression = query.createMatchingExpression(service.getInformer());
+		}
+		return filterExpression;
+	}
+
 	private GraphExecutableQuery prepareQuery() {
 		try {
 			if (QueryLog.logger.isLoggable(QueryLog.QUERY_LOGGING_LEVEL)) {
 				QueryLog.logger.log(QueryLog.QUERY_LOGGING_LEVEL, "preparing query "+id);
 			}
 			BluePrintsQueryBuilder<DataType, InformerType> builder = new BluePrintsQueryBuilder<DataType, InformerType>(service);
-			InformerType informer = service.getInformer();
-			filterExpression = query.createMatchingExpression(informer);
-			filterExpression.accept(builder);
+			getFilterExpression().accept(builder);
 			if (QueryLog.logger.isLoggable(QueryLog.QUERY_LOGGING_LEVEL)) {
 				QueryLog.logger.log(QueryLog.QUERY_LOGGING_LEVEL, "filering expression for "+id+" is "+filterExpression);
 			}
@@ -144,6 +160,14 @@ public class GraphQueryStatement<
 		}
 	}
 
+	/**
+	 * Describe how this query would find its results, without running it
+	 * @return a human readable description of query plan
+	 */
+	public String explain() {
+		return prepareQuery().explain();
+	}
+
 	@Override
 	public int count() {
 		try {
@@ -178,7 +202,7 @@ public class GraphQueryStatement<
 	}
 
 	private ObjectCache createPrepopulatedCache() {
-		final ObjectCache cache = ObjectCache.create(CascadeType.REFRESH);
+		final ObjectCache cache = ObjectCache.create(CascadeType.REFRESH, service.getPrefetchSize());
 		class CacheLoader extends QueryExpressionContainerVisitorAdapter {
 
 			/**
@@ -248,7 +272,7 @@ public class GraphQueryStatement<
 	@Override
 	public void accept(QueryExpressionContainerVisitor visitor) {
 		visitor.startVisit(this);
-		filterExpression.accept(visitor);
+		getFilterExpression().accept(visitor);
 		sortingExpression.accept(visitor);
 		visitor.endVisit(this);
 	}
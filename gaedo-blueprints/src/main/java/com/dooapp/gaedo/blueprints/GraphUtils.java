@@ -2,10 +2,13 @@ package com.dooapp.gaedo.blueprints;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -15,6 +18,7 @@ import javax.persistence.Column;
 
 import com.dooapp.gaedo.blueprints.annotations.GraphProperty;
 import com.dooapp.gaedo.blueprints.indexable.IndexNames;
+import com.dooapp.gaedo.blueprints.indexable.VertexLookupCache;
 import com.dooapp.gaedo.blueprints.strategies.GraphMappingStrategy;
 import com.dooapp.gaedo.blueprints.strategies.PropertyMappingStrategy;
 import com.dooapp.gaedo.blueprints.strategies.UnableToGetVertexTypeException;
@@ -24,6 +28,7 @@ import com.dooapp.gaedo.blueprints.transformers.TupleTransformer;
 import com.dooapp.gaedo.blueprints.transformers.Tuples;
 import com.dooapp.gaedo.finders.repository.ServiceRepository;
 import com.dooapp.gaedo.properties.Property;
+import com.tinkerpop.blueprints.CloseableIterable;
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Element;
@@ -55,10 +60,17 @@ public class GraphUtils {
 
 	private static final Logger logger = Logger.getLogger(GraphUtils.class.getName());
 
+	/**
+	 * Edge names already computed by {@link #getEdgeNameFor(Property)}, by property declaring class, then property key (see {@link #getEdgeNameKey(Property)}).
+	 * As annotations of a property never change, they're read only once. Declaring classes are weakly referenced, and inner maps only contain strings,
+	 * so that cache won't prevent classes (and their classloader) from being garbage collected.
+	 */
+	private static final Map<Class<?>, Map<String, String>> edgeNames = Collections.synchronizedMap(new WeakHashMap<Class<?>, Map<String, String>>());
+
 	/**
 	 * Generate edge name from property infos. Notice generated edge name will
 	 * first be searched in property annotations, and only if none compatile
-	 * found by generating a basic property name
+	 * found by generating a basic property name. Generated name is computed once per property, then kept.
 	 *
 	 * @param p
 	 *            source property
@@ -66,6 +78,34 @@ public class GraphUtils {
 	 *         property name
 	 */
 	public static String getEdgeNameFor(Property p) {
+		Map<String, String> declared = null;
+		synchronized (edgeNames) {
+			declared = edgeNames.get(p.getDeclaringClass());
+			if (declared == null) {
+				declared = new ConcurrentHashMap<String, String>();
+				edgeNames.put(p.getDeclaringClass(), declared);
+			}
+		}
+		String key = getEdgeNameKey(p);
+		String returned = declared.get(key);
+		if (returned == null) {
+			returned = computeEdgeNameFor(p);
+			declared.put(key, returned);
+		}
+		return returned;
+	}
+
+	/**
+	 * Build key identifying a property in its declaring class. As different property implementations may read annotations from different
+	 * members (field or accessors), property implementation is part of that key.
+	 * @param p
+	 * @return a key made of property implementation class name and property name
+	 */
+	private static String getEdgeNameKey(Property p) {
+		return p.getClass().getName() + "#" + p.getName();
+	}
+
+	private static String computeEdgeNameFor(Property p) {
 		if (p.getAnnotation(GraphProperty.class) != null) {
 			GraphProperty graph = p.getAnnotation(GraphProperty.class);
 			// Test added to avoid default value (which defaults name to "")
@@ -398,7 +438,9 @@ public class GraphUtils {
 				logger.log(Level.WARNING, "We tried to remove non existing vertex " + toString(existing));
 			}
 		} else {
+			VertexLookupCache.removed(database, toRemove);
 			removeFromIndex(database, existing, IndexNames.VERTICES);
+			removeFromIndex(database, existing, IndexNames.TYPED_VERTICES);
 			database.removeVertex(toRemove);
 			if (logger.isLoggable(REMOVAL_LOG_LEVEL)) {
 				logger.log(REMOVAL_LOG_LEVEL, "REMOVED " + toRemove);
@@ -410,15 +452,17 @@ public class GraphUtils {
 	 * Remove given element from index by removing all bindings from its properties names to its properties values
 	 * @param database graph on which remove operation will be performed (must be indexable)
 	 * @param existing element to remove index entries
-	 * @param indexName name of index associated to element
+	 * @param indexName name of index associated to element. Nothing is done if graph has no such index.
 	 */
 	public static <Type extends Element> void removeFromIndex(Graph database, Type existing, IndexNames indexName) {
 		if (database instanceof IndexableGraph) {
 			IndexableGraph indexable = (IndexableGraph) database;
 			if(indexName.isUsable()) {
 				Index<Type> index = (Index<Type>) indexable.getIndex(indexName.getIndexName(), indexName.getIndexed());
-				for(String propertyName : existing.getPropertyKeys()) {
-					index.remove(propertyName, existing.getProperty(propertyName), existing);
+				if(index!=null) {
+					for(String propertyName : existing.getPropertyKeys()) {
+						index.remove(propertyName, existing.getProperty(propertyName), existing);
+					}
 				}
 			}
 		}
@@ -455,4 +499,14 @@ public class GraphUtils {
 			index.put(propertyName, propertyValue, graphElement);
 		}
 	}
+
+	/**
+	 * Close the given iterable if it is a {@link CloseableIterable} (as graph implementations may return for index or key lookups)
+	 * @param iterable iterable to close. Nothing is done if null or not closeable.
+	 */
+	public static void close(Iterable<?> iterable) {
+		if (iterable instanceof CloseableIterable) {
+			((CloseableIterable<?>) iterable).close();
+		}
+	}
 }
@@ -0,0 +1,108 @@
+package com.dooapp.gaedo.blueprints;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+import com.dooapp.gaedo.patterns.WriteReplaceable;
+
+/**
+ * List loaded by a {@link CollectionLazyLoader} on first access. Used instead of a proxy for properties declared as {@link List} or {@link Collection},
+ * as it costs neither proxy creation nor reflective invocation. When serialized, it is replaced by the list it has loaded.
+ * @author ndx
+ *
+ * @param <Type> type of list elements
+ */
+public class LazyList<Type> extends AbstractList<Type> implements Serializable, WriteReplaceable {
+	private final transient CollectionLazyLoader loader;
+
+	private final List<Type> list;
+
+	public LazyList(CollectionLazyLoader loader, List<Type> list) {
+		this.loader = loader;
+		this.list = list;
+	}
+
+	private List<Type> getList() {
+		loader.load();
+		return list;
+	}
+
+	@Override
+	public Type get(int index) {
+		return getList().get(index);
+	}
+
+	@Override
+	public int size() {
+		return getList().size();
+	}
+
+	@Override
+	public Type set(int index, Type element) {
+		return getList().set(index, element);
+	}
+
+	@Override
+	public void add(int index, Type element) {
+		getList().add(index, element);
+	}
+
+	@Override
+	public boolean add(Type e) {
+		return getList().add(e);
+	}
+
+	@Override
+	public Type remove(int index) {
+		return getList().remove(index);
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		return getList().remove(o);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return getList().contains(o);
+	}
+
+	@Override
+	public void clear() {
+		getList().clear();
+	}
+
+	@Override
+	public Iterator<Type> iterator() {
+		return getList().iterator();
+	}
+
+	@Override
+	public ListIterator<Type> listIterator() {
+		return getList().listIterator();
+	}
+
+	@Override
+	public ListIterator<Type> listIterator(int index) {
+		return getList().listIterator(index);
+	}
+
+	/**
+	 * @return the loader
+	 * @category getter
+	 * @category loader
+	 */
+	CollectionLazyLoader getLoader() {
+		return loader;
+	}
+
+	@Override
+	public Object writeReplace() throws ObjectStreamException {
+		return getList();
+	}
+}
@@ -0,0 +1,82 @@
+package com.dooapp.gaedo.blueprints;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.dooapp.gaedo.patterns.WriteReplaceable;
+
+/**
+ * Map loaded by a {@link MapLazyLoader} on first access. Used instead of a proxy for properties declared as {@link Map}, as it costs
+ * neither proxy creation nor reflective invocation. When serialized, it is replaced by the map it has loaded.
+ * @author ndx
+ *
+ * @param <Key> type of map keys
+ * @param <Value> type of map values
+ */
+public class LazyMap<Key, Value> extends AbstractMap<Key, Value> implements Serializable, WriteReplaceable {
+	private final transient MapLazyLoader loader;
+
+	private final Map<Key, Value> map;
+
+	public LazyMap(MapLazyLoader loader, Map<Key, Value> map) {
+		this.loader = loader;
+		this.map = map;
+	}
+
+	private Map<Key, Value> getMap() {
+		loader.load();
+		return map;
+	}
+
+	@Override
+	public Set<Map.Entry<Key, Value>> entrySet() {
+		return getMap().entrySet();
+	}
+
+	@Override
+	public int size() {
+		return getMap().size();
+	}
+
+	@Override
+	public Value get(Object key) {
+		return getMap().get(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return getMap().containsKey(key);
+	}
+
+	@Override
+	public Value put(Key key, Value value) {
+		return getMap().put(key, value);
+	}
+
+	@Override
+	public Value remove(Object key) {
+		return getMap().remove(key);
+	}
+
+	@Override
+	public void clear() {
+		getMap().clear();
+	}
+
+	/**
+	 * @return the loader
+	 * @category getter
+	 * @category loader
+	 */
+	MapLazyLoader getLoader() {
+		return loader;
+	}
+
+	@Override
+	public Object writeReplace() throws ObjectStreamException {
+		return getMap();
+	}
+}
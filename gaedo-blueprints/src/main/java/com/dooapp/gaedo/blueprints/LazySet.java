@@ -0,0 +1,76 @@
+package com.dooapp.gaedo.blueprints;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import com.dooapp.gaedo.patterns.WriteReplaceable;
+
+/**
+ * Set loaded by a {@link CollectionLazyLoader} on first access. Used instead of a proxy for properties declared as {@link Set}, as it costs
+ * neither proxy creation nor reflective invocation. When serialized, it is replaced by the set it has loaded.
+ * @author ndx
+ *
+ * @param <Type> type of set elements
+ */
+public class LazySet<Type> extends AbstractSet<Type> implements Serializable, WriteReplaceable {
+	private final transient CollectionLazyLoader loader;
+
+	private final Set<Type> set;
+
+	public LazySet(CollectionLazyLoader loader, Set<Type> set) {
+		this.loader = loader;
+		this.set = set;
+	}
+
+	private Set<Type> getSet() {
+		loader.load();
+		return set;
+	}
+
+	@Override
+	public Iterator<Type> iterator() {
+		return getSet().iterator();
+	}
+
+	@Override
+	public int size() {
+		return getSet().size();
+	}
+
+	@Override
+	public boolean add(Type e) {
+		return getSet().add(e);
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		return getSet().remove(o);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return getSet().contains(o);
+	}
+
+	@Override
+	public void clear() {
+		getSet().clear();
+	}
+
+	/**
+	 * @return the loader
+	 * @category getter
+	 * @category loader
+	 */
+	CollectionLazyLoader getLoader() {
+		return loader;
+	}
+
+	@Override
+	public Object writeReplace() throws ObjectStreamException {
+		return getSet();
+	}
+}
@@ -0,0 +1,200 @@
+package com.dooapp.gaedo.blueprints;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dooapp.gaedo.finders.cache.BoundedCache;
+import com.tinkerpop.blueprints.Graph;
+
+/**
+ * A size bounded (in a LRU fashion) cache of objects loaded by {@link BluePrintsPersister#loadObject(AbstractBluePrintsBackedFinderService, String, com.tinkerpop.blueprints.Vertex, ObjectCache)},
+ * keyed by their vertex id. Contrary to {@link ObjectCache}, which only lives during one operation, that cache is shared by all operations and all services
+ * using the same graph (it is obtained by {@link #forGraph(Graph)}), allowing often read objects to be loaded from graph only once.
+ * That cache is disabled by default : only instances of classes given to {@link #setCached(Class, boolean)} (typically reference data classes) are kept.
+ * BEWARE : cached objects are shared instances, so they should not be modified other than to be updated.
+ * An object is removed from cache when it is updated or deleted through {@link BluePrintsPersister} and, as another thread may load it again from the
+ * not yet committed graph, once more when the running {@link UnitOfWork} commits that write. The whole cache is dropped when a {@link UnitOfWork}
+ * is rolled back. Notice a cached object referencing an object of another class is not removed when that other object is updated : only cache classes
+ * whose objects reference either other cached objects or objects that never change.
+ * @author ndx
+ *
+ */
+public class LoadedObjectsCache {
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+	/**
+	 * Caches used by graphs
+	 */
+	private static final Map<Graph, LoadedObjectsCache> caches = new WeakHashMap<Graph, LoadedObjectsCache>();
+
+	/**
+	 * Loaded objects, by vertex id
+	 */
+	private final BoundedCache<String, Object> entries;
+
+	/**
+	 * Classes whose instances are cached
+	 */
+	private final Set<Class<?>> cachedClasses = new CopyOnWriteArraySet<Class<?>>();
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Build a cache of {@link #DEFAULT_MAXIMUM_SIZE} objects
+	 */
+	public LoadedObjectsCache() {
+		this(DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * @param maximumSize maximum number of cached objects. When reached, least recently used one is evicted.
+	 */
+	public LoadedObjectsCache(final int maximumSize) {
+		this.entries = new BoundedCache<String, Object>(maximumSize);
+	}
+
+	/**
+	 * Get cache used for the given graph, creating it if required
+	 * @param graph
+	 * @return cache used by all services storing data in that graph
+	 */
+	public static LoadedObjectsCache forGraph(Graph graph) {
+		synchronized(caches) {
+			LoadedObjectsCache returned = caches.get(graph);
+			if(returned==null) {
+				returned = new LoadedObjectsCache();
+				caches.put(graph, returned);
+			}
+			return returned;
+		}
+	}
+
+	/**
+	 * Set cache used for the given graph. Allows using a cache of another size.
+	 * @param graph
+	 * @param cache
+	 */
+	public static void install(Graph graph, LoadedObjectsCache cache) {
+		synchronized(caches) {
+			caches.put(graph, cache);
+		}
+	}
+
+	/**
+	 * Enable or disable caching of objects loaded by the service managing the given class
+	 * @param cached class managed by a service
+	 * @param enabled true to cache its instances
+	 */
+	public void setCached(Class<?> cached, boolean enabled) {
+		if(enabled) {
+			cachedClasses.add(cached);
+		} else {
+			cachedClasses.remove(cached);
+			// we don't know which entries are instances of that class
+			clear();
+		}
+	}
+
+	/**
+	 * @param cached class managed by a service
+	 * @return true if objects loaded by the service managing that class are cached
+	 */
+	public boolean isCached(Class<?> cached) {
+		return cachedClasses.contains(cached);
+	}
+
+	/**
+	 * @param objectVertexId
+	 * @return object cached for that vertex id, or null if there is none
+	 */
+	public Object get(String objectVertexId) {
+		Object returned = entries.get(objectVertexId);
+		if(returned==null)
+			misses.incrementAndGet();
+		else
+			hits.incrementAndGet();
+		return returned;
+	}
+
+	/**
+	 * Store a fully loaded object
+	 * @param objectVertexId
+	 * @param loaded
+	 */
+	public void put(String objectVertexId, Object loaded) {
+		entries.put(objectVertexId, loaded);
+	}
+
+	/**
+	 * Remove object cached for the given vertex id
+	 * @param objectVertexId
+	 */
+	public void remove(String objectVertexId) {
+		entries.remove(objectVertexId);
+	}
+
+	/**
+	 * Remove object cached for the given vertex id, provided a cache exists for that graph
+	 * @param graph graph in which object is written
+	 * @param objectVertexId
+	 * @return true if a cache exists for that graph
+	 */
+	public static boolean removed(Graph graph, String objectVertexId) {
+		LoadedObjectsCache cache = null;
+		synchronized(caches) {
+			cache = caches.get(graph);
+		}
+		if(cache!=null)
+			cache.remove(objectVertexId);
+		return cache!=null;
+	}
+
+	/**
+	 * Drop all cached objects, provided a cache exists for that graph
+	 * @param graph
+	 */
+	public static void clear(Graph graph) {
+		LoadedObjectsCache cache = null;
+		synchronized(caches) {
+			cache = caches.get(graph);
+		}
+		if(cache!=null)
+			cache.clear();
+	}
+
+	/**
+	 * Drop all cached objects
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return number of cached objects
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getEvictions() {
+		return entries.getEvictions();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+"(size:"+size()+"; hits:"+hits+"; misses:"+misses+"; evictions:"+getEvictions()+")";
+	}
+}
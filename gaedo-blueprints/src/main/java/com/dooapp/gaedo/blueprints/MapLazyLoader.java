@@ -39,9 +39,7 @@ public class MapLazyLoader extends AbstractLazyLoader implements InvocationHandl
 
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-		if (!loaded) {
-			loadMap(map, objectsBeingAccessed);
-		}
+		load();
 		if (method.getDeclaringClass().equals(WriteReplaceable.class)) {
 			// there is only writeReplace there, so writeReplace !
 			return map;
@@ -49,6 +47,11 @@ public class MapLazyLoader extends AbstractLazyLoader implements InvocationHandl
 		return method.invoke(map, args);
 	}
 
+	@Override
+	protected void doLoad() {
+		loadMap(map, objectsBeingAccessed);
+	}
+
 	public void loadMap(Map map, ObjectCache objectsBeingAccessed) {
 		try {
 			for (Edge e : strategy.getOutEdgesFor(rootVertex, property)) {
@@ -71,9 +74,7 @@ public class MapLazyLoader extends AbstractLazyLoader implements InvocationHandl
 
 	@Override
 	public Object writeReplace() throws ObjectStreamException {
-		if (!loaded) {
-			loadMap(map, objectsBeingAccessed);
-		}
+		load();
 		return map;
 	}
 }
@@ -2,19 +2,51 @@ package com.dooapp.gaedo.blueprints;
 
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
 
 import javax.persistence.CascadeType;
 
+import com.dooapp.gaedo.properties.Property;
+import com.tinkerpop.blueprints.Vertex;
+
 /**
- * A cache implementation, that should allow less memory consumption of gaedo
+ * A cache implementation, that should allow less memory consumption of gaedo.
+ * It also keeps track of the lazy loaders created during a load operation, allowing loaders of the same property to be loaded
+ * together (see {@link #getPrefetchSize()}).
  * @author ndx
  *
  */
 public class ObjectCache {
 	private Map<String, Reference<Object>> cache = new WeakHashMap<String, Reference<Object>>();
 
+	/**
+	 * Maximum number of not yet loaded lazy loaders of the same property loaded when one of them is
+	 */
+	private final int prefetchSize;
+
+	/**
+	 * Not yet loaded lazy loaders, by property, in creation order. Only used when prefetch size is greater than 1.
+	 * Each list holds at most {@link #prefetchSize} loaders (see {@link #addPendingLoader(AbstractLazyLoader)}).
+	 */
+	private final Map<Property, LinkedList<Reference<AbstractLazyLoader>>> pendingLoaders = new HashMap<Property, LinkedList<Reference<AbstractLazyLoader>>>();
+
+	public ObjectCache() {
+		this(1);
+	}
+
+	/**
+	 * @param prefetchSize maximum number of lazy loaders of the same property loaded when one of them is
+	 */
+	public ObjectCache(int prefetchSize) {
+		this.prefetchSize = prefetchSize;
+	}
+
 	/**
 	 * Create objet cache for the given cascade type
 	 * TODO optimize heavily by using threadlocal and a map of cascade types to obejct caches (or a better cache implementation)
@@ -25,6 +57,16 @@ public class ObjectCache {
 		return new ObjectCache();
 	}
 
+	/**
+	 * Create object cache for the given cascade type, with the given prefetch size
+	 * @param merge
+	 * @param prefetchSize maximum number of lazy loaders of the same property loaded when one of them is
+	 * @return
+	 */
+	public static ObjectCache create(CascadeType merge, int prefetchSize) {
+		return new ObjectCache(prefetchSize);
+	}
+
 	public Object get(String objectVertexId) {
 		Reference<Object> reference = cache.get(objectVertexId);
 		if(reference!=null) {
@@ -45,4 +87,83 @@ public class ObjectCache {
 	public void remove(String objectVertexId) {
 		cache.remove(objectVertexId);
 	}
+
+	/**
+	 * Get object already loaded for the given vertex. This allows objects linked to many loaded ones to be instanciated only once.
+	 * @param driver driver used to read vertex id
+	 * @param vertex a vertex
+	 * @return the loaded object, or null if vertex is not the one of an already loaded object
+	 */
+	public Object getLoaded(GraphDatabaseDriver driver, Vertex vertex) {
+		// only uris vertices are the ones of loaded objects
+		if(Kind.uri.name().equals(vertex.getProperty(Properties.kind.name()))) {
+			try {
+				return get(driver.getIdOf(vertex));
+			} catch(VertexHasNoPropertyException e) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Register a lazy loader created when loading an object using that cache.
+	 * To keep memory bounded when a cache is used to load many objects, pending loaders of a property are limited to {@link #prefetchSize}.
+	 * When that limit is reached, already loaded or collected loaders are dropped first, then the oldest ones, as objects are usually
+	 * browsed in loading order.
+	 * @param loader
+	 */
+	void addPendingLoader(AbstractLazyLoader loader) {
+		if(prefetchSize>1) {
+			synchronized(pendingLoaders) {
+				LinkedList<Reference<AbstractLazyLoader>> loaders = pendingLoaders.get(loader.property);
+				if(loaders==null) {
+					loaders = new LinkedList<Reference<AbstractLazyLoader>>();
+					pendingLoaders.put(loader.property, loaders);
+				}
+				if(loaders.size()>=prefetchSize) {
+					Iterator<Reference<AbstractLazyLoader>> iterator = loaders.iterator();
+					while(iterator.hasNext()) {
+						AbstractLazyLoader pending = iterator.next().get();
+						if(pending==null || pending.loaded)
+							iterator.remove();
+					}
+					while(loaders.size()>=prefetchSize) {
+						loaders.removeFirst();
+					}
+				}
+				// weakly referenced, as loaders of objects no more used are of no interest
+				loaders.add(new WeakReference<AbstractLazyLoader>(loader));
+			}
+		}
+	}
+
+	/**
+	 * Remove from pending loaders the ones that should be loaded together with the given (already loaded) one
+	 * @param loaded a loaded loader
+	 * @return at most {@link #getPrefetchSize()}-1 not yet loaded loaders of the same property, in creation order
+	 */
+	List<AbstractLazyLoader> takePendingLoaders(AbstractLazyLoader loaded) {
+		List<AbstractLazyLoader> returned = new ArrayList<AbstractLazyLoader>();
+		if(prefetchSize>1) {
+			synchronized(pendingLoaders) {
+				LinkedList<Reference<AbstractLazyLoader>> loaders = pendingLoaders.get(loaded.property);
+				while(loaders!=null && !loaders.isEmpty() && returned.size()<prefetchSize-1) {
+					AbstractLazyLoader loader = loaders.removeFirst().get();
+					if(loader!=null && !loader.loaded)
+						returned.add(loader);
+				}
+			}
+		}
+		return returned;
+	}
+
+	/**
+	 * @return the prefetchSize
+	 * @category getter
+	 * @category prefetchSize
+	 */
+	public int getPrefetchSize() {
+		return prefetchSize;
+	}
 }
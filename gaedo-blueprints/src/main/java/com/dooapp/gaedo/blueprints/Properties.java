@@ -26,5 +26,15 @@ public enum Properties {
 	 * Indicates at which index in the Collection an Edge (or rather, the Node to which
 	 * the Edge links) should appear.
 	 */
-	collection_index;
+	collection_index,
+	/**
+	 * Contains the effective type and value of a vertex (as given by {@link com.dooapp.gaedo.blueprints.indexable.IndexableGraphBackedFinderService#getTypedValue(String, String)}),
+	 * allowing vertex lookups to be single index gets.
+	 */
+	typed_value,
+	/**
+	 * Contains the encoded form of a serializable value, whose vertex {@link #value} is only a hash of that encoded form
+	 * (see {@link com.dooapp.gaedo.blueprints.transformers.SerializableTransformer}).
+	 */
+	serialized;
 }
\ No newline at end of file
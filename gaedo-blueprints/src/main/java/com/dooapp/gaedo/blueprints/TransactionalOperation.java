@@ -1,17 +1,18 @@
 package com.dooapp.gaedo.blueprints;
 
 import com.dooapp.gaedo.finders.Informer;
-import com.tinkerpop.blueprints.TransactionalGraph.Conclusion;
 
 /**
  * Transaction supporting "closure" base : it decorates given operation with transaction support.
+ * As gaedo should not handle transactions itself, operation is simply performed, excepted when graph is a transactional one and a {@link UnitOfWork}
+ * is running in current thread : operation is then one of that unit of work operations.
  * @author ndx
  *
  * @param <ResultType>
  */
 public abstract class TransactionalOperation<ResultType, DataType, InformerType extends Informer<DataType>> {
 	/**
-	 * 
+	 *
 	 */
 	private final AbstractBluePrintsBackedFinderService<?, DataType, InformerType> service;
 
@@ -23,37 +24,22 @@ public abstract class TransactionalOperation<ResultType, DataType, InformerType
 	}
 
 	/**
-	 * This is now a no-op code, as gaedo should not handle transactions itself.
+	 * Perform operation. When it fails in a unit of work, that unit of work is rolled back.
 	 * @return
+	 * @throws UnitOfWork.UnitOfWorkEndedException if unit of work running in current thread has already been rolled back
 	 */
 	public ResultType perform() {
-		if(false && service.transactionSupport!=null) {
-			try {
-//				service.transactionSupport.startTransaction();
-				try {
-					ResultType returned = doPerform();
-					service.transactionSupport.stopTransaction(Conclusion.SUCCESS);
-					return returned;
-				} catch(RuntimeException e) {
-					service.transactionSupport.stopTransaction(Conclusion.FAILURE);
-					throw e;
-				}
-			} catch(RuntimeException e) {
-				/*
-				 * People of tinkerpop : I hate you for that code block !
-				 * Why on earth didn't you send a specific exception conveying that very purpose ? I could have handled it clearly.
-				 * Instead, I have to rely on messy and slow string comparison. OMG
-				 */
-				if("Stop current transaction before starting another".equals(e.getMessage())) {
-					// Anyway, perform operation in transaction
-					return doPerform();
-					// And obviously, I won't close a transaction I didn't opened
-				} else {
-					throw e;
-				}
-			}
-		} else {
+		UnitOfWork work = service.transactionSupport==null ? null : UnitOfWork.current();
+		if(work==null)
 			return doPerform();
+		work.ensureActive();
+		try {
+			ResultType returned = doPerform();
+			work.performed(service);
+			return returned;
+		} catch(RuntimeException e) {
+			work.failed(service);
+			throw e;
 		}
 	}
 
@@ -62,4 +48,4 @@ public abstract class TransactionalOperation<ResultType, DataType, InformerType
 	 * @return effective result
 	 */
 	protected abstract ResultType doPerform();
-}
\ No newline at end of file
+}
@@ -0,0 +1,294 @@
+package com.dooapp.gaedo.blueprints;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.dooapp.gaedo.blueprints.indexable.VertexLookupCache;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.TransactionalGraph;
+import com.tinkerpop.blueprints.TransactionalGraph.Conclusion;
+
+/**
+ * Unit of work grouping the writes performed by graph-backed services in one or more transactions. A unit of work is bound to the thread
+ * that started it, and covers all services used by that thread (whatever their class or repository).
+ * Typical use is
+ * <pre>
+ * UnitOfWork work = UnitOfWork.begin();
+ * try {
+ * 	posts.create(post);
+ * 	users.update(author);
+ * 	work.commit();
+ * } finally {
+ * 	work.close();
+ * }
+ * </pre>
+ * By default, all writes are committed when {@link #commit()} is called, and rolled back when an operation fails or when {@link #close()} is called
+ * before {@link #commit()}. Once an operation failed, unit of work stays bound to its thread, and rejects all other operations, until it is closed. Using {@link #begin(int, long, TimeUnit)}, writes can also be group-committed once a given number of operations has
+ * been performed, or once the oldest uncommitted operation is older than a given delay. Notice that delay is only checked when an operation is performed.
+ * Group commits obviously mean a failure only rolls back operations performed since last commit.
+ * Rolling back also clears the caches of written graphs and services (looked up vertices, loaded objects, query results and statistics).
+ * When no unit of work is running, gaedo doesn't handle transactions at all (see {@link TransactionalOperation}).
+ * @author ndx
+ *
+ */
+public class UnitOfWork {
+	/**
+	 * Exception thrown when a unit of work is started in a thread already running one
+	 * @author ndx
+	 *
+	 */
+	public static class UnitOfWorkAlreadyStartedException extends BluePrintsCrudServiceException {
+		public UnitOfWorkAlreadyStartedException() {
+			super("a unit of work is already running in thread "+Thread.currentThread().getName());
+		}
+	}
+
+	/**
+	 * Exception thrown when committing, or performing an operation in, a unit of work that has already been rolled back (due to a failed operation) or committed
+	 * @author ndx
+	 *
+	 */
+	public static class UnitOfWorkEndedException extends BluePrintsCrudServiceException {
+		public UnitOfWorkEndedException(boolean committed) {
+			super("unit of work has already been "+(committed ? "committed" : "rolled back"));
+		}
+	}
+
+	/**
+	 * Unit of work running in current thread, if any
+	 */
+	private static final ThreadLocal<UnitOfWork> running = new ThreadLocal<UnitOfWork>();
+
+	/**
+	 * Number of operations triggering a group commit
+	 */
+	private final int batchSize;
+
+	/**
+	 * Age (in nanoseconds) of oldest uncommitted operation triggering a group commit
+	 */
+	private final long maxLatency;
+
+	/**
+	 * Services written since last commit
+	 */
+	private final Set<AbstractBluePrintsBackedFinderService<?, ?, ?>> written = new LinkedHashSet<AbstractBluePrintsBackedFinderService<?, ?, ?>>();
+
+	/**
+	 * Vertex ids of objects written since last commit, by graph. They're removed from {@link LoadedObjectsCache} once committed, as
+	 * other threads may have loaded them from graph before that commit.
+	 */
+	private final Map<Graph, Set<String>> evicted = new LinkedHashMap<Graph, Set<String>>();
+
+	/**
+	 * Number of operations performed since last commit
+	 */
+	private int operations = 0;
+
+	/**
+	 * Time of first operation performed since last commit
+	 */
+	private long firstOperation;
+
+	private boolean ended = false;
+
+	private boolean committed = false;
+
+	private UnitOfWork(int batchSize, long maxLatency) {
+		this.batchSize = batchSize;
+		this.maxLatency = maxLatency;
+	}
+
+	/**
+	 * Start a unit of work in which all writes are committed by {@link #commit()}
+	 * @return the started unit of work
+	 * @throws UnitOfWorkAlreadyStartedException if current thread already runs a unit of work
+	 */
+	public static UnitOfWork begin() {
+		return begin(Integer.MAX_VALUE, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Start a unit of work group-committing writes
+	 * @param batchSize number of operations after which writes are committed
+	 * @param maxLatency maximum age of an uncommitted operation. Once exceeded, writes are committed by next operation.
+	 * @param unit unit of maxLatency
+	 * @return the started unit of work
+	 * @throws UnitOfWorkAlreadyStartedException if current thread already runs a unit of work
+	 */
+	public static UnitOfWork begin(int batchSize, long maxLatency, TimeUnit unit) {
+		if(running.get()!=null)
+			throw new UnitOfWorkAlreadyStartedException();
+		UnitOfWork returned = new UnitOfWork(batchSize, unit.toNanos(maxLatency));
+		running.set(returned);
+		return returned;
+	}
+
+	/**
+	 * @return unit of work running in current thread, or null if there is none
+	 */
+	public static UnitOfWork current() {
+		return running.get();
+	}
+
+	/**
+	 * Ensure an operation can be performed in that unit of work
+	 * @throws UnitOfWorkEndedException if unit of work has already been rolled back or committed
+	 */
+	void ensureActive() {
+		if(ended)
+			throw new UnitOfWorkEndedException(committed);
+	}
+
+	/**
+	 * Signal an operation has been successfully performed by the given service. Group commit is done if required.
+	 * @param service service having written its graph
+	 */
+	void performed(AbstractBluePrintsBackedFinderService<?, ?, ?> service) {
+		if(operations==0)
+			firstOperation = System.nanoTime();
+		written.add(service);
+		operations++;
+		if(operations>=batchSize || System.nanoTime()-firstOperation>=maxLatency)
+			flush();
+	}
+
+	/**
+	 * Signal an operation failed in the given service. The whole unit of work is rolled back, but stays bound to current thread
+	 * (rejecting any other operation) until {@link #close()} is called.
+	 * @param service service on which operation failed
+	 */
+	void failed(AbstractBluePrintsBackedFinderService<?, ?, ?> service) {
+		written.add(service);
+		if(!ended) {
+			try {
+				rollbackWrites();
+			} finally {
+				ended = true;
+			}
+		}
+	}
+
+	/**
+	 * Remove the given object from {@link LoadedObjectsCache} once next commit has been done
+	 * @param graph graph in which object is written
+	 * @param objectVertexId object vertex id
+	 */
+	void evictOnCommit(Graph graph, String objectVertexId) {
+		Set<String> ids = evicted.get(graph);
+		if(ids==null) {
+			ids = new LinkedHashSet<String>();
+			evicted.put(graph, ids);
+		}
+		ids.add(objectVertexId);
+	}
+
+	/**
+	 * @return graphs written since last commit
+	 */
+	private Set<TransactionalGraph> getWrittenGraphs() {
+		Set<TransactionalGraph> returned = new LinkedHashSet<TransactionalGraph>();
+		for(AbstractBluePrintsBackedFinderService<?, ?, ?> service : written) {
+			returned.add(service.transactionSupport);
+		}
+		return returned;
+	}
+
+	/**
+	 * Commit all writes performed since last commit, without ending the unit of work
+	 */
+	public void flush() {
+		try {
+			for(TransactionalGraph graph : getWrittenGraphs()) {
+				graph.stopTransaction(Conclusion.SUCCESS);
+			}
+			for(Map.Entry<Graph, Set<String>> entry : evicted.entrySet()) {
+				for(String objectVertexId : entry.getValue()) {
+					LoadedObjectsCache.removed(entry.getKey(), objectVertexId);
+				}
+			}
+		} finally {
+			written.clear();
+			evicted.clear();
+			operations = 0;
+		}
+	}
+
+	/**
+	 * Commit all writes, then end that unit of work
+	 * @throws UnitOfWorkEndedException if unit of work has already been rolled back or committed
+	 */
+	public void commit() {
+		if(ended)
+			throw new UnitOfWorkEndedException(committed);
+		try {
+			flush();
+			committed = true;
+		} finally {
+			end();
+		}
+	}
+
+	/**
+	 * Roll back all writes performed since last commit, then end that unit of work. Does nothing if it has already ended.
+	 */
+	public void rollback() {
+		if(!ended) {
+			try {
+				rollbackWrites();
+			} finally {
+				end();
+			}
+		}
+	}
+
+	/**
+	 * Roll back all writes performed since last commit, and clear all caches that may contain rolled back data
+	 */
+	private void rollbackWrites() {
+		try {
+			for(TransactionalGraph graph : getWrittenGraphs()) {
+				graph.stopTransaction(Conclusion.FAILURE);
+				// cached lookups may target vertices that no more exist, and cached objects may have been loaded from rolled back data
+				VertexLookupCache.clear(graph);
+				LoadedObjectsCache.clear(graph);
+			}
+			// so may cached query results, and statistics may have counted rolled back edges
+			for(AbstractBluePrintsBackedFinderService<?, ?, ?> service : written) {
+				service.invalidateQueryCache();
+				service.getStatistics().clear();
+			}
+		} finally {
+			written.clear();
+			evicted.clear();
+			operations = 0;
+		}
+	}
+
+	/**
+	 * Rolls back that unit of work, unless it has already been committed, and unbinds it from current thread
+	 */
+	public void close() {
+		try {
+			rollback();
+		} finally {
+			end();
+		}
+	}
+
+	private void end() {
+		ended = true;
+		if(running.get()==this)
+			running.remove();
+	}
+
+	/**
+	 * @return true if that unit of work has neither been committed nor rolled back
+	 */
+	public boolean isActive() {
+		return !ended;
+	}
+}
@@ -24,4 +24,11 @@ public @interface GraphProperty {
 	 * @return
 	 */
 	PropertyMappingStrategy mapping() default PropertyMappingStrategy.prefixed;
+
+	/**
+	 * Set to true to have a monovalued property indexed, allowing queries testing equality of that property to directly find matching objects.
+	 * Only used by {@link com.dooapp.gaedo.blueprints.indexable.KeyIndexableGraphBackedFinderService}.
+	 * @return true if property value must be indexed
+	 */
+	boolean indexed() default false;
 }
@@ -18,6 +18,11 @@ public enum IndexNames {
 	 * Legacy vertex index
 	 */
 	VERTICES("vertices", Vertex.class, true),
+	/**
+	 * Vertex index by {@link com.dooapp.gaedo.blueprints.Properties#typed_value}. Graphs created before that index existed
+	 * have to be migrated using {@link TypedVerticesIndexMigration}.
+	 */
+	TYPED_VERTICES("typed_vertices", Vertex.class, true),
 	/**
 	 * Legacy edge index
 	 */
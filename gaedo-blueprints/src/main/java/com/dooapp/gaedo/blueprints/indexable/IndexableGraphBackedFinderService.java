@@ -19,6 +19,7 @@ import com.dooapp.gaedo.blueprints.strategies.UnableToGetVertexTypeException;
 import com.dooapp.gaedo.blueprints.transformers.ClassLiteralTransformer;
 import com.dooapp.gaedo.blueprints.transformers.Literals;
 import com.dooapp.gaedo.blueprints.transformers.Tuples;
+import com.dooapp.gaedo.blueprints.transformers.TypeUtils;
 import com.dooapp.gaedo.extensions.views.InViewService;
 import com.dooapp.gaedo.finders.Informer;
 import com.dooapp.gaedo.finders.repository.ServiceRepository;
@@ -62,6 +63,12 @@ public class IndexableGraphBackedFinderService<DataType, InformerType extends In
 
 	public static ClassLiteralTransformer classTransformer = (ClassLiteralTransformer) Literals.get(Class.class);
 
+	/**
+	 * Set to true when graph has a {@link IndexNames#TYPED_VERTICES} index, allowing {@link #loadVertexFor(String, String)} to perform
+	 * a single index get.
+	 */
+	private boolean typedLookups;
+
 	/**
 	 * Construct a default service, for which the mapping strategy is the
 	 * default one (that's to say {@link StrategyType#beanBased}
@@ -92,7 +99,7 @@ public class IndexableGraphBackedFinderService<DataType, InformerType extends In
 	public IndexableGraphBackedFinderService(IndexableGraph graph, Class<DataType> containedClass, Class<InformerType> informerClass, InformerFactory factory,
 					ServiceRepository repository, PropertyProvider provider, GraphMappingStrategy<DataType> strategy) {
 		super(graph, containedClass, informerClass, factory, repository, provider, strategy);
-		loadIndices(graph);
+		typedLookups = loadIndices(graph);
 	}
 
 	/**
@@ -118,24 +125,34 @@ public class IndexableGraphBackedFinderService<DataType, InformerType extends In
 	public IndexableGraphBackedFinderService(IndexableGraph graph, Class<DataType> containedClass, Class<InformerType> informerClass, InformerFactory factory,
 					ServiceRepository repository, PropertyProvider provider, StrategyType strategy) {
 		super(graph, containedClass, informerClass, factory, repository, provider, strategy);
-		loadIndices(graph);
+		typedLookups = loadIndices(graph);
 	}
 
 	public IndexableGraphBackedFinderService(IndexableGraph graph, Class<DataType> containedClass, Class<InformerType> informerClass, InformerFactory factory,
 					ServiceRepository repository, PropertyProvider provider) {
 		super(graph, containedClass, informerClass, factory, repository, provider);
-		loadIndices(graph);
+		typedLookups = loadIndices(graph);
 	}
 
 	/**
-	 * There is no automatic index creation ! No worry, we will add them by hand
+	 * There is no automatic index creation ! No worry, we will add them by hand.
+	 * Notice that, when graph has a {@link IndexNames#VERTICES} index but no {@link IndexNames#TYPED_VERTICES} one, it has been written by
+	 * an older gaedo version. In that case, typed index is not created (as it would miss all existing vertices) and vertices are looked up
+	 * the legacy way, until graph is migrated by {@link TypedVerticesIndexMigration}.
 	 *
 	 * @param graph
+	 * @return true if graph has a {@link IndexNames#TYPED_VERTICES} index
 	 */
-	private void loadIndices(IndexableGraph graph) {
+	private boolean loadIndices(IndexableGraph graph) {
+		boolean legacy = graph.getIndex(IndexNames.VERTICES.getIndexName(), Vertex.class) != null
+						&& graph.getIndex(IndexNames.TYPED_VERTICES.getIndexName(), Vertex.class) == null;
+		if (legacy && logger.isLoggable(Level.WARNING)) {
+			logger.log(Level.WARNING, "graph has no index " + IndexNames.TYPED_VERTICES.describe() + ", vertices lookups will be slow. Use "
+							+ TypedVerticesIndexMigration.class.getName() + " to create it.");
+		}
 		for (IndexNames index : IndexNames.values()) {
 			Index<? extends Element> associatedIndex = graph.getIndex(index.getIndexName(), index.getIndexed());
-			if (associatedIndex == null) {
+			if (associatedIndex == null && !(legacy && IndexNames.TYPED_VERTICES == index)) {
 				if (logger.isLoggable(Level.FINE)) {
 					logger.log(Level.FINE, "There were no indice " + index.describe() + ". Creating it");
 				}
@@ -145,10 +162,63 @@ public class IndexableGraphBackedFinderService<DataType, InformerType extends In
 				}
 			}
 		}
+		return !legacy;
 	}
 
+	/**
+	 * Get value of {@link Properties#typed_value} property for a vertex
+	 * @param className effective type of vertex (the class name used when looking it up)
+	 * @param objectVertexId gaedo vertex id
+	 * @return a value unique among all vertices, as class names contain no colon
+	 */
+	public static String getTypedValue(String className, String objectVertexId) {
+		return className + ":" + objectVertexId;
+	}
+
+	/**
+	 * Load vertex from {@link VertexLookupCache} of graph, or from index if it's not in that cache
+	 * @param objectVertexId
+	 * @param className
+	 * @return
+	 * @see com.dooapp.gaedo.blueprints.AbstractBluePrintsBackedFinderService#loadVertexFor(java.lang.String, java.lang.String)
+	 */
 	@Override
 	public Vertex loadVertexFor(String objectVertexId, String className) {
+		VertexLookupCache cache = VertexLookupCache.forGraph(database);
+		Vertex returned = cache.get(database, objectVertexId, className);
+		if(returned==null) {
+			returned = typedLookups ? findVertexInTypedIndex(objectVertexId, className) : findVertexInIndex(objectVertexId, className);
+			if(returned!=null)
+				cache.put(objectVertexId, className, returned);
+		}
+		return returned;
+	}
+
+	/**
+	 * Find in {@link IndexNames#TYPED_VERTICES} index the vertex having the given id and type
+	 * @param objectVertexId
+	 * @param className
+	 * @return
+	 */
+	private Vertex findVertexInTypedIndex(String objectVertexId, String className) {
+		CloseableIterable<Vertex> matchingIterable = database.getIndex(IndexNames.TYPED_VERTICES.getIndexName(), Vertex.class).get(
+						Properties.typed_value.name(), getTypedValue(className, objectVertexId));
+		try {
+			Iterator<Vertex> matching = matchingIterable.iterator();
+			return matching.hasNext() ? matching.next() : null;
+		} finally {
+			matchingIterable.close();
+		}
+	}
+
+	/**
+	 * Find in index the vertex having the given id, and compatible with the given class. That's the way vertices are found
+	 * in graphs having no {@link IndexNames#TYPED_VERTICES} index.
+	 * @param objectVertexId
+	 * @param className
+	 * @return
+	 */
+	private Vertex findVertexInIndex(String objectVertexId, String className) {
 		Vertex defaultVertex = null;
 		CloseableIterable<Vertex> matchingIterable = database.getIndex(IndexNames.VERTICES.getIndexName(), Vertex.class).get(Properties.value.name(),
 						objectVertexId);
@@ -223,11 +293,15 @@ public class IndexableGraphBackedFinderService<DataType, InformerType extends In
 		// getIdOfVertex method !
 		Vertex returned = database.addVertex(valueClass.getName() + ":" + vertexId);
 		setIndexedProperty(returned, Properties.value.name(), vertexId, IndexNames.VERTICES);
+		// type as returned by getEffectiveType(returned)
+		String effectiveType = valueClass.getName();
 		if (Literals.containsKey(valueClass)) {
 			// some literals aren't so ... literal, as they can accept incoming
 			// connections (like classes)
 			setIndexedProperty(returned, Properties.kind.name(), Literals.get(valueClass).getKind().name(), IndexNames.VERTICES);
-			setIndexedProperty(returned, Properties.type.name(), Literals.get(valueClass).getTypeOf(value), IndexNames.VERTICES);
+			String type = Literals.get(valueClass).getTypeOf(value);
+			setIndexedProperty(returned, Properties.type.name(), type, IndexNames.VERTICES);
+			effectiveType = TypeUtils.getClass(type);
 		} else {
 			if (repository.containsKey(valueClass)) {
 				setIndexedProperty(returned, Properties.kind.name(), Kind.uri.name(), IndexNames.VERTICES);
@@ -240,6 +314,9 @@ public class IndexableGraphBackedFinderService<DataType, InformerType extends In
 			Vertex classVertex = classTransformer.getVertexFor(getDriver(), valueClass, CascadeType.PERSIST);
 			Edge toType = getDriver().createEdgeFor(returned, classVertex, TypeProperty.INSTANCE);
 		}
+		if (typedLookups) {
+			setIndexedProperty(returned, Properties.typed_value.name(), getTypedValue(effectiveType, vertexId), IndexNames.TYPED_VERTICES);
+		}
 		// Yup, this if has no default else statement, and that's normal.
 		if (logger.isLoggable(Level.FINE)) {
 			logger.log(Level.FINE, "created vertex " + GraphUtils.toString(returned));
@@ -0,0 +1,224 @@
+package com.dooapp.gaedo.blueprints.indexable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.dooapp.gaedo.blueprints.GraphUtils;
+import com.dooapp.gaedo.blueprints.TransactionalOperation;
+import com.dooapp.gaedo.blueprints.annotations.GraphProperty;
+import com.dooapp.gaedo.blueprints.strategies.StrategyType;
+import com.dooapp.gaedo.finders.Informer;
+import com.dooapp.gaedo.finders.repository.ServiceRepository;
+import com.dooapp.gaedo.finders.root.InformerFactory;
+import com.dooapp.gaedo.properties.Property;
+import com.dooapp.gaedo.properties.PropertyProvider;
+import com.tinkerpop.blueprints.CloseableIterable;
+import com.tinkerpop.blueprints.IndexableGraph;
+import com.tinkerpop.blueprints.KeyIndexableGraph;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Indexable graph backed service which also indexes the properties of managed class annotated with <code>@GraphProperty(indexed=true)</code>,
+ * using the automatic key indices of a {@link KeyIndexableGraph}.
+ * Value of each indexed property is written, in addition to the usual edge, as a property of object vertex (named after
+ * {@link #getKeyFor(Property)}), whose key index is created by that service if missing. Queries testing equality of an indexed property
+ * then directly get matching object vertices from that index (see {@link #getIndexedVertices(Property, Object)}).
+ * Only monovalued properties can be indexed. Notice key indices only support exact lookups : other tests on indexed properties are
+ * evaluated as usual. Objects written before a property was indexed have to be indexed using {@link #indexExistingObjects()}.
+ * @author ndx
+ *
+ * @param <DataType>
+ *            type of data managed by this service
+ * @param <InformerType>
+ *            type of informer used to provide infos about managed data
+ */
+public class KeyIndexableGraphBackedFinderService<DataType, InformerType extends Informer<DataType>> extends
+				IndexableGraphBackedFinderService<DataType, InformerType> {
+
+	private static final Logger logger = Logger.getLogger(KeyIndexableGraphBackedFinderService.class.getName());
+
+	/**
+	 * Prefix of vertex properties storing indexed values
+	 */
+	public static final String KEY_PREFIX = "indexed:";
+
+	/**
+	 * Indexed properties of managed class, and the keys storing their values
+	 */
+	private final Map<Property, String> indexedKeys;
+
+	/**
+	 * Construct a service using a bean based mapping
+	 * @param graph graph we want to write/read to/from. It must be both an indexable and a key indexable graph
+	 * @param containedClass class we want to map to that graph
+	 * @param informerClass informer used to allow easy queries on that class
+	 * @param factory informer factory
+	 * @param repository service repository, to load other classes
+	 * @param provider property provider
+	 */
+	public <GraphType extends IndexableGraph & KeyIndexableGraph> KeyIndexableGraphBackedFinderService(GraphType graph, Class<DataType> containedClass,
+					Class<InformerType> informerClass, InformerFactory factory, ServiceRepository repository, PropertyProvider provider) {
+		this(graph, containedClass, informerClass, factory, repository, provider, StrategyType.beanBased);
+	}
+
+	/**
+	 * @param graph graph we want to write/read to/from. It must be both an indexable and a key indexable graph
+	 * @param containedClass class we want to map to that graph
+	 * @param informerClass informer used to allow easy queries on that class
+	 * @param factory informer factory
+	 * @param repository service repository, to load other classes
+	 * @param provider property provider
+	 * @param strategy mapping strategy
+	 */
+	public <GraphType extends IndexableGraph & KeyIndexableGraph> KeyIndexableGraphBackedFinderService(GraphType graph, Class<DataType> containedClass,
+					Class<InformerType> informerClass, InformerFactory factory, ServiceRepository repository, PropertyProvider provider, StrategyType strategy) {
+		super(graph, containedClass, informerClass, factory, repository, provider, strategy);
+		this.indexedKeys = loadKeyIndices(graph, provider.get(containedClass));
+	}
+
+	/**
+	 * Find indexed properties and create the missing key indices
+	 * @param graph
+	 * @param properties properties of managed class
+	 * @return a map linking indexed properties to their keys
+	 */
+	private Map<Property, String> loadKeyIndices(KeyIndexableGraph graph, Property[] properties) {
+		Map<Property, String> returned = new HashMap<Property, String>();
+		Set<String> existing = graph.getIndexedKeys(Vertex.class);
+		for (Property p : properties) {
+			GraphProperty annotation = p.getAnnotation(GraphProperty.class);
+			if (annotation != null && annotation.indexed()) {
+				if (Collection.class.isAssignableFrom(p.getType()) || Map.class.isAssignableFrom(p.getType())) {
+					if (logger.isLoggable(Level.WARNING)) {
+						logger.log(Level.WARNING, "property " + p.toGenericString() + " is multivalued and can't be indexed");
+					}
+				} else {
+					String key = getKeyFor(p);
+					if (!existing.contains(key)) {
+						graph.createKeyIndex(key, Vertex.class);
+						if (logger.isLoggable(Level.INFO)) {
+							logger.log(Level.INFO, "created key index " + key + ". If graph already contains " + containedClass.getName()
+											+ " objects, they have to be indexed using indexExistingObjects()");
+						}
+					}
+					returned.put(p, key);
+				}
+			}
+		}
+		return Collections.unmodifiableMap(returned);
+	}
+
+	/**
+	 * Get name of vertex property storing values of an indexed property
+	 * @param p
+	 * @return {@link #KEY_PREFIX} followed by property edge name
+	 */
+	public static String getKeyFor(Property p) {
+		return KEY_PREFIX + GraphUtils.getEdgeNameFor(p);
+	}
+
+	/**
+	 * Get value stored in key index for a property value
+	 * @param value a non null property value
+	 * @return id of that value, which is a string for all values (literals, tuples and managed objects)
+	 */
+	private String getIndexedValueOf(Object value) {
+		return GraphUtils.getIdOf(getRepository(), value);
+	}
+
+	/**
+	 * Write the value of an indexed property in object vertex. Vertex property is left untouched when value didn't change.
+	 * @param objectVertex
+	 * @param property
+	 * @param value
+	 * @see com.dooapp.gaedo.blueprints.AbstractBluePrintsBackedFinderService#singlePropertyUpdated(com.tinkerpop.blueprints.Vertex, com.dooapp.gaedo.properties.Property, java.lang.Object)
+	 */
+	@Override
+	protected void singlePropertyUpdated(Vertex objectVertex, Property property, Object value) {
+		String key = indexedKeys.get(property);
+		if (key != null) {
+			Object previous = objectVertex.getProperty(key);
+			if (value == null) {
+				if (previous != null)
+					objectVertex.removeProperty(key);
+			} else {
+				String indexed = getIndexedValueOf(value);
+				if (!indexed.equals(previous))
+					objectVertex.setProperty(key, indexed);
+			}
+		}
+	}
+
+	/**
+	 * Get vertices having the given value in key index of that property
+	 * @param property
+	 * @param value
+	 * @return
+	 * @see com.dooapp.gaedo.blueprints.AbstractBluePrintsBackedFinderService#getIndexedVertices(com.dooapp.gaedo.properties.Property, java.lang.Object)
+	 */
+	@Override
+	public Iterable<Vertex> getIndexedVertices(Property property, Object value) {
+		final String key = indexedKeys.get(property);
+		if (key == null || value == null)
+			return null;
+		final String indexed = getIndexedValueOf(value);
+		return new CloseableIterable<Vertex>() {
+			/**
+			 * Iterables returned by graph, to close once this one is closed
+			 */
+			private final Collection<Iterable<Vertex>> opened = new LinkedList<Iterable<Vertex>>();
+
+			@Override
+			public Iterator<Vertex> iterator() {
+				Iterable<Vertex> vertices = getDatabase().getVertices(key, indexed);
+				opened.add(vertices);
+				return vertices.iterator();
+			}
+
+			@Override
+			public void close() {
+				for (Iterable<Vertex> vertices : opened) {
+					GraphUtils.close(vertices);
+				}
+				opened.clear();
+			}
+		};
+	}
+
+	/**
+	 * Write values of indexed properties for all objects of managed class. Should be called once when a property of a class whose objects
+	 * are already stored in graph becomes indexed (otherwise, these objects won't be found by queries on that property).
+	 * @return number of browsed objects
+	 */
+	public int indexExistingObjects() {
+		return new TransactionalOperation<Integer, DataType, InformerType>(this) {
+
+			@Override
+			protected Integer doPerform() {
+				int returned = 0;
+				for (DataType object : findAll()) {
+					Vertex objectVertex = getIdVertexFor(object, false);
+					for (Map.Entry<Property, String> entry : indexedKeys.entrySet()) {
+						singlePropertyUpdated(objectVertex, entry.getKey(), entry.getKey().get(object));
+					}
+					returned++;
+				}
+				return returned;
+			}
+		}.perform();
+	}
+
+	/**
+	 * @return indexed properties of managed class
+	 */
+	public Collection<Property> getIndexedProperties() {
+		return indexedKeys.keySet();
+	}
+}
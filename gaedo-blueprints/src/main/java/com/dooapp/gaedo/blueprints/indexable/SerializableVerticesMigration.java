@@ -0,0 +1,135 @@
+package com.dooapp.gaedo.blueprints.indexable;
+
+import java.io.Serializable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.dooapp.gaedo.blueprints.GraphUtils;
+import com.dooapp.gaedo.blueprints.Kind;
+import com.dooapp.gaedo.blueprints.Properties;
+import com.dooapp.gaedo.blueprints.VertexHasNoPropertyException;
+import com.dooapp.gaedo.blueprints.strategies.UnableToGetVertexTypeException;
+import com.dooapp.gaedo.blueprints.transformers.SerializableTransformer;
+import com.tinkerpop.blueprints.Index;
+import com.tinkerpop.blueprints.IndexableGraph;
+import com.tinkerpop.blueprints.TransactionalGraph;
+import com.tinkerpop.blueprints.TransactionalGraph.Conclusion;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * One-shot migration of the unknown serializables written by a gaedo version that identified them by their XML form. It stores that XML form in the
+ * {@link Properties#serialized} property of their vertices, and re-indexes them using the hash id computed by {@link SerializableTransformer#getIdOfSerialized(String)},
+ * so that queries comparing values to them match again. Typical use is
+ * <pre>
+ * new SerializableVerticesMigration(anyServiceOn(graph)).migrate();
+ * </pre>
+ * Migration must be run while no other service uses that graph. When graph is transactional, migration is committed every {@link #getChunkSize()} vertices.
+ * Running it again on a migrated graph is harmless.
+ * @author ndx
+ *
+ */
+public class SerializableVerticesMigration {
+	private static final Logger logger = Logger.getLogger(SerializableVerticesMigration.class.getName());
+
+	/**
+	 * Default number of vertices migrated between two commits
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+	/**
+	 * Service used to get vertices types
+	 */
+	private final IndexableGraphBackedFinderService<?, ?> service;
+
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	/**
+	 * @param service any service using the graph to migrate. Its mapping strategy is used to get vertices types.
+	 */
+	public SerializableVerticesMigration(IndexableGraphBackedFinderService<?, ?> service) {
+		this.service = service;
+	}
+
+	/**
+	 * Perform migration
+	 * @return number of migrated vertices
+	 */
+	public int migrate() {
+		IndexableGraph graph = service.getDatabase();
+		TransactionalGraph transactional = graph instanceof TransactionalGraph ? (TransactionalGraph) graph : null;
+		Index<Vertex> vertices = graph.getIndex(IndexNames.VERTICES.getIndexName(), Vertex.class);
+		Index<Vertex> typedVertices = graph.getIndex(IndexNames.TYPED_VERTICES.getIndexName(), Vertex.class);
+		int migrated = 0;
+		try {
+			for (Vertex vertex : graph.getVertices()) {
+				if (isLegacySerializable(vertex)) {
+					String legacyId = vertex.getProperty(Properties.value.name()).toString();
+					String serialized = SerializableTransformer.getSerializedOfLegacy(legacyId);
+					String id = SerializableTransformer.getIdOfSerialized(serialized);
+					// lookups of legacy id must no more find that vertex
+					VertexLookupCache.removed(graph, vertex);
+					vertices.remove(Properties.value.name(), legacyId, vertex);
+					vertex.setProperty(Properties.serialized.name(), serialized);
+					GraphUtils.setIndexedProperty(graph, vertex, Properties.value.name(), id, IndexNames.VERTICES);
+					if (typedVertices != null) {
+						Object legacyTypedValue = vertex.getProperty(Properties.typed_value.name());
+						if (legacyTypedValue != null)
+							typedVertices.remove(Properties.typed_value.name(), legacyTypedValue, vertex);
+						GraphUtils.setIndexedProperty(graph, vertex, Properties.typed_value.name(),
+										IndexableGraphBackedFinderService.getTypedValue(Serializable.class.getName(), id), IndexNames.TYPED_VERTICES);
+					}
+					if (++migrated % chunkSize == 0 && transactional != null) {
+						transactional.stopTransaction(Conclusion.SUCCESS);
+					}
+				}
+			}
+			if (transactional != null) {
+				transactional.stopTransaction(Conclusion.SUCCESS);
+			}
+		} catch (RuntimeException e) {
+			if (transactional != null) {
+				transactional.stopTransaction(Conclusion.FAILURE);
+			}
+			throw e;
+		}
+		if (logger.isLoggable(Level.INFO)) {
+			logger.log(Level.INFO, "migrated " + migrated + " serializable vertices");
+		}
+		return migrated;
+	}
+
+	/**
+	 * Check if vertex is an unknown serializable written before codecs were introduced
+	 * @param vertex
+	 * @return true if vertex is a {@link Serializable} typed blank node having a value, but no {@link Properties#serialized} property
+	 */
+	private boolean isLegacySerializable(Vertex vertex) {
+		if (vertex.getProperty(Properties.value.name()) == null || vertex.getProperty(Properties.serialized.name()) != null)
+			return false;
+		try {
+			return Kind.bnode == GraphUtils.getKindOf(vertex) && Serializable.class.getName().equals(service.getStrategy().getEffectiveType(vertex));
+		} catch (UnableToGetVertexTypeException e) {
+			return false;
+		} catch (VertexHasNoPropertyException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return the chunkSize
+	 * @category getter
+	 * @category chunkSize
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * @param chunkSize number of vertices migrated between two commits
+	 * @category setter
+	 * @category chunkSize
+	 */
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+}
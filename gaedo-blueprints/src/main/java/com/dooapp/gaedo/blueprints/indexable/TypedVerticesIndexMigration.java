@@ -0,0 +1,124 @@
+package com.dooapp.gaedo.blueprints.indexable;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.dooapp.gaedo.blueprints.GraphUtils;
+import com.dooapp.gaedo.blueprints.Properties;
+import com.dooapp.gaedo.blueprints.VertexHasNoPropertyException;
+import com.dooapp.gaedo.blueprints.strategies.GraphMappingStrategy;
+import com.dooapp.gaedo.blueprints.strategies.UnableToGetVertexTypeException;
+import com.tinkerpop.blueprints.IndexableGraph;
+import com.tinkerpop.blueprints.TransactionalGraph;
+import com.tinkerpop.blueprints.TransactionalGraph.Conclusion;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * One-shot migration of a graph written by a gaedo version that didn't maintain the {@link IndexNames#TYPED_VERTICES} index.
+ * It creates that index, then sets {@link Properties#typed_value} property of all vertices having a {@link Properties#value}, so that
+ * {@link IndexableGraphBackedFinderService#loadVertexFor(String, String)} can find them with a single index get.
+ * Typical use is
+ * <pre>
+ * new TypedVerticesIndexMigration(anyServiceOn(graph)).migrate();
+ * </pre>
+ * Vertices having no type (which can only have been written by hand) are indexed as {@link GraphMappingStrategy#STRING_TYPE} ones.
+ * Migration must be run while no other service uses that graph, and services created before migration must be created again to use the new index.
+ * When graph is transactional, migration is committed every {@link #getChunkSize()} vertices. Running it again on a migrated graph is harmless.
+ * @author ndx
+ *
+ */
+public class TypedVerticesIndexMigration {
+	private static final Logger logger = Logger.getLogger(TypedVerticesIndexMigration.class.getName());
+
+	/**
+	 * Default number of vertices migrated between two commits
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+	/**
+	 * Service used to get vertices types
+	 */
+	private final IndexableGraphBackedFinderService<?, ?> service;
+
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	/**
+	 * @param service any service using the graph to migrate. Its mapping strategy is used to get vertices types.
+	 */
+	public TypedVerticesIndexMigration(IndexableGraphBackedFinderService<?, ?> service) {
+		this.service = service;
+	}
+
+	/**
+	 * Perform migration
+	 * @return number of indexed vertices
+	 */
+	public int migrate() {
+		IndexableGraph graph = service.getDatabase();
+		TransactionalGraph transactional = graph instanceof TransactionalGraph ? (TransactionalGraph) graph : null;
+		if (graph.getIndex(IndexNames.TYPED_VERTICES.getIndexName(), Vertex.class) == null) {
+			graph.createIndex(IndexNames.TYPED_VERTICES.getIndexName(), Vertex.class);
+		}
+		int indexed = 0;
+		try {
+			for (Vertex vertex : graph.getVertices()) {
+				Object value = vertex.getProperty(Properties.value.name());
+				String type = getTypeOf(vertex);
+				if (value != null && type != null) {
+					String typedValue = IndexableGraphBackedFinderService.getTypedValue(type, value.toString());
+					if (!typedValue.equals(vertex.getProperty(Properties.typed_value.name()))) {
+						GraphUtils.setIndexedProperty(graph, vertex, Properties.typed_value.name(), typedValue, IndexNames.TYPED_VERTICES);
+						if (++indexed % chunkSize == 0 && transactional != null) {
+							transactional.stopTransaction(Conclusion.SUCCESS);
+						}
+					}
+				}
+			}
+			if (transactional != null) {
+				transactional.stopTransaction(Conclusion.SUCCESS);
+			}
+		} catch (RuntimeException e) {
+			if (transactional != null) {
+				transactional.stopTransaction(Conclusion.FAILURE);
+			}
+			throw e;
+		}
+		if (logger.isLoggable(Level.INFO)) {
+			logger.log(Level.INFO, "indexed " + indexed + " vertices in " + IndexNames.TYPED_VERTICES.describe());
+		}
+		return indexed;
+	}
+
+	/**
+	 * Get type used to index vertex
+	 * @param vertex
+	 * @return vertex effective type, or null if vertex has no kind (in which case it has never been found by gaedo)
+	 */
+	private String getTypeOf(Vertex vertex) {
+		try {
+			return service.getStrategy().getEffectiveType(vertex);
+		} catch (UnableToGetVertexTypeException e) {
+			return GraphMappingStrategy.STRING_TYPE;
+		} catch (VertexHasNoPropertyException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the chunkSize
+	 * @category getter
+	 * @category chunkSize
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * @param chunkSize number of vertices migrated between two commits
+	 * @category setter
+	 * @category chunkSize
+	 */
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+}
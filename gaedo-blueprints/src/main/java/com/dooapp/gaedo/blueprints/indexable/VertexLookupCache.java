@@ -0,0 +1,191 @@
+package com.dooapp.gaedo.blueprints.indexable;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dooapp.gaedo.blueprints.GraphUtils;
+import com.dooapp.gaedo.blueprints.Properties;
+import com.dooapp.gaedo.finders.cache.BoundedCache;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * A size bounded (in a LRU fashion) cache of the results of {@link IndexableGraphBackedFinderService#loadVertexFor(String, String)}. It links
+ * gaedo vertex ids (and the class name used to look them up) to graph element ids, so that a cache hit costs a {@link Graph#getVertex(Object)}
+ * call instead of an index lookup followed by the inspection of all vertices found.
+ * There is one cache per graph, shared by all services using that graph, obtained by {@link #forGraph(Graph)}. Entries are removed when vertices
+ * are deleted by {@link GraphUtils#removeSafely(Graph, Vertex)}. As a safety net, a cached vertex is only returned if it still exists and
+ * still has the looked up id.
+ * @author ndx
+ *
+ */
+public class VertexLookupCache {
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+	/**
+	 * Caches used by graphs
+	 */
+	private static final Map<Graph, VertexLookupCache> caches = new WeakHashMap<Graph, VertexLookupCache>();
+
+	/**
+	 * Graph element ids, by gaedo vertex id then class name
+	 */
+	private final BoundedCache<String, Map<String, Object>> entries;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Build a cache of {@link #DEFAULT_MAXIMUM_SIZE} vertex ids
+	 */
+	public VertexLookupCache() {
+		this(DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * @param maximumSize maximum number of cached vertex ids. When reached, least recently used one is evicted.
+	 */
+	public VertexLookupCache(final int maximumSize) {
+		this.entries = new BoundedCache<String, Map<String, Object>>(maximumSize);
+	}
+
+	/**
+	 * Get cache used for the given graph, creating it if required
+	 * @param graph
+	 * @return cache used by all services storing data in that graph
+	 */
+	public static VertexLookupCache forGraph(Graph graph) {
+		synchronized(caches) {
+			VertexLookupCache returned = caches.get(graph);
+			if(returned==null) {
+				returned = new VertexLookupCache();
+				caches.put(graph, returned);
+			}
+			return returned;
+		}
+	}
+
+	/**
+	 * Set cache used for the given graph. Allows using a cache of another size.
+	 * @param graph
+	 * @param cache
+	 */
+	public static void install(Graph graph, VertexLookupCache cache) {
+		synchronized(caches) {
+			caches.put(graph, cache);
+		}
+	}
+
+	/**
+	 * Get vertex cached for the given lookup
+	 * @param graph graph in which vertex is loaded
+	 * @param objectVertexId gaedo vertex id
+	 * @param className class name used for lookup
+	 * @return the cached vertex, or null if there is none (or if it's no more valid)
+	 */
+	public Vertex get(Graph graph, String objectVertexId, String className) {
+		Object id = null;
+		Map<String, Object> byClass = entries.get(objectVertexId);
+		if(byClass!=null)
+			id = byClass.get(className);
+		if(id!=null) {
+			Vertex returned = graph.getVertex(id);
+			if(returned!=null) {
+				Object value = returned.getProperty(Properties.value.name());
+				if(value!=null && objectVertexId.equals(value.toString())) {
+					hits.incrementAndGet();
+					return returned;
+				}
+			}
+			remove(objectVertexId);
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Store the vertex found for the given lookup
+	 * @param objectVertexId gaedo vertex id
+	 * @param className class name used for lookup
+	 * @param vertex vertex found
+	 */
+	public void put(String objectVertexId, String className, Vertex vertex) {
+		Map<String, Object> byClass = entries.get(objectVertexId);
+		if(byClass==null) {
+			byClass = entries.putIfAbsent(objectVertexId, new ConcurrentHashMap<String, Object>(2));
+		}
+		byClass.put(className, vertex.getId());
+	}
+
+	/**
+	 * Remove all lookups of the given gaedo vertex id
+	 * @param objectVertexId
+	 */
+	public void remove(String objectVertexId) {
+		entries.remove(objectVertexId);
+	}
+
+	/**
+	 * Remove all lookups returning the given vertex, provided a cache exists for that graph
+	 * @param graph graph from which vertex is removed
+	 * @param removed removed vertex
+	 */
+	public static void removed(Graph graph, Vertex removed) {
+		VertexLookupCache cache = null;
+		synchronized(caches) {
+			cache = caches.get(graph);
+		}
+		if(cache!=null) {
+			Object objectVertexId = removed.getProperty(Properties.value.name());
+			if(objectVertexId!=null)
+				cache.remove(objectVertexId.toString());
+		}
+	}
+
+	/**
+	 * Drop all cached lookups, provided a cache exists for that graph
+	 * @param graph
+	 */
+	public static void clear(Graph graph) {
+		VertexLookupCache cache = null;
+		synchronized(caches) {
+			cache = caches.get(graph);
+		}
+		if(cache!=null)
+			cache.clear();
+	}
+
+	/**
+	 * Drop all cached lookups
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return number of cached vertex ids
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getEvictions() {
+		return entries.getEvictions();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+"(size:"+size()+"; hits:"+hits+"; misses:"+misses+"; evictions:"+getEvictions()+")";
+	}
+}
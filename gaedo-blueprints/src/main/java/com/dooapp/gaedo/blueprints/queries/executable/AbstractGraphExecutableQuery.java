@@ -1,97 +1,288 @@
 package com.dooapp.gaedo.blueprints.queries.executable;
 
-import java.util.Collection;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import com.dooapp.gaedo.blueprints.AbstractBluePrintsBackedFinderService;
+import com.dooapp.gaedo.blueprints.GraphUtils;
 import com.dooapp.gaedo.blueprints.QueryLog;
+import com.dooapp.gaedo.blueprints.queries.executable.SortingComparator.SortKey;
 import com.dooapp.gaedo.blueprints.queries.tests.CompoundVertexTest;
+import com.dooapp.gaedo.blueprints.queries.tests.TargettedVertexTest;
 import com.dooapp.gaedo.blueprints.queries.tests.VertexTest;
+import com.dooapp.gaedo.blueprints.transformers.LiteralTransformer;
+import com.dooapp.gaedo.blueprints.transformers.Literals;
+import com.dooapp.gaedo.blueprints.utils.NavigationCache;
 import com.dooapp.gaedo.finders.SortingExpression;
-import com.dooapp.gaedo.utils.CollectionUtils;
+import com.dooapp.gaedo.properties.ClassCollectionProperty;
 import com.tinkerpop.blueprints.Vertex;
 
 public abstract class AbstractGraphExecutableQuery implements GraphExecutableQuery {
+	private static final Logger logger = Logger.getLogger(AbstractGraphExecutableQuery.class.getName());
 
 	protected final VertexTest test;
 	protected final SortingExpression sort;
 	protected final AbstractBluePrintsBackedFinderService<?, ?, ?> service;
+	/**
+	 * Navigation memo shared by {@link #test} and sorting comparator, so that a path navigated to match a vertex is not navigated again to sort it
+	 */
+	protected final NavigationCache navigation;
 
 	public AbstractGraphExecutableQuery(AbstractBluePrintsBackedFinderService<?, ?, ?> service, CompoundVertexTest vertexTest, SortingExpression sortingExpression) {
 		this.service = service;
 		this.test = vertexTest;
 		this.sort = sortingExpression;
+		this.navigation = new NavigationCache(service.getStrategy());
+		if(vertexTest instanceof TargettedVertexTest) {
+			((TargettedVertexTest) vertexTest).setNavigation(navigation);
+		}
 	}
 
 	
 
 	/**
-	 * Get a collection of vertices matching the test criteria
-	 * @return
+	 * Iterator pulling vertices to examine one at a time, and only returning the ones matching {@link #test}. When a vertex may be reached
+	 * by more than one path (see {@link AbstractGraphExecutableQuery#mayExamineDuplicates()}), ids of returned vertices are kept to return each one only once.
+	 * Examined vertices iterable is closed (see {@link GraphUtils#close(Iterable)}) once all vertices have been examined, or when {@link #close()} is called.
+	 * @author ndx
+	 *
 	 */
-	protected List<Vertex> getVertices() {
-		Collection<Vertex> unsortedVertices = null;
-		if(sort==null)
-			unsortedVertices = new LinkedList<Vertex>();
-		else
-			unsortedVertices = new TreeSet<Vertex>(new SortingComparator(service, sort));
-		Collection<Vertex> examinedVertices = getVerticesToExamine();
-		if (QueryLog.logger.isLoggable(QueryLog.QUERY_LOGGING_LEVEL)) {
-			QueryLog.logger.log(QueryLog.QUERY_LOGGING_LEVEL, "vertex test "+test+" returned a total of "+examinedVertices.size()+" vertices to examine");
+	protected class MatchingVerticesIterator implements Iterator<Vertex> {
+		private final Iterable<Vertex> examinedIterable = getVerticesToExamine();
+
+		private final Iterator<Vertex> examined = examinedIterable.iterator();
+
+		private Vertex next;
+
+		/**
+		 * Ids of returned vertices, or null when examined vertices are known to be distinct
+		 */
+		private final Set<Object> returnedIds = mayExamineDuplicates() ? new HashSet<Object>() : null;
+
+		private int examinedCount = 0;
+
+		private int matchingCount = 0;
+
+		@Override
+		public boolean hasNext() {
+			while(next==null) {
+				if(!examined.hasNext()) {
+					if (QueryLog.logger.isLoggable(QueryLog.QUERY_LOGGING_LEVEL)) {
+						QueryLog.logger.log(QueryLog.QUERY_LOGGING_LEVEL, "vertex test "+test+" examined a total of "+examinedCount+" vertices, from which "+matchingCount+" matched");
+					}
+					close();
+					return false;
+				}
+				Vertex current = examined.next();
+				examinedCount++;
+				if(test.matches(current) && (returnedIds==null || returnedIds.add(current.getId()))) {
+					matchingCount++;
+					next = current;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public Vertex next() {
+			if(!hasNext())
+				throw new NoSuchElementException();
+			Vertex returned = next;
+			next = null;
+			return returned;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
 		}
-		for(Vertex v : examinedVertices) {
-			if(test.matches(v)) {
-				unsortedVertices.add(v);
+
+		/**
+		 * Close examined vertices iterable. Should be called when iteration stops before all vertices have been examined.
+		 */
+		public void close() {
+			GraphUtils.close(examinedIterable);
+		}
+	}
+
+	/**
+	 * @return true if a non empty sorting expression was given
+	 */
+	protected boolean isSorted() {
+		return sort!=null && sort.iterator().hasNext();
+	}
+
+	/**
+	 * Get vertices matching the test criteria, in no particular order. Vertices to examine are pulled (and tested) as returned iterator is browsed,
+	 * so that no intermediate collection is ever built. Callers stopping before end of iteration must {@link MatchingVerticesIterator#close()} it.
+	 * @return
+	 */
+	protected MatchingVerticesIterator getMatchingVertices() {
+		// graph may have changed since previous execution
+		navigation.clear();
+		return new MatchingVerticesIterator();
+	}
+
+	/**
+	 * Get a list of the first vertices matching the test criteria, sorted according to {@link #sort}. As sorting requires all matching vertices to be known,
+	 * all of them are examined, but only the sort keys of the best <code>limit</code> ones are kept (in a bounded heap) and finally sorted.
+	 * @param limit maximum number of returned vertices
+	 * @return
+	 */
+	protected List<Vertex> getSortedVertices(int limit) {
+		List<Vertex> returned = new ArrayList<Vertex>();
+		if(limit<=0)
+			return returned;
+		SortingComparator comparator = new SortingComparator(service, sort, navigation);
+		Comparator<SortKey> keyComparator = comparator.getKeyComparator();
+		List<SortKey> sortedKeys = null;
+		MatchingVerticesIterator matching = getMatchingVertices();
+		try {
+			if(limit==Integer.MAX_VALUE) {
+				sortedKeys = new ArrayList<SortKey>();
+				while(matching.hasNext()) {
+					sortedKeys.add(comparator.getKeyOf(matching.next()));
+				}
+			} else {
+				// a heap whose head is the worst kept key, so that it can be dropped as soon as a better one is found
+				PriorityQueue<SortKey> best = new PriorityQueue<SortKey>(Math.min(limit, 1024)+1, Collections.reverseOrder(keyComparator));
+				while(matching.hasNext()) {
+					best.add(comparator.getKeyOf(matching.next()));
+					if(best.size()>limit)
+						best.poll();
+				}
+				sortedKeys = new ArrayList<SortKey>(best);
 			}
-			// We don't need to add specific sorting here, as it is done by the Comparator
+		} finally {
+			matching.close();
 		}
-		if (QueryLog.logger.isLoggable(QueryLog.QUERY_LOGGING_LEVEL)) {
-			QueryLog.logger.log(QueryLog.QUERY_LOGGING_LEVEL, "In these, "+unsortedVertices.size()+" vertices matched given test "+test);
+		Collections.sort(sortedKeys, keyComparator);
+		for(SortKey key : sortedKeys) {
+			returned.add(key.getVertex());
 		}
-		// Hopefully, CollectionUtils#asList method is smart enough to not transform a list (which is what we obtain when no sorting expression is given)
-		return CollectionUtils.asList(unsortedVertices);
+		return returned;
 	}
 
 	/**
-	 * Get the list of vertices to be examined.
+	 * Get the vertices to be examined.
 	 * This method is supposed to give to tests all the vertices in graph that may be valid results for tests. In other words, it must
 	 * result a superset of all valid vertices. Obviously, the goal is to find fast the smaller superset.
+	 * Implementations should return lazy iterables, as examined vertices may not all be browsed (typically when only the first matching one is searched).
 	 * @return an unordered superset of matching vertices.
 	 */
-	protected abstract Collection<Vertex> getVerticesToExamine();
-
+	protected abstract Iterable<Vertex> getVerticesToExamine();
 
+	/**
+	 * @return true if {@link #getVerticesToExamine()} may return the same vertex more than once. By default, examined vertices are the
+	 * instances of searched class, which are all distinct.
+	 */
+	protected boolean mayExamineDuplicates() {
+		return false;
+	}
 
 	@Override
 	public int count() {
-		return getVertices().size();
+		int returned = 0;
+		MatchingVerticesIterator matching = getMatchingVertices();
+		try {
+			for(; matching.hasNext(); matching.next()) {
+				returned++;
+			}
+		} finally {
+			matching.close();
+		}
+		return returned;
 	}
 
-
+	/**
+	 * Get a subset of results. Results are computed when this method is called, and returned iterable can be browsed any number of times
+	 * without running query again (allowing, as an example, to delete returned objects while browsing them).
+	 * When query is not sorted, examination of vertices stops as soon as the <code>end</code>th matching vertex is found. Otherwise, only the first <code>end</code>
+	 * results are kept and sorted. Notice that, in both cases, a range going beyond the last result returns a smaller subset.
+	 * @param start
+	 * @param end
+	 * @return
+	 * @see com.dooapp.gaedo.blueprints.queries.executable.GraphExecutableQuery#get(int, int)
+	 */
 	@Override
 	public Iterable<Vertex> get(int start, int end) {
-		return getVertices().subList(start, end);
+		if(!isSorted()) {
+			List<Vertex> returned = new ArrayList<Vertex>();
+			MatchingVerticesIterator matching = getMatchingVertices();
+			try {
+				for(int index = 0; index<end && matching.hasNext(); index++) {
+					Vertex current = matching.next();
+					if(index>=start)
+						returned.add(current);
+				}
+			} finally {
+				matching.close();
+			}
+			return returned;
+		} else {
+			List<Vertex> sorted = getSortedVertices(end);
+			return sorted.subList(Math.min(start, sorted.size()), sorted.size());
+		}
 	}
 
+	/**
+	 * Get all results. Like {@link #get(int, int)}, results are computed when this method is called.
+	 * @return
+	 * @see com.dooapp.gaedo.blueprints.queries.executable.GraphExecutableQuery#getAll()
+	 */
 	@Override
 	public Iterable<Vertex> getAll() {
-		return getVertices();
+		return get(0, Integer.MAX_VALUE);
 	}
 
+	/**
+	 * Get first result. When query is not sorted, it is the first matching vertex found, and examination stops there. Otherwise, it is
+	 * the smallest matching vertex according to {@link #sort}, which is found without sorting all results.
+	 * @return
+	 * @see com.dooapp.gaedo.blueprints.queries.executable.GraphExecutableQuery#getVertex()
+	 */
 	@Override
 	public Vertex getVertex() {
-		List<Vertex> vertices = getVertices();
-		if(vertices.size()>0)
-			return vertices.get(0);
-		return null;
+		Iterator<Vertex> first = get(0, 1).iterator();
+		return first.hasNext() ? first.next() : null;
 	}
-	
+
 	protected Class getSearchedClass() {
 		return service.getContainedClass();
 	}
 
+	/**
+	 * Get all instances of searched class, which are lazily loaded from the edges linking them to class vertex
+	 * @return an iterable over vertices of searched class, or an empty one if graph doesn't know that class
+	 */
+	protected Iterable<Vertex> getClassInstances() {
+		// First step is to locate the class node
+		Vertex classVertex = getClassVertex();
+		ClassCollectionProperty classes = new ClassCollectionProperty(getSearchedClass());
+		if(classVertex==null) {
+			if (logger.isLoggable(Level.WARNING)) {
+				logger.log(Level.WARNING, "graph doesn't seem to know source class "+getSearchedClass().getCanonicalName());
+			}
+			return Collections.emptyList();
+		}
+		// Now iterate on all instances (test will be performed on each one during iteration)
+		return new IncomingVertices(Collections.singleton(classVertex), GraphUtils.getEdgeNameFor(classes));
+	}
+
+	protected Vertex getClassVertex() {
+		LiteralTransformer<Class> transformer = Literals.classes.getTransformer();
+		return service.loadVertexFor(transformer.getVertexId(getSearchedClass()), Class.class.getName());
+	}
+
 
 
 	/**
@@ -35,4 +35,10 @@ public interface GraphExecutableQuery {
 	 */
 	Vertex getVertex();
 
+	/**
+	 * Describe how vertices to examine are obtained, without running the query
+	 * @return a human readable description of query plan
+	 */
+	String explain();
+
 }
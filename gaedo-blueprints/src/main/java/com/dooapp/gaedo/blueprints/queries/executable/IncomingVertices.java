@@ -0,0 +1,73 @@
+package com.dooapp.gaedo.blueprints.queries.executable;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.dooapp.gaedo.blueprints.GraphUtils;
+import com.tinkerpop.blueprints.CloseableIterable;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Lazy iterable over the vertices linked to some target vertices by edges having a given label. Edges of a target vertex are only
+ * read once all vertices linked to previous target have been iterated over, so that iterable never holds more than one edge iterator.
+ * Closing it closes the targets iterable.
+ * @author ndx
+ *
+ */
+public class IncomingVertices implements CloseableIterable<Vertex> {
+	private class IncomingVerticesIterator implements Iterator<Vertex> {
+		private final Iterator<Vertex> targets = IncomingVertices.this.targets.iterator();
+
+		private Iterator<Edge> edges = Collections.<Edge> emptyList().iterator();
+
+		@Override
+		public boolean hasNext() {
+			while(!edges.hasNext()) {
+				if(!targets.hasNext())
+					return false;
+				edges = targets.next().getEdges(Direction.IN, edgeName).iterator();
+			}
+			return true;
+		}
+
+		@Override
+		public Vertex next() {
+			if(!hasNext())
+				throw new NoSuchElementException();
+			return edges.next().getVertex(Direction.OUT);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Vertices to which returned vertices are linked
+	 */
+	private final Iterable<Vertex> targets;
+
+	/**
+	 * Label of navigated edges
+	 */
+	private final String edgeName;
+
+	public IncomingVertices(Iterable<Vertex> targets, String edgeName) {
+		this.targets = targets;
+		this.edgeName = edgeName;
+	}
+
+	@Override
+	public Iterator<Vertex> iterator() {
+		return new IncomingVerticesIterator();
+	}
+
+	@Override
+	public void close() {
+		GraphUtils.close(targets);
+	}
+}
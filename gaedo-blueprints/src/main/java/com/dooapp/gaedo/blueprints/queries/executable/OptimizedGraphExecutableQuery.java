@@ -1,24 +1,20 @@
 package com.dooapp.gaedo.blueprints.queries.executable;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-
 import com.dooapp.gaedo.blueprints.AbstractBluePrintsBackedFinderService;
-import com.dooapp.gaedo.blueprints.GraphUtils;
 import com.dooapp.gaedo.blueprints.QueryLog;
+import com.dooapp.gaedo.blueprints.queries.plans.GraphStatistics;
+import com.dooapp.gaedo.blueprints.queries.plans.QueryPlan;
+import com.dooapp.gaedo.blueprints.queries.plans.QueryPlanner;
 import com.dooapp.gaedo.blueprints.queries.tests.CompoundVertexTest;
 import com.dooapp.gaedo.blueprints.queries.tests.VertexTest;
 import com.dooapp.gaedo.blueprints.strategies.GraphMappingStrategy;
 import com.dooapp.gaedo.finders.SortingExpression;
-import com.dooapp.gaedo.properties.Property;
 import com.tinkerpop.blueprints.Vertex;
 
 /**
  * Optimized executable query.
  * How is it optimized ? Instead of simply searching through all vertices linked to class vertex (which always exist) through
- * Object.classes edge, this one tries to find the vertex linked to the smallest solution space. How ?
+ * Object.classes edge, this one tries to find the vertices linked to the smallest solution space. How ?
  * As an example, suppose one want to find, using our test beans, elements matching that query :
  * <pre> 
  *  AND
@@ -26,21 +22,25 @@ import com.tinkerpop.blueprints.Vertex;
  *	  Posts.author.login ==? "user login"
  *	  Object.classes contains Post.class
  * </pre>
- * This class will start by extracting query roots (vertices to which solutions of this query MUST be linked) by calling {@link #getPossibleRootsOf(VertexTest)}
- * In this example, this method call will return
+ * This class will start by building a {@link QueryPlan} for that query by calling {@link #getPlan()}.
+ * In this example, the {@link QueryPlanner} will give an intersection of three navigations
  * <pre> 
  * 4.0:long => { Property[note] }
  * "user login":string => { Property[author], Property[login] }
  * Post:class => { Property[class] }
  * </pre>
- * One question remain : from these three vertices, which one will be linked (through the given property path) to the smallest number of vertices ?
- * To answer this question, the {@link #findBestRootIn(Map)} method creates a {@link VertexValueRange} object which can back-navigate the edges representing these properties
- * and directly give us the best query root.
+ * From these three navigations, the one linked to the smallest number of vertices (as estimated by service {@link GraphStatistics}) is the one
+ * that will be browsed.
  * 
  * @author ndx
  * 
  */
 public class OptimizedGraphExecutableQuery extends AbstractGraphExecutableQuery implements GraphExecutableQuery {
+	/**
+	 * Lazily built plan
+	 */
+	private QueryPlan plan;
+
 	/**
 	 * Construct search query, and make sure vertex tests include a test on
 	 * object classes, by calling
@@ -77,53 +77,53 @@ public class OptimizedGraphExecutableQuery extends AbstractGraphExecutableQuery
 	 * This iterable is not optimal (there are elements in which than may not be query solutions). But it should be, in most cases
 	 * a better solution space than the one given by {@link BasicGraphExecutableQuery} (which, as a reminder, always return all vertices linked 
 	 * to the queried class through an object.classes edge).
+	 * When test can't be planned at all, all instances of searched class are examined, like {@link BasicGraphExecutableQuery} does.
 	 * @return
 	 * @see com.dooapp.gaedo.blueprints.queries.executable.AbstractGraphExecutableQuery#getVerticesToExamine()
 	 */
 	@Override
-	protected Collection<Vertex> getVerticesToExamine() {
-		// First step is to get all possible query root vertices
-		Map<Iterable<Vertex>, Iterable<Property>> possibleRoots = getPossibleRootsOf(test);
-		VertexValueRange bestMatch = findBestRootIn(possibleRoots);
-		List<Vertex> returned = bestMatch.getValues();
-		if(QueryLog.logger.isLoggable(QueryLog.QUERY_LOGGING_LEVEL)) {
-			StringBuilder sOut = new StringBuilder();
-			sOut.append("query roots for test ").append(test).append("\nare the ").append(returned.size()).append(" following vertices");
-			for(Vertex v : returned) {
-				sOut.append("\n").append(GraphUtils.toString(v));
-			}
-			QueryLog.logger.log(QueryLog.QUERY_LOGGING_LEVEL, sOut.toString());
-		}
-		return returned;
+	protected Iterable<Vertex> getVerticesToExamine() {
+		QueryPlan used = getPlan();
+		if(used==null)
+			return getClassInstances();
+		return used.getVertices();
+	}
+
+	@Override
+	protected boolean mayExamineDuplicates() {
+		QueryPlan used = getPlan();
+		return used!=null && used.mayReturnDuplicates();
 	}
 
 	/**
- 	 * Find, from all roots returned by {@link #getPossibleRootsOf(VertexTest)}, the one linked to the smallest iterable of vertices for the given
- 	 * property path.
-	 * @param possibleRoots a map linking vertices to the property path used to navigate from searched vertices to these vertices.
-	 * @return an object containing informations about the best matching vertex (like a cache of vertices in solution space).
+	 * Get plan used by this query, building it if required
+	 * @return plan for {@link #test}, or null if it can't be planned.
 	 */
-	private VertexValueRange findBestRootIn(Map<Iterable<Vertex>, Iterable<Property>> possibleRoots) {
-		VertexValueRange initial = new VertexValueRange();
-		Vertex root;
-		for(Entry<Iterable<Vertex>, Iterable<Property>> entry : possibleRoots.entrySet()) {
-			initial = initial.findBestMatch(entry); 
+	public QueryPlan getPlan() {
+		if(plan==null) {
+			plan = createPlanFor(test);
+			if(QueryLog.logger.isLoggable(QueryLog.QUERY_LOGGING_LEVEL)) {
+				QueryLog.logger.log(QueryLog.QUERY_LOGGING_LEVEL, "plan for test "+test+"\nis\n"+explain());
+			}
 		}
-		return initial;
+		return plan;
+	}
+
+	@Override
+	public String explain() {
+		QueryPlan used = getPlan();
+		return used==null ? "scan of all instances of "+getSearchedClass().getCanonicalName() : used.explain();
 	}
 
 	/**
-	 * Create out of given test a map linking possible query roots to the
-	 * property path used to go from an object vertex to the vertex representing
-	 * that root (hopefully this one is simply a copy of vertex test path).
-	 * 
-	 * @param test test that will be 
+	 * Create plan for given test
+	 * @param test test that will be planned
 	 * @return
 	 */
-	private Map<Iterable<Vertex>, Iterable<Property>> getPossibleRootsOf(VertexTest test) {
-		VertexRootsCollector collector = new VertexRootsCollector(service);
-		test.accept(collector);
-		return collector.getResult();
+	private QueryPlan createPlanFor(VertexTest test) {
+		QueryPlanner planner = new QueryPlanner(service);
+		test.accept(planner);
+		return planner.getResult();
 	}
 
 }
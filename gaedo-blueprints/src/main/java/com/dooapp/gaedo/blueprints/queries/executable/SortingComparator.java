@@ -1,123 +1,146 @@
 package com.dooapp.gaedo.blueprints.queries.executable;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import com.dooapp.gaedo.blueprints.AbstractBluePrintsBackedFinderService;
+import com.dooapp.gaedo.blueprints.utils.NavigationCache;
 import com.dooapp.gaedo.exceptions.UncomparableObjectsInSortingException;
 import com.dooapp.gaedo.finders.FieldInformer;
 import com.dooapp.gaedo.finders.SortingExpression;
 import com.dooapp.gaedo.finders.SortingExpression.Direction;
-import com.dooapp.gaedo.finders.sort.SortingExpressionVisitor;
-import com.dooapp.gaedo.properties.Property;
-import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Vertex;
 
+/**
+ * Comparator sorting vertices according to a {@link SortingExpression}. Sorted values of a vertex are extracted (by navigating the graph)
+ * at most once, into a {@link SortKey}, and only when required by a comparison. Sorting code handling many vertices should directly compare
+ * the keys given by {@link #getKeyOf(Vertex)} using {@link #getKeyComparator()}, which avoids any lookup.
+ * @author ndx
+ *
+ */
 public class SortingComparator implements Comparator<Vertex> {
-	private class SortedPropertiesSubGraph {
+	/**
+	 * Marker of values not yet extracted
+	 */
+	private static final Object NOT_LOADED = new Object();
+
+	/**
+	 * Sorted values of a vertex, in order of sorting expression. Each value is lazily extracted by navigating from {@link #vertex}
+	 * @author ndx
+	 *
+	 */
+	public class SortKey {
 
 		/**
 		 * Vertex corresponding to object we want to load properties of
 		 */
-		private Vertex vertex;
+		private final Vertex vertex;
+		/**
+		 * Values loaded by navigating from initial {@link #vertex}, in order of {@link SortingComparator#informers}
+		 */
+		private final Object[] values;
 		/**
-		 * Map linking FieldInformer to values loaded by navigating from initial {@link #vertex}
+		 * Vertex id, used to break ties
 		 */
-		private Map<FieldInformer, Object> fieldValues = new HashMap<FieldInformer, Object>();
+		private String id;
 
-		public SortedPropertiesSubGraph(Vertex vertex) {
+		private SortKey(Vertex vertex) {
 			this.vertex = vertex;
+			this.values = new Object[informers.length];
+			for (int index = 0; index < values.length; index++) {
+				values[index] = NOT_LOADED;
+			}
 		}
 
-		public Object get(FieldInformer<?> key) {
-			if(!fieldValues.containsKey(key)) {
-				Vertex currentVertex = vertex;
+		private Object get(int index) {
+			if(values[index]==NOT_LOADED) {
 				Object value = null;
-				for(Property currentProperty : key.getFieldPath()) {
-					Iterator<Edge> edges = service.getStrategy().getOutEdgesFor(currentVertex, currentProperty).iterator();
-					if(edges.hasNext()) {
-						currentVertex = edges.next().getVertex(com.tinkerpop.blueprints.Direction.IN);
-					} else {
-						// no navigable value ? Then null is the bad result we're looking for
-						currentVertex = null;
-					}
-				}
+				// no navigable value ? Then null is the bad result we're looking for
+				Vertex currentVertex = navigation.getDestination(vertex, informers[index].getFieldPath());
 				if(currentVertex!=null) {
 					value = service.getDriver().getValue(currentVertex);
 				}
-				fieldValues.put(key, value);
+				values[index] = value;
 			}
-			return fieldValues.get(key);
+			return values[index];
 		}
 
-	}
-
-	private class ComparatorVisitor implements SortingExpressionVisitor {
-
-		private SortedPropertiesSubGraph firstSubGraph;
-		private SortedPropertiesSubGraph secondSubGraph;
+		private String getId() {
+			if(id==null) {
+				id = vertex.getId().toString();
+			}
+			return id;
+		}
 
 		/**
-		 * Final comparison result. The whole goal here is to find that result.
+		 * @return the vertex
+		 * @category getter
+		 * @category vertex
 		 */
-		private int result = 0;
-
-		public ComparatorVisitor(SortedPropertiesSubGraph firstSubGraph, SortedPropertiesSubGraph secondSubGraph) {
-			this.firstSubGraph = firstSubGraph;
-			this.secondSubGraph = secondSubGraph;
-		}
-
-		public int result() {
-			return result;
-		}
-
-		@Override
-		public void startVisit(SortingExpression sortingExpression) {
-		}
-
-		@Override
-		public void endVisit(SortingExpression sortingExpression) {
-			// a trick to force all vertices being loaded (even when equals)
-			if(result==0)
-				result = firstSubGraph.vertex.getId().toString().compareTo(secondSubGraph.vertex.getId().toString());
+		public Vertex getVertex() {
+			return vertex;
 		}
+	}
 
+	/**
+	 * Comparator of keys built by the enclosing comparator
+	 * @author ndx
+	 *
+	 */
+	private class KeyComparator implements Comparator<SortKey> {
 		/**
-		 * For each entry, we have to first check if a result has already been obtained. If not, we load properties on both subgraph and then try to comapre them (they should be comparable)
-		 * @param entry
-		 * @see com.dooapp.gaedo.finders.sort.SortingExpressionVisitor#visit(java.util.Map.Entry)
+		 * For each sorted property, we have to first check if a result has already been obtained. If not, we load properties on both keys and then try to compare them (they should be comparable).
+		 * Notice that if all matches, vertices are compared on their ids (to force all vertices being kept even when equals)
+		 * @param first
+		 * @param second
+		 * @return
+		 * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
 		 */
 		@Override
-		public void visit(Entry<FieldInformer, Direction> entry) {
-			if(result==0) {
-				Object firstValue = firstSubGraph.get(entry.getKey());
-				Object secondValue = secondSubGraph.get(entry.getKey());
+		public int compare(SortKey first, SortKey second) {
+			if(first==second)
+				return 0;
+			int result = 0;
+			for (int index = 0; index < directions.length && result==0; index++) {
 				try {
-					result = entry.getValue().compareTo(firstValue, secondValue);
+					result = directions[index].compareTo(first.get(index), second.get(index));
 				} catch(UncomparableObjectsInSortingException e) {
 
 				}
 			}
+			if(result==0)
+				result = first.getId().compareTo(second.getId());
+			return result;
 		}
-
 	}
 
 	private AbstractBluePrintsBackedFinderService<?, ?, ?> service;
 
 	/**
-	 * A very complicated object associating a vertex to an object that contains properties, sorted in order defined by {@link SortingExpression}
-	 * and allowing easy test in compare by simply
+	 * Memo of navigated paths, typically shared with the tests of sorted query
+	 */
+	private NavigationCache navigation;
+
+	/**
+	 * Keys already built by {@link #compare(Vertex, Vertex)}
+	 */
+	private Map<Vertex, SortKey> sortKeys = new HashMap<Vertex, SortKey>();
+
+	/**
+	 * Sorted properties, in order of sorting expression
 	 */
-	private Map<Vertex, SortedPropertiesSubGraph> sortedProperties = new LinkedHashMap<Vertex, SortedPropertiesSubGraph>();
+	private final FieldInformer[] informers;
 
 	/**
-	 * Sorting expression used to visit {@link SortedPropertiesSubGraph} associated to vertices
+	 * Directions of sorted properties
 	 */
-	private SortingExpression sort;
+	private final Direction[] directions;
+
+	private final KeyComparator keyComparator = new KeyComparator();
 
 	/**
 	 * Construct the good comparator
@@ -125,8 +148,26 @@ public class SortingComparator implements Comparator<Vertex> {
 	 * @param sort sorting expression define which edges will be navigated
 	 */
 	public SortingComparator(AbstractBluePrintsBackedFinderService<?, ?, ?> service, SortingExpression sort) {
+		this(service, sort, new NavigationCache(service.getStrategy()));
+	}
+
+	/**
+	 * Construct a comparator reusing navigations performed by query tests
+	 * @param service service defines the mapping strategy and the way edges can be navigated
+	 * @param sort sorting expression define which edges will be navigated
+	 * @param navigation navigation memo of sorted query
+	 */
+	public SortingComparator(AbstractBluePrintsBackedFinderService<?, ?, ?> service, SortingExpression sort, NavigationCache navigation) {
 		this.service = service;
-		this.sort = sort;
+		this.navigation = navigation;
+		List<FieldInformer> sortedInformers = new ArrayList<FieldInformer>();
+		List<Direction> sortedDirections = new ArrayList<Direction>();
+		for(Entry<FieldInformer, Direction> entry : sort) {
+			sortedInformers.add(entry.getKey());
+			sortedDirections.add(entry.getValue());
+		}
+		this.informers = sortedInformers.toArray(new FieldInformer[sortedInformers.size()]);
+		this.directions = sortedDirections.toArray(new Direction[sortedDirections.size()]);
 	}
 
 	/**
@@ -139,32 +180,37 @@ public class SortingComparator implements Comparator<Vertex> {
 	 */
 	@Override
 	public int compare(Vertex firstVertex, Vertex secondVertex) {
-		SortedPropertiesSubGraph firstSubGraph = getSubGraphOf(firstVertex);
-		SortedPropertiesSubGraph secondSubGraph = getSubGraphOf(secondVertex);
-		ComparatorVisitor visitor = new ComparatorVisitor(firstSubGraph, secondSubGraph);
-		sort.accept(visitor);
-		return visitor.result();
+		return keyComparator.compare(getStoredKeyOf(firstVertex), getStoredKeyOf(secondVertex));
 	}
 
 	/**
-	 * Get or load subgraph for given vertex
+	 * Get or create key for given vertex, keeping it for later comparisons
 	 * @param vertex
-	 * @return a SortedPropertiesSubGraph for vertex
+	 * @return a SortKey for vertex
 	 */
-	private SortedPropertiesSubGraph getSubGraphOf(Vertex vertex) {
-		if(!sortedProperties.containsKey(vertex)) {
-			sortedProperties.put(vertex, createSortedPropertiesOf(vertex));
+	private SortKey getStoredKeyOf(Vertex vertex) {
+		SortKey returned = sortKeys.get(vertex);
+		if(returned==null) {
+			returned = getKeyOf(vertex);
+			sortKeys.put(vertex, returned);
 		}
-		return sortedProperties.get(vertex);
+		return returned;
 	}
 
 	/**
-	 * Create properties subgraph by navigating around vertex. Well ... not really as it is a lazy loaded structure
+	 * Create sort key of a vertex. Well ... not really extracted as it is a lazy loaded structure.
+	 * Returned key is not kept by this comparator.
 	 * @param vertex
 	 * @return
 	 */
-	private SortedPropertiesSubGraph createSortedPropertiesOf(Vertex vertex) {
-		return new SortedPropertiesSubGraph(vertex);
+	public SortKey getKeyOf(Vertex vertex) {
+		return new SortKey(vertex);
 	}
 
+	/**
+	 * @return a comparator of keys returned by {@link #getKeyOf(Vertex)}, giving the same order than this comparator
+	 */
+	public Comparator<SortKey> getKeyComparator() {
+		return keyComparator;
+	}
 }
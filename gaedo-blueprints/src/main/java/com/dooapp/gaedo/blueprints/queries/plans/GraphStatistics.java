@@ -0,0 +1,207 @@
+package com.dooapp.gaedo.blueprints.queries.plans;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dooapp.gaedo.blueprints.GraphUtils;
+import com.dooapp.gaedo.properties.Property;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Cardinality statistics used by {@link QueryPlanner} to estimate the number of vertices a {@link QueryPlan} will examine.
+ * Statistics are sampled : when navigating back a property path, only the first {@link #getSampleSize()} vertices of each step (roots included) are
+ * examined, and the number of edges of one vertex is never counted above {@link #getCountLimit()}. Average fan-in of the sampled vertices
+ * is then used to extrapolate the size of the whole step.
+ * Counted edges are kept, for each vertex and edge label, until data has changed by more than a tenth of that count (as reported by
+ * calls to {@link #modified()}), so that edges of very linked vertices (like class ones) are not counted again at each query.
+ * All iterables obtained from graph while estimating are closed (see {@link GraphUtils#close(Iterable)}) before returning.
+ * @author ndx
+ *
+ */
+public class GraphStatistics {
+	/**
+	 * Default number of vertices examined at each step of a path
+	 */
+	public static final int DEFAULT_SAMPLE_SIZE = 16;
+
+	/**
+	 * Default maximum number of edges counted for one vertex
+	 */
+	public static final int DEFAULT_COUNT_LIMIT = 10000;
+
+	/**
+	 * Default maximum number of edge counts kept
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+	/**
+	 * A count of edges, and the number of modifications there was when it was done
+	 * @author ndx
+	 *
+	 */
+	private static class EdgesCount {
+		private final long count;
+
+		private final long modifications;
+
+		public EdgesCount(long count, long modifications) {
+			this.count = count;
+			this.modifications = modifications;
+		}
+
+		public boolean isValidAt(long currentModifications) {
+			return currentModifications-modifications<=count/10;
+		}
+	}
+
+	private final int sampleSize;
+
+	private final int countLimit;
+
+	private final int maxEntries;
+
+	/**
+	 * Edge counts, by vertex id and edge label
+	 */
+	private final ConcurrentMap<List<Object>, EdgesCount> edgesCounts = new ConcurrentHashMap<List<Object>, EdgesCount>();
+
+	/**
+	 * Number of write operations performed on the graph since these statistics exist
+	 */
+	private final AtomicLong modifications = new AtomicLong();
+
+	public GraphStatistics() {
+		this(DEFAULT_SAMPLE_SIZE, DEFAULT_COUNT_LIMIT, DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * @param sampleSize number of vertices examined at each step of a path
+	 * @param countLimit maximum number of edges counted for one vertex
+	 * @param maxEntries maximum number of edge counts kept. Once reached, all counts are forgotten.
+	 */
+	public GraphStatistics(int sampleSize, int countLimit, int maxEntries) {
+		this.sampleSize = sampleSize;
+		this.countLimit = countLimit;
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Signal some data has been written in graph. Each call makes edge counts older.
+	 */
+	public void modified() {
+		modifications.incrementAndGet();
+	}
+
+	/**
+	 * Forget all edge counts
+	 */
+	public void clear() {
+		edgesCounts.clear();
+	}
+
+	/**
+	 * Count the edges having the given label and going to the given vertex
+	 * @param vertex target vertex
+	 * @param edgeName edges label
+	 * @return number of those edges, or {@link #getCountLimit()} if there are more
+	 */
+	public long countIncoming(Vertex vertex, String edgeName) {
+		List<Object> key = Arrays.asList(vertex.getId(), edgeName);
+		long current = modifications.get();
+		EdgesCount known = edgesCounts.get(key);
+		if(known!=null && known.isValidAt(current))
+			return known.count;
+		long count = 0;
+		Iterable<Edge> edges = vertex.getEdges(Direction.IN, edgeName);
+		try {
+			for(Edge e : edges) {
+				if(++count>=countLimit)
+					break;
+			}
+		} finally {
+			GraphUtils.close(edges);
+		}
+		if(edgesCounts.size()>=maxEntries)
+			edgesCounts.clear();
+		edgesCounts.put(key, new EdgesCount(count, current));
+		return count;
+	}
+
+	/**
+	 * Estimate the number of vertices reached when navigating back the given path from the given roots.
+	 * @param roots vertices at the end of path. When they're not a collection, at most {@link #getSampleSize()} of them are counted. This iterable is closed once sampled.
+	 * @param path navigated path, from searched vertices to roots
+	 * @return estimated number of vertices linked to roots through that path
+	 */
+	public double estimate(Iterable<Vertex> roots, Iterable<Property> path) {
+		List<Vertex> sample = new ArrayList<Vertex>(sampleSize);
+		try {
+			Iterator<Vertex> iterator = roots.iterator();
+			while(sample.size()<sampleSize && iterator.hasNext()) {
+				sample.add(iterator.next());
+			}
+		} finally {
+			GraphUtils.close(roots);
+		}
+		long rootsCount = sample.size();
+		if(roots instanceof Collection)
+			rootsCount = ((Collection<?>) roots).size();
+		LinkedList<Property> reversed = new LinkedList<Property>();
+		if(path!=null) {
+			for(Property p : path) {
+				reversed.addFirst(p);
+			}
+		}
+		double returned = rootsCount;
+		while(!reversed.isEmpty() && !sample.isEmpty()) {
+			String edgeName = GraphUtils.getEdgeNameFor(reversed.removeFirst());
+			long edges = 0;
+			List<Vertex> nextSample = new ArrayList<Vertex>(sampleSize);
+			for(Vertex v : sample) {
+				edges += countIncoming(v, edgeName);
+				if(!reversed.isEmpty() && nextSample.size()<sampleSize) {
+					Iterable<Edge> incoming = v.getEdges(Direction.IN, edgeName);
+					try {
+						for(Edge e : incoming) {
+							if(nextSample.size()>=sampleSize)
+								break;
+							nextSample.add(e.getVertex(Direction.OUT));
+						}
+					} finally {
+						GraphUtils.close(incoming);
+					}
+				}
+			}
+			returned = returned*edges/sample.size();
+			sample = nextSample;
+		}
+		return returned;
+	}
+
+	/**
+	 * @return the sampleSize
+	 * @category getter
+	 * @category sampleSize
+	 */
+	public int getSampleSize() {
+		return sampleSize;
+	}
+
+	/**
+	 * @return the countLimit
+	 * @category getter
+	 * @category countLimit
+	 */
+	public int getCountLimit() {
+		return countLimit;
+	}
+}
@@ -0,0 +1,67 @@
+package com.dooapp.gaedo.blueprints.queries.plans;
+
+import com.dooapp.gaedo.blueprints.AbstractBluePrintsBackedFinderService;
+import com.dooapp.gaedo.properties.Property;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Plan directly returning the object vertices found in the index of a property (see
+ * {@link AbstractBluePrintsBackedFinderService#getIndexedVertices(Property, Object)}). Contrary to a {@link NavigationPlan}, no edge is navigated.
+ * @author ndx
+ *
+ */
+public class IndexSeekPlan extends QueryPlan {
+	private final Iterable<Vertex> found;
+
+	private final Property property;
+
+	private final Object value;
+
+	private final GraphStatistics statistics;
+
+	/**
+	 * Lazily computed estimate
+	 */
+	private double estimatedSize = -1;
+
+	/**
+	 * @param found lazy iterable over vertices found in index
+	 * @param property indexed property
+	 * @param value searched value, used by {@link #explain()}
+	 * @param statistics
+	 */
+	public IndexSeekPlan(Iterable<Vertex> found, Property property, Object value, GraphStatistics statistics) {
+		this.found = found;
+		this.property = property;
+		this.value = value;
+		this.statistics = statistics;
+	}
+
+	@Override
+	public double getEstimatedSize() {
+		if(estimatedSize<0)
+			estimatedSize = statistics.estimate(found, null);
+		return estimatedSize;
+	}
+
+	@Override
+	public Iterable<Vertex> getVertices() {
+		return found;
+	}
+
+	/**
+	 * An index gives each vertex having searched value once
+	 * @return false
+	 * @see com.dooapp.gaedo.blueprints.queries.plans.QueryPlan#mayReturnDuplicates()
+	 */
+	@Override
+	public boolean mayReturnDuplicates() {
+		return false;
+	}
+
+	@Override
+	protected StringBuilder explain(int deepness, String prefix, StringBuilder builder) {
+		indent(deepness, builder).append(prefix).append("seek index of ").append(property.getName()).append(" for value ").append(value);
+		return appendEstimate(builder);
+	}
+}
@@ -0,0 +1,68 @@
+package com.dooapp.gaedo.blueprints.queries.plans;
+
+import java.util.List;
+
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Plan for an AND test. As each of its children returns a superset of the query solutions, any of them can be used alone : only the vertices
+ * of the cheapest one are returned, and the other children are checked when query test is evaluated on these vertices.
+ * @author ndx
+ *
+ */
+public class IntersectionPlan extends QueryPlan {
+	private final List<QueryPlan> children;
+
+	private transient QueryPlan best;
+
+	/**
+	 * @param children plans for the navigable children of AND test. There must be at least one.
+	 */
+	public IntersectionPlan(List<QueryPlan> children) {
+		this.children = children;
+	}
+
+	/**
+	 * @return child plan having the smallest estimated size. When estimates are equal, the first one is kept.
+	 */
+	public QueryPlan getBest() {
+		if(best==null) {
+			QueryPlan returned = null;
+			for(QueryPlan child : children) {
+				if(returned==null || child.getEstimatedSize()<returned.getEstimatedSize())
+					returned = child;
+				// nothing can be better than an empty plan
+				if(returned.getEstimatedSize()==0)
+					break;
+			}
+			best = returned;
+		}
+		return best;
+	}
+
+	@Override
+	public double getEstimatedSize() {
+		return getBest().getEstimatedSize();
+	}
+
+	@Override
+	public Iterable<Vertex> getVertices() {
+		return getBest().getVertices();
+	}
+
+	@Override
+	public boolean mayReturnDuplicates() {
+		return getBest().mayReturnDuplicates();
+	}
+
+	@Override
+	protected StringBuilder explain(int deepness, String prefix, StringBuilder builder) {
+		QueryPlan used = getBest();
+		indent(deepness, builder).append(prefix).append("intersection, scanning cheapest of ").append(children.size());
+		appendEstimate(builder);
+		for(QueryPlan child : children) {
+			child.explain(deepness+1, child==used ? "scanned : " : "checked by filter : ", builder.append("\n"));
+		}
+		return builder;
+	}
+}
@@ -0,0 +1,93 @@
+package com.dooapp.gaedo.blueprints.queries.plans;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.dooapp.gaedo.blueprints.GraphUtils;
+import com.dooapp.gaedo.blueprints.queries.executable.IncomingVertices;
+import com.dooapp.gaedo.properties.Property;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Plan navigating back a property path from some root vertices (the vertices of an expected value, or vertices found in an index).
+ * Path edges are navigated back (from its last property to its first one) only when returned iterable is browsed.
+ * @author ndx
+ *
+ */
+public class NavigationPlan extends QueryPlan {
+	private final Iterable<Vertex> roots;
+
+	private final Iterable<Property> path;
+
+	/**
+	 * Roots description, used by {@link #explain()}
+	 */
+	private final String source;
+
+	private final GraphStatistics statistics;
+
+	/**
+	 * Lazily computed estimate
+	 */
+	private double estimatedSize = -1;
+
+	public NavigationPlan(Iterable<Vertex> roots, Iterable<Property> path, String source, GraphStatistics statistics) {
+		this.roots = roots;
+		this.path = path;
+		this.source = source;
+		this.statistics = statistics;
+	}
+
+	@Override
+	public double getEstimatedSize() {
+		if(estimatedSize<0)
+			estimatedSize = statistics.estimate(roots, path);
+		return estimatedSize;
+	}
+
+	@Override
+	public Iterable<Vertex> getVertices() {
+		return getVertices(roots, path==null ? null : path.iterator());
+	}
+
+	private Iterable<Vertex> getVertices(Iterable<Vertex> roots, Iterator<Property> pathIterator) {
+		if(pathIterator!=null && pathIterator.hasNext()) {
+			Property current = pathIterator.next();
+			return new IncomingVertices(getVertices(roots, pathIterator), GraphUtils.getEdgeNameFor(current));
+		} else {
+			return roots;
+		}
+	}
+
+	/**
+	 * Roots are distinct, and a vertex has at most one edge for a single-valued property : navigating back such a property from distinct vertices
+	 * gives distinct vertices. A multi-valued property, on the other hand, may link a vertex to more than one root (or to the same root more than once).
+	 * @return true if path contains a collection or map property
+	 * @see com.dooapp.gaedo.blueprints.queries.plans.QueryPlan#mayReturnDuplicates()
+	 */
+	@Override
+	public boolean mayReturnDuplicates() {
+		if(path!=null) {
+			for(Property p : path) {
+				if (Collection.class.isAssignableFrom(p.getType()) || Map.class.isAssignableFrom(p.getType()))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	protected StringBuilder explain(int deepness, String prefix, StringBuilder builder) {
+		indent(deepness, builder).append(prefix).append("navigate back ");
+		if(path!=null) {
+			String separator = "";
+			for(Property p : path) {
+				builder.append(separator).append(p.getName());
+				separator = ".";
+			}
+		}
+		builder.append(" from ").append(source);
+		return appendEstimate(builder);
+	}
+}
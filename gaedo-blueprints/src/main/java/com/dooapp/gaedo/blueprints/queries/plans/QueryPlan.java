@@ -0,0 +1,59 @@
+package com.dooapp.gaedo.blueprints.queries.plans;
+
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Plan built by {@link QueryPlanner} to obtain the vertices a query will examine. A plan never gives exact results : it only guarantees
+ * all vertices matching its query are in the ones it returns. Query test must then be evaluated on each of these vertices.
+ * @author ndx
+ *
+ */
+public abstract class QueryPlan {
+	/**
+	 * @return estimated number of vertices returned by {@link #getVertices()}
+	 */
+	public abstract double getEstimatedSize();
+
+	/**
+	 * @return a lazy iterable over the vertices to examine. Notice some vertices may be returned more than once (see {@link #mayReturnDuplicates()}).
+	 */
+	public abstract Iterable<Vertex> getVertices();
+
+	/**
+	 * @return true if {@link #getVertices()} may return the same vertex more than once, in which case query must filter out already returned ones.
+	 */
+	public abstract boolean mayReturnDuplicates();
+
+	/**
+	 * Describe that plan, as an indented tree
+	 * @return a human readable plan description
+	 */
+	public String explain() {
+		return explain(0, "", new StringBuilder()).toString();
+	}
+
+	/**
+	 * Append plan description to builder
+	 * @param deepness indentation level
+	 * @param prefix text appended before description, after indentation
+	 * @param builder
+	 * @return builder
+	 */
+	protected abstract StringBuilder explain(int deepness, String prefix, StringBuilder builder);
+
+	protected StringBuilder indent(int deepness, StringBuilder builder) {
+		for (int i = 0; i < deepness; i++) {
+			builder.append('\t');
+		}
+		return builder;
+	}
+
+	protected StringBuilder appendEstimate(StringBuilder builder) {
+		return builder.append(" (estimated ").append(Math.round(getEstimatedSize())).append(" vertices)");
+	}
+
+	@Override
+	public String toString() {
+		return explain();
+	}
+}
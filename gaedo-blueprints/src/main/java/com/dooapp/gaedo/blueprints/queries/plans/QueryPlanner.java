@@ -0,0 +1,281 @@
+package com.dooapp.gaedo.blueprints.queries.plans;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.persistence.CascadeType;
+
+import com.dooapp.gaedo.blueprints.AbstractBluePrintsBackedFinderService;
+import com.dooapp.gaedo.blueprints.GraphUtils;
+import com.dooapp.gaedo.blueprints.ObjectCache;
+import com.dooapp.gaedo.blueprints.indexable.IndexNames;
+import com.dooapp.gaedo.blueprints.queries.tests.AndVertexTest;
+import com.dooapp.gaedo.blueprints.queries.tests.Anything;
+import com.dooapp.gaedo.blueprints.queries.tests.CollectionContains;
+import com.dooapp.gaedo.blueprints.queries.tests.ContainsString;
+import com.dooapp.gaedo.blueprints.queries.tests.EndsWith;
+import com.dooapp.gaedo.blueprints.queries.tests.EqualsTo;
+import com.dooapp.gaedo.blueprints.queries.tests.GreaterThan;
+import com.dooapp.gaedo.blueprints.queries.tests.LowerThan;
+import com.dooapp.gaedo.blueprints.queries.tests.MapContainsKey;
+import com.dooapp.gaedo.blueprints.queries.tests.MapContainsValue;
+import com.dooapp.gaedo.blueprints.queries.tests.NotVertexTest;
+import com.dooapp.gaedo.blueprints.queries.tests.OrVertexTest;
+import com.dooapp.gaedo.blueprints.queries.tests.StartsWith;
+import com.dooapp.gaedo.blueprints.queries.tests.VertexPropertyTest;
+import com.dooapp.gaedo.blueprints.queries.tests.VertexTestVisitor;
+import com.dooapp.gaedo.blueprints.queries.tests.VertexTestVisitorAdapter;
+import com.dooapp.gaedo.properties.Property;
+import com.tinkerpop.blueprints.CloseableIterable;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Index;
+import com.tinkerpop.blueprints.IndexableGraph;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Class visiting vertex test to build a {@link QueryPlan}. Each test that gives vertices to which solutions MUST be linked (an
+ * {@link EqualsTo}, a {@link CollectionContains} or a {@link VertexPropertyTest}) becomes a {@link NavigationPlan}. Suppose, as a canonical
+ * example, we want to find the following objects
+ * <pre>
+ * AND
+ *	  Posts.note ==? 4.0
+ *	  Posts.author.login ==? "user login"
+ *	  Object.classes contains Post.class
+ * </pre>
+ * These three tests give three navigation plans (an equality test on a property indexed by service becomes an {@link IndexSeekPlan}), and the AND becomes an {@link IntersectionPlan} which will scan only the one having the smallest
+ * estimated size, according to {@link GraphStatistics}.
+ * An OR becomes an {@link UnionPlan}, provided all its children can be planned. Other tests (NOT, comparisons, string tests, map tests)
+ * can't give any vertex to start with : they're simply left to query test evaluation.
+ * Once visit is finished, {@link #getResult()} returns plan for visited test, or null if it can't be planned.
+ * @author ndx
+ *
+ */
+public class QueryPlanner extends VertexTestVisitorAdapter implements VertexTestVisitor {
+	private final AbstractBluePrintsBackedFinderService<? extends Graph, ?, ?> service;
+
+	private final GraphStatistics statistics;
+
+	/**
+	 * Plans of the children of each compound test being visited. A null plan denotes a child test that can't be planned.
+	 */
+	private Deque<List<QueryPlan>> plans = new ArrayDeque<List<QueryPlan>>();
+
+	/**
+	 * Cache of objects being loaded during plan building
+	 */
+	private transient ObjectCache objectsBeingAccessed = ObjectCache.create(CascadeType.REFRESH);
+
+	public QueryPlanner(AbstractBluePrintsBackedFinderService<?, ?, ?> service) {
+		super();
+		this.service = service;
+		this.statistics = service.getStatistics();
+		this.plans.push(new ArrayList<QueryPlan>());
+	}
+
+	/**
+	 * @return plan for visited test, or null if that test gives no vertex to start with
+	 */
+	public QueryPlan getResult() {
+		List<QueryPlan> visited = plans.peek();
+		return visited.isEmpty() ? null : visited.get(0);
+	}
+
+	private void add(QueryPlan plan) {
+		plans.peek().add(plan);
+	}
+
+	/**
+	 * Load if possible vertex associated to expected value
+	 * @param expected
+	 * @return a list containing that vertex if it existed, or an empty list elsewhere.
+	 */
+	private List<Vertex> load(Object expected) {
+		Vertex vertexFor = service.getVertexFor(expected, CascadeType.REFRESH, objectsBeingAccessed);
+		if(vertexFor==null)
+			return Collections.emptyList();
+		else
+			return Arrays.asList(vertexFor);
+	}
+
+	private QueryPlan navigate(Object expected, Iterable<Property> path) {
+		return new NavigationPlan(load(expected), path, "value "+expected, statistics);
+	}
+
+	@Override
+	public boolean startVisit(AndVertexTest andVertexTest) {
+		plans.push(new ArrayList<QueryPlan>());
+		return true;
+	}
+
+	/**
+	 * Children that can't be planned are ignored, as the other ones are enough to find all solutions
+	 */
+	@Override
+	public void endVisit(AndVertexTest andVertexTest) {
+		List<QueryPlan> children = plans.pop();
+		children.removeAll(Collections.singleton(null));
+		if(children.isEmpty())
+			add(null);
+		else if(children.size()==1)
+			add(children.get(0));
+		else
+			add(new IntersectionPlan(children));
+	}
+
+	@Override
+	public boolean startVisit(OrVertexTest orVertexTest) {
+		plans.push(new ArrayList<QueryPlan>());
+		return true;
+	}
+
+	/**
+	 * If one child can't be planned, solutions matching only that child could be anywhere : the whole OR can't be planned.
+	 */
+	@Override
+	public void endVisit(OrVertexTest orVertexTest) {
+		List<QueryPlan> children = plans.pop();
+		add(children.isEmpty() || children.contains(null) ? null : new UnionPlan(children));
+	}
+
+	/**
+	 * Not queries are NEVER visited, as solutions are the vertices NOT linked to the ones their children would give
+	 */
+	@Override
+	public boolean startVisit(NotVertexTest notVertexTest) {
+		return false;
+	}
+
+	@Override
+	public void endVisit(NotVertexTest notVertexTest) {
+		add(null);
+	}
+
+	@Override
+	public void visit(CollectionContains collectionContains) {
+		add(navigate(collectionContains.getExpectedAsValue(), collectionContains.getPath()));
+	}
+
+	/**
+	 * Get a plan seeking the index of path property, when path is made of one indexed property
+	 * @param expected expected property value
+	 * @param path tested path
+	 * @return a plan giving exactly the vertices having that value, or null if path is not indexed
+	 */
+	private QueryPlan seek(Object expected, Iterable<Property> path) {
+		if(path==null)
+			return null;
+		Iterator<Property> properties = path.iterator();
+		if(!properties.hasNext())
+			return null;
+		Property property = properties.next();
+		if(properties.hasNext())
+			return null;
+		Iterable<Vertex> found = service.getIndexedVertices(property, expected);
+		return found==null ? null : new IndexSeekPlan(found, property, expected, statistics);
+	}
+
+	/**
+	 * An equality test on an indexed property seeks that property index, other ones navigate back from the vertex of expected value
+	 * @param equalsTo
+	 * @see com.dooapp.gaedo.blueprints.queries.tests.VertexTestVisitorAdapter#visit(com.dooapp.gaedo.blueprints.queries.tests.EqualsTo)
+	 */
+	@Override
+	public void visit(EqualsTo equalsTo) {
+		if(equalsTo.getExpected()!=null) {
+			Object expected = equalsTo.getExpectedAsValue();
+			QueryPlan indexed = seek(expected, equalsTo.getPath());
+			add(indexed==null ? navigate(expected, equalsTo.getPath()) : indexed);
+		} else {
+			add(null);
+		}
+	}
+
+	/**
+	 * Add all vertices having the given property in the vertices index
+	 * @param vertexPropertyTest
+	 * @see com.dooapp.gaedo.blueprints.queries.tests.VertexTestVisitorAdapter#visit(com.dooapp.gaedo.blueprints.queries.tests.VertexPropertyTest)
+	 */
+	@Override
+	public void visit(final VertexPropertyTest vertexPropertyTest) {
+		Graph g = service.getDatabase();
+		if (g instanceof IndexableGraph) {
+			final Index<Vertex> vertices = ((IndexableGraph) g).getIndex(IndexNames.VERTICES.getIndexName(), Vertex.class);
+			add(new NavigationPlan(new CloseableIterable<Vertex>() {
+				/**
+				 * Iterables returned by index, to close once this one is closed
+				 */
+				private final Collection<Iterable<Vertex>> opened = new LinkedList<Iterable<Vertex>>();
+
+				@Override
+				public Iterator<Vertex> iterator() {
+					Iterable<Vertex> found = vertices.get(vertexPropertyTest.getPropertyName(), vertexPropertyTest.getExpected());
+					opened.add(found);
+					return found.iterator();
+				}
+
+				@Override
+				public void close() {
+					for (Iterable<Vertex> found : opened) {
+						GraphUtils.close(found);
+					}
+					opened.clear();
+				}
+			}, vertexPropertyTest.getPath(), "index "+vertexPropertyTest.getPropertyName()+"="+vertexPropertyTest.getExpected(), statistics));
+		} else {
+			add(null);
+		}
+	}
+
+	@Override
+	public void visit(Anything anything) {
+		add(null);
+	}
+
+	@Override
+	public <ComparableType extends Comparable<ComparableType>> void visit(LowerThan<ComparableType> lowerThan) {
+		add(null);
+	}
+
+	@Override
+	public <ComparableType extends Comparable<ComparableType>> void visit(GreaterThan<ComparableType> greaterThan) {
+		add(null);
+	}
+
+	@Override
+	public void visit(StartsWith startsWith) {
+		add(null);
+	}
+
+	@Override
+	public void visit(EndsWith endsWith) {
+		add(null);
+	}
+
+	@Override
+	public void visit(ContainsString containsString) {
+		add(null);
+	}
+
+	/**
+	 * Map entries are not navigable for now
+	 */
+	@Override
+	public void visit(MapContainsKey mapContainsKey) {
+		add(null);
+	}
+
+	/**
+	 * Map entries are not navigable for now
+	 */
+	@Override
+	public void visit(MapContainsValue mapContainsValue) {
+		add(null);
+	}
+}
@@ -0,0 +1,123 @@
+package com.dooapp.gaedo.blueprints.queries.plans;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.dooapp.gaedo.blueprints.GraphUtils;
+import com.tinkerpop.blueprints.CloseableIterable;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Plan for an OR test : vertices of all its children are returned, one child after the other. Vertices found by more than one child are
+ * returned more than once, it's up to the query to filter them. Closing returned iterable closes the iterables of all children browsed so far.
+ * @author ndx
+ *
+ */
+public class UnionPlan extends QueryPlan {
+	private class UnionIterator implements Iterator<Vertex> {
+		private final Iterator<QueryPlan> plans = children.iterator();
+
+		/**
+		 * Iterables of children already browsed, to close once union is closed
+		 */
+		private final Collection<Iterable<Vertex>> opened;
+
+		private Iterator<Vertex> current = Collections.<Vertex> emptyList().iterator();
+
+		public UnionIterator(Collection<Iterable<Vertex>> opened) {
+			this.opened = opened;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while(!current.hasNext()) {
+				if(!plans.hasNext())
+					return false;
+				Iterable<Vertex> vertices = plans.next().getVertices();
+				opened.add(vertices);
+				current = vertices.iterator();
+			}
+			return true;
+		}
+
+		@Override
+		public Vertex next() {
+			if(!hasNext())
+				throw new NoSuchElementException();
+			return current.next();
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private final List<QueryPlan> children;
+
+	/**
+	 * @param children plans for all children of OR test.
+	 */
+	public UnionPlan(List<QueryPlan> children) {
+		this.children = children;
+	}
+
+	@Override
+	public double getEstimatedSize() {
+		double returned = 0;
+		for(QueryPlan child : children) {
+			returned += child.getEstimatedSize();
+		}
+		return returned;
+	}
+
+	@Override
+	public Iterable<Vertex> getVertices() {
+		return new CloseableIterable<Vertex>() {
+			private final Collection<Iterable<Vertex>> opened = new LinkedList<Iterable<Vertex>>();
+
+			@Override
+			public Iterator<Vertex> iterator() {
+				return new UnionIterator(opened);
+			}
+
+			@Override
+			public void close() {
+				for(Iterable<Vertex> vertices : opened) {
+					GraphUtils.close(vertices);
+				}
+				opened.clear();
+			}
+		};
+	}
+
+	/**
+	 * A vertex found by more than one child is returned more than once
+	 * @return
+	 * @see com.dooapp.gaedo.blueprints.queries.plans.QueryPlan#mayReturnDuplicates()
+	 */
+	@Override
+	public boolean mayReturnDuplicates() {
+		if(children.size()>1)
+			return true;
+		for(QueryPlan child : children) {
+			if(child.mayReturnDuplicates())
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	protected StringBuilder explain(int deepness, String prefix, StringBuilder builder) {
+		indent(deepness, builder).append(prefix).append("union of ").append(children.size());
+		appendEstimate(builder);
+		for(QueryPlan child : children) {
+			child.explain(deepness+1, "", builder.append("\n"));
+		}
+		return builder;
+	}
+}
@@ -5,6 +5,7 @@ import java.util.LinkedList;
 
 import com.dooapp.gaedo.blueprints.GraphDatabaseDriver;
 import com.dooapp.gaedo.blueprints.strategies.GraphMappingStrategy;
+import com.dooapp.gaedo.blueprints.utils.NavigationCache;
 import com.dooapp.gaedo.properties.Property;
 
 public abstract class AggregatedTargettedVertexTest extends TargettedVertexTest implements CompoundVertexTest{
@@ -15,10 +16,33 @@ public abstract class AggregatedTargettedVertexTest extends TargettedVertexTest
 		super(strategy, driver, p);
 	}
 
+	/**
+	 * Add a test, which will share this test navigation memo
+	 * @param test
+	 * @return
+	 */
 	public <Type extends VertexTest> Type add(Type test) {
+		if(test instanceof TargettedVertexTest) {
+			((TargettedVertexTest) test).setNavigation(getNavigation());
+		}
 		this.tests.add(test);
 		return test;
 	}
+
+	/**
+	 * Set navigation memo of this test and all its children
+	 * @param navigation
+	 * @see com.dooapp.gaedo.blueprints.queries.tests.TargettedVertexTest#setNavigation(com.dooapp.gaedo.blueprints.utils.NavigationCache)
+	 */
+	@Override
+	public void setNavigation(NavigationCache navigation) {
+		super.setNavigation(navigation);
+		for(VertexTest test : tests) {
+			if(test instanceof TargettedVertexTest) {
+				((TargettedVertexTest) test).setNavigation(navigation);
+			}
+		}
+	}
 	
 	public OrVertexTest or() {
 		return add(new OrVertexTest(strategy, getDriver(), path));
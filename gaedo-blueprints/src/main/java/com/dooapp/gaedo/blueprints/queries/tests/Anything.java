@@ -1,12 +1,8 @@
 package com.dooapp.gaedo.blueprints.queries.tests;
 
-import java.util.Iterator;
-
 import com.dooapp.gaedo.blueprints.GraphDatabaseDriver;
 import com.dooapp.gaedo.blueprints.strategies.GraphMappingStrategy;
 import com.dooapp.gaedo.properties.Property;
-import com.tinkerpop.blueprints.Direction;
-import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Vertex;
 
 public class Anything extends TargettedVertexTest implements VertexTest {
@@ -24,16 +20,7 @@ public class Anything extends TargettedVertexTest implements VertexTest {
 	@Override
 	public boolean matches(Vertex examined) {
 		// Navigates to the first target edge and perform test when reached
-		Vertex currentVertex = examined;
-		for(Property currentProperty : path) {
-			Iterator<Edge> edges = strategy.getOutEdgesFor(currentVertex, currentProperty).iterator();
-			if(edges.hasNext()) {
-				currentVertex = edges.next().getVertex(Direction.IN);
-			} else {
-				return false;
-			}
-		}
-		return (currentVertex!=null);
+		return getNavigation().getDestination(examined, path)!=null;
 	}
 
 	@Override
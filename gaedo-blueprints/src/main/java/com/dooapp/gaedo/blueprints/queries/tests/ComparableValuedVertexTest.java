@@ -36,7 +36,7 @@ public abstract class ComparableValuedVertexTest<ComparableType extends Comparab
 
 	@Override
 	protected boolean callMatchLiteral(Vertex currentVertex, Property finalProperty) {
-		ComparableType value = (ComparableType) Literals.get(finalProperty.getType()).loadObject(getDriver(), currentVertex);
+		ComparableType value = (ComparableType) loadLiteral(Literals.get(finalProperty.getType()), currentVertex);
 		return doCompare(value);
 	}
 }
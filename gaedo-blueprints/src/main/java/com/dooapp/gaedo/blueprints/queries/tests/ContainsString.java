@@ -33,7 +33,7 @@ public class ContainsString extends MonovaluedValuedVertexTest<String> implement
 
 	@Override
 	protected boolean callMatchLiteral(Vertex currentVertex, Property finalProperty) {
-		String value = (String) Literals.get(String.class).loadObject(getDriver(), currentVertex);
+		String value = (String) loadLiteral(Literals.get(String.class), currentVertex);
 		return value.contains(getExpected());
 	}
 
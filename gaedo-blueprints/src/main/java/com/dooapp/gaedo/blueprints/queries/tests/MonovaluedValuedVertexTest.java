@@ -9,6 +9,7 @@ import com.dooapp.gaedo.blueprints.GraphDatabaseDriver;
 import com.dooapp.gaedo.blueprints.ObjectCache;
 import com.dooapp.gaedo.blueprints.indexable.IndexableGraphBackedFinderService;
 import com.dooapp.gaedo.blueprints.strategies.GraphMappingStrategy;
+import com.dooapp.gaedo.blueprints.transformers.LiteralTransformer;
 import com.dooapp.gaedo.blueprints.utils.VertexPathNavigator;
 import com.dooapp.gaedo.blueprints.utils.VertexPathNavigator.VertexLocation;
 import com.dooapp.gaedo.properties.Property;
@@ -48,7 +49,7 @@ public abstract class MonovaluedValuedVertexTest<ValueType extends Object> exten
 	@Override
 	public boolean matches(Vertex examined) {
 		// Navigates to the first target edge and perform test when reached
-		VertexPathNavigator navigator = new VertexPathNavigator(strategy, examined);
+		VertexPathNavigator navigator = new VertexPathNavigator(getNavigation(), examined);
 		VertexLocation destination = navigator.navigateOn(path);
 		// null final property indicates object has no value for that property
 		if(!destination.isNavigationSuccessfull()) {
@@ -102,6 +103,17 @@ public abstract class MonovaluedValuedVertexTest<ValueType extends Object> exten
 	 */
 	protected abstract boolean callMatchLiteral(Vertex currentVertex, Property finalProperty);
 
+	/**
+	 * Load value of a literal vertex. As literal vertices are shared by all objects having the same value, value is memorized
+	 * by query navigation memo, which allows each literal to be parsed at most once during a query execution.
+	 * @param transformer transformer used to read literal
+	 * @param literalVertex vertex containing value
+	 * @return loaded value
+	 */
+	protected Object loadLiteral(LiteralTransformer<?> transformer, Vertex literalVertex) {
+		return getNavigation().getLiteralValue(literalVertex, transformer, getDriver());
+	}
+
 	/**
 	 * Obtain service associated to expected value. BEWARE ! This service corresponds to {@link #expected}, which may be a literal (in which case obtained service will only be an exception).
 	 * Usage iof this method should be restricted to cases where user is sure value is a serviceable one.
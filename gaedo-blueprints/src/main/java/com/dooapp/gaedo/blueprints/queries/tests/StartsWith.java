@@ -24,7 +24,7 @@ public class StartsWith extends MonovaluedValuedVertexTest<String> implements Ve
 
 	@Override
 	protected boolean callMatchLiteral(Vertex currentVertex, Property finalProperty) {
-		String value = (String) Literals.get(String.class).loadObject(getDriver(), currentVertex);
+		String value = (String) loadLiteral(Literals.get(String.class), currentVertex);
 		return value.startsWith(getExpected());
 	}
 }
@@ -9,6 +9,7 @@ import com.dooapp.gaedo.blueprints.AbstractBluePrintsBackedFinderService;
 import com.dooapp.gaedo.blueprints.GraphDatabaseDriver;
 import com.dooapp.gaedo.blueprints.ObjectCache;
 import com.dooapp.gaedo.blueprints.strategies.GraphMappingStrategy;
+import com.dooapp.gaedo.blueprints.utils.NavigationCache;
 import com.dooapp.gaedo.finders.repository.ServiceRepository;
 import com.dooapp.gaedo.properties.Property;
 import com.tinkerpop.blueprints.Vertex;
@@ -63,6 +64,10 @@ public class TargettedVertexTest {
 	 * Strategy used to navigate the edges
 	 */
 	protected final GraphMappingStrategy<?> strategy;
+	/**
+	 * Memo of navigations performed during current query execution. Lazily created when test is not given the query one.
+	 */
+	private NavigationCache navigation;
 
 	/**
 	 * Builds the vertex test
@@ -96,6 +101,27 @@ public class TargettedVertexTest {
 		return path;
 	}
 
+	/**
+	 * @return the navigation memo used by this test
+	 * @category getter
+	 * @category navigation
+	 */
+	public NavigationCache getNavigation() {
+		if(navigation==null) {
+			navigation = new NavigationCache(strategy);
+		}
+		return navigation;
+	}
+
+	/**
+	 * @param navigation the navigation memo to use, typically the one shared by all tests and the sorting comparator of a query
+	 * @category setter
+	 * @category navigation
+	 */
+	public void setNavigation(NavigationCache navigation) {
+		this.navigation = navigation;
+	}
+
 	/**
 	 * @return the repository
 	 * @category getter
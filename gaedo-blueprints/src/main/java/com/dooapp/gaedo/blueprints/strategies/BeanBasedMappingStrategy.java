@@ -3,10 +3,11 @@ package com.dooapp.gaedo.blueprints.strategies;
 import java.lang.annotation.Annotation;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -102,9 +103,9 @@ public class BeanBasedMappingStrategy<DataType> extends AbstractMappingStrategy<
 	static final Logger logger = Logger.getLogger(BeanBasedMappingStrategy.class.getName());
 
 	/**
-	 * Cach linking classes to their property maps
+	 * Cach linking classes to their property maps. It is read by all threads using the service, hence its concurrent nature.
 	 */
-	private Map<Class<?>, Map<Property, Collection<CascadeType>>> classes = new HashMap<Class<?>, Map<Property,Collection<CascadeType>>>();
+	private final ConcurrentMap<Class<?>, Map<Property, Collection<CascadeType>>> classes = new ConcurrentHashMap<Class<?>, Map<Property,Collection<CascadeType>>>();
 
 	public BeanBasedMappingStrategy(Class<DataType> serviceContainedClass, PropertyProvider propertyProvider, Migrator migrator) {
 		super(serviceContainedClass, propertyProvider, migrator);
@@ -117,7 +118,8 @@ public class BeanBasedMappingStrategy<DataType> extends AbstractMappingStrategy<
 	}
 
 	public Map<Property, Collection<CascadeType>> getContainedProperties(Class<? extends Object> objectClass) {
-		if (!classes.containsKey(objectClass)) {
+		Map<Property, Collection<CascadeType>> returned = classes.get(objectClass);
+		if (returned==null) {
 			Map<Property, Collection<CascadeType>> beanPropertiesFor = StrategyUtils.getBeanPropertiesFor(propertyProvider, objectClass, migrator);
 			// Finally, create a fake "classesCollection" property and add it to
 			// property
@@ -129,9 +131,12 @@ public class BeanBasedMappingStrategy<DataType> extends AbstractMappingStrategy<
 			} catch (Exception e) {
 				logger.log(Level.SEVERE, "what ? a class without a \"class\" field ? WTF", e);
 			}
-			classes .put(objectClass, beanPropertiesFor);
+			// when two threads compute the same properties, only the first one is kept
+			returned = classes.putIfAbsent(objectClass, beanPropertiesFor);
+			if(returned==null)
+				returned = beanPropertiesFor;
 		}
-		return classes.get(objectClass);
+		return returned;
 	}
 
 	/**
@@ -31,4 +31,14 @@ public class GraphPropertyAnnotation implements GraphProperty {
 	public PropertyMappingStrategy mapping() {
 		return strategy;
 	}
+
+	/**
+	 * Properties of graph based strategy are never indexed
+	 * @return false
+	 * @see com.dooapp.gaedo.blueprints.annotations.GraphProperty#indexed()
+	 */
+	@Override
+	public boolean indexed() {
+		return false;
+	}
 }
@@ -1,10 +1,13 @@
 package com.dooapp.gaedo.blueprints.transformers;
 
 import java.text.ParseException;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.dooapp.gaedo.blueprints.GraphDatabaseDriver;
 import com.dooapp.gaedo.blueprints.Properties;
@@ -38,18 +41,24 @@ public class DateLiteralTransformer extends AbstractSimpleLiteralTransformer<Dat
 	/**
 	 * A map allowing lazy loading of those inconvenient threaded loaders.
 	 */
-	private static final Map<String, DateFormatThreadedLoader> loaders = new TreeMap<String, DateFormatThreadedLoader>();
+	private static final ConcurrentMap<String, DateFormatThreadedLoader> loaders = new ConcurrentHashMap<String, DateFormatThreadedLoader>();
 	
 	/**
 	 * Cache linking dates to toeir associated format definition.
 	 * As the dates are in memory, and the formats are constants, this weak hash map should have very low memory impact.
+	 * As it is written by every date load, whatever the thread is, it is synchronized.
 	 */
-	private static Map<Date, String> dateCache = new WeakHashMap<Date, String>();
+	private static final Map<Date, String> dateCache = Collections.synchronizedMap(new WeakHashMap<Date, String>());
 	
 	public static DateFormatThreadedLoader getLoader(String format) {
-		if(!loaders.containsKey(format))
-			loaders.put(format, new DateFormatThreadedLoader(format));
-		return loaders.get(format);
+		DateFormatThreadedLoader returned = loaders.get(format);
+		if(returned==null) {
+			DateFormatThreadedLoader created = new DateFormatThreadedLoader(format);
+			returned = loaders.putIfAbsent(format, created);
+			if(returned==null)
+				returned = created;
+		}
+		return returned;
 	}
 	
 	public DateLiteralTransformer() {
@@ -83,11 +92,13 @@ public class DateLiteralTransformer extends AbstractSimpleLiteralTransformer<Dat
 	 */
 	@Override
 	public String getTypeOf(Object value) {
-		String format = "xsd:date";
-		if(dateCache.containsKey(value)) {
-			format = dateCache.get(value);
+		synchronized(dateCache) {
+			String format = dateCache.get(value);
+			if(format==null) {
+				format = "xsd:date";
+				dateCache.put((Date) value, format);
+			}
+			return format;
 		}
-		dateCache.put((Date) value, format);
-		return format;
 	}
 }
@@ -18,6 +18,11 @@ public enum Literals implements TransformerAssociation<LiteralTransformer> {
 	dates(Date.class, new DateLiteralTransformer()),
 	classes(Class.class, new ClassLiteralTransformer());
 	
+	/**
+	 * All values, obtained once as {@link #values()} creates a new array at each call
+	 */
+	private static final Literals[] VALUES = values();
+
 	/**
 	 * Source dataclass
 	 */
@@ -33,23 +38,23 @@ public enum Literals implements TransformerAssociation<LiteralTransformer> {
 	}
 	
 	public static LiteralTransformer get(ClassLoader classLoader, String effectiveType) {
-		return Transformers.get(Literals.values(), classLoader, effectiveType);
+		return Transformers.get(VALUES, classLoader, effectiveType);
 	}
 	
 	public static LiteralTransformer get(Class dataClass) {
-		return Transformers.get(Literals.values(), dataClass);
+		return Transformers.get(VALUES, dataClass);
 	}
 	
 	public static LiteralTransformer get(Type genericType) {
-		return Transformers.get(Literals.values(), genericType);
+		return Transformers.get(VALUES, genericType);
 	}
 	
 	public static boolean containsKey(ClassLoader classLoader, String effectiveType) {
-		return Transformers.containsKey(Literals.values(), classLoader, effectiveType);
+		return Transformers.containsKey(VALUES, classLoader, effectiveType);
 	}
 
 	public static boolean containsKey(Class<? extends Object> valueClass) {
-		return Transformers.containsKey(Literals.values(), valueClass);
+		return Transformers.containsKey(VALUES, valueClass);
 	}
 
 	@Override
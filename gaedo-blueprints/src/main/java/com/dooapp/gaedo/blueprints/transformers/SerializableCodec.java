@@ -0,0 +1,33 @@
+package com.dooapp.gaedo.blueprints.transformers;
+
+import java.io.Serializable;
+
+/**
+ * Codec used by {@link SerializableTransformer} to write unknown serializables as strings, and read them back.
+ * Each codec is identified by a name stored along with encoded values, which allows values written by a codec to be read whatever codec is later used
+ * for writing (provided that codec is registered using {@link SerializableTransformer#register(SerializableCodec)}).
+ * @author ndx
+ *
+ */
+public interface SerializableCodec {
+	/**
+	 * @return name of that codec, which must not contain any ':'
+	 */
+	public String getName();
+
+	/**
+	 * Encode value as a string
+	 * @param value a non null value
+	 * @return encoded value
+	 * @throws UnableToStoreSerializableException if value can't be encoded
+	 */
+	public String encode(Serializable value);
+
+	/**
+	 * Decode a string created by {@link #encode(Serializable)}
+	 * @param encoded
+	 * @return decoded value
+	 * @throws UnableToLoadSerializableException if string can't be decoded
+	 */
+	public Serializable decode(String encoded);
+}
@@ -0,0 +1,163 @@
+package com.dooapp.gaedo.blueprints.transformers;
+
+import java.beans.XMLDecoder;
+import java.beans.XMLEncoder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Codecs available by default to {@link SerializableTransformer}
+ * @author ndx
+ *
+ */
+public enum SerializableCodecs implements SerializableCodec {
+	/**
+	 * Historical (and default) codec, writing values using {@link XMLEncoder}. Output is readable, but verbose and slow to parse. Only works for values following
+	 * java beans conventions.
+	 */
+	xml {
+		@Override
+		public String encode(Serializable value) {
+			ByteArrayOutputStream stream = new ByteArrayOutputStream();
+			XMLEncoder encoder = new XMLEncoder(stream);
+			encoder.writeObject(value);
+			encoder.close();
+			try {
+				return new String(stream.toByteArray(), UTF_8);
+			} catch (UnsupportedEncodingException e) {
+				throw new UnableToStoreSerializableException("impossible to store serializable value "+value, e);
+			}
+		}
+
+		@Override
+		public Serializable decode(String encoded) {
+			try {
+				XMLDecoder decoder = new XMLDecoder(new ByteArrayInputStream(encoded.getBytes(UTF_8)));
+				try {
+					return (Serializable) decoder.readObject();
+				} finally {
+					decoder.close();
+				}
+			} catch (UnsupportedEncodingException e) {
+				throw new UnableToLoadSerializableException("impossible to load serializable value "+encoded, e);
+			}
+		}
+	},
+	/**
+	 * Compact codec, writing values using java serialization, with a base64 wrapper for the result to be storable as a string.
+	 * Beware, java serialization output is not canonical : it depends upon value internal state (like the bucket order of a HashMap or HashSet,
+	 * which depends upon insertion history) and upon class definition (serialVersionUID and fields). As a consequence, equal values may be
+	 * written differently, and will then be identified differently by {@link SerializableTransformer} (they won't share the same vertex, and
+	 * queries comparing to these values may not find them). Besides, reading values uses {@link ObjectInputStream}, which should
+	 * only be used on graphs whose content is trusted.
+	 */
+	binary {
+		@Override
+		public String encode(Serializable value) {
+			try {
+				ByteArrayOutputStream stream = new ByteArrayOutputStream();
+				ObjectOutputStream output = new ObjectOutputStream(stream);
+				output.writeObject(value);
+				output.close();
+				return Base64.encode(stream.toByteArray());
+			} catch (IOException e) {
+				throw new UnableToStoreSerializableException("impossible to store serializable value "+value, e);
+			}
+		}
+
+		@Override
+		public Serializable decode(String encoded) {
+			try {
+				ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(Base64.decode(encoded)));
+				try {
+					return (Serializable) input.readObject();
+				} finally {
+					input.close();
+				}
+			} catch (IOException e) {
+				throw new UnableToLoadSerializableException("impossible to load serializable value "+encoded, e);
+			} catch (ClassNotFoundException e) {
+				throw new UnableToLoadSerializableException("impossible to load serializable value "+encoded, e);
+			}
+		}
+	};
+
+	private static final String UTF_8 = "UTF-8";
+
+	@Override
+	public String getName() {
+		return name();
+	}
+
+	/**
+	 * Minimal base64 implementation (as java 6 has none in its public API)
+	 * @author ndx
+	 *
+	 */
+	private static class Base64 {
+		private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+		private static final int[] VALUES = new int[128];
+
+		static {
+			for (int index = 0; index < VALUES.length; index++) {
+				VALUES[index] = -1;
+			}
+			for (int index = 0; index < ALPHABET.length; index++) {
+				VALUES[ALPHABET[index]] = index;
+			}
+		}
+
+		static String encode(byte[] bytes) {
+			StringBuilder returned = new StringBuilder(((bytes.length + 2) / 3) * 4);
+			for (int index = 0; index < bytes.length; index += 3) {
+				int remaining = bytes.length - index;
+				int block = (bytes[index] & 0xff) << 16;
+				if (remaining > 1)
+					block |= (bytes[index + 1] & 0xff) << 8;
+				if (remaining > 2)
+					block |= bytes[index + 2] & 0xff;
+				returned.append(ALPHABET[(block >> 18) & 0x3f]);
+				returned.append(ALPHABET[(block >> 12) & 0x3f]);
+				returned.append(remaining > 1 ? ALPHABET[(block >> 6) & 0x3f] : '=');
+				returned.append(remaining > 2 ? ALPHABET[block & 0x3f] : '=');
+			}
+			return returned.toString();
+		}
+
+		static byte[] decode(String encoded) throws IOException {
+			int length = encoded.length();
+			if (length % 4 != 0)
+				throw new IOException("base64 string length should be a multiple of 4, but is " + length);
+			int padding = 0;
+			if (length > 0 && encoded.charAt(length - 1) == '=')
+				padding++;
+			if (length > 1 && encoded.charAt(length - 2) == '=')
+				padding++;
+			byte[] returned = new byte[length / 4 * 3 - padding];
+			int written = 0;
+			for (int index = 0; index < length; index += 4) {
+				int block = 0;
+				for (int offset = 0; offset < 4; offset++) {
+					char c = encoded.charAt(index + offset);
+					int value = 0;
+					if (c != '=') {
+						value = c < VALUES.length ? VALUES[c] : -1;
+						if (value < 0)
+							throw new IOException("invalid base64 character " + c + " at " + (index + offset));
+					}
+					block = (block << 6) | value;
+				}
+				for (int shift = 16; shift >= 0 && written < returned.length; shift -= 8) {
+					returned[written++] = (byte) (block >> shift);
+				}
+			}
+			return returned;
+		}
+	}
+}
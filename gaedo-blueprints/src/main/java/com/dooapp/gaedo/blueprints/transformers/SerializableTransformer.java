@@ -1,11 +1,11 @@
 package com.dooapp.gaedo.blueprints.transformers;
 
-import java.beans.XMLDecoder;
-import java.beans.XMLEncoder;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.persistence.CascadeType;
 
@@ -14,6 +14,7 @@ import com.dooapp.gaedo.blueprints.GraphDatabaseDriver;
 import com.dooapp.gaedo.blueprints.GraphUtils;
 import com.dooapp.gaedo.blueprints.Kind;
 import com.dooapp.gaedo.blueprints.ObjectCache;
+import com.dooapp.gaedo.blueprints.Properties;
 import com.dooapp.gaedo.blueprints.strategies.GraphMappingStrategy;
 import com.dooapp.gaedo.finders.repository.ServiceRepository;
 import com.tinkerpop.blueprints.Graph;
@@ -22,26 +23,120 @@ import com.tinkerpop.blueprints.Vertex;
 /**
  * Serializable handling is quite particular. Instead of saving a simple node type, this transformer checks the contained value and try to save it according to its inner type
  * (using {@link LiteralTransformer}, others {@link TupleTransformer} and services). This provide compact DB with good performances, at the cost of a complex class ... this one.
+ * Unknown serializables are written using a {@link SerializableCodec} (by default {@link SerializableCodecs#xml}), and identified by a hash of their encoded form.
+ * As a consequence, two equal values only share the same vertex when codec encodes them the same way. Read {@link SerializableCodecs#binary} documentation
+ * before using it.
+ * Vertices written before codecs were introduced are identified by their XML form. They're still read, and reused when an equal value is written with
+ * {@link SerializableCodecs#xml} codec, but queries comparing values to them won't match until graph is migrated using
+ * {@link com.dooapp.gaedo.blueprints.indexable.SerializableVerticesMigration}.
  * @author ndx
  *
  */
 public class SerializableTransformer implements TupleTransformer<Serializable> {
-	private Serializable readSerializable(String valueString) {
-		ByteArrayInputStream stream = new ByteArrayInputStream(valueString.getBytes());
-		XMLDecoder decoder = new XMLDecoder(stream);
-		return (Serializable) decoder.readObject();
+	/**
+	 * Separator between codec name and encoded value in {@link Properties#serialized} vertex property
+	 */
+	private static final char CODEC_SEPARATOR = ':';
+
+	private static final char[] HEXADECIMAL = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Codecs usable to read values, by name
+	 */
+	private final Map<String, SerializableCodec> codecs = new ConcurrentHashMap<String, SerializableCodec>();
+
+	/**
+	 * Codec used to write values
+	 */
+	private volatile SerializableCodec codec = SerializableCodecs.xml;
+
+	public SerializableTransformer() {
+		for(SerializableCodec known : SerializableCodecs.values()) {
+			register(known);
+		}
+	}
+
+	/**
+	 * Make a codec usable to read values
+	 * @param added
+	 */
+	public void register(SerializableCodec added) {
+		codecs.put(added.getName(), added);
+	}
+
+	/**
+	 * Set codec used to write new values. That codec is also registered, so values it writes can be read.
+	 * Notice changing codec changes the id of written values : values already stored using previous codec will be read as usual,
+	 * but won't be matched by queries comparing them to a value (as these queries will use the new codec).
+	 * @param codec new value for #codec
+	 * @category setter
+	 * @category codec
+	 */
+	public void setCodec(SerializableCodec codec) {
+		register(codec);
+		this.codec = codec;
+	}
+
+	/**
+	 * @return the codec
+	 * @category getter
+	 * @category codec
+	 */
+	public SerializableCodec getCodec() {
+		return codec;
 	}
 
+	/**
+	 * Encode value with current codec
+	 * @param value
+	 * @return codec name and encoded value, as stored in {@link Properties#serialized} vertex property
+	 */
 	private String writeSerializable(Serializable value) {
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		XMLEncoder encoder = new XMLEncoder(stream);
-		encoder.writeObject(value);
-		encoder.close();
+		SerializableCodec used = codec;
+		return used.getName()+CODEC_SEPARATOR+used.encode(value);
+	}
+
+	/**
+	 * Decode a value written by {@link #writeSerializable(Serializable)}
+	 * @param serialized
+	 * @return
+	 */
+	private Serializable readSerializable(String serialized) {
+		int separator = serialized.indexOf(CODEC_SEPARATOR);
+		SerializableCodec used = separator<0 ? null : codecs.get(serialized.substring(0, separator));
+		if(used==null) {
+			throw new UnableToLoadSerializableException("no registered codec can read value "+serialized+". Known codecs are "+codecs.keySet());
+		}
+		return used.decode(serialized.substring(separator+1));
+	}
+
+	/**
+	 * Get content of {@link Properties#serialized} property for a vertex written before codecs were introduced
+	 * @param legacyValue value of that vertex, which is the XML form of its serializable
+	 * @return codec name and encoded value, as written by {@link SerializableCodecs#xml} codec
+	 */
+	public static String getSerializedOfLegacy(String legacyValue) {
+		return SerializableCodecs.xml.getName()+CODEC_SEPARATOR+legacyValue;
+	}
+
+	/**
+	 * Get id of a serialized value, which is a SHA-1 hash of it : it is short and fixed-width, whatever value size is
+	 * @param serialized codec name and encoded value, as stored in {@link Properties#serialized} vertex property
+	 * @return hexadecimal hash of serialized value
+	 */
+	public static String getIdOfSerialized(String serialized) {
 		try {
-			stream.close();
-			return new String(stream.toByteArray());
-		} catch (IOException e) {
-			throw new UnableToStoreSerializableException("impossible to store serializable value "+value, e);
+			byte[] hash = MessageDigest.getInstance("SHA-1").digest(serialized.getBytes("UTF-8"));
+			char[] returned = new char[hash.length*2];
+			for (int index = 0; index < hash.length; index++) {
+				returned[index*2] = HEXADECIMAL[(hash[index] >> 4) & 0xf];
+				returned[index*2+1] = HEXADECIMAL[hash[index] & 0xf];
+			}
+			return new String(returned);
+		} catch (NoSuchAlgorithmException e) {
+			throw new UnableToStoreSerializableException("impossible to compute id of serializable value "+serialized, e);
+		} catch (UnsupportedEncodingException e) {
+			throw new UnableToStoreSerializableException("impossible to compute id of serializable value "+serialized, e);
 		}
 	}
 
@@ -70,14 +165,32 @@ public class SerializableTransformer implements TupleTransformer<Serializable> {
 	}
 
 
+	/**
+	 * Get vertex of a serializable value. That vertex is indexed using the hash of serialized value (see {@link #getIdOfSerialized(String)}) and
+	 * stores serialized value in its {@link Properties#serialized} property, which is not indexed. When no such vertex exists and value is written as XML,
+	 * a vertex written before codecs were introduced (whose id is the XML form of value) is looked up.
+	 * Notice vertex is typed as a {@link Serializable}, whatever value class is, as it is that type that allows {@link #loadObject(GraphDatabaseDriver, GraphMappingStrategy, ClassLoader, String, Vertex, ServiceRepository, ObjectCache)}
+	 * to be called.
+	 * @param database
+	 * @param repository
+	 * @param value
+	 * @return
+	 */
 	private Vertex getVertextForUnknownSerializable(GraphDatabaseDriver database, ServiceRepository repository, Serializable value) {
 		String serialized = writeSerializable(value);
+		String id = getIdOfSerialized(serialized);
 		// Then indexed vertex id (for neo4j, typically)
-		Vertex returned = database.loadVertexFor(serialized, value.getClass().getName());
+		Vertex returned = database.loadVertexFor(id, Serializable.class.getName());
+		// Then a not yet migrated vertex, provided its id can be known without encoding value a second time
+		if(returned==null && serialized.startsWith(SerializableCodecs.xml.getName()+CODEC_SEPARATOR)) {
+			Vertex legacy = database.loadVertexFor(serialized.substring(SerializableCodecs.xml.getName().length()+1), Serializable.class.getName());
+			if(legacy!=null && legacy.getProperty(Properties.serialized.name())==null)
+				returned = legacy;
+		}
 		// Finally create vertex
 		if(returned==null) {
-			returned = database.createEmptyVertex(Serializable.class, serialized, value);
-			database.setValue(returned, serialized);
+			returned = database.createEmptyVertex(Serializable.class, id, value);
+			returned.setProperty(Properties.serialized.name(), serialized);
 		}
 		return returned;
 	}
@@ -88,7 +201,7 @@ public class SerializableTransformer implements TupleTransformer<Serializable> {
 		Class<? extends Serializable> valueClass = value.getClass();
 		if(Tuples.containsKey(valueClass)) {
 			if(Tuples.get(valueClass).equals(this)) {
-				return writeSerializable(value);
+				return getIdOfSerialized(writeSerializable(value));
 			}
 		}
 		// Delegate to the rest of the world
@@ -99,6 +212,7 @@ public class SerializableTransformer implements TupleTransformer<Serializable> {
 	 * For loading object, reverse job iof persisting is done, but way simpler, as using other persistences mechanisms allows us to load known serializable
 	 * using their assocaited literal transformers/services, which is WAAAAYYYYYYY cooler.
 	 * So, this method simple job is just to read value and deserialize it. Nice, no ?
+	 * Vertices written before codecs were introduced have no {@link Properties#serialized} property : their value is XML.
 	 * @param classLoader
 	 * @param effectiveClass
 	 * @param key
@@ -109,12 +223,20 @@ public class SerializableTransformer implements TupleTransformer<Serializable> {
 	 */
 	@Override
 	public Object loadObject(GraphDatabaseDriver driver, GraphMappingStrategy strategy, ClassLoader classLoader, Class effectiveClass, Vertex key, ServiceRepository repository, ObjectCache objectsBeingAccessed) {
-		return readSerializable(driver.getValue(key).toString());
+		return loadSerializable(driver, key);
 	}
 
 	@Override
 	public Object loadObject(GraphDatabaseDriver driver, GraphMappingStrategy strategy, ClassLoader classLoader, String effectiveType, Vertex key, ServiceRepository repository, ObjectCache objectsBeingAccessed) {
-		return readSerializable(driver.getValue(key).toString());
+		return loadSerializable(driver, key);
+	}
+
+	private Serializable loadSerializable(GraphDatabaseDriver driver, Vertex key) {
+		Object serialized = key.getProperty(Properties.serialized.name());
+		if(serialized==null) {
+			return SerializableCodecs.xml.decode(driver.getValue(key).toString());
+		}
+		return readSerializable(serialized.toString());
 	}
 
 	@Override
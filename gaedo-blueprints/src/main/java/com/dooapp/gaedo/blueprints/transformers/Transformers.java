@@ -3,16 +3,62 @@ package com.dooapp.gaedo.blueprints.transformers;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.dooapp.gaedo.utils.Utils;
 
 /**
- * Utility class factorizing some code
+ * Utility class factorizing some code.
+ * Lookups by class are cached : for each family of transformer associations (like {@link Literals} or {@link Tuples}), the association found
+ * for a class (or its absence) is memorized, so that associations are only scanned once per class. Classes are weakly referenced by that cache,
+ * which won't prevent them (and their classloader) from being garbage collected.
  * @author ndx
  *
  */
 public class Transformers {
-	
+	/**
+	 * Marker of classes having no associated transformer
+	 */
+	private static final Object NO_ASSOCIATION = new Object();
+
+	/**
+	 * Association (or {@link #NO_ASSOCIATION}) found for each class, by type of associations array. Notice the only keys of that map are
+	 * the array types of gaedo associations enums, while the maps it contains are weakly keyed by looked up classes.
+	 */
+	private static final ConcurrentMap<Class<?>, Map<Class<?>, Object>> associations = new ConcurrentHashMap<Class<?>, Map<Class<?>, Object>>();
+
+	/**
+	 * Find association handling the given class, using cache
+	 * @param values searched associations
+	 * @param dataClass an objectified class
+	 * @return the first association whose data class is assignable from dataClass, or null if there is none
+	 */
+	private static TransformerAssociation<?> findAssociation(TransformerAssociation<?>[] values, Class<?> dataClass) {
+		Map<Class<?>, Object> family = associations.get(values.getClass());
+		if(family==null) {
+			Map<Class<?>, Object> created = Collections.synchronizedMap(new WeakHashMap<Class<?>, Object>());
+			family = associations.putIfAbsent(values.getClass(), created);
+			if(family==null)
+				family = created;
+		}
+		Object returned = family.get(dataClass);
+		if(returned==null) {
+			returned = NO_ASSOCIATION;
+			for(TransformerAssociation<?> l : values) {
+				if(l.getDataClass().isAssignableFrom(dataClass)) {
+					returned = l;
+					break;
+				}
+			}
+			family.put(dataClass, returned);
+		}
+		return returned==NO_ASSOCIATION ? null : (TransformerAssociation<?>) returned;
+	}
+
 	public static <TransformerType extends Transformer> TransformerType get(TransformerAssociation<TransformerType>[] values, ClassLoader classLoader, String effectiveType) {
 		for(TransformerAssociation l : values) {
 			if(l.canHandle(classLoader, effectiveType)) {
@@ -26,21 +72,16 @@ public class Transformers {
 		// Notice all primitive types are objectified before all
 		if(dataClass.isPrimitive())
 			dataClass = Utils.objectify(dataClass);
-		for(TransformerAssociation l : values) {
-			if(l.getDataClass().isAssignableFrom(dataClass)) {
-				return (TransformerType) l.getTransformer();
-			}
+		TransformerAssociation<?> found = findAssociation(values, dataClass);
+		if(found!=null) {
+			return (TransformerType) found.getTransformer();
 		}
 		throw new ClassIsNotAKnownLiteralException(values, dataClass);
 	}
 
 	public static boolean containsKey(TransformerAssociation[] values, Class<? extends Object> valueClass) {
 		if(valueClass!=null) {
-			for(TransformerAssociation l : values) {
-				if(l.getDataClass().isAssignableFrom(valueClass)) {
-					return true;
-				}
-			}
+			return findAssociation(values, valueClass)!=null;
 		}
 		return false;
 	}
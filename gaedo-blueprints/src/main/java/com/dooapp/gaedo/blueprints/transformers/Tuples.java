@@ -12,6 +12,11 @@ public enum Tuples implements TransformerAssociation<TupleTransformer> {
 	entries(Map.Entry.class, new MapEntryTransformer()),
 	serializables(Serializable.class, new SerializableTransformer());
 	
+	/**
+	 * All values, obtained once as {@link #values()} creates a new array at each call
+	 */
+	private static final Tuples[] VALUES = values();
+
 	/**
 	 * Source dataclass
 	 */
@@ -27,19 +32,19 @@ public enum Tuples implements TransformerAssociation<TupleTransformer> {
 	}
 	
 	public static TupleTransformer get(Class dataClass) {
-		return Transformers.get(Tuples.values(), dataClass);
+		return Transformers.get(VALUES, dataClass);
 	}
 	
 	public static TupleTransformer get(ClassLoader classLoader, String effectiveType) {
-		return Transformers.get(Tuples.values(), classLoader, effectiveType);
+		return Transformers.get(VALUES, classLoader, effectiveType);
 	}
 
 	public static boolean containsKey(Class<? extends Object> valueClass) {
-		return Transformers.containsKey(Tuples.values(), valueClass);
+		return Transformers.containsKey(VALUES, valueClass);
 	}
 	
 	public static boolean containsKey(ClassLoader classLoader, String effectiveType) {
-		return Transformers.containsKey(Tuples.values(), classLoader, effectiveType);
+		return Transformers.containsKey(VALUES, classLoader, effectiveType);
 	}
 
 	@Override
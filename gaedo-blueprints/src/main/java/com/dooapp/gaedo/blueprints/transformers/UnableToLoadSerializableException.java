@@ -0,0 +1,15 @@
+package com.dooapp.gaedo.blueprints.transformers;
+
+import com.dooapp.gaedo.blueprints.BluePrintsCrudServiceException;
+
+public class UnableToLoadSerializableException extends BluePrintsCrudServiceException {
+
+	public UnableToLoadSerializableException(String message) {
+		super(message);
+	}
+
+	public UnableToLoadSerializableException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
@@ -0,0 +1,224 @@
+package com.dooapp.gaedo.blueprints.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.dooapp.gaedo.blueprints.GraphDatabaseDriver;
+import com.dooapp.gaedo.blueprints.strategies.GraphMappingStrategy;
+import com.dooapp.gaedo.blueprints.transformers.LiteralTransformer;
+import com.dooapp.gaedo.properties.Property;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * A size bounded (in a LRU fashion) memo of monovalued property navigations, linking a source vertex and a property to the vertex reached
+ * by following the first edge of that property. Each path navigation being a sequence of such hops, paths sharing a prefix (or leading
+ * to the same intermediate vertices, like posts of the same author) are only navigated once.
+ * Values of reached literal vertices are also memorized (see {@link #getLiteralValue(Vertex, LiteralTransformer, GraphDatabaseDriver)}), so that
+ * a literal shared by many objects (like a date or a number) is parsed at most once.
+ * That memo is meant to live during one query execution, where it is shared by vertex tests and sorting comparator. As a consequence,
+ * it is not thread-safe, and it doesn't see graph modifications performed after a navigation.
+ * @author ndx
+ *
+ */
+public class NavigationCache {
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+	/**
+	 * Marker of navigations that reached no vertex
+	 */
+	private static final Object NO_DESTINATION = new Object();
+
+	/**
+	 * Key of a navigation from a vertex through a property
+	 * @author ndx
+	 *
+	 */
+	private static class Hop {
+		private final Object sourceId;
+		private final Property property;
+
+		public Hop(Object sourceId, Property property) {
+			this.sourceId = sourceId;
+			this.property = property;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * sourceId.hashCode() + property.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Hop))
+				return false;
+			Hop other = (Hop) obj;
+			return sourceId.equals(other.sourceId) && property.equals(other.property);
+		}
+	}
+
+	/**
+	 * Key of a literal value loaded by a transformer
+	 * @author ndx
+	 *
+	 */
+	private static class LoadedLiteral {
+		private final Object vertexId;
+		private final LiteralTransformer<?> transformer;
+
+		public LoadedLiteral(Object vertexId, LiteralTransformer<?> transformer) {
+			this.vertexId = vertexId;
+			this.transformer = transformer;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * vertexId.hashCode() + transformer.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof LoadedLiteral))
+				return false;
+			LoadedLiteral other = (LoadedLiteral) obj;
+			return vertexId.equals(other.vertexId) && transformer.equals(other.transformer);
+		}
+	}
+
+	/**
+	 * Strategy used to get edges of a property
+	 */
+	private final GraphMappingStrategy<?> strategy;
+
+	/**
+	 * Reached vertices (or {@link #NO_DESTINATION}), by navigation, in access order
+	 */
+	private final Map<Hop, Object> destinations;
+
+	/**
+	 * Loaded values of literal vertices (or {@link #NO_DESTINATION} for null values), in access order
+	 */
+	private final Map<LoadedLiteral, Object> literals;
+
+	private int hits = 0;
+
+	private int misses = 0;
+
+	/**
+	 * Build a memo of {@link #DEFAULT_MAXIMUM_SIZE} navigations
+	 * @param strategy strategy used to get edges of a property
+	 */
+	public NavigationCache(GraphMappingStrategy<?> strategy) {
+		this(strategy, DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * @param strategy strategy used to get edges of a property
+	 * @param maximumSize maximum number of memorized navigations. When reached, least recently used one is forgotten.
+	 */
+	public NavigationCache(GraphMappingStrategy<?> strategy, final int maximumSize) {
+		this.strategy = strategy;
+		this.destinations = new LinkedHashMap<Hop, Object>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Hop, Object> eldest) {
+				return size()>maximumSize;
+			}
+		};
+		this.literals = new LinkedHashMap<LoadedLiteral, Object>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<LoadedLiteral, Object> eldest) {
+				return size()>maximumSize;
+			}
+		};
+	}
+
+	/**
+	 * Get vertex reached from source by following the given property
+	 * @param source source vertex
+	 * @param property navigated property
+	 * @return the vertex at the end of the first edge of that property, or null if there is no such edge
+	 */
+	public Vertex getDestination(Vertex source, Property property) {
+		Hop hop = new Hop(source.getId(), property);
+		Object returned = destinations.get(hop);
+		if(returned==null) {
+			misses++;
+			Iterator<Edge> edges = strategy.getOutEdgesFor(source, property).iterator();
+			returned = edges.hasNext() ? edges.next().getVertex(Direction.IN) : NO_DESTINATION;
+			destinations.put(hop, returned);
+		} else {
+			hits++;
+		}
+		return returned==NO_DESTINATION ? null : (Vertex) returned;
+	}
+
+	/**
+	 * Get vertex reached from source by following the given path
+	 * @param source source vertex
+	 * @param path navigated path
+	 * @return the vertex at the end of path, or null if navigation stopped before
+	 */
+	public Vertex getDestination(Vertex source, Iterable<Property> path) {
+		Vertex returned = source;
+		for(Iterator<Property> properties = path.iterator(); returned!=null && properties.hasNext(); ) {
+			returned = getDestination(returned, properties.next());
+		}
+		return returned;
+	}
+
+	/**
+	 * Get value of a literal vertex
+	 * @param literal literal vertex
+	 * @param transformer transformer used to load value
+	 * @param driver driver given to transformer
+	 * @return value loaded by transformer, which is only called the first time that vertex is loaded by that transformer
+	 */
+	public Object getLiteralValue(Vertex literal, LiteralTransformer<?> transformer, GraphDatabaseDriver driver) {
+		LoadedLiteral key = new LoadedLiteral(literal.getId(), transformer);
+		Object returned = literals.get(key);
+		if(returned==null) {
+			misses++;
+			returned = transformer.loadObject(driver, literal);
+			literals.put(key, returned==null ? NO_DESTINATION : returned);
+		} else {
+			hits++;
+		}
+		return returned==NO_DESTINATION ? null : returned;
+	}
+
+	/**
+	 * Forget all memorized navigations and literal values. Should be called before each query execution, as graph may have changed since previous one.
+	 */
+	public void clear() {
+		destinations.clear();
+		literals.clear();
+	}
+
+	/**
+	 * @return the strategy
+	 * @category getter
+	 * @category strategy
+	 */
+	public GraphMappingStrategy<?> getStrategy() {
+		return strategy;
+	}
+
+	public int getHits() {
+		return hits;
+	}
+
+	public int getMisses() {
+		return misses;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+"(size:"+destinations.size()+"; literals:"+literals.size()+"; hits:"+hits+"; misses:"+misses+")";
+	}
+}
@@ -96,12 +96,26 @@ public class VertexPathNavigator {
 
 	private Vertex source;
 	private GraphMappingStrategy<?> strategy;
+	/**
+	 * Memo of navigations, may be null
+	 */
+	private NavigationCache navigation;
 
 	public VertexPathNavigator(GraphMappingStrategy<?> strategy, Vertex source) {
 		this.strategy = strategy;
 		this.source = source;
 	}
 
+	/**
+	 * Build a navigator reusing (and feeding) navigations memorized in the given cache
+	 * @param navigation navigation memo of current query
+	 * @param source source vertex
+	 */
+	public VertexPathNavigator(NavigationCache navigation, Vertex source) {
+		this(navigation.getStrategy(), source);
+		this.navigation = navigation;
+	}
+
 	public VertexLocation navigateOn(Iterable<Property> path) {
 		VertexLocation returned = new VertexLocation();
 		returned.loadInitialPath(path);
@@ -110,11 +124,10 @@ public class VertexPathNavigator {
 		while(returned.hasPath()) {
 			Property currentProperty = returned.nextInPath();
 			Vertex currentVertex = returned.vertex();
-			Iterable<Edge> outEdges = strategy.getOutEdgesFor(currentVertex, currentProperty);
-			Iterator<Edge> edges = outEdges.iterator();
+			Vertex destination = getDestination(currentVertex, currentProperty);
 			returned.push(currentProperty);
-			if(edges.hasNext()) {
-				returned.push(edges.next().getVertex(Direction.IN));
+			if(destination!=null) {
+				returned.push(destination);
 			} else {
 				returned.setNavigationSuccessfull(false);
 			}
@@ -122,4 +135,12 @@ public class VertexPathNavigator {
 		return returned;
 	}
 
+	private Vertex getDestination(Vertex currentVertex, Property currentProperty) {
+		if(navigation!=null) {
+			return navigation.getDestination(currentVertex, currentProperty);
+		}
+		Iterator<Edge> edges = strategy.getOutEdgesFor(currentVertex, currentProperty).iterator();
+		return edges.hasNext() ? edges.next().getVertex(Direction.IN) : null;
+	}
+
 }
@@ -0,0 +1,168 @@
+package com.dooapp.gaedo.blueprints;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.dooapp.gaedo.test.beans.Tag;
+import com.tinkerpop.blueprints.TransactionalGraph;
+import com.tinkerpop.blueprints.TransactionalGraph.Conclusion;
+
+import static com.dooapp.gaedo.blueprints.TestUtils.simpleTest;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Ensure bulk loads report their progress after each chunk, and that a failure only rolls back the chunk being written (or the unit of work
+ * running in current thread)
+ * @author ndx
+ *
+ */
+@RunWith(Parameterized.class)
+public class BulkLoaderTest extends AbstractGraphTest {
+	/**
+	 * Tags to load, failing when asked for the tag at a given index
+	 * @author ndx
+	 *
+	 */
+	private static class FailingTags implements Iterable<Tag> {
+		private final int size;
+
+		private final int failAt;
+
+		public FailingTags(int size, int failAt) {
+			this.size = size;
+			this.failAt = failAt;
+		}
+
+		@Override
+		public Iterator<Tag> iterator() {
+			return new Iterator<Tag>() {
+				private int index = 0;
+
+				@Override
+				public boolean hasNext() {
+					return index < size;
+				}
+
+				@Override
+				public Tag next() {
+					if (index == failAt)
+						throw new IllegalStateException("failed at " + index);
+					index++;
+					return new Tag(index, "tag " + index);
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+	}
+
+	@Parameters
+	public static Collection<Object[]> parameters() {
+		return simpleTest();
+	}
+
+	public BulkLoaderTest(AbstractGraphEnvironment<?> environment) {
+		super(environment);
+	}
+
+	private AbstractBluePrintsBackedFinderService<?, Tag, ?> getBluePrintsTagService() {
+		return (AbstractBluePrintsBackedFinderService<?, Tag, ?>) getTagService();
+	}
+
+	private BulkLoader<Tag> createLoader(int chunkSize) {
+		BulkLoader<Tag> returned = new BulkLoader<Tag>(getBluePrintsTagService());
+		returned.setChunkSize(chunkSize);
+		return returned;
+	}
+
+	private int countTags() {
+		int returned = 0;
+		for (Tag t : getTagService().findAll()) {
+			returned++;
+		}
+		return returned;
+	}
+
+	@Test
+	public void progressIsReportedAfterEachChunk() {
+		final List<String> progress = new ArrayList<String>();
+		getBluePrintsTagService().getRepository().getSupport().addPropertyChangeListener(BulkLoader.PROGRESS_PROPERTY, new PropertyChangeListener() {
+
+			@Override
+			public void propertyChange(PropertyChangeEvent evt) {
+				progress.add(evt.getOldValue() + "->" + evt.getNewValue());
+			}
+		});
+		assertThat(createLoader(2).createAll(new FailingTags(5, -1)), Is.is(5));
+		assertThat(progress.toString(), Is.is("[0->2, 2->4, 4->5]"));
+		assertThat(countTags(), Is.is(5));
+	}
+
+	@Test
+	public void failureRollsBackCurrentChunkOnly() {
+		try {
+			createLoader(2).createAll(new FailingTags(5, 3));
+			fail("fourth tag fails");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		// first chunk is committed, third tag was rolled back with the chunk it was written in
+		assertThat(countTags(), Is.is(environment.getGraph() instanceof TransactionalGraph ? 2 : 3));
+		assertNull(BulkLoader.getLoadedVertices(environment.getGraph()));
+		// loader can be used again
+		assertThat(createLoader(2).updateAll(new FailingTags(5, -1)), Is.is(5));
+		assertThat(countTags(), Is.is(5));
+	}
+
+	@Test
+	public void loadedVerticesAreOnlyVisibleDuringLoad() {
+		final BulkLoader<Tag> loader = createLoader(2);
+		assertNull(BulkLoader.getLoadedVertices(environment.getGraph()));
+		loader.createAll(new Iterable<Tag>() {
+
+			@Override
+			public Iterator<Tag> iterator() {
+				// called by loader, in the loading thread
+				assertNotNull(BulkLoader.getLoadedVertices(environment.getGraph()));
+				return new FailingTags(1, -1).iterator();
+			}
+		});
+		assertNull(BulkLoader.getLoadedVertices(environment.getGraph()));
+	}
+
+	@Test
+	public void failureInRunningUnitOfWorkRollsItBack() {
+		// indexes created by services must not be rolled back with unit of work
+		if (environment.getGraph() instanceof TransactionalGraph)
+			((TransactionalGraph) environment.getGraph()).stopTransaction(Conclusion.SUCCESS);
+		UnitOfWork work = UnitOfWork.begin();
+		try {
+			createLoader(2).createAll(new FailingTags(5, 3));
+			fail("fourth tag fails");
+		} catch (IllegalStateException e) {
+			// expected
+		} finally {
+			work.close();
+		}
+		// chunks are not committed by loader when a unit of work is running
+		assertThat(countTags(), Is.is(environment.getGraph() instanceof TransactionalGraph ? 0 : 3));
+		assertNull(UnitOfWork.current());
+	}
+}
@@ -0,0 +1,106 @@
+package com.dooapp.gaedo.blueprints;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.hamcrest.core.Is;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.dooapp.gaedo.finders.QueryBuilder;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.finders.QueryStatement;
+import com.dooapp.gaedo.finders.cache.QueryCache;
+import com.dooapp.gaedo.test.beans.Tag;
+import com.dooapp.gaedo.test.beans.TagInformer;
+
+import static com.dooapp.gaedo.blueprints.TestUtils.A;
+import static com.dooapp.gaedo.blueprints.TestUtils.B;
+import static com.dooapp.gaedo.blueprints.TestUtils.simpleTest;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Ensure graph queries can be keyed and served by a {@link QueryCache} before they're run, and that cache is invalidated by writes
+ * @author ndx
+ *
+ */
+@RunWith(Parameterized.class)
+public class CachedGraphTagFinderServiceTest extends AbstractGraphTest {
+
+	@Parameters
+	public static Collection<Object[]> parameters() {
+		return simpleTest();
+	}
+
+	private QueryCache cache;
+	private Tag a;
+
+	public CachedGraphTagFinderServiceTest(AbstractGraphEnvironment<?> environment) {
+		super(environment);
+	}
+
+	@Before
+	public void loadService() throws Exception {
+		super.loadService();
+		a = getTagService().create(new Tag(A));
+		getTagService().create(new Tag(B));
+		cache = new QueryCache();
+		cache.install(environment.getServiceRrepository());
+	}
+
+	private QueryStatement<Tag, Tag, TagInformer> findByText(final String text) {
+		return getTagService().find().matching(new QueryBuilder<TagInformer>() {
+
+			public QueryExpression createMatchingExpression(TagInformer object) {
+				return object.getText().equalsTo(text);
+			}
+		});
+	}
+
+	@Test
+	public void testSameQueryHitsCache() {
+		assertThat(findByText(A).count(), Is.is(1));
+		assertThat(findByText(A).count(), Is.is(1));
+		assertThat(findByText(B).count(), Is.is(1));
+		assertThat(cache.getHits(), Is.is(1l));
+		assertThat(cache.getMisses(), Is.is(2l));
+	}
+
+	@Test
+	public void testAllResultMethodsCanBeCached() {
+		for (int run = 0; run < 2; run++) {
+			assertThat(findByText(A).getFirst().getText(), Is.is(A));
+			Iterator<Tag> all = findByText(A).getAll().iterator();
+			assertThat(all.next().getText(), Is.is(A));
+			assertThat(all.hasNext(), Is.is(false));
+			assertThat(findByText(A).get(0, 1).iterator().next().getText(), Is.is(A));
+		}
+		assertThat(cache.getMisses(), Is.is(3l));
+		assertThat(cache.getHits(), Is.is(3l));
+	}
+
+	@Test
+	public void testUpdateInvalidatesCache() {
+		assertThat(findByText(A).count(), Is.is(1));
+		a.setText(B);
+		getTagService().update(a);
+		assertThat(findByText(A).count(), Is.is(0));
+		assertThat(findByText(B).count(), Is.is(2));
+		assertThat(cache.getHits(), Is.is(0l));
+	}
+
+	@Test
+	public void testCachedResultsAreNotShared() {
+		Tag first = findByText(A).getFirst();
+		Tag second = findByText(A).getFirst();
+		assertThat(cache.getHits(), Is.is(1l));
+		assertNotSame(first, second);
+		assertThat(second, Is.is(first));
+		assertNotSame(findByText(A).getAll().iterator().next(), findByText(A).getAll().iterator().next());
+	}
+}
@@ -0,0 +1,170 @@
+package com.dooapp.gaedo.blueprints;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.dooapp.gaedo.test.beans.Post;
+import com.dooapp.gaedo.test.beans.State;
+import com.dooapp.gaedo.test.beans.Tag;
+import com.dooapp.gaedo.test.beans.User;
+
+import static com.dooapp.gaedo.blueprints.TestUtils.USER_LOGIN;
+import static com.dooapp.gaedo.blueprints.TestUtils.USER_PASSWORD;
+import static com.dooapp.gaedo.blueprints.TestUtils.simpleTest;
+
+import static org.junit.Assert.assertThat;
+
+/**
+ * Ensure lazy collections and maps are loaded on first access, that accessing one of them prefetches the ones of the same property of objects
+ * loaded by the same query, and that pending loaders stay bounded
+ * @author ndx
+ *
+ */
+@RunWith(Parameterized.class)
+public class LazyCollectionsTest extends AbstractGraphTest {
+
+	private static final int POSTS = 4;
+
+	/**
+	 * Loader doing nothing but being marked as loaded
+	 * @author ndx
+	 *
+	 */
+	private static class NoopLoader extends AbstractLazyLoader {
+		public NoopLoader(ObjectCache cache) {
+			super(null, null, null, null, null, null, cache);
+		}
+
+		@Override
+		protected void doLoad() {
+			loaded = true;
+		}
+	}
+
+	@Parameters
+	public static Collection<Object[]> parameters() {
+		return simpleTest();
+	}
+
+	public LazyCollectionsTest(AbstractGraphEnvironment<?> environment) {
+		super(environment);
+	}
+
+	@Before
+	public void loadService() throws Exception {
+		super.loadService();
+		User author = new User().withId(1).withLogin(USER_LOGIN).withPassword(USER_PASSWORD);
+		for (int index = 1; index <= POSTS; index++) {
+			Post post = new Post(index, "post text for " + index, index, State.PUBLIC, author);
+			post.tags.add(new Tag(index, "tag " + index));
+			post.withAnnotation("index", Integer.toString(index));
+			author.posts.add(post);
+		}
+		getUserService().create(author);
+	}
+
+	private AbstractBluePrintsBackedFinderService<?, Post, ?> getBluePrintsPostService() {
+		return (AbstractBluePrintsBackedFinderService<?, Post, ?>) getPostService();
+	}
+
+	private List<Post> loadAllPosts() {
+		List<Post> returned = new ArrayList<Post>();
+		for (Post post : getPostService().findAll()) {
+			returned.add(post);
+		}
+		assertThat(returned.size(), Is.is(POSTS));
+		return returned;
+	}
+
+	private int countLoadedTags(List<Post> posts) {
+		int returned = 0;
+		for (Post post : posts) {
+			if (((LazySet<?>) post.tags).getLoader().isLoaded())
+				returned++;
+		}
+		return returned;
+	}
+
+	@Test
+	public void testLazyTypesAreUsedForDeclaredCollectionTypes() {
+		User author = getUserService().findAll().iterator().next();
+		assertThat(author.posts, IsInstanceOf.instanceOf(LazyList.class));
+		assertThat(((LazyList<?>) author.posts).getLoader().isLoaded(), Is.is(false));
+		assertThat(author.posts.size(), Is.is(POSTS));
+		assertThat(((LazyList<?>) author.posts).getLoader().isLoaded(), Is.is(true));
+		for (int index = 0; index < POSTS; index++) {
+			Post post = author.posts.get(index);
+			assertThat(post.id, Is.is(index + 1l));
+			assertThat(post.tags, IsInstanceOf.instanceOf(LazySet.class));
+			assertThat(post.tags.iterator().next().getText(), Is.is("tag " + (index + 1)));
+			assertThat(post.annotations, IsInstanceOf.instanceOf(LazyMap.class));
+			assertThat(post.annotations.get("index"), Is.is(Integer.toString(index + 1)));
+		}
+	}
+
+	@Test
+	public void testNoPrefetchByDefault() {
+		List<Post> posts = loadAllPosts();
+		assertThat(countLoadedTags(posts), Is.is(0));
+		posts.get(0).tags.size();
+		assertThat(countLoadedTags(posts), Is.is(1));
+	}
+
+	@Test
+	public void testPrefetchLoadsSiblings() {
+		getBluePrintsPostService().setPrefetchSize(3);
+		try {
+			List<Post> posts = loadAllPosts();
+			posts.get(0).tags.size();
+			assertThat(countLoadedTags(posts), Is.is(3));
+			for (Post post : posts) {
+				assertThat(post.tags.size(), Is.is(1));
+			}
+			assertThat(countLoadedTags(posts), Is.is(POSTS));
+		} finally {
+			getBluePrintsPostService().setPrefetchSize(1);
+		}
+	}
+
+	@Test
+	public void testPendingLoadersAreBounded() {
+		ObjectCache cache = new ObjectCache(3);
+		List<NoopLoader> loaders = new ArrayList<NoopLoader>();
+		for (int index = 0; index < 100; index++) {
+			loaders.add(new NoopLoader(cache));
+		}
+		NoopLoader first = loaders.get(0);
+		first.load();
+		// only the last three registered loaders are kept, and at most two are taken at once
+		assertThat(first.isLoaded(), Is.is(true));
+		assertThat(loaders.get(96).isLoaded(), Is.is(false));
+		assertThat(loaders.get(97).isLoaded(), Is.is(true));
+		assertThat(loaders.get(98).isLoaded(), Is.is(true));
+		assertThat(loaders.get(99).isLoaded(), Is.is(false));
+		assertThat(cache.takePendingLoaders(first).size(), Is.is(1));
+		assertThat(cache.takePendingLoaders(first).size(), Is.is(0));
+	}
+
+	@Test
+	public void testLoadedLoadersAreDroppedBeforePendingOnes() {
+		ObjectCache cache = new ObjectCache(3);
+		NoopLoader a = new NoopLoader(cache);
+		NoopLoader b = new NoopLoader(cache);
+		NoopLoader c = new NoopLoader(cache);
+		b.doLoad();
+		NoopLoader d = new NoopLoader(cache);
+		List<AbstractLazyLoader> pending = cache.takePendingLoaders(d);
+		assertThat(pending.size(), Is.is(2));
+		assertThat(pending.get(0), Is.is((AbstractLazyLoader) a));
+		assertThat(pending.get(1), Is.is((AbstractLazyLoader) c));
+	}
+}
@@ -0,0 +1,147 @@
+package com.dooapp.gaedo.blueprints;
+
+import java.util.Collection;
+
+import org.hamcrest.core.Is;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.dooapp.gaedo.test.beans.Tag;
+import com.tinkerpop.blueprints.TransactionalGraph;
+
+import static com.dooapp.gaedo.blueprints.TestUtils.simpleTest;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Ensure loaded objects are only cached for enabled classes, and that cached objects are dropped when they're updated or deleted (again when
+ * that write is committed), or when a unit of work is rolled back
+ * @author ndx
+ *
+ */
+@RunWith(Parameterized.class)
+public class LoadedObjectsCacheTest extends AbstractGraphTest {
+	private static final long TAG_ID = 1;
+
+	@Parameters
+	public static Collection<Object[]> parameters() {
+		return simpleTest();
+	}
+
+	private LoadedObjectsCache cache;
+
+	public LoadedObjectsCacheTest(AbstractGraphEnvironment<?> environment) {
+		super(environment);
+	}
+
+	@Before
+	public void loadService() throws Exception {
+		super.loadService();
+		getTagService().create(new Tag(TAG_ID, "cached text"));
+		cache = new LoadedObjectsCache();
+		LoadedObjectsCache.install(environment.getGraph(), cache);
+	}
+
+	private AbstractBluePrintsBackedFinderService<?, Tag, ?> getBluePrintsTagService() {
+		return (AbstractBluePrintsBackedFinderService<?, Tag, ?>) getTagService();
+	}
+
+	private Tag load() {
+		return getBluePrintsTagService().findById(TAG_ID);
+	}
+
+	@Test
+	public void objectsAreNotCachedByDefault() {
+		assertThat(cache.isCached(Tag.class), Is.is(false));
+		assertNotSame(load(), load());
+		assertThat(cache.size(), Is.is(0));
+	}
+
+	@Test
+	public void enabledClassObjectsAreLoadedOnce() {
+		cache.setCached(Tag.class, true);
+		Tag loaded = load();
+		long hits = cache.getHits();
+		assertSame(loaded, load());
+		assertThat(cache.getHits(), Is.is(hits + 1));
+		cache.setCached(Tag.class, false);
+		assertThat(cache.size(), Is.is(0));
+		assertNotSame(loaded, load());
+	}
+
+	@Test
+	public void updatedObjectIsDropped() {
+		cache.setCached(Tag.class, true);
+		Tag loaded = load();
+		getTagService().update(new Tag(TAG_ID, "updated text"));
+		Tag reloaded = load();
+		assertNotSame(loaded, reloaded);
+		assertThat(reloaded.getText(), Is.is("updated text"));
+	}
+
+	@Test
+	public void deletedObjectIsDropped() {
+		cache.setCached(Tag.class, true);
+		Tag loaded = load();
+		String vertexId = getBluePrintsTagService().getIdVertexId(loaded, false);
+		assertSame(loaded, cache.get(vertexId));
+		getTagService().delete(loaded);
+		assertNull(cache.get(vertexId));
+	}
+
+	@Test
+	public void objectLoadedBeforeCommitIsDroppedOnCommit() {
+		cache.setCached(Tag.class, true);
+		UnitOfWork work = UnitOfWork.begin();
+		try {
+			getTagService().update(new Tag(TAG_ID, "updated text"));
+			// as another thread could do before the update is committed
+			Tag loaded = load();
+			String vertexId = getBluePrintsTagService().getIdVertexId(loaded, false);
+			assertSame(loaded, cache.get(vertexId));
+			work.commit();
+			assertNull(cache.get(vertexId));
+		} finally {
+			work.close();
+		}
+	}
+
+	@Test
+	public void rollbackDropsAllObjects() {
+		cache.setCached(Tag.class, true);
+		UnitOfWork work = UnitOfWork.begin();
+		try {
+			load();
+			assertThat(cache.size(), Is.is(1));
+		} finally {
+			work.close();
+		}
+		// a unit of work in which nothing was written has nothing to roll back
+		assertThat(cache.size(), Is.is(1));
+		work = UnitOfWork.begin();
+		try {
+			getTagService().create(new Tag(TAG_ID + 1, "rolled back"));
+		} finally {
+			work.close();
+		}
+		assertThat(cache.size(), Is.is(environment.getGraph() instanceof TransactionalGraph ? 0 : 1));
+	}
+
+	@Test
+	public void leastRecentlyUsedObjectIsEvicted() {
+		LoadedObjectsCache small = new LoadedObjectsCache(2);
+		small.put("a", "a");
+		small.put("b", "b");
+		small.get("a");
+		small.put("c", "c");
+		assertThat(small.getEvictions(), Is.is(1l));
+		assertNull(small.get("b"));
+		assertThat(small.get("a"), Is.is((Object) "a"));
+	}
+}
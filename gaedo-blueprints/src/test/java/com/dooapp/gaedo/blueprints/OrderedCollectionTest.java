@@ -1,9 +1,12 @@
 package com.dooapp.gaedo.blueprints;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.persistence.CascadeType;
@@ -35,6 +38,8 @@ import static com.dooapp.gaedo.blueprints.TestUtils.USER_PASSWORD;
 import static com.dooapp.gaedo.blueprints.TestUtils.simpleTest;
 import static org.hamcrest.CoreMatchers.is;
 
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -235,4 +240,82 @@ public class OrderedCollectionTest extends AbstractGraphTest {
 		User authorCopy = getACopyOfTheAuthor();
 		assertThat("Successfully re-ordered the list of posts (with doubles!)", authorCopy.posts, is(author.posts));
 	}
+
+	private Vertex getVertexOf(User user) {
+		AbstractBluePrintsBackedFinderService<?, User, ?> userService = (AbstractBluePrintsBackedFinderService<?, User, ?>) getUserService();
+		return userService.getVertexFor(user, CascadeType.REFRESH, ObjectCache.create(CascadeType.REFRESH));
+	}
+
+	/**
+	 * Get collection index of all posts edges of a user
+	 * @param user
+	 * @return a map linking edge ids to their collection index
+	 */
+	private Map<Object, Object> getPostsEdgesOf(User user) {
+		Map<Object, Object> returned = new HashMap<Object, Object>();
+		for(Edge e : getVertexOf(user).getEdges(Direction.OUT, "com.dooapp.gaedo.test.beans.User:posts")) {
+			returned.put(e.getId(), e.getProperty(Properties.collection_index.name()));
+		}
+		return returned;
+	}
+
+	@Test
+	public void unchangedListKeepsItsEdges() {
+		author.posts.addAll(posts);
+		getUserService().update(author);
+		Map<Object, Object> edges = getPostsEdgesOf(author);
+		User user = getACopyOfTheAuthor();
+		// loads posts
+		assertThat(user.posts, is(author.posts));
+		getUserService().update(user);
+		assertThat(getPostsEdgesOf(author), is(edges));
+	}
+
+	@Test
+	public void reorderedListKeepsItsEdges() {
+		author.posts.addAll(posts);
+		getUserService().update(author);
+		Set<Object> edges = getPostsEdgesOf(author).keySet();
+		Collections.reverse(author.posts);
+		getUserService().update(author);
+		assertThat(getPostsEdgesOf(author).keySet(), is(edges));
+		assertThat(getACopyOfTheAuthor().posts, is(author.posts));
+	}
+
+	@Test
+	public void notLoadedLazyListIsNotWritten() {
+		author.posts.addAll(posts);
+		getUserService().update(author);
+		// Hack the DB to remove order information : as long as posts are not loaded, it won't be written again
+		for(Edge e : getVertexOf(author).getEdges(Direction.OUT, "com.dooapp.gaedo.test.beans.User:posts")) {
+			e.removeProperty(Properties.collection_index.name());
+		}
+		if(environment.getGraph() instanceof TransactionalGraph)
+			((TransactionalGraph) environment.getGraph()).stopTransaction(Conclusion.SUCCESS);
+		User user = getACopyOfTheAuthor();
+		user.setLogin("another login");
+		getUserService().update(user);
+		for(Object index : getPostsEdgesOf(author).values()) {
+			assertNull(index);
+		}
+		// once loaded, list is written
+		user.posts.size();
+		getUserService().update(user);
+		for(Object index : getPostsEdgesOf(author).values()) {
+			assertNotNull(index);
+		}
+	}
+
+	@Test
+	public void lazyListCopiedToAnotherObjectIsWritten() {
+		author.posts.addAll(posts);
+		getUserService().update(author);
+		User other = new User().withId(2).withLogin("other login").withPassword(USER_PASSWORD);
+		other.posts = getACopyOfTheAuthor().posts;
+		other = getUserService().create(other);
+		assertThat(getPostsEdgesOf(other).size(), is(posts.size()));
+		// so that posts can be removed after test
+		other.posts.clear();
+		getUserService().update(other);
+	}
 }
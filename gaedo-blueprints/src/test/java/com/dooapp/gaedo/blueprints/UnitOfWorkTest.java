@@ -0,0 +1,230 @@
+package com.dooapp.gaedo.blueprints;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.hamcrest.core.Is;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.dooapp.gaedo.blueprints.UnitOfWork.UnitOfWorkAlreadyStartedException;
+import com.dooapp.gaedo.blueprints.UnitOfWork.UnitOfWorkEndedException;
+import com.dooapp.gaedo.test.beans.Tag;
+import com.dooapp.gaedo.test.beans.TagInformer;
+import com.tinkerpop.blueprints.TransactionalGraph;
+import com.tinkerpop.blueprints.TransactionalGraph.Conclusion;
+
+import static com.dooapp.gaedo.blueprints.TestUtils.simpleTest;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Ensure units of work commit and roll back all the writes they group, group-commit them when asked to, and that service operations
+ * run in the unit of work of current thread, or leave transactions to their caller when there is none. A failed unit of work rejects operations until closed.
+ * On non transactional graphs, nothing is ever rolled back.
+ * @author ndx
+ *
+ */
+@RunWith(Parameterized.class)
+public class UnitOfWorkTest extends AbstractGraphTest {
+	private static final long EXISTING_ID = 1000;
+
+	@Parameters
+	public static Collection<Object[]> parameters() {
+		return simpleTest();
+	}
+
+	public UnitOfWorkTest(AbstractGraphEnvironment<?> environment) {
+		super(environment);
+	}
+
+	@Before
+	public void loadService() throws Exception {
+		super.loadService();
+		getTagService().create(new Tag(EXISTING_ID, "existing"));
+		// committed along with the indexes created by services
+		stopTransaction(Conclusion.SUCCESS);
+	}
+
+	@After
+	public void closeUnitOfWork() {
+		UnitOfWork work = UnitOfWork.current();
+		if (work != null)
+			work.close();
+	}
+
+	private boolean isTransactional() {
+		return environment.getGraph() instanceof TransactionalGraph;
+	}
+
+	/**
+	 * Stop current graph transaction, the way code calling gaedo outside of a unit of work does
+	 * @param conclusion
+	 */
+	private void stopTransaction(Conclusion conclusion) {
+		if (isTransactional())
+			((TransactionalGraph) environment.getGraph()).stopTransaction(conclusion);
+	}
+
+	/**
+	 * @param written number of tags written
+	 * @param committed number of these tags that were committed
+	 * @return number of tags that should exist after a rollback
+	 */
+	private int expected(int written, int committed) {
+		return isTransactional() ? committed : written;
+	}
+
+	private void createTags(int from, int to) {
+		for (int index = from; index < to; index++) {
+			getTagService().create(new Tag(index + 1, "tag " + index));
+		}
+	}
+
+	/**
+	 * @return number of tags written by test
+	 */
+	private int countTags() {
+		int returned = 0;
+		for (Tag t : getTagService().findAll()) {
+			if (t.getId() != EXISTING_ID)
+				returned++;
+		}
+		return returned;
+	}
+
+	@Test
+	public void commitEndsUnitOfWork() {
+		UnitOfWork work = UnitOfWork.begin();
+		assertSame(work, UnitOfWork.current());
+		createTags(0, 2);
+		work.commit();
+		assertThat(work.isActive(), Is.is(false));
+		assertNull(UnitOfWork.current());
+		// closing a committed unit of work does nothing
+		work.close();
+		assertThat(countTags(), Is.is(2));
+		try {
+			work.commit();
+			fail("unit of work is already committed");
+		} catch (UnitOfWorkEndedException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void closeWithoutCommitRollsBack() {
+		UnitOfWork work = UnitOfWork.begin();
+		createTags(0, 2);
+		work.close();
+		assertNull(UnitOfWork.current());
+		assertThat(countTags(), Is.is(expected(2, 0)));
+	}
+
+	@Test
+	public void failedOperationRollsBackWholeUnitOfWork() {
+		UnitOfWork work = UnitOfWork.begin();
+		createTags(0, 2);
+		try {
+			new TransactionalOperation<Void, Tag, TagInformer>((AbstractBluePrintsBackedFinderService<?, Tag, TagInformer>) getTagService()) {
+
+				@Override
+				protected Void doPerform() {
+					throw new IllegalStateException("operation failed");
+				}
+			}.perform();
+			fail("operation fails");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		// on non transactional graphs, there is nothing to roll back, and unit of work goes on
+		assertThat(work.isActive(), Is.is(!isTransactional()));
+		if (isTransactional()) {
+			assertThat(countTags(), Is.is(0));
+			// failed unit of work stays bound to thread, and rejects operations until closed
+			assertSame(work, UnitOfWork.current());
+			try {
+				createTags(2, 3);
+				fail("unit of work is already rolled back");
+			} catch (UnitOfWorkEndedException e) {
+				// expected
+			}
+			try {
+				work.commit();
+				fail("unit of work is already rolled back");
+			} catch (UnitOfWorkEndedException e) {
+				// expected
+			}
+			assertSame(work, UnitOfWork.current());
+			work.close();
+			assertNull(UnitOfWork.current());
+			assertThat(countTags(), Is.is(0));
+		}
+	}
+
+	@Test
+	public void batchSizeTriggersGroupCommit() {
+		UnitOfWork work = UnitOfWork.begin(2, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		createTags(0, 5);
+		work.close();
+		assertThat(countTags(), Is.is(expected(5, 4)));
+	}
+
+	@Test
+	public void latencyTriggersGroupCommit() {
+		UnitOfWork work = UnitOfWork.begin(Integer.MAX_VALUE, 0, TimeUnit.NANOSECONDS);
+		createTags(0, 3);
+		work.close();
+		assertThat(countTags(), Is.is(3));
+	}
+
+	@Test
+	public void flushCommitsWithoutEnding() {
+		UnitOfWork work = UnitOfWork.begin();
+		createTags(0, 2);
+		work.flush();
+		assertThat(work.isActive(), Is.is(true));
+		createTags(2, 3);
+		work.close();
+		assertThat(countTags(), Is.is(expected(3, 2)));
+	}
+
+	@Test
+	public void unitsOfWorkDoNotNest() {
+		UnitOfWork work = UnitOfWork.begin();
+		try {
+			UnitOfWork.begin();
+			fail("a unit of work is already running");
+		} catch (UnitOfWorkAlreadyStartedException e) {
+			// expected
+		}
+		assertSame(work, UnitOfWork.current());
+	}
+
+	@Test
+	public void operationsOutsideUnitOfWorkAreNotCommitted() {
+		createTags(0, 1);
+		assertNull(UnitOfWork.current());
+		// it's up to caller to commit them
+		stopTransaction(Conclusion.FAILURE);
+		assertThat(countTags(), Is.is(expected(1, 0)));
+	}
+
+	@Test
+	public void operationsOutsideUnitOfWorkAreLeftToCaller() {
+		createTags(0, 1);
+		stopTransaction(Conclusion.SUCCESS);
+		UnitOfWork work = UnitOfWork.begin();
+		// operations performed in a unit of work don't commit by themselves
+		createTags(1, 3);
+		work.close();
+		assertThat(countTags(), Is.is(expected(3, 1)));
+	}
+}
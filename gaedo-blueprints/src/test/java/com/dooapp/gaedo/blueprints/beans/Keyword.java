@@ -0,0 +1,31 @@
+package com.dooapp.gaedo.blueprints.beans;
+
+import com.dooapp.gaedo.blueprints.annotations.GraphProperty;
+import com.dooapp.gaedo.test.beans.Tag;
+import com.dooapp.gaedo.test.beans.base.Identified;
+
+/**
+ * A bean having some indexed properties
+ * @author ndx
+ *
+ */
+public class Keyword extends Identified {
+	@GraphProperty(indexed = true)
+	public String name;
+
+	public String text;
+
+	@GraphProperty(indexed = true)
+	public Tag tag;
+
+	public Keyword() {
+		super();
+	}
+
+	public Keyword(long id, String name, String text, Tag tag) {
+		this.id = id;
+		this.name = name;
+		this.text = text;
+		this.tag = tag;
+	}
+}
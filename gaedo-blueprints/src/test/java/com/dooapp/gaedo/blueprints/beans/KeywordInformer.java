@@ -0,0 +1,13 @@
+package com.dooapp.gaedo.blueprints.beans;
+
+import com.dooapp.gaedo.finders.Informer;
+import com.dooapp.gaedo.finders.informers.StringFieldInformer;
+import com.dooapp.gaedo.test.beans.TagInformer;
+
+public interface KeywordInformer extends Informer<Keyword> {
+	StringFieldInformer getName();
+
+	StringFieldInformer getText();
+
+	TagInformer getTag();
+}
@@ -0,0 +1,167 @@
+package com.dooapp.gaedo.blueprints.indexable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hamcrest.core.Is;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dooapp.gaedo.blueprints.AbstractGraphEnvironment;
+import com.dooapp.gaedo.blueprints.GraphQueryStatement;
+import com.dooapp.gaedo.blueprints.TestUtils;
+import com.dooapp.gaedo.blueprints.beans.Keyword;
+import com.dooapp.gaedo.blueprints.beans.KeywordInformer;
+import com.dooapp.gaedo.blueprints.providers.Tinker;
+import com.dooapp.gaedo.finders.QueryBuilder;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.properties.Property;
+import com.dooapp.gaedo.test.beans.Tag;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Ensure properties annotated as indexed are written in key indices of a {@link TinkerGraph}, kept up to date when objects change, and
+ * that equality tests on them seek these indices instead of navigating graph.
+ * @author ndx
+ *
+ */
+public class KeyIndexableGraphBackedFinderServiceTest {
+	private AbstractGraphEnvironment<?> environment;
+
+	private TinkerGraph graph;
+
+	private KeyIndexableGraphBackedFinderService<Keyword, KeywordInformer> service;
+
+	private Tag tag1;
+
+	private Tag tag2;
+
+	@Before
+	public void loadService() throws Exception {
+		environment = TestUtils.indexable(new Tinker());
+		environment.loadService();
+		graph = (TinkerGraph) environment.getGraph();
+		service = new KeyIndexableGraphBackedFinderService<Keyword, KeywordInformer>(graph, Keyword.class, KeywordInformer.class,
+						environment.getInformerFactory(), environment.getServiceRrepository(), environment.getProvider());
+		environment.getServiceRrepository().add(service);
+		tag1 = environment.getTagService().create(new Tag(1, "tag 1"));
+		tag2 = environment.getTagService().create(new Tag(2, "tag 2"));
+		service.create(new Keyword(1, "first", "text", tag1));
+		service.create(new Keyword(2, "second", "text", tag1));
+		service.create(new Keyword(3, "second", "another text", tag2));
+	}
+
+	@After
+	public void unload() throws Exception {
+		environment.unload();
+	}
+
+	private Property getNameProperty() {
+		return service.getInformer().getName().getFieldPath().iterator().next();
+	}
+
+	private String explain(QueryBuilder<KeywordInformer> query) {
+		return ((GraphQueryStatement<?, ?, ?>) service.find().matching(query)).explain();
+	}
+
+	/**
+	 * @return ids of keywords matching query
+	 */
+	private Set<Long> find(QueryBuilder<KeywordInformer> query) {
+		Set<Long> returned = new HashSet<Long>();
+		for (Keyword k : service.find().matching(query).getAll()) {
+			returned.add(k.id);
+		}
+		return returned;
+	}
+
+	private static Set<Long> ids(long... ids) {
+		Set<Long> returned = new HashSet<Long>();
+		for (long id : ids) {
+			returned.add(id);
+		}
+		return returned;
+	}
+
+	private QueryBuilder<KeywordInformer> nameIs(final String name) {
+		return new QueryBuilder<KeywordInformer>() {
+			public QueryExpression createMatchingExpression(KeywordInformer informer) {
+				return informer.getName().equalsTo(name);
+			}
+		};
+	}
+
+	@Test
+	public void annotatedPropertiesAreKeyIndexed() {
+		Set<String> indexed = new HashSet<String>();
+		for (Property p : service.getIndexedProperties()) {
+			indexed.add(p.getName());
+		}
+		assertThat(indexed, Is.is((Set<String>) new HashSet<String>(Arrays.asList("name", "tag"))));
+		assertTrue(graph.getIndexedKeys(Vertex.class).contains(KeyIndexableGraphBackedFinderService.getKeyFor(getNameProperty())));
+	}
+
+	@Test
+	public void equalityOnIndexedPropertySeeksIndex() {
+		String explained = explain(nameIs("second"));
+		assertTrue(explained, explained.contains("seek index of name for value"));
+		assertThat(find(nameIs("second")), Is.is(ids(2, 3)));
+		assertThat(find(nameIs("unknown")), Is.is(ids()));
+	}
+
+	@Test
+	public void equalityOnIndexedManagedObjectSeeksIndex() {
+		QueryBuilder<KeywordInformer> query = new QueryBuilder<KeywordInformer>() {
+			public QueryExpression createMatchingExpression(KeywordInformer informer) {
+				return informer.getTag().equalsTo(tag1);
+			}
+		};
+		String explained = explain(query);
+		assertTrue(explained, explained.contains("seek index of tag for value"));
+		assertThat(find(query), Is.is(ids(1, 2)));
+	}
+
+	@Test
+	public void equalityOnNotIndexedPropertyNavigates() {
+		QueryBuilder<KeywordInformer> query = new QueryBuilder<KeywordInformer>() {
+			public QueryExpression createMatchingExpression(KeywordInformer informer) {
+				return informer.getText().equalsTo("text");
+			}
+		};
+		String explained = explain(query);
+		assertTrue(explained, !explained.contains("seek index"));
+		assertThat(find(query), Is.is(ids(1, 2)));
+	}
+
+	@Test
+	public void updatedValueIsReindexed() {
+		Keyword keyword = service.findById(1l);
+		keyword.name = "renamed";
+		service.update(keyword);
+		assertThat(find(nameIs("first")), Is.is(ids()));
+		assertThat(find(nameIs("renamed")), Is.is(ids(1)));
+		keyword.name = null;
+		service.update(keyword);
+		assertNull(service.getIdVertexFor(keyword, false).getProperty(KeyIndexableGraphBackedFinderService.getKeyFor(getNameProperty())));
+		assertThat(find(nameIs("renamed")), Is.is(ids()));
+	}
+
+	@Test
+	public void existingObjectsCanBeIndexed() {
+		String key = KeyIndexableGraphBackedFinderService.getKeyFor(getNameProperty());
+		// make graph look like one written before name was indexed
+		for (Vertex v : graph.getVertices()) {
+			v.removeProperty(key);
+		}
+		assertThat(find(nameIs("second")), Is.is(ids()));
+		assertThat(service.indexExistingObjects(), Is.is(3));
+		assertThat(find(nameIs("second")), Is.is(ids(2, 3)));
+	}
+}
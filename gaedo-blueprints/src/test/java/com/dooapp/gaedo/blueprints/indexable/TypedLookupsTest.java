@@ -0,0 +1,144 @@
+package com.dooapp.gaedo.blueprints.indexable;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.dooapp.gaedo.blueprints.AbstractGraphEnvironment;
+import com.dooapp.gaedo.blueprints.AbstractGraphPostTest;
+import com.dooapp.gaedo.blueprints.Properties;
+import com.dooapp.gaedo.test.beans.Post;
+import com.dooapp.gaedo.test.beans.PostInformer;
+import com.tinkerpop.blueprints.CloseableIterable;
+import com.tinkerpop.blueprints.IndexableGraph;
+import com.tinkerpop.blueprints.TransactionalGraph;
+import com.tinkerpop.blueprints.TransactionalGraph.Conclusion;
+import com.tinkerpop.blueprints.Vertex;
+
+import static com.dooapp.gaedo.blueprints.TestUtils.simpleTest;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Ensure vertices are looked up in {@link IndexNames#TYPED_VERTICES} index on graphs written by this gaedo version, the legacy way on graphs
+ * that have no such index, and that {@link TypedVerticesIndexMigration} makes the latter usable by the former, once only.
+ * @author ndx
+ *
+ */
+@RunWith(Parameterized.class)
+public class TypedLookupsTest extends AbstractGraphPostTest {
+	private static final String POST_CLASS = Post.class.getName();
+
+	@Parameters
+	public static Collection<Object[]> parameters() {
+		return simpleTest();
+	}
+
+	public TypedLookupsTest(AbstractGraphEnvironment<?> environment) {
+		super(environment);
+	}
+
+	private IndexableGraph getGraph() {
+		return (IndexableGraph) environment.getGraph();
+	}
+
+	private IndexableGraphBackedFinderService<Post, PostInformer> getIndexablePostService() {
+		return (IndexableGraphBackedFinderService<Post, PostInformer>) getPostService();
+	}
+
+	private IndexableGraphBackedFinderService<Post, PostInformer> createPostService() {
+		return new IndexableGraphBackedFinderService<Post, PostInformer>(getGraph(), Post.class, PostInformer.class, environment.getInformerFactory(),
+						environment.getServiceRrepository(), environment.getProvider());
+	}
+
+	private void commit() {
+		if (getGraph() instanceof TransactionalGraph)
+			((TransactionalGraph) getGraph()).stopTransaction(Conclusion.SUCCESS);
+	}
+
+	/**
+	 * @param vertexId gaedo id of a post vertex
+	 * @return vertex found in typed index for that post, or null if there is none
+	 */
+	private Vertex findInTypedIndex(String vertexId) {
+		CloseableIterable<Vertex> found = getGraph().getIndex(IndexNames.TYPED_VERTICES.getIndexName(), Vertex.class).get(
+						Properties.typed_value.name(), IndexableGraphBackedFinderService.getTypedValue(POST_CLASS, vertexId));
+		try {
+			Iterator<Vertex> iterator = found.iterator();
+			return iterator.hasNext() ? iterator.next() : null;
+		} finally {
+			found.close();
+		}
+	}
+
+	/**
+	 * Make graph look like one written by a gaedo version that didn't maintain typed index
+	 */
+	private void makeLegacy() {
+		getGraph().dropIndex(IndexNames.TYPED_VERTICES.getIndexName());
+		for (Vertex v : getGraph().getVertices()) {
+			v.removeProperty(Properties.typed_value.name());
+		}
+		commit();
+		VertexLookupCache.clear(getGraph());
+	}
+
+	@Test
+	public void freshGraphIsTypedIndexed() {
+		String vertexId = getIndexablePostService().getIdVertexId(post1, false);
+		Vertex vertex = getIndexablePostService().getIdVertexFor(post1, false);
+		assertThat(vertex.getProperty(Properties.typed_value.name()), Is.is((Object) IndexableGraphBackedFinderService.getTypedValue(POST_CLASS, vertexId)));
+		assertThat(findInTypedIndex(vertexId), Is.is(vertex));
+		assertThat(getIndexablePostService().loadVertexFor(vertexId, POST_CLASS), Is.is(vertex));
+	}
+
+	@Test
+	public void legacyGraphIsReadUntilMigrated() {
+		String vertexId = getIndexablePostService().getIdVertexId(post1, false);
+		Vertex vertex = getIndexablePostService().getIdVertexFor(post1, false);
+		makeLegacy();
+		IndexableGraphBackedFinderService<Post, PostInformer> legacy = createPostService();
+		// typed index is not created, as it would miss all existing vertices
+		assertNull(getGraph().getIndex(IndexNames.TYPED_VERTICES.getIndexName(), Vertex.class));
+		assertThat(legacy.loadVertexFor(vertexId, POST_CLASS), Is.is(vertex));
+		assertThat(legacy.findById(post1.id).text, Is.is(post1.text));
+
+		int indexed = new TypedVerticesIndexMigration(legacy).migrate();
+		assertTrue(indexed > 0);
+		assertThat(findInTypedIndex(vertexId), Is.is(vertex));
+		// migration can be run again, but has nothing to do
+		assertThat(new TypedVerticesIndexMigration(legacy).migrate(), Is.is(0));
+
+		IndexableGraphBackedFinderService<Post, PostInformer> migrated = createPostService();
+		VertexLookupCache.clear(getGraph());
+		assertThat(migrated.loadVertexFor(vertexId, POST_CLASS), Is.is(vertex));
+		assertThat(migrated.findById(post2.id).text, Is.is(post2.text));
+	}
+
+	@Test
+	public void migrationCommitsByChunks() {
+		makeLegacy();
+		TypedVerticesIndexMigration migration = new TypedVerticesIndexMigration(createPostService());
+		migration.setChunkSize(2);
+		int indexed = migration.migrate();
+		// migration is committed
+		if (getGraph() instanceof TransactionalGraph)
+			((TransactionalGraph) getGraph()).stopTransaction(Conclusion.FAILURE);
+		// all vertices were migrated, whatever the chunk size
+		int typed = 0;
+		for (Vertex v : getGraph().getVertices()) {
+			if (v.getProperty(Properties.typed_value.name()) != null)
+				typed++;
+		}
+		assertThat(typed, Is.is(indexed));
+		assertNotNull(findInTypedIndex(getIndexablePostService().getIdVertexId(post3, false)));
+	}
+}
@@ -0,0 +1,149 @@
+package com.dooapp.gaedo.blueprints.indexable;
+
+import java.util.Collection;
+
+import org.hamcrest.core.Is;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.dooapp.gaedo.blueprints.AbstractGraphEnvironment;
+import com.dooapp.gaedo.blueprints.AbstractGraphTest;
+import com.dooapp.gaedo.blueprints.GraphUtils;
+import com.dooapp.gaedo.blueprints.UnitOfWork;
+import com.dooapp.gaedo.test.beans.Tag;
+import com.dooapp.gaedo.test.beans.TagInformer;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.TransactionalGraph;
+import com.tinkerpop.blueprints.TransactionalGraph.Conclusion;
+import com.tinkerpop.blueprints.Vertex;
+
+import static com.dooapp.gaedo.blueprints.TestUtils.simpleTest;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Ensure vertex lookups are cached, and that cached lookups are dropped when their vertex is removed, or when a transaction is rolled back
+ * @author ndx
+ *
+ */
+@RunWith(Parameterized.class)
+public class VertexLookupCacheTest extends AbstractGraphTest {
+	private static final String TAG_CLASS = Tag.class.getName();
+
+	@Parameters
+	public static Collection<Object[]> parameters() {
+		return simpleTest();
+	}
+
+	private VertexLookupCache cache;
+
+	private IndexableGraphBackedFinderService<Tag, TagInformer> service;
+
+	public VertexLookupCacheTest(AbstractGraphEnvironment<?> environment) {
+		super(environment);
+	}
+
+	@Before
+	public void loadService() throws Exception {
+		super.loadService();
+		service = (IndexableGraphBackedFinderService<Tag, TagInformer>) getTagService();
+		service.create(new Tag(1, "existing"));
+		// committed along with the indexes created by services
+		if (environment.getGraph() instanceof TransactionalGraph)
+			((TransactionalGraph) environment.getGraph()).stopTransaction(Conclusion.SUCCESS);
+		cache = new VertexLookupCache();
+		VertexLookupCache.install(environment.getGraph(), cache);
+	}
+
+	private String getVertexId(Tag tag) {
+		return service.getIdVertexId(tag, false);
+	}
+
+	@Test
+	public void lookupsAreCached() {
+		Tag tag = service.create(new Tag(2, "cached"));
+		String vertexId = getVertexId(tag);
+		Vertex found = service.loadVertexFor(vertexId, TAG_CLASS);
+		assertNotNull(found);
+		long misses = cache.getMisses();
+		long hits = cache.getHits();
+		assertThat(service.loadVertexFor(vertexId, TAG_CLASS), Is.is(found));
+		assertThat(cache.getMisses(), Is.is(misses));
+		assertThat(cache.getHits(), Is.is(hits + 1));
+		assertSame(cache, VertexLookupCache.forGraph(environment.getGraph()));
+	}
+
+	@Test
+	public void removedVertexIsDropped() {
+		Tag tag = service.create(new Tag(2, "removed"));
+		String vertexId = getVertexId(tag);
+		Vertex found = service.loadVertexFor(vertexId, TAG_CLASS);
+		int size = cache.size();
+		GraphUtils.removeSafely(environment.getGraph(), found);
+		assertThat(cache.size(), Is.is(size - 1));
+		assertNull(cache.get(environment.getGraph(), vertexId, TAG_CLASS));
+		assertNull(service.loadVertexFor(vertexId, TAG_CLASS));
+	}
+
+	@Test
+	public void deletedObjectVertexIsNotFound() {
+		Tag tag = service.create(new Tag(2, "deleted"));
+		String vertexId = getVertexId(tag);
+		assertNotNull(service.loadVertexFor(vertexId, TAG_CLASS));
+		service.delete(tag);
+		assertNull(service.loadVertexFor(vertexId, TAG_CLASS));
+	}
+
+	@Test
+	public void rollbackDropsAllLookups() {
+		UnitOfWork work = UnitOfWork.begin();
+		String vertexId = null;
+		try {
+			vertexId = getVertexId(service.create(new Tag(2, "rolled back")));
+			assertNotNull(service.loadVertexFor(vertexId, TAG_CLASS));
+		} finally {
+			work.close();
+		}
+		if (environment.getGraph() instanceof TransactionalGraph) {
+			assertThat(cache.size(), Is.is(0));
+			assertNull(service.loadVertexFor(vertexId, TAG_CLASS));
+		} else {
+			// nothing was rolled back
+			assertNotNull(service.loadVertexFor(vertexId, TAG_CLASS));
+		}
+	}
+
+	@Test
+	public void leastRecentlyUsedLookupIsEvicted() {
+		Graph graph = environment.getGraph();
+		VertexLookupCache small = new VertexLookupCache(2);
+		Tag first = service.create(new Tag(2, "first"));
+		Tag second = service.create(new Tag(3, "second"));
+		Tag third = service.create(new Tag(4, "third"));
+		small.put(getVertexId(first), TAG_CLASS, service.loadVertexFor(getVertexId(first), TAG_CLASS));
+		small.put(getVertexId(second), TAG_CLASS, service.loadVertexFor(getVertexId(second), TAG_CLASS));
+		// first is now the most recently used
+		assertNotNull(small.get(graph, getVertexId(first), TAG_CLASS));
+		small.put(getVertexId(third), TAG_CLASS, service.loadVertexFor(getVertexId(third), TAG_CLASS));
+		assertThat(small.getEvictions(), Is.is(1l));
+		assertNull(small.get(graph, getVertexId(second), TAG_CLASS));
+		assertNotNull(small.get(graph, getVertexId(first), TAG_CLASS));
+		assertNotNull(small.get(graph, getVertexId(third), TAG_CLASS));
+	}
+
+	@Test
+	public void lookupOfAnotherVertexIsNotReturned() {
+		Tag first = service.create(new Tag(2, "first"));
+		Tag second = service.create(new Tag(3, "second"));
+		// a lookup pointing to a vertex having another id can't be trusted
+		cache.put(getVertexId(first), TAG_CLASS, service.loadVertexFor(getVertexId(second), TAG_CLASS));
+		assertNull(cache.get(environment.getGraph(), getVertexId(first), TAG_CLASS));
+		assertThat(service.loadVertexFor(getVertexId(first), TAG_CLASS).getId(), Is.is(service.getIdVertexFor(first, false).getId()));
+	}
+}
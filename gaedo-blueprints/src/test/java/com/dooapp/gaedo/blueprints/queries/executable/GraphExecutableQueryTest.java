@@ -0,0 +1,224 @@
+package com.dooapp.gaedo.blueprints.queries.executable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsNull;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.dooapp.gaedo.blueprints.AbstractBluePrintsBackedFinderService;
+import com.dooapp.gaedo.blueprints.AbstractGraphEnvironment;
+import com.dooapp.gaedo.blueprints.AbstractGraphTest;
+import com.dooapp.gaedo.blueprints.queries.tests.AndVertexTest;
+import com.dooapp.gaedo.finders.QueryBuilder;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.properties.Property;
+import com.dooapp.gaedo.test.beans.Tag;
+import com.dooapp.gaedo.test.beans.TagInformer;
+import com.tinkerpop.blueprints.CloseableIterable;
+import com.tinkerpop.blueprints.Vertex;
+
+import static com.dooapp.gaedo.blueprints.TestUtils.simpleTest;
+
+import static org.junit.Assert.assertThat;
+
+/**
+ * Make sure results of unsorted graph queries are computed once, with vertex examination stopping as soon as possible, each vertex
+ * returned only once, and examined vertices closed after use.
+ * @author ndx
+ *
+ */
+@RunWith(Parameterized.class)
+public class GraphExecutableQueryTest extends AbstractGraphTest {
+	/**
+	 * Examined vertices, counting the vertices pulled from it and recording whether it was closed
+	 * @author ndx
+	 *
+	 */
+	private static class CountingVertices implements CloseableIterable<Vertex> {
+		private final List<Vertex> vertices;
+
+		private int pulled = 0;
+
+		private boolean closed = false;
+
+		public CountingVertices(List<Vertex> vertices) {
+			this.vertices = vertices;
+		}
+
+		@Override
+		public Iterator<Vertex> iterator() {
+			final Iterator<Vertex> source = vertices.iterator();
+			return new Iterator<Vertex>() {
+
+				@Override
+				public boolean hasNext() {
+					return source.hasNext();
+				}
+
+				@Override
+				public Vertex next() {
+					pulled++;
+					return source.next();
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	/**
+	 * Query matching all vertices of a {@link CountingVertices}
+	 * @author ndx
+	 *
+	 */
+	private class AllVerticesQuery extends AbstractGraphExecutableQuery {
+		private final CountingVertices examined;
+
+		private final boolean duplicates;
+
+		public AllVerticesQuery(AbstractBluePrintsBackedFinderService<?, ?, ?> service, CountingVertices examined) {
+			this(service, examined, false);
+		}
+
+		public AllVerticesQuery(AbstractBluePrintsBackedFinderService<?, ?, ?> service, CountingVertices examined, boolean duplicates) {
+			super(service, new AndVertexTest(service.getStrategy(), service.getDriver(), new LinkedList<Property>()), null);
+			this.examined = examined;
+			this.duplicates = duplicates;
+		}
+
+		@Override
+		protected boolean mayExamineDuplicates() {
+			return duplicates;
+		}
+
+		@Override
+		protected Iterable<Vertex> getVerticesToExamine() {
+			return examined;
+		}
+
+		@Override
+		public String explain() {
+			return "all vertices of a list";
+		}
+	}
+
+	private static final int SIZE = 10;
+
+	@Parameters
+	public static Collection<Object[]> parameters() {
+		return simpleTest();
+	}
+
+	private AbstractBluePrintsBackedFinderService<?, ?, ?> service;
+
+	private List<Vertex> vertices;
+
+	public GraphExecutableQueryTest(AbstractGraphEnvironment<?> environment) {
+		super(environment);
+	}
+
+	@Before
+	public void loadService() throws Exception {
+		super.loadService();
+		service = (AbstractBluePrintsBackedFinderService<?, ?, ?>) getTagService();
+		vertices = new ArrayList<Vertex>();
+		for (int index = 0; index < SIZE; index++) {
+			vertices.add(service.getDatabase().addVertex(null));
+		}
+	}
+
+	private List<Vertex> toList(Iterable<Vertex> iterable) {
+		List<Vertex> returned = new ArrayList<Vertex>();
+		for (Vertex v : iterable) {
+			returned.add(v);
+		}
+		return returned;
+	}
+
+	@Test
+	public void rangeReturnsOnlyRequestedVertices() {
+		AllVerticesQuery query = new AllVerticesQuery(service, new CountingVertices(vertices));
+		assertThat(toList(query.get(2, 5)), Is.is(vertices.subList(2, 5)));
+		assertThat(toList(query.get(SIZE - 2, SIZE + 5)), Is.is(vertices.subList(SIZE - 2, SIZE)));
+		assertThat(toList(query.get(SIZE + 1, SIZE + 5)).isEmpty(), Is.is(true));
+	}
+
+	@Test
+	public void examinationStopsOnceRangeIsFilled() {
+		CountingVertices examined = new CountingVertices(vertices);
+		AllVerticesQuery query = new AllVerticesQuery(service, examined);
+		query.get(0, 3);
+		assertThat(examined.pulled, Is.is(3));
+		assertThat(examined.closed, Is.is(true));
+		examined.pulled = 0;
+		examined.closed = false;
+		assertThat(query.getVertex(), Is.is(vertices.get(0)));
+		assertThat(examined.pulled, Is.is(1));
+		assertThat(examined.closed, Is.is(true));
+	}
+
+	@Test
+	public void resultsAreComputedOnce() {
+		CountingVertices examined = new CountingVertices(vertices);
+		Iterable<Vertex> all = new AllVerticesQuery(service, examined).getAll();
+		assertThat(examined.pulled, Is.is(SIZE));
+		assertThat(examined.closed, Is.is(true));
+		assertThat(toList(all), Is.is(vertices));
+		assertThat(toList(all), Is.is(vertices));
+		assertThat(examined.pulled, Is.is(SIZE));
+	}
+
+	@Test
+	public void verticesReachedTwiceAreReturnedOnce() {
+		List<Vertex> twice = new ArrayList<Vertex>(vertices);
+		twice.addAll(vertices);
+		AllVerticesQuery query = new AllVerticesQuery(service, new CountingVertices(twice), true);
+		assertThat(query.count(), Is.is(SIZE));
+		assertThat(toList(query.getAll()), Is.is(vertices));
+		assertThat(toList(query.get(SIZE - 1, 2 * SIZE)), Is.is(vertices.subList(SIZE - 1, SIZE)));
+	}
+
+	@Test
+	public void emptyQueryHasNoFirstVertex() {
+		AllVerticesQuery query = new AllVerticesQuery(service, new CountingVertices(new ArrayList<Vertex>()));
+		assertThat(query.getVertex(), IsNull.nullValue());
+		assertThat(query.count(), Is.is(0));
+	}
+
+	@Test
+	public void foundObjectsCanBeDeletedWhileBrowsed() {
+		for (int index = 0; index < SIZE; index++) {
+			getTagService().create(new Tag("deleted " + index));
+		}
+		QueryBuilder<TagInformer> deleted = new QueryBuilder<TagInformer>() {
+
+			public QueryExpression createMatchingExpression(TagInformer informer) {
+				return informer.getText().startsWith("deleted");
+			}
+		};
+		int browsed = 0;
+		for (Tag t : getTagService().find().matching(deleted).getAll()) {
+			getTagService().delete(t);
+			browsed++;
+		}
+		assertThat(browsed, Is.is(SIZE));
+		assertThat(getTagService().find().matching(deleted).count(), Is.is(0));
+	}
+}
@@ -0,0 +1,148 @@
+package com.dooapp.gaedo.blueprints.queries.executable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.dooapp.gaedo.blueprints.AbstractBluePrintsBackedFinderService;
+import com.dooapp.gaedo.blueprints.AbstractGraphEnvironment;
+import com.dooapp.gaedo.blueprints.AbstractGraphPostTest;
+import com.dooapp.gaedo.blueprints.NoReturnableVertexException;
+import com.dooapp.gaedo.blueprints.queries.executable.SortingComparator.SortKey;
+import com.dooapp.gaedo.blueprints.utils.NavigationCache;
+import com.dooapp.gaedo.finders.QueryBuilder;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.finders.QueryStatement;
+import com.dooapp.gaedo.finders.SortingBuilder;
+import com.dooapp.gaedo.finders.SortingExpression;
+import com.dooapp.gaedo.test.beans.Post;
+import com.dooapp.gaedo.test.beans.PostInformer;
+import com.dooapp.gaedo.utils.CollectionUtils;
+import com.tinkerpop.blueprints.Vertex;
+
+import static com.dooapp.gaedo.blueprints.TestUtils.simpleTest;
+
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Ensure sorted values of a vertex are extracted at most once, and only when needed, and that sorted queries return the same results
+ * whether they keep the best results in a bounded heap ({@link QueryStatement#get(int, int)} and {@link QueryStatement#getFirst()}) or
+ * sort all of them ({@link QueryStatement#getAll()})
+ * @author ndx
+ *
+ */
+@RunWith(Parameterized.class)
+public class SortingComparatorTest extends AbstractGraphPostTest {
+	@Parameters
+	public static Collection<Object[]> parameters() {
+		return simpleTest();
+	}
+
+	public SortingComparatorTest(AbstractGraphEnvironment<?> environment) {
+		super(environment);
+	}
+
+	private AbstractBluePrintsBackedFinderService<?, Post, PostInformer> getBluePrintsPostService() {
+		return (AbstractBluePrintsBackedFinderService<?, Post, PostInformer>) getPostService();
+	}
+
+	private Vertex getVertexOf(Post post) {
+		return getBluePrintsPostService().getIdVertexFor(post, false);
+	}
+
+	private PostInformer getInformer() {
+		return getBluePrintsPostService().getInformer();
+	}
+
+	/**
+	 * @return a query on all posts of author, sorted by descending text
+	 */
+	private QueryStatement<Post, Post, PostInformer> findPostsByDescendingText() {
+		return getPostService().find().matching(new QueryBuilder<PostInformer>() {
+
+			@Override
+			public QueryExpression createMatchingExpression(PostInformer informer) {
+				return informer.getAuthor().equalsTo(author);
+			}
+		}).sortBy(new SortingBuilder<PostInformer>() {
+
+			@Override
+			public SortingExpression createSortingExpression(PostInformer informer) {
+				return SortingExpression.Build.sort().withDescending(informer.getText());
+			}
+		});
+	}
+
+	@Test
+	public void keyValuesAreExtractedOnce() {
+		NavigationCache navigation = new NavigationCache(getBluePrintsPostService().getStrategy());
+		SortingComparator comparator = new SortingComparator(getBluePrintsPostService(), SortingExpression.Build.sort().withAscending(
+						getInformer().getText()), navigation);
+		assertTrue(comparator.compare(getVertexOf(post1), getVertexOf(post2)) < 0);
+		int navigated = navigation.getHits() + navigation.getMisses();
+		assertTrue(comparator.compare(getVertexOf(post2), getVertexOf(post1)) > 0);
+		assertTrue(comparator.compare(getVertexOf(post1), getVertexOf(post3)) < 0);
+		// only text of post3 was extracted
+		assertThat(navigation.getHits() + navigation.getMisses(), Is.is(navigated + 1));
+	}
+
+	@Test
+	public void keyValuesAreExtractedOnlyWhenNeeded() {
+		NavigationCache navigation = new NavigationCache(getBluePrintsPostService().getStrategy());
+		SortingComparator comparator = new SortingComparator(getBluePrintsPostService(), SortingExpression.Build.sort()
+						.withAscending(getInformer().getText()).withAscending(getInformer().getAuthor().getLogin()), navigation);
+		SortKey first = comparator.getKeyOf(getVertexOf(post1));
+		SortKey second = comparator.getKeyOf(getVertexOf(post2));
+		// creating keys navigates nothing
+		assertThat(navigation.getMisses(), Is.is(0));
+		assertTrue(comparator.getKeyComparator().compare(first, second) < 0);
+		// texts differ, so authors were never reached
+		assertThat(navigation.getMisses(), Is.is(2));
+	}
+
+	@Test
+	public void tiesAreBrokenByVertexId() {
+		SortingComparator comparator = new SortingComparator(getBluePrintsPostService(), SortingExpression.Build.sort().withAscending(
+						getInformer().getAuthor().getLogin()));
+		int compared = comparator.compare(getVertexOf(post1), getVertexOf(post2));
+		assertTrue(compared != 0);
+		assertThat(comparator.compare(getVertexOf(post2), getVertexOf(post1)), Is.is(-compared));
+		assertThat(comparator.compare(getVertexOf(post1), getVertexOf(post1)), Is.is(0));
+	}
+
+	@Test
+	public void boundedResultsAreTheFirstSortedOnes() {
+		List<Post> all = CollectionUtils.asList(findPostsByDescendingText().getAll());
+		assertThat(all, Is.is(Arrays.asList(post3, post2, post1, (Post) author.about)));
+		assertThat(CollectionUtils.asList(findPostsByDescendingText().get(0, 2)), Is.is(all.subList(0, 2)));
+		assertThat(CollectionUtils.asList(findPostsByDescendingText().get(1, 3)), Is.is(all.subList(1, 3)));
+		// a range going beyond the last result returns a smaller subset
+		assertThat(CollectionUtils.asList(findPostsByDescendingText().get(2, 10)), Is.is(all.subList(2, 4)));
+		assertThat(CollectionUtils.asList(findPostsByDescendingText().get(4, 10)).size(), Is.is(0));
+		assertThat(findPostsByDescendingText().getFirst(), Is.is(post3));
+	}
+
+	@Test(expected = NoReturnableVertexException.class)
+	public void firstOfNoResultIsNotFound() {
+		getPostService().find().matching(new QueryBuilder<PostInformer>() {
+
+			@Override
+			public QueryExpression createMatchingExpression(PostInformer informer) {
+				return informer.getText().equalsTo("no such text");
+			}
+		}).sortBy(new SortingBuilder<PostInformer>() {
+
+			@Override
+			public SortingExpression createSortingExpression(PostInformer informer) {
+				return SortingExpression.Build.sort().withAscending(informer.getText());
+			}
+		}).getFirst();
+	}
+}
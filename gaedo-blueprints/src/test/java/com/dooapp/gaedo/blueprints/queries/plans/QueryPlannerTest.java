@@ -0,0 +1,220 @@
+package com.dooapp.gaedo.blueprints.queries.plans;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.dooapp.gaedo.blueprints.AbstractBluePrintsBackedFinderService;
+import com.dooapp.gaedo.blueprints.AbstractGraphEnvironment;
+import com.dooapp.gaedo.blueprints.AbstractGraphPostTest;
+import com.dooapp.gaedo.blueprints.GraphQueryStatement;
+import com.dooapp.gaedo.finders.QueryBuilder;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.test.beans.Post;
+import com.dooapp.gaedo.test.beans.PostInformer;
+import com.dooapp.gaedo.test.beans.State;
+import com.dooapp.gaedo.test.beans.User;
+import com.tinkerpop.blueprints.CloseableIterable;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+
+import static com.dooapp.gaedo.blueprints.TestUtils.USER_LOGIN;
+import static com.dooapp.gaedo.blueprints.TestUtils.simpleTest;
+import static com.dooapp.gaedo.finders.expressions.Expressions.and;
+import static com.dooapp.gaedo.finders.expressions.Expressions.not;
+import static com.dooapp.gaedo.finders.expressions.Expressions.or;
+
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Ensure {@link QueryPlanner} scans the plan {@link GraphStatistics} estimate as the cheapest one, leaves NOT, comparison and string tests to filter, turns OR into unions only when all
+ * their children can be planned, and that statistics edge counts are bounded and kept until data changed enough, while sampled roots are closed.
+ * @author ndx
+ *
+ */
+@RunWith(Parameterized.class)
+public class QueryPlannerTest extends AbstractGraphPostTest {
+	private static final String CLASS_PLAN = "navigate back classes from value class " + Post.class.getName();
+
+	@Parameters
+	public static Collection<Object[]> parameters() {
+		return simpleTest();
+	}
+
+	public QueryPlannerTest(AbstractGraphEnvironment<?> environment) {
+		super(environment);
+	}
+
+	private String explain(QueryBuilder<PostInformer> query) {
+		return ((GraphQueryStatement<?, ?, ?>) getPostService().find().matching(query)).explain();
+	}
+
+	private List<Post> find(QueryBuilder<PostInformer> query) {
+		List<Post> returned = new ArrayList<Post>();
+		for (Post p : getPostService().find().matching(query).getAll()) {
+			returned.add(p);
+		}
+		return returned;
+	}
+
+	private static void assertScanned(String explained, String expected) {
+		assertTrue(explained, explained.contains("scanned : " + expected));
+	}
+
+	@Test
+	public void intersectionScansSmallestEstimate() {
+		QueryBuilder<PostInformer> query = new QueryBuilder<PostInformer>() {
+			public QueryExpression createMatchingExpression(PostInformer informer) {
+				return and(informer.getAuthor().getLogin().equalsTo(USER_LOGIN), informer.getNote().equalsTo(2.0));
+			}
+		};
+		String explained = explain(query);
+		assertScanned(explained, "navigate back note from value 2.0 (estimated 1 vertices)");
+		assertTrue(explained, explained.contains("checked by filter : navigate back author.login from value " + USER_LOGIN + " (estimated 4 vertices)"));
+		assertThat(find(query).size(), Is.is(1));
+	}
+
+	@Test
+	public void planFollowsData() {
+		QueryBuilder<PostInformer> query = new QueryBuilder<PostInformer>() {
+			public QueryExpression createMatchingExpression(PostInformer informer) {
+				return informer.getAuthor().getLogin().equalsTo(USER_LOGIN);
+			}
+		};
+		User other = getUserService().create(new User().withId(2).withLogin("other login").withPassword(""));
+		for (int index = 0; index < 10; index++) {
+			getPostService().create(new Post(100 + index, "other post " + index, 1, State.PUBLIC, other));
+		}
+		// there are now much more posts than posts of that author
+		assertScanned(explain(query), "navigate back author.login from value " + USER_LOGIN + " (estimated 4 vertices)");
+		assertThat(find(query).size(), Is.is(4));
+	}
+
+	@Test
+	public void orOfPlannableTestsIsAnUnion() {
+		QueryBuilder<PostInformer> query = new QueryBuilder<PostInformer>() {
+			public QueryExpression createMatchingExpression(PostInformer informer) {
+				return or(informer.getNote().equalsTo(2.0), informer.getNote().equalsTo(3.0));
+			}
+		};
+		assertScanned(explain(query), "union of 2 (estimated 2 vertices)");
+		assertThat(find(query).size(), Is.is(2));
+	}
+
+	@Test
+	public void overlappingUnionReturnsEachVertexOnce() {
+		QueryBuilder<PostInformer> query = new QueryBuilder<PostInformer>() {
+			public QueryExpression createMatchingExpression(PostInformer informer) {
+				return or(informer.getNote().equalsTo(2.0), informer.getAuthor().getLogin().equalsTo(USER_LOGIN));
+			}
+		};
+		User other = getUserService().create(new User().withId(2).withLogin("other login").withPassword(""));
+		for (int index = 0; index < 10; index++) {
+			getPostService().create(new Post(100 + index, "other post " + index, 1, State.PUBLIC, other));
+		}
+		assertScanned(explain(query), "union of 2");
+		// post with note 2.0 is also one of the 4 posts of that author
+		assertThat(find(query).size(), Is.is(4));
+	}
+
+	@Test
+	public void orWithNotPlannableChildScansClass() {
+		QueryBuilder<PostInformer> query = new QueryBuilder<PostInformer>() {
+			public QueryExpression createMatchingExpression(PostInformer informer) {
+				return or(informer.getNote().equalsTo(2.0), not(informer.getNote().equalsTo(3.0)));
+			}
+		};
+		assertThat(explain(query), Is.is(CLASS_PLAN + " (estimated 4 vertices)"));
+		// posts 1, 2 and "about"
+		assertThat(find(query).size(), Is.is(3));
+	}
+
+	@Test
+	public void stringTestIsLeftToFilter() {
+		QueryBuilder<PostInformer> query = new QueryBuilder<PostInformer>() {
+			public QueryExpression createMatchingExpression(PostInformer informer) {
+				return informer.getText().startsWith("post text");
+			}
+		};
+		assertThat(explain(query), Is.is(CLASS_PLAN + " (estimated 4 vertices)"));
+		assertThat(find(query).size(), Is.is(3));
+	}
+
+	@Test
+	public void edgeCountsAreBoundedAndKeptUntilDataChangedEnough() {
+		Graph graph = ((AbstractBluePrintsBackedFinderService<?, ?, ?>) getPostService()).getDatabase();
+		Vertex target = graph.addVertex(null);
+		for (int index = 0; index < 20; index++) {
+			graph.addEdge(null, graph.addVertex(null), target, "linked");
+		}
+		GraphStatistics statistics = new GraphStatistics(GraphStatistics.DEFAULT_SAMPLE_SIZE, 15, GraphStatistics.DEFAULT_MAX_ENTRIES);
+		assertThat(statistics.countIncoming(target, "linked"), Is.is(15l));
+		statistics = new GraphStatistics();
+		assertThat(statistics.countIncoming(target, "linked"), Is.is(20l));
+		graph.addEdge(null, graph.addVertex(null), target, "linked");
+		graph.addEdge(null, graph.addVertex(null), target, "linked");
+		statistics.modified();
+		statistics.modified();
+		// less than a tenth of count changed : count is kept
+		assertThat(statistics.countIncoming(target, "linked"), Is.is(20l));
+		statistics.modified();
+		assertThat(statistics.countIncoming(target, "linked"), Is.is(22l));
+		graph.addEdge(null, graph.addVertex(null), target, "linked");
+		statistics.clear();
+		assertThat(statistics.countIncoming(target, "linked"), Is.is(23l));
+	}
+
+	@Test
+	public void estimateSamplesAndClosesRoots() {
+		Graph graph = ((AbstractBluePrintsBackedFinderService<?, ?, ?>) getPostService()).getDatabase();
+		final List<Vertex> vertices = new ArrayList<Vertex>();
+		for (int index = 0; index < 20; index++) {
+			vertices.add(graph.addVertex(null));
+		}
+		final int[] browsed = new int[1];
+		final boolean[] closed = new boolean[1];
+		CloseableIterable<Vertex> roots = new CloseableIterable<Vertex>() {
+
+			@Override
+			public Iterator<Vertex> iterator() {
+				final Iterator<Vertex> iterator = vertices.iterator();
+				return new Iterator<Vertex>() {
+
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public Vertex next() {
+						browsed[0]++;
+						return iterator.next();
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+		GraphStatistics statistics = new GraphStatistics(4, GraphStatistics.DEFAULT_COUNT_LIMIT, GraphStatistics.DEFAULT_MAX_ENTRIES);
+		// roots that are not a collection are only counted up to sample size
+		assertThat(statistics.estimate(roots, null), Is.is(4.0));
+		assertThat(browsed[0], Is.is(4));
+		assertTrue(closed[0]);
+	}
+}
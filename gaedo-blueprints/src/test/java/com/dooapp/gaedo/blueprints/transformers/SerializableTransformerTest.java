@@ -0,0 +1,200 @@
+package com.dooapp.gaedo.blueprints.transformers;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.persistence.CascadeType;
+
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsNot;
+import org.hamcrest.core.IsNull;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.dooapp.gaedo.blueprints.AbstractBluePrintsBackedFinderService;
+import com.dooapp.gaedo.blueprints.AbstractGraphEnvironment;
+import com.dooapp.gaedo.blueprints.AbstractGraphTest;
+import com.dooapp.gaedo.blueprints.ObjectCache;
+import com.dooapp.gaedo.blueprints.Properties;
+import com.dooapp.gaedo.blueprints.indexable.IndexableGraphBackedFinderService;
+import com.dooapp.gaedo.blueprints.indexable.SerializableVerticesMigration;
+import com.tinkerpop.blueprints.Vertex;
+
+import static com.dooapp.gaedo.blueprints.TestUtils.simpleTest;
+
+import static org.junit.Assert.assertThat;
+
+/**
+ * Make sure unknown serializables are written and read back by all codecs, that equal values share the same id, and that vertices
+ * written before codecs were introduced can still be read, reused and migrated
+ * @author ndx
+ *
+ */
+@RunWith(Parameterized.class)
+public class SerializableTransformerTest extends AbstractGraphTest {
+	/**
+	 * A serializable bean no transformer or service knows about
+	 * @author ndx
+	 *
+	 */
+	public static class Coordinates implements Serializable {
+		private String label;
+
+		private int x;
+
+		public Coordinates() {
+		}
+
+		public Coordinates(String label, int x) {
+			this.label = label;
+			this.x = x;
+		}
+
+		public String getLabel() {
+			return label;
+		}
+
+		public void setLabel(String label) {
+			this.label = label;
+		}
+
+		public int getX() {
+			return x;
+		}
+
+		public void setX(int x) {
+			this.x = x;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * x + ((label == null) ? 0 : label.hashCode());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Coordinates))
+				return false;
+			Coordinates other = (Coordinates) obj;
+			return x == other.x && (label == null ? other.label == null : label.equals(other.label));
+		}
+	}
+
+	@Parameters
+	public static Collection<Object[]> parameters() {
+		return simpleTest();
+	}
+
+	private SerializableTransformer tested;
+
+	private AbstractBluePrintsBackedFinderService<?, ?, ?> service;
+
+	public SerializableTransformerTest(AbstractGraphEnvironment<?> environment) {
+		super(environment);
+	}
+
+	@Before
+	public void loadService() throws Exception {
+		super.loadService();
+		tested = (SerializableTransformer) Tuples.get(Coordinates.class);
+		service = (AbstractBluePrintsBackedFinderService<?, ?, ?>) getTagService();
+	}
+
+	private Object load(Vertex vertex) {
+		return tested.loadObject(service.getDriver(), service.getStrategy(), getClass().getClassLoader(), Serializable.class, vertex,
+						service.getRepository(), new ObjectCache());
+	}
+
+	@Test
+	public void defaultCodecIsXml() {
+		assertThat(new SerializableTransformer().getCodec(), Is.is((SerializableCodec) SerializableCodecs.xml));
+	}
+
+	@Test
+	public void eachCodecReadsBackWhatItWrites() {
+		Coordinates value = new Coordinates("a", 1);
+		for (SerializableCodecs codec : SerializableCodecs.values()) {
+			assertThat(codec.name(), codec.decode(codec.encode(value)), Is.is((Serializable) value));
+		}
+	}
+
+	/**
+	 * Serialized strings of growing length give binary outputs of all lengths modulo 3, in other words with 0, 1 and 2 base64 padding characters
+	 */
+	@Test
+	public void binaryCodecHandlesAllPaddings() {
+		Set<Integer> paddings = new HashSet<Integer>();
+		StringBuilder value = new StringBuilder();
+		for (int length = 0; length < 6; length++) {
+			String encoded = SerializableCodecs.binary.encode(value.toString());
+			assertThat(encoded.length() % 4, Is.is(0));
+			paddings.add(encoded.length() - encoded.replace("=", "").length());
+			assertThat(SerializableCodecs.binary.decode(encoded), Is.is((Serializable) value.toString()));
+			value.append('x');
+		}
+		assertThat(paddings.size(), Is.is(3));
+	}
+
+	@Test(expected = UnableToLoadSerializableException.class)
+	public void binaryCodecRejectsInvalidText() {
+		SerializableCodecs.binary.decode("not base64");
+	}
+
+	@Test
+	public void equalValuesHaveSameId() {
+		String id = tested.getIdOfTuple(service.getRepository(), new Coordinates("a", 1));
+		assertThat(tested.getIdOfTuple(service.getRepository(), new Coordinates("a", 1)), Is.is(id));
+		assertThat(tested.getIdOfTuple(service.getRepository(), new Coordinates("a", 2)), IsNot.not(id));
+		Vertex first = tested.getVertexFor(service, new Coordinates("b", 1), CascadeType.PERSIST, new ObjectCache());
+		Vertex second = tested.getVertexFor(service, new Coordinates("b", 1), CascadeType.PERSIST, new ObjectCache());
+		assertThat(second.getId(), Is.is(first.getId()));
+	}
+
+	@Test
+	public void valueIsReadBackFromItsVertex() {
+		Coordinates value = new Coordinates("c", 3);
+		Vertex written = tested.getVertexFor(service, value, CascadeType.PERSIST, new ObjectCache());
+		assertThat(written.getProperty(Properties.serialized.name()), IsNull.notNullValue());
+		assertThat(load(written), Is.is((Object) value));
+	}
+
+	/**
+	 * Before codecs were introduced, serializables were written as XML in vertex value (which was also their id)
+	 */
+	@Test
+	public void legacyXmlVertexIsRead() {
+		Coordinates value = new Coordinates("legacy", 4);
+		String xml = SerializableCodecs.xml.encode(value);
+		Vertex legacy = service.getDriver().createEmptyVertex(Serializable.class, xml, value);
+		assertThat(legacy.getProperty(Properties.serialized.name()), IsNull.nullValue());
+		assertThat(load(legacy), Is.is((Object) value));
+	}
+
+	@Test
+	public void legacyXmlVertexIsReusedForEqualValue() {
+		Coordinates value = new Coordinates("legacy", 5);
+		Vertex legacy = service.getDriver().createEmptyVertex(Serializable.class, SerializableCodecs.xml.encode(value), value);
+		Vertex written = tested.getVertexFor(service, new Coordinates("legacy", 5), CascadeType.PERSIST, new ObjectCache());
+		assertThat(written.getId(), Is.is(legacy.getId()));
+	}
+
+	@Test
+	public void legacyXmlVertexIsMigrated() {
+		Coordinates value = new Coordinates("legacy", 6);
+		Vertex legacy = service.getDriver().createEmptyVertex(Serializable.class, SerializableCodecs.xml.encode(value), value);
+		SerializableVerticesMigration migration = new SerializableVerticesMigration((IndexableGraphBackedFinderService<?, ?>) service);
+		assertThat(migration.migrate(), Is.is(1));
+		assertThat(legacy.getProperty(Properties.serialized.name()), IsNull.notNullValue());
+		// vertex is now found by the id queries use
+		String id = tested.getIdOfTuple(service.getRepository(), value);
+		assertThat(service.getDriver().loadVertexFor(id, Serializable.class.getName()).getId(), Is.is(legacy.getId()));
+		assertThat(load(legacy), Is.is((Object) value));
+		// migration can be run again, but has nothing to do
+		assertThat(migration.migrate(), Is.is(0));
+	}
+}
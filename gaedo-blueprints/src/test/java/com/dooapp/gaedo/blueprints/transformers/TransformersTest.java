@@ -0,0 +1,107 @@
+package com.dooapp.gaedo.blueprints.transformers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsNull;
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+/**
+ * Make sure cached transformer lookups give the same results than a scan of associations, and don't retain looked up classes
+ * @author ndx
+ *
+ */
+public class TransformersTest {
+	/**
+	 * A class no transformer knows about
+	 */
+	public static class Unknown {
+	}
+
+	/**
+	 * Class loader defining its own copy of {@link Unknown}, so that this copy can be garbage collected with it
+	 * @author ndx
+	 *
+	 */
+	private static class IsolatingClassLoader extends ClassLoader {
+		public IsolatingClassLoader() {
+			super(TransformersTest.class.getClassLoader());
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (Unknown.class.getName().equals(name)) {
+				Class<?> loaded = findLoadedClass(name);
+				if (loaded == null) {
+					byte[] bytes = read(name.replace('.', '/') + ".class");
+					loaded = defineClass(name, bytes, 0, bytes.length);
+				}
+				return loaded;
+			}
+			return super.loadClass(name, resolve);
+		}
+
+		private byte[] read(String resource) throws ClassNotFoundException {
+			InputStream input = getParent().getResourceAsStream(resource);
+			if (input == null)
+				throw new ClassNotFoundException(resource);
+			try {
+				try {
+					ByteArrayOutputStream returned = new ByteArrayOutputStream();
+					byte[] buffer = new byte[1024];
+					for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+						returned.write(buffer, 0, read);
+					}
+					return returned.toByteArray();
+				} finally {
+					input.close();
+				}
+			} catch (IOException e) {
+				throw new ClassNotFoundException(resource, e);
+			}
+		}
+	}
+
+	@Test
+	public void testLookupsAreConsistent() {
+		for (int run = 0; run < 2; run++) {
+			assertThat(Literals.get(String.class), Is.is(Literals.strings.getTransformer()));
+			assertThat(Literals.get(Integer.TYPE), Is.is(Literals.numbers.getTransformer()));
+			assertThat(Literals.get(Long.class), Is.is(Literals.numbers.getTransformer()));
+			assertThat(Literals.containsKey(Unknown.class), Is.is(false));
+			assertThat(Tuples.containsKey(Unknown.class), Is.is(false));
+			assertThat(Tuples.get(Map.Entry.class), Is.is(Tuples.entries.getTransformer()));
+		}
+	}
+
+	@Test(expected = ClassIsNotAKnownLiteralException.class)
+	public void testUnknownClassHasNoLiteral() {
+		Literals.get(Unknown.class);
+	}
+
+	@Test
+	public void testLookedUpClassesCanBeCollected() throws Exception {
+		IsolatingClassLoader loader = new IsolatingClassLoader();
+		Class<?> isolated = loader.loadClass(Unknown.class.getName());
+		assertThat(isolated == Unknown.class, Is.is(false));
+		assertThat(Literals.containsKey(isolated), Is.is(false));
+		WeakReference<Class<?>> reference = new WeakReference<Class<?>>(isolated);
+		isolated = null;
+		loader = null;
+		List<byte[]> pressure = new ArrayList<byte[]>();
+		for (int attempt = 0; attempt < 20 && reference.get() != null; attempt++) {
+			System.gc();
+			pressure.add(new byte[1024 * 1024]);
+			Thread.sleep(10);
+		}
+		assertThat(reference.get(), IsNull.nullValue());
+	}
+}
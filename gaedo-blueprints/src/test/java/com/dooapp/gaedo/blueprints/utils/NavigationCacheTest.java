@@ -0,0 +1,139 @@
+package com.dooapp.gaedo.blueprints.utils;
+
+import java.util.Collection;
+
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.dooapp.gaedo.blueprints.AbstractBluePrintsBackedFinderService;
+import com.dooapp.gaedo.blueprints.AbstractGraphEnvironment;
+import com.dooapp.gaedo.blueprints.AbstractGraphPostTest;
+import com.dooapp.gaedo.blueprints.queries.executable.SortingComparator;
+import com.dooapp.gaedo.finders.sort.SortingExpressionImpl;
+import com.dooapp.gaedo.properties.Property;
+import com.dooapp.gaedo.test.beans.Post;
+import com.dooapp.gaedo.test.beans.PostInformer;
+import com.tinkerpop.blueprints.Vertex;
+
+import static com.dooapp.gaedo.blueprints.TestUtils.simpleTest;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Ensure navigations are memorized by hop, so that paths sharing intermediate vertices, or navigated once for tests and once for sort,
+ * only follow each edge once
+ * @author ndx
+ *
+ */
+@RunWith(Parameterized.class)
+public class NavigationCacheTest extends AbstractGraphPostTest {
+	@Parameters
+	public static Collection<Object[]> parameters() {
+		return simpleTest();
+	}
+
+	public NavigationCacheTest(AbstractGraphEnvironment<?> environment) {
+		super(environment);
+	}
+
+	private AbstractBluePrintsBackedFinderService<?, Post, PostInformer> getBluePrintsPostService() {
+		return (AbstractBluePrintsBackedFinderService<?, Post, PostInformer>) getPostService();
+	}
+
+	private NavigationCache createCache() {
+		return new NavigationCache(getBluePrintsPostService().getStrategy());
+	}
+
+	private Vertex getVertexOf(Post post) {
+		return getBluePrintsPostService().getIdVertexFor(post, false);
+	}
+
+	private PostInformer getInformer() {
+		return getBluePrintsPostService().getInformer();
+	}
+
+	private Property getAuthorProperty() {
+		return getInformer().getAuthor().getFieldPath().iterator().next();
+	}
+
+	@Test
+	public void hopIsNavigatedOnce() {
+		NavigationCache cache = createCache();
+		Vertex author = cache.getDestination(getVertexOf(post1), getAuthorProperty());
+		assertThat(author, Is.is(findVertexIn(getUserService(), this.author)));
+		assertThat(cache.getDestination(getVertexOf(post1), getAuthorProperty()), Is.is(author));
+		assertThat(cache.getMisses(), Is.is(1));
+		assertThat(cache.getHits(), Is.is(1));
+	}
+
+	@Test
+	public void pathsSharingAVertexNavigateItOnce() {
+		NavigationCache cache = createCache();
+		Iterable<Property> login = getInformer().getAuthor().getLogin().getFieldPath();
+		Vertex first = cache.getDestination(getVertexOf(post1), login);
+		assertThat(cache.getMisses(), Is.is(2));
+		// author of post2 is not known, but login of that author is
+		assertThat(cache.getDestination(getVertexOf(post2), login), Is.is(first));
+		assertThat(cache.getMisses(), Is.is(3));
+		assertThat(cache.getHits(), Is.is(1));
+	}
+
+	@Test
+	public void missingDestinationIsMemorized() {
+		NavigationCache cache = createCache();
+		// users have no author
+		Vertex user = findVertexIn(getUserService(), author);
+		assertNull(cache.getDestination(user, getAuthorProperty()));
+		assertNull(cache.getDestination(user, getInformer().getAuthor().getLogin().getFieldPath()));
+		assertThat(cache.getMisses(), Is.is(1));
+		assertThat(cache.getHits(), Is.is(1));
+	}
+
+	@Test
+	public void leastRecentlyUsedHopIsForgotten() {
+		NavigationCache cache = new NavigationCache(getBluePrintsPostService().getStrategy(), 2);
+		cache.getDestination(getVertexOf(post1), getAuthorProperty());
+		cache.getDestination(getVertexOf(post2), getAuthorProperty());
+		// post1 is now the most recently used
+		cache.getDestination(getVertexOf(post1), getAuthorProperty());
+		cache.getDestination(getVertexOf(post3), getAuthorProperty());
+		assertThat(cache.getMisses(), Is.is(3));
+		cache.getDestination(getVertexOf(post1), getAuthorProperty());
+		assertThat(cache.getMisses(), Is.is(3));
+		cache.getDestination(getVertexOf(post2), getAuthorProperty());
+		assertThat(cache.getMisses(), Is.is(4));
+	}
+
+	@Test
+	public void clearedCacheNavigatesAgain() {
+		NavigationCache cache = createCache();
+		cache.getDestination(getVertexOf(post1), getAuthorProperty());
+		cache.clear();
+		cache.getDestination(getVertexOf(post1), getAuthorProperty());
+		assertThat(cache.getMisses(), Is.is(2));
+		assertThat(cache.getHits(), Is.is(0));
+	}
+
+	@Test
+	public void sortReusesNavigationsOfTests() {
+		NavigationCache cache = createCache();
+		Iterable<Property> login = getInformer().getAuthor().getLogin().getFieldPath();
+		// as a test would do
+		assertTrue(new VertexPathNavigator(cache, getVertexOf(post1)).navigateOn(login).isNavigationSuccessfull());
+		assertTrue(new VertexPathNavigator(cache, getVertexOf(post2)).navigateOn(login).isNavigationSuccessfull());
+		int misses = cache.getMisses();
+		int hits = cache.getHits();
+		SortingComparator comparator = new SortingComparator(getBluePrintsPostService(), SortingExpressionImpl.sort().withAscending(
+						getInformer().getAuthor().getLogin()), cache);
+		comparator.compare(getVertexOf(post1), getVertexOf(post2));
+		// both logins were reached by tests
+		assertThat(cache.getMisses(), Is.is(misses));
+		// two hops for each vertex
+		assertThat(cache.getHits(), Is.is(hits + 4));
+	}
+}
@@ -1,25 +1,50 @@
 package com.dooapp.gaedo.finders.collections;
 
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * Evaluator used to combine with a and a list of others evaluators
+ * Evaluator used to combine with a and a list of others evaluators.
+ * Contained evaluators are stored in an array, which is browsed for each tested element without any allocation, and evaluation stops
+ * as soon as one of them fails.
  * @author ndx
  *
  */
 class AndEvaluator<DataType> implements Evaluator<DataType> {
-	public List<Evaluator<DataType>> inner = new LinkedList<Evaluator<DataType>>();
+	private Evaluator<DataType>[] inner;
+
+	@SuppressWarnings("unchecked")
+	public AndEvaluator() {
+		this(new Evaluator[0]);
+	}
+
+	AndEvaluator(Evaluator<DataType>[] inner) {
+		this.inner = inner;
+	}
 
 	public void add(Evaluator<DataType> e) {
-		inner.add(e);
+		inner = Arrays.copyOf(inner, inner.length+1);
+		inner[inner.length-1] = e;
+	}
+
+	/**
+	 * @return a read-only view of contained evaluators
+	 */
+	List<Evaluator<DataType>> getInner() {
+		return Collections.unmodifiableList(Arrays.asList(inner));
 	}
 
 	public boolean matches(DataType element) {
-		boolean result = true;
-		for(Evaluator<DataType> e : inner) {
-			result&=e.matches(element);
+		for (int index = 0; index < inner.length; index++) {
+			if(!inner[index].matches(element))
+				return false;
 		}
-		return result;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "and"+getInner();
 	}
-}
\ No newline at end of file
+}
@@ -3,14 +3,18 @@ package com.dooapp.gaedo.finders.collections;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedList;
 
 import com.dooapp.gaedo.CrudServiceException;
+import com.dooapp.gaedo.finders.FieldInformer;
 import com.dooapp.gaedo.finders.FinderCrudService;
 import com.dooapp.gaedo.finders.Informer;
 import com.dooapp.gaedo.finders.QueryBuilder;
 import com.dooapp.gaedo.finders.QueryStatement;
+import com.dooapp.gaedo.finders.collections.indexes.HashIndex;
+import com.dooapp.gaedo.finders.collections.indexes.Index;
+import com.dooapp.gaedo.finders.collections.indexes.Indexes;
+import com.dooapp.gaedo.finders.collections.indexes.SortedIndex;
+import com.dooapp.gaedo.finders.collections.storage.StripedStorage;
 import com.dooapp.gaedo.finders.root.AbstractFinderService;
 import com.dooapp.gaedo.finders.root.InformerFactory;
 import com.dooapp.gaedo.utils.PropertyChangeEmitter;
@@ -44,10 +48,23 @@ public class CollectionBackedFinderService<DataType, InformerType extends Inform
 
 	}
 
-	private final Collection<DataType> data = new LinkedList<DataType>();
+	/**
+	 * Storage of service data
+	 */
+	private final StripedStorage<DataType> data = new StripedStorage<DataType>();
+
+	/**
+	 * Secondary indexes declared on this service
+	 */
+	private final Indexes<DataType> indexes = new Indexes<DataType>(data);
 
 	private final PropertyChangeEmitter support = new PropertyChangeEmitterImpl();
 
+	/**
+	 * Parallel execution settings given to query statements. Null by default, which means queries are evaluated in calling thread.
+	 */
+	private ParallelExecution parallelExecution;
+
 	/**
 	 * Build a collection backed finder
 	 *
@@ -61,39 +78,107 @@ public class CollectionBackedFinderService<DataType, InformerType extends Inform
 		super(containedClass, informerClass, factory);
 	}
 
+	/**
+	 * Declare a secondary index on this service. Index is immediatly filled with existing data, and will then be kept up to date
+	 * by {@link #create(Object)}, {@link #update(Object)} and {@link #delete(Object)}. Notice that, as a consequence,
+	 * any change of an indexed property value MUST be followed by an {@link #update(Object)} call.
+	 * @param index declared index. If an index was already declared on the same property, it is replaced.
+	 */
+	public void addIndex(Index<DataType> index) {
+		indexes.add(index);
+	}
+
+	/**
+	 * Declare a {@link HashIndex} on given field. This index will speed up equality checks on that field.
+	 * @param field field informer obtained from this service informer
+	 * @see #addIndex(Index)
+	 */
+	public void addHashIndex(FieldInformer<?> field) {
+		addIndex(new HashIndex<DataType>(field.getField()));
+	}
+
+	/**
+	 * Declare a {@link SortedIndex} on given field. This index will speed up equality, comparison and startsWith checks on that field.
+	 * @param field field informer obtained from this service informer
+	 * @see #addIndex(Index)
+	 */
+	public void addSortedIndex(FieldInformer<?> field) {
+		addIndex(new SortedIndex<DataType>(field.getField()));
+	}
+
+	/**
+	 * Creates an element in storage. Notice that creating the same instance twice has no effect.
+	 * @throws IllegalArgumentException if created element is null
+	 */
 	public DataType create(DataType toCreate) {
-		data.add(toCreate);
+		long position = data.nextPosition();
+		synchronized(data.getLock(position)) {
+			if(data.add(position, toCreate)==null) {
+				indexes.add(position, toCreate);
+			}
+		}
+		invalidateQueryCache();
 		return toCreate;
 	}
 
 	public void delete(DataType toDelete) {
-		data.remove(toDelete);
+		Long position = data.positionOf(toDelete);
+		if(position!=null) {
+			synchronized(data.getLock(position)) {
+				if(data.remove(position)!=null) {
+					indexes.remove(position);
+				}
+			}
+			invalidateQueryCache();
+		}
 	}
 
 	public DataType update(DataType toUpdate) {
-		if (!data.contains(toUpdate)) {
+		Long position = data.positionOf(toUpdate);
+		if (position==null) {
 			throw new NoSuchDataException(toUpdate);
 		}
+		synchronized(data.getLock(position)) {
+			DataType stored = data.get(position);
+			if(stored==null) {
+				throw new NoSuchDataException(toUpdate);
+			}
+			indexes.update(position, stored);
+		}
+		invalidateQueryCache();
 		return toUpdate;
 	}
 
 	/**
-	 * Creates the query statement used a copy of current data. As a
-	 * consequence, long calls may result in inaccurate data set.
+	 * Creates the query statement using a live view of current data. This view is weakly consistent : elements created or deleted while
+	 * query runs may or may not be seen by it, but no copy of data is ever made.
 	 */
 	@Override
 	protected QueryStatement<DataType, DataType, InformerType> createQueryStatement(
 			QueryBuilder<InformerType> query) {
-		return new CollectionQueryStatement<DataType, DataType, InformerType>(query,
-				getInformer(), new LinkedList<DataType>(data), support);
+		CollectionQueryStatement<DataType, DataType, InformerType> returned = new CollectionQueryStatement<DataType, DataType, InformerType>(query,
+				getInformer(), data.values(), indexes, support);
+		returned.setParallelExecution(parallelExecution);
+		return returned;
+	}
+
+	public ParallelExecution getParallelExecution() {
+		return parallelExecution;
+	}
+
+	/**
+	 * Set parallel execution settings used by all queries created after that call
+	 * @param parallelExecution new settings. Set to null to disable parallel execution.
+	 */
+	public void setParallelExecution(ParallelExecution parallelExecution) {
+		this.parallelExecution = parallelExecution;
 	}
 
 	/**
-	 * @return {@link Collections#unmodifiableCollection(Collection)} called
-	 *         upon {@link #data}
+	 * @return an unmodifiable live view of {@link #data}
 	 */
 	public Iterable<DataType> findAll() {
-		return Collections.unmodifiableCollection(data);
+		return data.values();
 	}
 
 	public void addPropertyChangeListener(PropertyChangeListener listener) {
@@ -2,9 +2,11 @@ package com.dooapp.gaedo.finders.collections;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
 
 import com.dooapp.gaedo.exceptions.range.BadRangeDefinitionException;
 import com.dooapp.gaedo.exceptions.range.BadStartIndexException;
@@ -12,6 +14,7 @@ import com.dooapp.gaedo.finders.Informer;
 import com.dooapp.gaedo.finders.QueryBrowser;
 import com.dooapp.gaedo.finders.QueryBuilder;
 import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.finders.collections.indexes.Indexes;
 import com.dooapp.gaedo.finders.projection.ProjectionBuilder;
 import com.dooapp.gaedo.finders.root.AbstractQueryStatement;
 import com.dooapp.gaedo.finders.sort.SortingBackedComparator;
@@ -30,24 +33,101 @@ public class CollectionQueryStatement<ValueType, DataType, InformerType extends
 	 */
 	private Iterable<DataType> data;
 
+	/**
+	 * Indexes used to restrict the elements tested. May be null.
+	 */
+	private Indexes<DataType> indexes;
+
+	/**
+	 * Compiled matcher, lazily built from query expression
+	 */
+	private Matcher<DataType> matcher;
+
+	/**
+	 * Parallel execution settings. When null, query is always evaluated in calling thread.
+	 */
+	private ParallelExecution parallelExecution;
+
 	public CollectionQueryStatement(QueryBuilder<InformerType> query,
 			InformerType informer, Iterable<DataType> data,
 			PropertyChangeEmitter emitter) {
+		this(query, informer, data, null, emitter);
+	}
+
+	/**
+	 * Build a query statement which will, before testing any element, ask indexes for candidates
+	 * @param query
+	 * @param informer
+	 * @param data
+	 * @param indexes indexes declared on source collection. May be null, in which case all data will be tested.
+	 * @param emitter
+	 */
+	public CollectionQueryStatement(QueryBuilder<InformerType> query,
+			InformerType informer, Iterable<DataType> data,
+			Indexes<DataType> indexes, PropertyChangeEmitter emitter) {
 		super(query, informer, emitter);
 		this.data = data;
+		this.indexes = indexes;
+	}
+
+	/**
+	 * An element associated to its rank in candidates list. This rank is used to keep sort stable (that's to say elements
+	 * considered equal by sorting expression are kept in encounter order).
+	 * @author ndx
+	 *
+	 */
+	private static class Ranked<DataType> {
+		private final DataType element;
+		private final long rank;
+
+		public Ranked(DataType element, long rank) {
+			this.element = element;
+			this.rank = rank;
+		}
 	}
 
 	/**
-	 * Count the number of elements that matches the QueryExpression
+	 * Count the number of elements that matches the QueryExpression. Nothing is sorted nor projected here.
 	 */
 	public int count() {
 		try {
-			return selectAll().size();
+			final Matcher<DataType> matcher = getMatcher();
+			Iterable<DataType> candidates = getCandidates();
+			List<? extends Collection<DataType>> partitions = getPartitions(candidates);
+			if(partitions==null)
+				return count(candidates, matcher);
+			List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>(partitions.size());
+			for(final Collection<DataType> partition : partitions) {
+				tasks.add(new Callable<Integer>() {
+					public Integer call() {
+						return count(partition, matcher);
+					}
+				});
+			}
+			int returned = 0;
+			for(Integer partial : parallelExecution.run(tasks)) {
+				returned += partial;
+			}
+			return returned;
 		} finally {
 			setState(State.EXECUTED);
 		}
 	}
 
+	private int count(Iterable<DataType> candidates, Matcher<DataType> matcher) {
+		int returned = 0;
+		for (DataType element : candidates) {
+			if (matcher.matches(element)) {
+				returned++;
+			}
+		}
+		return returned;
+	}
+
+	/**
+	 * Get a page of results. Only the end first results are ever kept in memory, and only the returned ones are projected.
+	 * Notice that, if less than end results exist, the returned page is simply shorter.
+	 */
 	public Iterable<ValueType> get(int start, int end) {
 		try {
 			if (start < 0) {
@@ -55,7 +135,7 @@ public class CollectionQueryStatement<ValueType, DataType, InformerType extends
 			} else if (end < start) {
 				throw new BadRangeDefinitionException(start, end);
 			}
-			return selectAll().subList(start, end);
+			return project(select(start, end));
 		} finally {
 			setState(State.EXECUTED);
 		}
@@ -63,7 +143,19 @@ public class CollectionQueryStatement<ValueType, DataType, InformerType extends
 
 	public Iterable<ValueType> getAll() {
 		try {
-			return selectAll();
+			return project(select(0, Integer.MAX_VALUE));
+		} finally {
+			setState(State.EXECUTED);
+		}
+	}
+
+	/**
+	 * Get first result. When no sorting is required, matching stops at first matching element. As before, an {@link IndexOutOfBoundsException}
+	 * is thrown when no element matches.
+	 */
+	public ValueType getFirst() {
+		try {
+			return project(select(0, 1)).get(0);
 		} finally {
 			setState(State.EXECUTED);
 		}
@@ -79,57 +171,191 @@ public class CollectionQueryStatement<ValueType, DataType, InformerType extends
 	}
 
 	/**
-	 * For getting all data, we build a matcher by calling
-	 * {@link #createMatcher()} then use it against all elements of collection
+	 * Check if a sorting is required
+	 * @return true if sorting expression contains at least one directive
 	 */
-	private List<ValueType> selectAll() {
-		Collection<DataType> matching = null;
-		if (getSortingExpression() != null && getSortingExpression().iterator().hasNext()) {
-			matching = new TreeSet<DataType>(createComparator());
+	private boolean isSorted() {
+		return getSortingExpression() != null && getSortingExpression().iterator().hasNext();
+	}
+
+	/**
+	 * Select matching elements, in sort order, from index start (included) to index end (excluded).
+	 * When candidates are numerous enough and {@link ParallelExecution} is configured, each partition of candidates is searched for
+	 * its end first elements (see {@link #collect(Iterable, int, Matcher, Comparator)}), then partial results are merged.
+	 * @param start index of first returned element
+	 * @param end index of first non returned element. Use {@link Integer#MAX_VALUE} to get all elements.
+	 * @return a list of elements, which size is at most end-start
+	 */
+	private List<DataType> select(int start, final int end) {
+		if(end<=start)
+			return new ArrayList<DataType>();
+		final Matcher<DataType> matcher = getMatcher();
+		final Comparator<? super DataType> comparator = isSorted() ? createComparator() : null;
+		List<DataType> returned;
+		Iterable<DataType> candidates = getCandidates();
+		List<? extends Collection<DataType>> partitions = getPartitions(candidates);
+		if(partitions==null) {
+			returned = collect(candidates, end, matcher, comparator);
 		} else {
-			matching = new ArrayList<DataType>();
+			List<Callable<List<DataType>>> tasks = new ArrayList<Callable<List<DataType>>>(partitions.size());
+			for(final Collection<DataType> partition : partitions) {
+				tasks.add(new Callable<List<DataType>>() {
+					public List<DataType> call() {
+						return collect(partition, end, matcher, comparator);
+					}
+				});
+			}
+			returned = new ArrayList<DataType>();
+			for(List<DataType> partial : parallelExecution.run(tasks)) {
+				returned.addAll(partial);
+				// Without sorting, partitions order is encounter order, so we can stop as soon as we have enough elements
+				if(comparator==null && returned.size()>=end)
+					break;
+			}
+			if(comparator!=null) {
+				// Partial results are sorted, and stable sort will keep partitions order for equal elements
+				Collections.sort(returned, comparator);
+			}
+			if(returned.size()>end)
+				returned = returned.subList(0, end);
 		}
-		Matcher<DataType> expression = createMatcher();
-		for (DataType element : data) {
-			// select
-			if (expression.matches(element)) {
-				// add (sorting is done here, but not projection, which is done in second time - yup, it's sub-optimal)
-				matching.add(element);
+		return start==0 ? returned : new ArrayList<DataType>(returned.subList(Math.min(start, returned.size()), returned.size()));
+	}
+
+	/**
+	 * Collect the first limit matching elements of candidates.
+	 * <ul>
+	 * <li>When no sorting is required, candidates are browsed only until limit matching elements have been found.</li>
+	 * <li>When sorting is required and all elements are required, matching elements are collected, then sorted.</li>
+	 * <li>When sorting is required and only a page is required, matching elements are kept in a heap bounded to limit elements.</li>
+	 * </ul>
+	 * @param candidates browsed elements
+	 * @param limit maximum number of returned elements
+	 * @param matcher
+	 * @param comparator comparator used for sorting, or null if no sorting is required
+	 * @return a list of at most limit elements, in sort order (or in encounter order if no sorting is required)
+	 */
+	private List<DataType> collect(Iterable<DataType> candidates, int limit, Matcher<DataType> matcher, final Comparator<? super DataType> comparator) {
+		List<DataType> returned = new ArrayList<DataType>();
+		if(comparator==null) {
+			for (DataType element : candidates) {
+				if (matcher.matches(element)) {
+					returned.add(element);
+					if(returned.size()>=limit)
+						break;
+				}
+			}
+		} else if(limit==Integer.MAX_VALUE) {
+			for (DataType element : candidates) {
+				if (matcher.matches(element)) {
+					returned.add(element);
+				}
+			}
+			// Collections.sort is a stable merge sort, so no element is lost (unlike what would happen using a TreeSet)
+			Collections.sort(returned, comparator);
+		} else {
+			// This comparator orders elements in reverse, so that heap head is the worst element kept
+			Comparator<Ranked<DataType>> reversed = new Comparator<Ranked<DataType>>() {
+				@Override
+				public int compare(Ranked<DataType> o1, Ranked<DataType> o2) {
+					int compared = comparator.compare(o2.element, o1.element);
+					if(compared==0)
+						compared = o2.rank<o1.rank ? -1 : (o2.rank==o1.rank ? 0 : 1);
+					return compared;
+				}
+			};
+			PriorityQueue<Ranked<DataType>> heap = new PriorityQueue<Ranked<DataType>>(Math.min(limit, 1024), reversed);
+			long rank = 0;
+			for (DataType element : candidates) {
+				if (matcher.matches(element)) {
+					Ranked<DataType> ranked = new Ranked<DataType>(element, rank++);
+					if(heap.size()<limit) {
+						heap.add(ranked);
+					} else if(reversed.compare(ranked, heap.peek())>0) {
+						heap.poll();
+						heap.add(ranked);
+					}
+				}
+			}
+			List<Ranked<DataType>> sorted = new ArrayList<Ranked<DataType>>(heap);
+			Collections.sort(sorted, Collections.reverseOrder(reversed));
+			for(Ranked<DataType> ranked : sorted) {
+				returned.add(ranked.element);
 			}
 		}
+		return returned;
+	}
+
+	/**
+	 * Project selected elements. Notice projection is done only on selected elements, and not on all matching ones.
+	 * @param selected
+	 * @return a list of projected values (or the elements themselves, if no projector is given)
+	 */
+	@SuppressWarnings("unchecked")
+	private List<ValueType> project(List<DataType> selected) {
+		if(projector==null)
+			return (List<ValueType>) selected;
 		// Typical use case for guava ? Sure man !
 		// but I don't want to rely on that behemoth lib here
-		List<ValueType> returned = new ArrayList<ValueType>();
-		for(DataType element : matching) {
-			if(projector==null) {
-				returned.add((ValueType) element);
-			} else {
-				returned.add(projector.project(informer, new CollectionValueFetcher<DataType>(element)));
-			}
+		List<ValueType> returned = new ArrayList<ValueType>(selected.size());
+		for(DataType element : selected) {
+			returned.add(projector.project(informer, new CollectionValueFetcher<DataType>(element)));
 		}
 		return returned;
 	}
 
 	/**
-	 * Creates a matcher by visiting the QueryExpression
-	 *
-	 * @return
+	 * Get elements that have to be tested by matcher. When indexes can restrict that set, they're used. Otherwise, all data is tested.
+	 * @return an iterable over the elements that may match query expression
 	 */
-	private Matcher<DataType> createMatcher() {
-		QueryExpression expression = buildQueryExpression();
-		Matcher<DataType> matcher = new Matcher<DataType>();
-		// When the expression accepts the matcher, the matcher will construct
-		// its evaluation tree
-		expression.accept(matcher);
-		return matcher;
+	private Iterable<DataType> getCandidates() {
+		if(indexes!=null) {
+			Iterable<DataType> candidates = indexes.getCandidates(buildQueryExpression());
+			if(candidates!=null)
+				return candidates;
+		}
+		return data;
 	}
 
-	public ValueType getFirst() {
-		try {
-			return selectAll().get(0);
-		} finally {
-			setState(State.EXECUTED);
+	/**
+	 * Split candidates in partitions to be evaluated in parallel, if parallel execution is enabled and candidates are numerous enough
+	 * @param candidates elements to test, as returned by {@link #getCandidates()}
+	 * @return a list of at least two partitions, or null if evaluation has to be sequential
+	 */
+	private List<? extends Collection<DataType>> getPartitions(Iterable<DataType> candidates) {
+		if(parallelExecution==null)
+			return null;
+		List<? extends Collection<DataType>> returned = parallelExecution.partition(candidates);
+		return returned==null || returned.size()<2 ? null : returned;
+	}
+
+	public ParallelExecution getParallelExecution() {
+		return parallelExecution;
+	}
+
+	/**
+	 * Set parallel execution settings for this statement
+	 * @param parallelExecution new settings. Set to null to disable parallel execution.
+	 */
+	public void setParallelExecution(ParallelExecution parallelExecution) {
+		this.parallelExecution = parallelExecution;
+	}
+
+	/**
+	 * Get matcher, creating it by visiting the QueryExpression if needed. Just like query expression, once built, matcher is memorized.
+	 *
+	 * @return
+	 */
+	private Matcher<DataType> getMatcher() {
+		if(matcher==null) {
+			QueryExpression expression = buildQueryExpression();
+			Matcher<DataType> created = new Matcher<DataType>();
+			// When the expression accepts the matcher, the matcher will construct
+			// its evaluation tree
+			expression.accept(created);
+			matcher = created.compile();
 		}
+		return matcher;
 	}
 
 	/**
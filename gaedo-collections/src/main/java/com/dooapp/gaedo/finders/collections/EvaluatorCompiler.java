@@ -0,0 +1,110 @@
+package com.dooapp.gaedo.finders.collections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compiler transforming an evaluator tree, as built by {@link Matcher} visit, into a flatter and faster one. It
+ * <ul>
+ * <li>merges nested and (respectively or) evaluators into their parent,</li>
+ * <li>removes evaluators having no effect (anything in an and, double negations, single child aggregates),</li>
+ * <li>sorts children of aggregates by estimated cost, so that short-circuiting happens with the cheapest tests.</li>
+ * </ul>
+ * @author ndx
+ *
+ */
+final class EvaluatorCompiler {
+	/**
+	 * Comparator sorting evaluators by their estimated cost. As sort is stable, evaluators of same cost keep their declaration order.
+	 */
+	private static final Comparator<Evaluator<?>> BY_COST = new Comparator<Evaluator<?>>() {
+		@Override
+		public int compare(Evaluator<?> o1, Evaluator<?> o2) {
+			return getCost(o1)-getCost(o2);
+		}
+	};
+
+	private EvaluatorCompiler() {
+	}
+
+	/**
+	 * Estimate cost of an evaluator. This cost is a very crude estimate, only used to order evaluators.
+	 * @param evaluator
+	 * @return a positive integer, the higher the slower
+	 */
+	static int getCost(Evaluator<?> evaluator) {
+		if(evaluator instanceof AnythingEvaluator) {
+			return 0;
+		} else if(evaluator instanceof EqualsEvaluator) {
+			return 1;
+		} else if(evaluator instanceof GreaterThanEvaluator || evaluator instanceof LowerThanEvaluator) {
+			return 2;
+		} else if(evaluator instanceof StartsWithEvaluator || evaluator instanceof EndsWithEvaluator) {
+			return 3;
+		} else if(evaluator instanceof ContainsStringEvaluator) {
+			return 4;
+		} else if(evaluator instanceof AbstractBasicEvaluator) {
+			// collection and map containment checks
+			return 5;
+		} else {
+			// aggregates
+			return 10;
+		}
+	}
+
+	/**
+	 * Compile given evaluator tree
+	 * @param source source tree
+	 * @return an evaluator equivalent to source one
+	 */
+	@SuppressWarnings("unchecked")
+	static <DataType> Evaluator<DataType> compile(Evaluator<DataType> source) {
+		if(source instanceof AndEvaluator) {
+			List<Evaluator<DataType>> children = new ArrayList<Evaluator<DataType>>();
+			for(Evaluator<DataType> child : ((AndEvaluator<DataType>) source).getInner()) {
+				Evaluator<DataType> compiled = compile(child);
+				if(compiled instanceof AndEvaluator) {
+					children.addAll(((AndEvaluator<DataType>) compiled).getInner());
+				} else if(!(compiled instanceof AnythingEvaluator)) {
+					children.add(compiled);
+				}
+			}
+			if(children.isEmpty())
+				return new AnythingEvaluator<DataType>(null);
+			if(children.size()==1)
+				return children.get(0);
+			Collections.sort(children, BY_COST);
+			return new AndEvaluator<DataType>(children.toArray(new Evaluator[children.size()]));
+		} else if(source instanceof OrEvaluator) {
+			List<Evaluator<DataType>> children = new ArrayList<Evaluator<DataType>>();
+			for(Evaluator<DataType> child : ((OrEvaluator<DataType>) source).getInner()) {
+				Evaluator<DataType> compiled = compile(child);
+				if(compiled instanceof OrEvaluator) {
+					children.addAll(((OrEvaluator<DataType>) compiled).getInner());
+				} else if(compiled instanceof AnythingEvaluator) {
+					return compiled;
+				} else {
+					children.add(compiled);
+				}
+			}
+			if(children.size()==1)
+				return children.get(0);
+			Collections.sort(children, BY_COST);
+			return new OrEvaluator<DataType>(children.toArray(new Evaluator[children.size()]));
+		} else if(source instanceof NotEvaluator) {
+			NotEvaluator<DataType> not = (NotEvaluator<DataType>) source;
+			if(not.inner==null)
+				return source;
+			Evaluator<DataType> compiled = compile(not.inner);
+			if(compiled instanceof NotEvaluator && ((NotEvaluator<DataType>) compiled).inner!=null)
+				return ((NotEvaluator<DataType>) compiled).inner;
+			NotEvaluator<DataType> returned = new NotEvaluator<DataType>();
+			returned.add(compiled);
+			return returned;
+		} else {
+			return source;
+		}
+	}
+}
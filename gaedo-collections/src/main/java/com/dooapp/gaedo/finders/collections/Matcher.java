@@ -1,6 +1,7 @@
 package com.dooapp.gaedo.finders.collections;
 
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import com.dooapp.gaedo.finders.expressions.AndQueryExpression;
 import com.dooapp.gaedo.finders.expressions.AnythingExpression;
@@ -25,12 +26,31 @@ import com.dooapp.gaedo.finders.informers.MapContainingValueExpression;
  */
 public class Matcher<DataType> implements QueryExpressionVisitor {
 	/**
-	 * A stack is maintained during visiting elements, but ony its 0 element is interesting
+	 * A stack is maintained during visiting elements, but ony its bottom element is interesting
 	 */
-	private Stack<Evaluator<DataType>> evaluators = new Stack<Evaluator<DataType>>();
+	private Deque<Evaluator<DataType>> evaluators = new ArrayDeque<Evaluator<DataType>>();
+
+	/**
+	 * Root of evaluators tree
+	 */
+	private final Evaluator<DataType> root = new AndEvaluator<DataType>();
+
+	/**
+	 * Compiled version of evaluators tree, used for matching once {@link #compile()} has been called
+	 */
+	private Evaluator<DataType> compiled;
 
 	public Matcher() {
-		evaluators.push(new AndEvaluator<DataType>());
+		evaluators.push(root);
+	}
+
+	/**
+	 * Compile the evaluators tree built during visit into a flatter one, faster to evaluate. This method must be called once visit is finished.
+	 * @return this matcher, for chaining
+	 */
+	public Matcher<DataType> compile() {
+		compiled = EvaluatorCompiler.compile(root);
+		return this;
 	}
 
 	public void endVisit(AndQueryExpression andQueryExpression) {
@@ -51,7 +71,7 @@ public class Matcher<DataType> implements QueryExpressionVisitor {
 	 * @param element
 	 */
 	public boolean matches(DataType element) {
-		return evaluators.get(0).matches(element);
+		return compiled==null ? root.matches(element) : compiled.matches(element);
 	}
 
 	public void startVisit(AndQueryExpression andQueryExpression) {
@@ -86,7 +106,7 @@ public class Matcher<DataType> implements QueryExpressionVisitor {
 
 	@Override
 	public String toString() {
-		return evaluators.get(0).toString();
+		return compiled==null ? root.toString() : compiled.toString();
 	}
 
 	public <ComparableType extends Comparable<ComparableType>> void visit(GreaterThanExpression<ComparableType> expression) {
@@ -1,25 +1,50 @@
 package com.dooapp.gaedo.finders.collections;
 
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * or combinative evaluator, combines the result of all contained evaluators with a or clause
+ * or combinative evaluator, combines the result of all contained evaluators with a or clause.
+ * Contained evaluators are stored in an array, which is browsed for each tested element without any allocation, and evaluation stops
+ * as soon as one of them succeeds.
  * @author ndx
  *
  */
 class OrEvaluator<DataType> implements Evaluator<DataType> {
-	private List<Evaluator<DataType>> inner = new LinkedList<Evaluator<DataType>>();
+	private Evaluator<DataType>[] inner;
+
+	@SuppressWarnings("unchecked")
+	public OrEvaluator() {
+		this(new Evaluator[0]);
+	}
+
+	OrEvaluator(Evaluator<DataType>[] inner) {
+		this.inner = inner;
+	}
 
 	public void add(Evaluator<DataType> e) {
-		inner.add(e);
+		inner = Arrays.copyOf(inner, inner.length+1);
+		inner[inner.length-1] = e;
+	}
+
+	/**
+	 * @return a read-only view of contained evaluators
+	 */
+	List<Evaluator<DataType>> getInner() {
+		return Collections.unmodifiableList(Arrays.asList(inner));
 	}
 
 	public boolean matches(DataType element) {
-		boolean result = false;
-		for(Evaluator<DataType> e : inner) {
-			result|=e.matches(element);
+		for (int index = 0; index < inner.length; index++) {
+			if(inner[index].matches(element))
+				return true;
 		}
-		return result;
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return "or"+getInner();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,145 @@
+package com.dooapp.gaedo.finders.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.dooapp.gaedo.CrudServiceException;
+import com.dooapp.gaedo.finders.collections.storage.Partitionable;
+
+/**
+ * Settings allowing collection query statements to evaluate their matcher on partitions of data, in parallel.
+ * Partitions are submitted to the given executor, excepted the first one, which is evaluated by calling thread.
+ * As a consequence, the executor must not be the one running the queries, otherwise all its threads may end waiting for
+ * partitions that can't be run.
+ * @author ndx
+ *
+ */
+public class ParallelExecution {
+	/**
+	 * Exception thrown when a partition evaluation fails for another reason than a runtime exception, or when calling thread
+	 * is interrupted while waiting for partitions
+	 * @author ndx
+	 *
+	 */
+	public static class ParallelExecutionException extends CrudServiceException {
+		public ParallelExecutionException(Throwable cause) {
+			super(cause);
+		}
+	}
+
+	/**
+	 * Default minimum number of candidates for parallel execution to be used
+	 */
+	public static final int DEFAULT_THRESHOLD = 10000;
+
+	private final ExecutorService executor;
+
+	private final int threshold;
+
+	private final int partitions;
+
+	/**
+	 * Build settings using {@link #DEFAULT_THRESHOLD} and as many partitions as there are available processors
+	 * @param executor executor used to run partitions
+	 */
+	public ParallelExecution(ExecutorService executor) {
+		this(executor, DEFAULT_THRESHOLD, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param executor executor used to run partitions
+	 * @param threshold minimum number of candidates for parallel execution to be used. Below, sequential execution is faster.
+	 * @param partitions number of partitions data is split into
+	 */
+	public ParallelExecution(ExecutorService executor, int threshold, int partitions) {
+		this.executor = executor;
+		this.threshold = threshold;
+		this.partitions = partitions;
+	}
+
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	public int getThreshold() {
+		return threshold;
+	}
+
+	public int getPartitions() {
+		return partitions;
+	}
+
+	/**
+	 * Split candidates in partitions, if they're numerous enough
+	 * @param candidates browsed elements
+	 * @return a list of partitions, or null if candidates should be browsed sequentially
+	 */
+	@SuppressWarnings("unchecked")
+	public <DataType> List<? extends Collection<DataType>> partition(Iterable<DataType> candidates) {
+		if(partitions<2 || !(candidates instanceof Collection))
+			return null;
+		Collection<DataType> collection = (Collection<DataType>) candidates;
+		int size = collection.size();
+		if(size<threshold)
+			return null;
+		if(collection instanceof Partitionable) {
+			return ((Partitionable<DataType>) collection).partition(partitions);
+		}
+		List<DataType> list = collection instanceof List ? (List<DataType>) collection : (List<DataType>) Arrays.asList(collection.toArray());
+		List<List<DataType>> returned = new ArrayList<List<DataType>>(partitions);
+		int step = (list.size()+partitions-1)/partitions;
+		for(int from = 0; from<list.size(); from += step) {
+			returned.add(list.subList(from, Math.min(from+step, list.size())));
+		}
+		return returned;
+	}
+
+	/**
+	 * Run all tasks, the first one in calling thread, the others in executor, and wait for their results
+	 * @param tasks
+	 * @return tasks results, in tasks order
+	 * @throws ParallelExecutionException if a task fails with a checked exception or if calling thread is interrupted. Runtime exceptions
+	 * and errors thrown by tasks are rethrown as is.
+	 */
+	public <Type> List<Type> run(List<? extends Callable<Type>> tasks) {
+		if(tasks.isEmpty())
+			return new ArrayList<Type>();
+		List<Future<Type>> futures = new ArrayList<Future<Type>>(tasks.size());
+		try {
+			for(Callable<Type> task : tasks.subList(1, tasks.size())) {
+				futures.add(executor.submit(task));
+			}
+			List<Type> returned = new ArrayList<Type>(tasks.size());
+			returned.add(tasks.get(0).call());
+			for(Future<Type> future : futures) {
+				returned.add(future.get());
+			}
+			return returned;
+		} catch(ExecutionException e) {
+			throw rethrow(e.getCause());
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ParallelExecutionException(e);
+		} catch(Exception e) {
+			throw rethrow(e);
+		} finally {
+			for(Future<Type> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private RuntimeException rethrow(Throwable cause) {
+		if(cause instanceof RuntimeException)
+			return (RuntimeException) cause;
+		if(cause instanceof Error)
+			throw (Error) cause;
+		return new ParallelExecutionException(cause);
+	}
+}
@@ -0,0 +1,187 @@
+package com.dooapp.gaedo.finders.collections.indexes;
+
+import java.util.Collection;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import com.dooapp.gaedo.properties.Property;
+
+/**
+ * Base class for indexes, which memorizes the key each position has been indexed with. This memorization is
+ * mandatory, as beans are updated in place : when {@link #remove(long)} is called, property value may already have changed.
+ * Postings modifications are done while holding a lock striped by key, which ensures no postings set is dropped while another
+ * thread adds a position to it. Readers never lock.
+ * @author ndx
+ *
+ * @param <DataType>
+ */
+public abstract class AbstractIndex<DataType> implements Index<DataType> {
+	/**
+	 * As concurrent maps don't support null keys, this object is used in their place
+	 */
+	protected static final Object NULL = new Object() {
+		@Override
+		public String toString() {
+			return "null";
+		}
+	};
+
+	/**
+	 * Number of locks used when modifying postings
+	 */
+	private static final int STRIPES = 16;
+
+	/**
+	 * Indexed property
+	 */
+	private final Property property;
+
+	/**
+	 * Key each position has been indexed with
+	 */
+	private final ConcurrentMap<Long, Object> indexedKeys = new ConcurrentHashMap<Long, Object>();
+
+	/**
+	 * Postings modification locks
+	 */
+	private final Object[] locks = new Object[STRIPES];
+
+	public AbstractIndex(Property property) {
+		super();
+		this.property = property;
+		for (int index = 0; index < locks.length; index++) {
+			locks[index] = new Object();
+		}
+	}
+
+	/**
+	 * Transform a maybe null key into a non null one
+	 * @param key
+	 * @return key, or {@link #NULL} if key is null
+	 */
+	protected static Object mask(Object key) {
+		return key==null ? NULL : key;
+	}
+
+	@Override
+	public Property getProperty() {
+		return property;
+	}
+
+	@Override
+	public void add(long position, DataType element) {
+		Object key = mask(property.get(element));
+		Object previous = indexedKeys.put(position, key);
+		if(previous!=null)
+			removeFromPostings(previous, position);
+		addToPostings(key, position);
+	}
+
+	@Override
+	public void remove(long position) {
+		Object previous = indexedKeys.remove(position);
+		if(previous!=null)
+			removeFromPostings(previous, position);
+	}
+
+	@Override
+	public void clear() {
+		indexedKeys.clear();
+		clearPostings();
+	}
+
+	private Object getLockFor(Object key) {
+		return locks[(key.hashCode() & 0x7fffffff) % locks.length];
+	}
+
+	private void addToPostings(Object key, long position) {
+		synchronized(getLockFor(key)) {
+			getPostingsFor(key, true).add(position);
+		}
+	}
+
+	private void removeFromPostings(Object key, long position) {
+		synchronized(getLockFor(key)) {
+			SortedSet<Long> postings = getPostingsFor(key, false);
+			if(postings!=null) {
+				postings.remove(position);
+				if(postings.isEmpty())
+					removePostingsFor(key);
+			}
+		}
+	}
+
+	/**
+	 * Default implementation can't answer range queries
+	 */
+	@Override
+	public SortedSet<Long> findGreaterThan(Comparable<?> value, boolean strictly) {
+		return null;
+	}
+
+	/**
+	 * Default implementation can't answer range queries
+	 */
+	@Override
+	public SortedSet<Long> findLowerThan(Comparable<?> value, boolean strictly) {
+		return null;
+	}
+
+	/**
+	 * Default implementation can't answer range queries
+	 */
+	@Override
+	public SortedSet<Long> findStartingWith(String start) {
+		return null;
+	}
+
+	/**
+	 * Get postings associated to given key. Called with postings lock held when create is true.
+	 * @param key indexed key (never null, as null keys are replaced by {@link #NULL})
+	 * @param create if true, postings are created when they don't exist
+	 * @return postings for key, or null if none exist and create is false
+	 */
+	protected abstract SortedSet<Long> getPostingsFor(Object key, boolean create);
+
+	/**
+	 * Remove postings for given key, once they're empty. Called with postings lock held.
+	 * @param key
+	 */
+	protected abstract void removePostingsFor(Object key);
+
+	/**
+	 * Remove all postings
+	 */
+	protected abstract void clearPostings();
+
+	/**
+	 * Create an empty concurrent postings set
+	 * @return
+	 */
+	protected SortedSet<Long> createPostings() {
+		return new ConcurrentSkipListSet<Long>();
+	}
+
+	/**
+	 * Merge a bunch of postings in one set
+	 * @param all postings to merge
+	 * @return a set containing all elements of all postings
+	 */
+	protected SortedSet<Long> merge(Collection<SortedSet<Long>> all) {
+		SortedSet<Long> returned = new TreeSet<Long>();
+		for(SortedSet<Long> postings : all) {
+			returned.addAll(postings);
+		}
+		return returned;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sOut = new StringBuilder();
+		sOut.append(getClass().getSimpleName()).append(" on ").append(property.toGenericString());
+		return sOut.toString();
+	}
+}
@@ -0,0 +1,54 @@
+package com.dooapp.gaedo.finders.collections.indexes;
+
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.dooapp.gaedo.properties.Property;
+
+/**
+ * Hash based index. This index only answers equality questions, but it answers them in constant time.
+ * @author ndx
+ *
+ * @param <DataType>
+ */
+public class HashIndex<DataType> extends AbstractIndex<DataType> {
+	/**
+	 * Postings, as usual, by value
+	 */
+	private final ConcurrentMap<Object, SortedSet<Long>> postings = new ConcurrentHashMap<Object, SortedSet<Long>>();
+
+	public HashIndex(Property property) {
+		super(property);
+	}
+
+	@Override
+	public SortedSet<Long> findEqualsTo(Object value) {
+		SortedSet<Long> returned = postings.get(mask(value));
+		if(returned==null)
+			return new TreeSet<Long>();
+		return Collections.unmodifiableSortedSet(returned);
+	}
+
+	@Override
+	protected SortedSet<Long> getPostingsFor(Object key, boolean create) {
+		SortedSet<Long> returned = postings.get(key);
+		if(returned==null && create) {
+			returned = createPostings();
+			postings.put(key, returned);
+		}
+		return returned;
+	}
+
+	@Override
+	protected void removePostingsFor(Object key) {
+		postings.remove(key);
+	}
+
+	@Override
+	protected void clearPostings() {
+		postings.clear();
+	}
+}
@@ -0,0 +1,73 @@
+package com.dooapp.gaedo.finders.collections.indexes;
+
+import java.util.SortedSet;
+
+import com.dooapp.gaedo.properties.Property;
+
+/**
+ * A secondary index maintained by a collection backed service on one of its contained class properties.
+ * Index postings are storage positions (see {@link com.dooapp.gaedo.finders.collections.storage.StripedStorage}) rather than elements, which
+ * both allows them to be kept in insertion order and frees them from any equals/hashCode implementation of indexed beans.
+ * Index lookup methods return those postings, or null when index is unable to answer that kind of question (as an example, a hash
+ * index can't answer range queries).
+ * Implementations must be thread-safe, provided calls to {@link #add(long, Object)} and {@link #remove(long)} for a given position are not concurrent.
+ * @author ndx
+ *
+ * @param <DataType> indexed type
+ */
+public interface Index<DataType> {
+	/**
+	 * Get property this index is built upon
+	 * @return
+	 */
+	Property getProperty();
+
+	/**
+	 * Adds an element to index, using its current property value as key. If element was already indexed, its previous key is discarded.
+	 * @param position element position in storage
+	 * @param element indexed element
+	 */
+	void add(long position, DataType element);
+
+	/**
+	 * Removes an element from index. Notice removal is done using the key that was used when element was added,
+	 * which allows index to remain consistent when property value changed in-between.
+	 * @param position element position in storage
+	 */
+	void remove(long position);
+
+	/**
+	 * Remove all elements from index
+	 */
+	void clear();
+
+	/**
+	 * Find elements which property value equals given one
+	 * @param value searched value (may be null)
+	 * @return positions of matching elements, or null if index can't answer that question
+	 */
+	SortedSet<Long> findEqualsTo(Object value);
+
+	/**
+	 * Find elements which property value is greater than given one
+	 * @param value compared value
+	 * @param strictly when true, value itself is excluded
+	 * @return positions of matching elements, or null if index can't answer that question
+	 */
+	SortedSet<Long> findGreaterThan(Comparable<?> value, boolean strictly);
+
+	/**
+	 * Find elements which property value is lower than given one
+	 * @param value compared value
+	 * @param strictly when true, value itself is excluded
+	 * @return positions of matching elements, or null if index can't answer that question
+	 */
+	SortedSet<Long> findLowerThan(Comparable<?> value, boolean strictly);
+
+	/**
+	 * Find elements which property value is a string starting with given one
+	 * @param start searched prefix
+	 * @return positions of matching elements, or null if index can't answer that question
+	 */
+	SortedSet<Long> findStartingWith(String start);
+}
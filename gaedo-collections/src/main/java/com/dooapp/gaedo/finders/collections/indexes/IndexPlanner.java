@@ -0,0 +1,266 @@
+package com.dooapp.gaedo.finders.collections.indexes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import com.dooapp.gaedo.finders.expressions.AbstractBasicExpression;
+import com.dooapp.gaedo.finders.expressions.AndQueryExpression;
+import com.dooapp.gaedo.finders.expressions.AnythingExpression;
+import com.dooapp.gaedo.finders.expressions.CollectionContaingExpression;
+import com.dooapp.gaedo.finders.expressions.ContainsStringExpression;
+import com.dooapp.gaedo.finders.expressions.EndsWithExpression;
+import com.dooapp.gaedo.finders.expressions.EqualsExpression;
+import com.dooapp.gaedo.finders.expressions.GreaterThanExpression;
+import com.dooapp.gaedo.finders.expressions.LowerThanExpression;
+import com.dooapp.gaedo.finders.expressions.MapContainingKeyExpression;
+import com.dooapp.gaedo.finders.expressions.NotQueryExpression;
+import com.dooapp.gaedo.finders.expressions.OrQueryExpression;
+import com.dooapp.gaedo.finders.expressions.QueryExpressionVisitor;
+import com.dooapp.gaedo.finders.expressions.StartsWithExpression;
+import com.dooapp.gaedo.finders.informers.MapContainingValueExpression;
+import com.dooapp.gaedo.properties.Property;
+
+/**
+ * Planner used to compute, from a query expression, the smallest set of positions that can match it, using only indexes postings.
+ * Just like {@link com.dooapp.gaedo.finders.collections.Matcher}, it maintains a stack of elements during visit, but here each element
+ * of the stack holds the postings found for its children. Postings of an and are intersected, postings of an or are united.
+ * Whenever a part of the expression can't be answered by an index, its postings are null, which means "any element may match".
+ * As a consequence, planner result is always a superset of matching elements positions, which must then be checked using the matcher.
+ * @author ndx
+ *
+ * @param <DataType>
+ */
+public class IndexPlanner<DataType> implements QueryExpressionVisitor {
+	/**
+	 * A level of the expression tree, which collects postings of its children
+	 * @author ndx
+	 *
+	 */
+	private static abstract class Level {
+		/**
+		 * Postings of children. A null value here means the child can't be answered by indexes.
+		 */
+		protected final List<SortedSet<Long>> children = new LinkedList<SortedSet<Long>>();
+
+		public void add(SortedSet<Long> postings) {
+			children.add(postings);
+		}
+
+		/**
+		 * Compute postings of this level
+		 * @return a set of candidates, or null if indexes can't restrict candidates.
+		 */
+		public abstract SortedSet<Long> getPostings();
+	}
+
+	/**
+	 * And level intersects all known postings, ignoring the unknown ones (which are checked later by matcher)
+	 */
+	private static class AndLevel extends Level {
+		@Override
+		public SortedSet<Long> getPostings() {
+			List<SortedSet<Long>> others = new ArrayList<SortedSet<Long>>();
+			SortedSet<Long> smallest = null;
+			// Beware : size of a concurrent set is not a constant time operation, so we compute it once per set
+			int smallestSize = Integer.MAX_VALUE;
+			for(SortedSet<Long> postings : children) {
+				if(postings!=null) {
+					int size = postings.size();
+					if(size<smallestSize) {
+						if(smallest!=null)
+							others.add(smallest);
+						smallest = postings;
+						smallestSize = size;
+					} else {
+						others.add(postings);
+					}
+				}
+			}
+			if(smallest==null)
+				return null;
+			// Intersection is made starting from the smallest set, as it is the most selective one
+			if(others.isEmpty())
+				return smallest;
+			SortedSet<Long> returned = new TreeSet<Long>();
+			for(Long position : smallest) {
+				boolean inAll = true;
+				for(Iterator<SortedSet<Long>> other = others.iterator(); inAll && other.hasNext();) {
+					inAll &= other.next().contains(position);
+				}
+				if(inAll)
+					returned.add(position);
+			}
+			return returned;
+		}
+	}
+
+	/**
+	 * Or level unites all postings, provided they're all known
+	 */
+	private static class OrLevel extends Level {
+		@Override
+		public SortedSet<Long> getPostings() {
+			SortedSet<Long> returned = new TreeSet<Long>();
+			for(SortedSet<Long> postings : children) {
+				if(postings==null)
+					return null;
+				returned.addAll(postings);
+			}
+			return returned;
+		}
+	}
+
+	/**
+	 * Not level can't be answered by indexes, as it would require a complement of postings
+	 */
+	private static class NotLevel extends Level {
+		@Override
+		public SortedSet<Long> getPostings() {
+			return null;
+		}
+	}
+
+	/**
+	 * Available indexes, by property
+	 */
+	private final Map<Property, Index<DataType>> indexes;
+
+	/**
+	 * Stack of levels, which head is the level being visited. Just like in matcher, only its last (bottom) element is interesting once visit is finished.
+	 */
+	private final Deque<Level> levels = new ArrayDeque<Level>();
+
+	public IndexPlanner(Map<Property, Index<DataType>> indexes) {
+		this.indexes = indexes;
+		levels.push(new AndLevel());
+	}
+
+	/**
+	 * Get candidates positions found during visit
+	 * @return a set of candidates positions, or null if no index can restrict candidates.
+	 */
+	public SortedSet<Long> getCandidates() {
+		return levels.getLast().getPostings();
+	}
+
+	/**
+	 * Locate index usable for the given expression. An index can only be used when expression directly checks an indexed property of
+	 * contained elements (and not a property of one of their fields).
+	 * @param expression
+	 * @return an index, or null if none can be used.
+	 */
+	private Index<DataType> getIndexFor(AbstractBasicExpression expression) {
+		Property field = expression.getField();
+		if(field==null)
+			return null;
+		Iterator<Property> path = expression.getFieldPath().iterator();
+		if(path.hasNext() && field.equals(path.next()) && !path.hasNext()) {
+			return indexes.get(field);
+		}
+		return null;
+	}
+
+	private void start(Level level) {
+		levels.push(level);
+	}
+
+	private void end() {
+		Level ended = levels.pop();
+		levels.peek().add(ended.getPostings());
+	}
+
+	private void add(SortedSet<Long> postings) {
+		levels.peek().add(postings);
+	}
+
+	@Override
+	public void startVisit(AndQueryExpression andQueryExpression) {
+		start(new AndLevel());
+	}
+
+	@Override
+	public void endVisit(AndQueryExpression andQueryExpression) {
+		end();
+	}
+
+	@Override
+	public void startVisit(OrQueryExpression orQueryExpression) {
+		start(new OrLevel());
+	}
+
+	@Override
+	public void endVisit(OrQueryExpression orQueryExpression) {
+		end();
+	}
+
+	@Override
+	public void startVisit(NotQueryExpression notQueryExpression) {
+		start(new NotLevel());
+	}
+
+	@Override
+	public void endVisit(NotQueryExpression notQueryExpression) {
+		end();
+	}
+
+	@Override
+	public void visit(EqualsExpression expression) {
+		Index<DataType> index = getIndexFor(expression);
+		add(index==null ? null : index.findEqualsTo(expression.getValue()));
+	}
+
+	@Override
+	public <ComparableType extends Comparable<ComparableType>> void visit(GreaterThanExpression<ComparableType> expression) {
+		Index<DataType> index = getIndexFor(expression);
+		add(index==null ? null : index.findGreaterThan(expression.getValue(), expression.isStrictly()));
+	}
+
+	@Override
+	public <ComparableType extends Comparable<ComparableType>> void visit(LowerThanExpression<ComparableType> expression) {
+		Index<DataType> index = getIndexFor(expression);
+		add(index==null ? null : index.findLowerThan(expression.getValue(), expression.isStrictly()));
+	}
+
+	@Override
+	public void visit(StartsWithExpression expression) {
+		Index<DataType> index = getIndexFor(expression);
+		add(index==null ? null : index.findStartingWith(expression.getStart()));
+	}
+
+	@Override
+	public void visit(ContainsStringExpression expression) {
+		add(null);
+	}
+
+	@Override
+	public void visit(EndsWithExpression expression) {
+		add(null);
+	}
+
+	@Override
+	public void visit(CollectionContaingExpression expression) {
+		add(null);
+	}
+
+	@Override
+	public void visit(MapContainingValueExpression expression) {
+		add(null);
+	}
+
+	@Override
+	public void visit(MapContainingKeyExpression expression) {
+		add(null);
+	}
+
+	@Override
+	public void visit(AnythingExpression expression) {
+		add(null);
+	}
+}
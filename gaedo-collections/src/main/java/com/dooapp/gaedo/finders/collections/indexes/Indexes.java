@@ -0,0 +1,122 @@
+package com.dooapp.gaedo.finders.collections.indexes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.finders.collections.storage.StripedStorage;
+import com.dooapp.gaedo.properties.Property;
+
+/**
+ * Set of indexes declared on a collection backed service. This object is responsible for keeping all indexes up to date, and for
+ * computing, through an {@link IndexPlanner}, the candidates of a query. As indexes postings are storage positions, candidates are
+ * naturally returned in insertion order.
+ * Indexes should be declared before service is used concurrently, as elements added during declaration may be missed by the new index.
+ * @author ndx
+ *
+ * @param <DataType>
+ */
+public class Indexes<DataType> {
+	/**
+	 * Declared indexes, by property
+	 */
+	private final ConcurrentMap<Property, Index<DataType>> indexes = new ConcurrentHashMap<Property, Index<DataType>>();
+
+	/**
+	 * Storage in which indexed elements are stored
+	 */
+	private final StripedStorage<DataType> storage;
+
+	public Indexes(StripedStorage<DataType> storage) {
+		this.storage = storage;
+	}
+
+	/**
+	 * Declare a new index. If an index already exists for that property, it is replaced.
+	 * Index is immediatly filled with elements existing in storage.
+	 * @param index declared index
+	 */
+	public void add(Index<DataType> index) {
+		for(Map.Entry<Long, DataType> entry : storage.entries().entrySet()) {
+			index.add(entry.getKey(), entry.getValue());
+		}
+		indexes.put(index.getProperty(), index);
+	}
+
+	/**
+	 * Check if any index has been declared
+	 * @return true if no index has been declared
+	 */
+	public boolean isEmpty() {
+		return indexes.isEmpty();
+	}
+
+	/**
+	 * Get declared indexes
+	 * @return an unmodifiable view of declared indexes
+	 */
+	public Collection<Index<DataType>> getIndexes() {
+		return Collections.unmodifiableCollection(indexes.values());
+	}
+
+	/**
+	 * Add an element to all indexes. Caller must hold storage lock for that position.
+	 * @param position element position in storage
+	 * @param element
+	 */
+	public void add(long position, DataType element) {
+		for(Index<DataType> index : indexes.values()) {
+			index.add(position, element);
+		}
+	}
+
+	/**
+	 * Updates an element in all indexes. Caller must hold storage lock for that position.
+	 * @param position element position in storage
+	 * @param element
+	 */
+	public void update(long position, DataType element) {
+		// Index add replaces previous key
+		add(position, element);
+	}
+
+	/**
+	 * Remove an element from all indexes. Caller must hold storage lock for that position.
+	 * @param position element position in storage
+	 */
+	public void remove(long position) {
+		for(Index<DataType> index : indexes.values()) {
+			index.remove(position);
+		}
+	}
+
+	/**
+	 * Compute the candidates of a query expression.
+	 * @param expression evaluated expression
+	 * @return a list of elements that may match, in insertion order, or null if indexes can't restrict the set of candidates
+	 * (in which case the whole collection has to be scanned).
+	 */
+	public List<DataType> getCandidates(QueryExpression expression) {
+		if(isEmpty())
+			return null;
+		IndexPlanner<DataType> planner = new IndexPlanner<DataType>(indexes);
+		expression.accept(planner);
+		SortedSet<Long> candidates = planner.getCandidates();
+		if(candidates==null)
+			return null;
+		List<DataType> returned = new ArrayList<DataType>(candidates.size());
+		for(Long position : candidates) {
+			DataType element = storage.get(position);
+			// element may have been deleted since postings were read
+			if(element!=null)
+				returned.add(element);
+		}
+		return returned;
+	}
+}
@@ -0,0 +1,114 @@
+package com.dooapp.gaedo.finders.collections.indexes;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.dooapp.gaedo.properties.Property;
+
+/**
+ * Navigable index. This index answers equality, range and prefix questions, provided indexed property values are {@link Comparable}.
+ * As a sorted map can't store null keys, elements having a null value are kept aside, and only returned for equality to null.
+ * Notice that, just like evaluators, this index doesn't return null values for range queries. When searched value can't be
+ * compared to indexed ones, index simply declares itself unable to answer, and lets the collection scan do its job.
+ * @author ndx
+ *
+ * @param <DataType>
+ */
+public class SortedIndex<DataType> extends AbstractIndex<DataType> {
+	/**
+	 * Postings, sorted by value
+	 */
+	private final ConcurrentNavigableMap<Object, SortedSet<Long>> postings = new ConcurrentSkipListMap<Object, SortedSet<Long>>();
+
+	/**
+	 * Positions of elements having a null value
+	 */
+	private final SortedSet<Long> nullPostings = createPostings();
+
+	public SortedIndex(Property property) {
+		super(property);
+	}
+
+	@Override
+	public SortedSet<Long> findEqualsTo(Object value) {
+		SortedSet<Long> returned = null;
+		if(value==null) {
+			returned = nullPostings;
+		} else if(value instanceof Comparable) {
+			try {
+				returned = postings.get(value);
+			} catch(ClassCastException e) {
+				return null;
+			}
+		} else {
+			// Non comparable values can't be searched in a tree
+			return null;
+		}
+		if(returned==null)
+			return new TreeSet<Long>();
+		return Collections.unmodifiableSortedSet(returned);
+	}
+
+	@Override
+	public SortedSet<Long> findGreaterThan(Comparable<?> value, boolean strictly) {
+		try {
+			return merge(postings.tailMap(value, !strictly).values());
+		} catch(ClassCastException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public SortedSet<Long> findLowerThan(Comparable<?> value, boolean strictly) {
+		try {
+			return merge(postings.headMap(value, !strictly).values());
+		} catch(ClassCastException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public SortedSet<Long> findStartingWith(String start) {
+		SortedSet<Long> returned = new TreeSet<Long>();
+		try {
+			for(Map.Entry<Object, SortedSet<Long>> entry : postings.tailMap(start, true).entrySet()) {
+				if(((String) entry.getKey()).startsWith(start)) {
+					returned.addAll(entry.getValue());
+				} else {
+					break;
+				}
+			}
+		} catch(ClassCastException e) {
+			return null;
+		}
+		return returned;
+	}
+
+	@Override
+	protected SortedSet<Long> getPostingsFor(Object key, boolean create) {
+		if(key==NULL)
+			return nullPostings;
+		SortedSet<Long> returned = postings.get(key);
+		if(returned==null && create) {
+			returned = createPostings();
+			postings.put(key, returned);
+		}
+		return returned;
+	}
+
+	@Override
+	protected void removePostingsFor(Object key) {
+		if(key!=NULL)
+			postings.remove(key);
+	}
+
+	@Override
+	protected void clearPostings() {
+		postings.clear();
+		nullPostings.clear();
+	}
+}
@@ -0,0 +1,20 @@
+package com.dooapp.gaedo.finders.collections.storage;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface implemented by collections that can be split into disjoint parts, for them to be browsed concurrently.
+ * Concatenating all parts, in order, gives the same sequence as iterating over the whole collection.
+ * @author ndx
+ *
+ * @param <DataType>
+ */
+public interface Partitionable<DataType> {
+	/**
+	 * Split collection in parts
+	 * @param parts expected number of parts. Returned list may be shorter (typically when collection is small) but never longer.
+	 * @return a list of disjoint views of this collection
+	 */
+	public List<Collection<DataType>> partition(int parts);
+}
@@ -0,0 +1,231 @@
+package com.dooapp.gaedo.finders.collections.storage;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent storage for collection backed services. Each stored element is given a position, which reflects insertion order.
+ * Elements are stored in a {@link ConcurrentSkipListMap} by position, which allows queries to iterate over a weakly consistent view
+ * of storage without any copy (and without ever throwing a {@link java.util.ConcurrentModificationException}). Lookup of an element position
+ * is done by identity, in a {@link ConcurrentHashMap}, which makes update and delete constant time operations.
+ * Compound operations (like adding an element and indexing it) must be done while holding the lock returned by {@link #getLock(long)}.
+ * Those locks are striped, so writers working on different stripes never block each other.
+ * @author ndx
+ *
+ * @param <DataType>
+ */
+public class StripedStorage<DataType> {
+	/**
+	 * Key used to store elements by identity in a concurrent map (as there is no ConcurrentIdentityHashMap)
+	 * @author ndx
+	 *
+	 */
+	private static class IdentityKey {
+		private final Object value;
+
+		public IdentityKey(Object value) {
+			this.value = value;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(value);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof IdentityKey && ((IdentityKey) obj).value==value;
+		}
+	}
+
+	/**
+	 * Read-only live view of stored elements, which can be split in position ranges for parallel browsing
+	 * @author ndx
+	 *
+	 */
+	private class Values extends AbstractCollection<DataType> implements Partitionable<DataType> {
+		@Override
+		public Iterator<DataType> iterator() {
+			return Collections.unmodifiableCollection(elements.values()).iterator();
+		}
+
+		@Override
+		public int size() {
+			return count.get();
+		}
+
+		@Override
+		public List<Collection<DataType>> partition(int parts) {
+			List<Collection<DataType>> returned = new ArrayList<Collection<DataType>>(parts);
+			long first, last;
+			try {
+				first = elements.firstKey();
+				last = elements.lastKey();
+			} catch(NoSuchElementException e) {
+				return returned;
+			}
+			long step = (last-first)/parts+1;
+			for(long from = first; from<=last; from += step) {
+				returned.add(Collections.unmodifiableCollection(elements.subMap(from, from+step).values()));
+			}
+			return returned;
+		}
+	}
+
+	/**
+	 * Default number of stripes, which is the same than {@link ConcurrentHashMap} default concurrency level
+	 */
+	public static final int DEFAULT_STRIPES = 16;
+
+	/**
+	 * Stored elements, by position
+	 */
+	private final ConcurrentNavigableMap<Long, DataType> elements = new ConcurrentSkipListMap<Long, DataType>();
+
+	/**
+	 * Position of each element, by identity
+	 */
+	private final ConcurrentMap<IdentityKey, Long> positions = new ConcurrentHashMap<IdentityKey, Long>();
+
+	/**
+	 * Next position to give
+	 */
+	private final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * Number of stored elements, maintained on add and remove, as {@link ConcurrentSkipListMap#size()} is not a constant time operation
+	 */
+	private final AtomicInteger count = new AtomicInteger();
+
+	/**
+	 * View returned by {@link #values()}
+	 */
+	private final Values values = new Values();
+
+	/**
+	 * Stripes locks
+	 */
+	private final Object[] locks;
+
+	public StripedStorage() {
+		this(DEFAULT_STRIPES);
+	}
+
+	public StripedStorage(int stripes) {
+		locks = new Object[stripes];
+		for (int index = 0; index < locks.length; index++) {
+			locks[index] = new Object();
+		}
+	}
+
+	/**
+	 * Reserve a position for an element that will later be added
+	 * @return a new position, never given before
+	 */
+	public long nextPosition() {
+		return sequence.getAndIncrement();
+	}
+
+	/**
+	 * Get lock of the stripe associated to that position
+	 * @param position
+	 * @return an object on which one can synchronize
+	 */
+	public Object getLock(long position) {
+		return locks[(int) (position % locks.length)];
+	}
+
+	/**
+	 * Adds an element at the given position. Caller must hold the lock for that position.
+	 * @param position a position obtained by {@link #nextPosition()}
+	 * @param element added element, which can't be null
+	 * @return null if element was added, or position this very element is already stored at (in which case nothing is done)
+	 * @throws IllegalArgumentException if element is null, as {@link ConcurrentSkipListMap} can't store null values
+	 */
+	public Long add(long position, DataType element) {
+		if(element==null)
+			throw new IllegalArgumentException("null elements can't be stored");
+		Long existing = positions.putIfAbsent(new IdentityKey(element), position);
+		if(existing!=null)
+			return existing;
+		elements.put(position, element);
+		count.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Removes element stored at the given position. Caller must hold the lock for that position.
+	 * Position of element is forgotten before element itself, the reverse order of {@link #add(long, Object)}, so that a concurrent add of the
+	 * same element never sees a position that is about to be emptied.
+	 * @param position
+	 * @return removed element, or null if there was none
+	 */
+	public DataType remove(long position) {
+		DataType removed = elements.get(position);
+		if(removed!=null) {
+			positions.remove(new IdentityKey(removed), position);
+			elements.remove(position);
+			count.decrementAndGet();
+		}
+		return removed;
+	}
+
+	/**
+	 * Get element at the given position
+	 * @param position
+	 * @return element, or null if none is stored at that position
+	 */
+	public DataType get(long position) {
+		return elements.get(position);
+	}
+
+	/**
+	 * Locate position of an element. The element is first searched by identity (which is the usual case, as beans are updated in place).
+	 * If not found, an element equal to the searched one is looked for, the way {@link Collection#contains(Object)} would do.
+	 * @param searched searched element
+	 * @return position of element, or null if no such element exist
+	 */
+	public Long positionOf(DataType searched) {
+		Long returned = positions.get(new IdentityKey(searched));
+		if(returned==null) {
+			for(Map.Entry<Long, DataType> entry : elements.entrySet()) {
+				if(searched==null ? entry.getValue()==null : searched.equals(entry.getValue()))
+					return entry.getKey();
+			}
+		}
+		return returned;
+	}
+
+	/**
+	 * @return a live, read-only, view of stored elements, in insertion order. That view is {@link Partitionable} in position ranges.
+	 */
+	public Collection<DataType> values() {
+		return values;
+	}
+
+	/**
+	 * @return a live, read-only, view of stored elements by position
+	 */
+	public Map<Long, DataType> entries() {
+		return Collections.unmodifiableMap(elements);
+	}
+
+	/**
+	 * @return number of stored elements, which may be slightly off while writers are working
+	 */
+	public int size() {
+		return count.get();
+	}
+}
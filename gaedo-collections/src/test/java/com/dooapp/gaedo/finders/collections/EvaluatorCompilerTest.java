@@ -0,0 +1,169 @@
+package com.dooapp.gaedo.finders.collections;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.Test;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Ensure compiled evaluators trees are flatter than source ones, evaluate cheapest tests first, and still give the same results
+ * @author ndx
+ *
+ */
+public class EvaluatorCompilerTest {
+	private static final List<String> VALUES = Arrays.asList("a", "ab", "b", "ba", "c", "");
+
+	/**
+	 * Evaluator counting its calls. As compiler doesn't know it, it is considered as costly as an aggregate.
+	 * @author ndx
+	 *
+	 */
+	private static class CountingEvaluator implements Evaluator<String> {
+		private final boolean result;
+		private int calls = 0;
+
+		public CountingEvaluator(boolean result) {
+			this.result = result;
+		}
+
+		public boolean matches(String element) {
+			calls++;
+			return result;
+		}
+
+		public void add(Evaluator<String> subEvaluator) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static Evaluator<String> and(Evaluator<String>... inner) {
+		AndEvaluator<String> returned = new AndEvaluator<String>();
+		for (Evaluator<String> evaluator : inner) {
+			returned.add(evaluator);
+		}
+		return returned;
+	}
+
+	private static Evaluator<String> or(Evaluator<String>... inner) {
+		OrEvaluator<String> returned = new OrEvaluator<String>();
+		for (Evaluator<String> evaluator : inner) {
+			returned.add(evaluator);
+		}
+		return returned;
+	}
+
+	private static Evaluator<String> not(Evaluator<String> inner) {
+		NotEvaluator<String> returned = new NotEvaluator<String>();
+		returned.add(inner);
+		return returned;
+	}
+
+	private static Evaluator<String> equalsTo(String value) {
+		return new EqualsEvaluator<String>(null, value);
+	}
+
+	private static Evaluator<String> startsWith(String value) {
+		return new StartsWithEvaluator<String>(null, value);
+	}
+
+	private static Evaluator<String> anything() {
+		return new AnythingEvaluator<String>(null);
+	}
+
+	/**
+	 * Check compiled evaluator gives the same results than source one
+	 */
+	private static Evaluator<String> compileSame(Evaluator<String> source) {
+		Evaluator<String> compiled = EvaluatorCompiler.compile(source);
+		for (String value : VALUES) {
+			assertThat(value, compiled.matches(value), Is.is(source.matches(value)));
+		}
+		return compiled;
+	}
+
+	@Test
+	public void testNestedAndsAreMerged() {
+		Evaluator<String> compiled = compileSame(and(startsWith("a"), and(not(equalsTo("a")), and(not(equalsTo("ab"))))));
+		assertThat(compiled, IsInstanceOf.instanceOf(AndEvaluator.class));
+		assertThat(((AndEvaluator<String>) compiled).getInner().size(), Is.is(3));
+	}
+
+	@Test
+	public void testNestedOrsAreMerged() {
+		Evaluator<String> compiled = compileSame(or(equalsTo("a"), or(equalsTo("b"), or(equalsTo("c")))));
+		assertThat(compiled, IsInstanceOf.instanceOf(OrEvaluator.class));
+		assertThat(((OrEvaluator<String>) compiled).getInner().size(), Is.is(3));
+	}
+
+	@Test
+	public void testOrInAndIsKept() {
+		Evaluator<String> compiled = compileSame(and(startsWith("a"), or(equalsTo("a"), equalsTo("b"))));
+		List<Evaluator<String>> inner = ((AndEvaluator<String>) compiled).getInner();
+		assertThat(inner.size(), Is.is(2));
+		assertThat(inner.get(1), IsInstanceOf.instanceOf(OrEvaluator.class));
+	}
+
+	@Test
+	public void testAnythingIsRemovedFromAnd() {
+		Evaluator<String> equals = equalsTo("a");
+		assertSame(equals, compileSame(and(anything(), equals, and(anything()))));
+		assertThat(compileSame(and(anything(), and())), IsInstanceOf.instanceOf(AnythingEvaluator.class));
+	}
+
+	@Test
+	public void testAnythingInOrMatchesEverything() {
+		assertThat(compileSame(or(equalsTo("a"), and(anything()))), IsInstanceOf.instanceOf(AnythingEvaluator.class));
+	}
+
+	@Test
+	public void testDoubleNegationIsRemoved() {
+		Evaluator<String> equals = equalsTo("a");
+		assertSame(equals, compileSame(not(not(equals))));
+		assertThat(compileSame(not(equals)), IsInstanceOf.instanceOf(NotEvaluator.class));
+	}
+
+	@Test
+	public void testSingleChildAggregateIsUnwrapped() {
+		Evaluator<String> equals = equalsTo("a");
+		assertSame(equals, compileSame(and(or(equals))));
+	}
+
+	@Test
+	public void testCheapestTestsComeFirst() {
+		Evaluator<String> starts = startsWith("a");
+		Evaluator<String> equals = equalsTo("ab");
+		Evaluator<String> anyOf = or(equalsTo("a"), equalsTo("b"));
+		Evaluator<String> other = equalsTo("a");
+		List<Evaluator<String>> inner = ((AndEvaluator<String>) EvaluatorCompiler.compile(and(anyOf, starts, equals, other))).getInner();
+		// same cost evaluators keep their declaration order
+		assertThat(inner.get(0), Is.is(equals));
+		assertThat(inner.get(1), Is.is(other));
+		assertThat(inner.get(2), Is.is(starts));
+		assertThat(inner.get(3), IsInstanceOf.instanceOf(OrEvaluator.class));
+	}
+
+	@Test
+	public void testAndShortCircuitsOnCheapFailure() {
+		CountingEvaluator costly = new CountingEvaluator(true);
+		Evaluator<String> compiled = EvaluatorCompiler.compile(and(costly, equalsTo("a")));
+		assertThat(compiled.matches("b"), Is.is(false));
+		assertThat(costly.calls, Is.is(0));
+		assertThat(compiled.matches("a"), Is.is(true));
+		assertThat(costly.calls, Is.is(1));
+	}
+
+	@Test
+	public void testOrShortCircuitsOnCheapSuccess() {
+		CountingEvaluator costly = new CountingEvaluator(false);
+		Evaluator<String> compiled = EvaluatorCompiler.compile(or(costly, equalsTo("a")));
+		assertThat(compiled.matches("a"), Is.is(true));
+		assertThat(costly.calls, Is.is(0));
+		assertThat(compiled.matches("b"), Is.is(false));
+		assertThat(costly.calls, Is.is(1));
+	}
+}
@@ -0,0 +1,221 @@
+package com.dooapp.gaedo.finders.collections;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dooapp.gaedo.finders.QueryBuilder;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.finders.QueryStatement;
+import com.dooapp.gaedo.finders.SortingBuilder;
+import com.dooapp.gaedo.finders.SortingExpression;
+import com.dooapp.gaedo.finders.collections.storage.StripedStorage;
+import com.dooapp.gaedo.finders.sort.SortingExpressionImpl;
+import com.dooapp.gaedo.tag.TestEnvironmentProvider;
+import com.dooapp.gaedo.test.beans.Tag;
+import com.dooapp.gaedo.test.beans.TagInformer;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Ensure candidates are split in ordered partitions covering them all, that partitions tasks are run the expected way, and that queries
+ * evaluated in parallel give the same results than sequential ones
+ * @author ndx
+ *
+ */
+public class ParallelExecutionTest {
+	private ExecutorService executor;
+
+	@Before
+	public void createExecutor() {
+		executor = Executors.newFixedThreadPool(3);
+	}
+
+	@After
+	public void shutdownExecutor() {
+		executor.shutdownNow();
+	}
+
+	private static List<Integer> range(int size) {
+		List<Integer> returned = new ArrayList<Integer>();
+		for (int index = 0; index < size; index++) {
+			returned.add(index);
+		}
+		return returned;
+	}
+
+	private static <Type> List<Type> concatenate(List<? extends Collection<Type>> partitions) {
+		List<Type> returned = new ArrayList<Type>();
+		for (Collection<Type> partition : partitions) {
+			returned.addAll(partition);
+		}
+		return returned;
+	}
+
+	@Test
+	public void testSequentialExecutionIsKeptBelowThreshold() {
+		ParallelExecution parallel = new ParallelExecution(executor, 10, 4);
+		assertNull(parallel.partition(range(9)));
+		assertNull(new ParallelExecution(executor, 0, 1).partition(range(100)));
+		Iterable<Integer> notACollection = new Iterable<Integer>() {
+			public Iterator<Integer> iterator() {
+				return range(100).iterator();
+			}
+		};
+		assertNull(parallel.partition(notACollection));
+	}
+
+	@Test
+	public void testListPartitionsAreOrderedAndCoverAll() {
+		List<? extends Collection<Integer>> partitions = new ParallelExecution(executor, 0, 3).partition(range(10));
+		assertThat(partitions.size(), Is.is(3));
+		assertThat(partitions.get(0).size(), Is.is(4));
+		assertThat(partitions.get(2).size(), Is.is(2));
+		assertThat(concatenate(partitions), Is.is(range(10)));
+	}
+
+	@Test
+	public void testNotListCollectionPartitionsKeepIterationOrder() {
+		List<Integer> reversed = range(10);
+		Collections.reverse(reversed);
+		List<? extends Collection<Integer>> partitions = new ParallelExecution(executor, 0, 4).partition(new LinkedHashSet<Integer>(reversed));
+		assertThat(concatenate(partitions), Is.is(reversed));
+	}
+
+	@Test
+	public void testMorePartitionsThanElements() {
+		List<? extends Collection<Integer>> partitions = new ParallelExecution(executor, 0, 8).partition(range(3));
+		assertThat(concatenate(partitions), Is.is(range(3)));
+		for (Collection<Integer> partition : partitions) {
+			assertTrue(!partition.isEmpty());
+		}
+	}
+
+	@Test
+	public void testPartitionableCollectionSplitsItself() {
+		StripedStorage<Integer> storage = new StripedStorage<Integer>();
+		for (Integer value : range(50)) {
+			storage.add(storage.nextPosition(), value);
+		}
+		List<? extends Collection<Integer>> partitions = new ParallelExecution(executor, 0, 4).partition(storage.values());
+		assertThat(concatenate(partitions), Is.is(range(50)));
+	}
+
+	@Test
+	public void testTasksResultsAreInTasksOrder() {
+		final Thread caller = Thread.currentThread();
+		List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>();
+		for (int index = 0; index < 5; index++) {
+			tasks.add(new Callable<Boolean>() {
+				public Boolean call() {
+					return Thread.currentThread() == caller;
+				}
+			});
+		}
+		// first task is run by calling thread, the other ones by executor
+		assertThat(new ParallelExecution(executor, 0, 5).run(tasks), Is.is(Arrays.asList(true, false, false, false, false)));
+		assertThat(new ParallelExecution(executor, 0, 5).run(new ArrayList<Callable<Boolean>>()).size(), Is.is(0));
+	}
+
+	@Test
+	public void testRuntimeExceptionIsRethrown() {
+		List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+		tasks.add(new Callable<Integer>() {
+			public Integer call() {
+				return 1;
+			}
+		});
+		tasks.add(new Callable<Integer>() {
+			public Integer call() {
+				throw new IllegalStateException("failed");
+			}
+		});
+		try {
+			new ParallelExecution(executor, 0, 2).run(tasks);
+			fail("second task fails");
+		} catch (IllegalStateException e) {
+			assertThat(e.getMessage(), Is.is("failed"));
+		}
+	}
+
+	@Test
+	public void testCheckedExceptionIsWrapped() {
+		List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+		tasks.add(new Callable<Integer>() {
+			public Integer call() throws IOException {
+				throw new IOException("failed");
+			}
+		});
+		try {
+			new ParallelExecution(executor, 0, 1).run(tasks);
+			fail("task fails");
+		} catch (ParallelExecution.ParallelExecutionException e) {
+			assertThat(e.getCause(), IsInstanceOf.instanceOf(IOException.class));
+		}
+	}
+
+	private static QueryStatement<Tag, Tag, TagInformer> findStartingWithOne(CollectionBackedFinderService<Tag, TagInformer> service, boolean sorted) {
+		QueryStatement<Tag, Tag, TagInformer> returned = service.find().matching(new QueryBuilder<TagInformer>() {
+
+			public QueryExpression createMatchingExpression(TagInformer informer) {
+				return informer.getText().startsWith("1");
+			}
+		});
+		if (sorted) {
+			returned.sortBy(new SortingBuilder<TagInformer>() {
+
+				public SortingExpression createSortingExpression(TagInformer informer) {
+					return new SortingExpressionImpl().add(informer.getText(), SortingExpression.Direction.Descending);
+				}
+			});
+		}
+		return returned;
+	}
+
+	private static <Type> List<Type> toList(Iterable<Type> values) {
+		List<Type> returned = new ArrayList<Type>();
+		for (Type value : values) {
+			returned.add(value);
+		}
+		return returned;
+	}
+
+	@Test
+	public void testParallelQueriesGiveSequentialResults() {
+		CollectionBackedFinderService<Tag, TagInformer> service = (CollectionBackedFinderService<Tag, TagInformer>) TestEnvironmentProvider.create().<Tag, TagInformer> get(Tag.class);
+		// an empty service must work, too
+		service.setParallelExecution(new ParallelExecution(executor, 0, 4));
+		assertThat(findStartingWithOne(service, false).count(), Is.is(0));
+		assertThat(toList(findStartingWithOne(service, true).getAll()).size(), Is.is(0));
+		for (int index = 0; index < 500; index++) {
+			service.create(new Tag(index + 1, Integer.toString(index % 37)));
+		}
+		for (boolean sorted : new boolean[] { false, true }) {
+			service.setParallelExecution(null);
+			int count = findStartingWithOne(service, sorted).count();
+			List<Tag> all = toList(findStartingWithOne(service, sorted).getAll());
+			List<Tag> page = toList(findStartingWithOne(service, sorted).get(10, 30));
+			service.setParallelExecution(new ParallelExecution(executor, 0, 4));
+			assertThat(findStartingWithOne(service, sorted).count(), Is.is(count));
+			assertThat(toList(findStartingWithOne(service, sorted).getAll()), Is.is(all));
+			assertThat(toList(findStartingWithOne(service, sorted).get(10, 30)), Is.is(page));
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.dooapp.gaedo.tag;
+
+import org.hamcrest.core.Is;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dooapp.gaedo.finders.QueryBuilder;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.finders.cache.QueryCache;
+import com.dooapp.gaedo.finders.collections.CollectionBackedFinderService;
+import com.dooapp.gaedo.finders.repository.ServiceRepository;
+import com.dooapp.gaedo.finders.root.BasicFieldInformerLocator;
+import com.dooapp.gaedo.finders.root.ProxyBackedInformerFactory;
+import com.dooapp.gaedo.finders.root.ReflectionBackedInformerFactory;
+import com.dooapp.gaedo.properties.FieldBackedPropertyProvider;
+import com.dooapp.gaedo.test.beans.Tag;
+import com.dooapp.gaedo.test.beans.TagInformer;
+import com.dooapp.gaedo.test.beans.User;
+import com.dooapp.gaedo.test.beans.UserInformer;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Ensure query results are served from cache, and that cache is invalidated by writes
+ * @author ndx
+ *
+ */
+public class CachedCollectionBackedTagFinderServiceTest {
+	private static final String A = "A";
+	private static final String B = "B";
+	private CollectionBackedFinderService<Tag, TagInformer> tagService;
+	private QueryCache cache;
+	private ServiceRepository repository;
+	private Tag a;
+
+	@Before
+	public void loadService() {
+		repository = TestEnvironmentProvider.create();
+		tagService = (CollectionBackedFinderService<Tag, TagInformer>) repository.<Tag, TagInformer> get(Tag.class);
+		cache = new QueryCache();
+		cache.install(repository);
+		a = tagService.create(new Tag(A));
+		tagService.create(new Tag(B));
+	}
+
+	private int count(final String text) {
+		return tagService.find().matching(new QueryBuilder<TagInformer>() {
+
+			public QueryExpression createMatchingExpression(TagInformer object) {
+				return object.getText().equalsTo(text);
+			}
+		}).count();
+	}
+
+	@Test
+	public void testSameQueryHitsCache() {
+		assertThat(count(A), Is.is(1));
+		assertThat(count(A), Is.is(1));
+		assertThat(count(B), Is.is(1));
+		assertThat(cache.getHits(), Is.is(1l));
+		assertThat(cache.getMisses(), Is.is(2l));
+	}
+
+	@Test
+	public void testUpdateInvalidatesCache() {
+		assertThat(count(A), Is.is(1));
+		a.setText(B);
+		tagService.update(a);
+		assertThat(count(A), Is.is(0));
+		assertThat(count(B), Is.is(2));
+		assertThat(cache.getHits(), Is.is(0l));
+	}
+
+	@Test
+	public void testServicesAddedLaterUseCache() {
+		CollectionBackedFinderService<User, UserInformer> userService = new CollectionBackedFinderService<User, UserInformer>(User.class,
+						UserInformer.class, new ProxyBackedInformerFactory(new ReflectionBackedInformerFactory(
+						new BasicFieldInformerLocator(), new FieldBackedPropertyProvider())));
+		repository.add(userService);
+		assertSame(cache, userService.getQueryCache());
+	}
+}
@@ -0,0 +1,119 @@
+package com.dooapp.gaedo.tag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hamcrest.core.Is;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dooapp.gaedo.finders.FinderCrudService;
+import com.dooapp.gaedo.finders.QueryBuilder;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.finders.QueryStatement;
+import com.dooapp.gaedo.finders.SortingBuilder;
+import com.dooapp.gaedo.finders.SortingExpression;
+import com.dooapp.gaedo.finders.expressions.Expressions;
+import com.dooapp.gaedo.finders.repository.ServiceRepository;
+import com.dooapp.gaedo.finders.sort.SortingExpressionImpl;
+import com.dooapp.gaedo.test.beans.Tag;
+import com.dooapp.gaedo.test.beans.TagInformer;
+
+import static org.junit.Assert.assertThat;
+
+/**
+ * Ensure pages of sorted results, which are collected using a bounded heap, are the same than the matching slices of the fully sorted
+ * results, and that elements considered equal by sorting keep their insertion order
+ * @author ndx
+ *
+ */
+public class CollectionQueryStatementTest {
+	private static final int TAGS = 50;
+	private static final int TEXTS = 7;
+	private FinderCrudService<Tag, TagInformer> tagService;
+	/**
+	 * Created tags, in insertion order
+	 */
+	private List<Tag> tags = new ArrayList<Tag>();
+
+	@Before
+	public void loadService() {
+		ServiceRepository repository = TestEnvironmentProvider.create();
+		tagService = repository.get(Tag.class);
+		for (int index = 0; index < TAGS; index++) {
+			// texts are not unique, so there are many ties
+			tags.add(tagService.create(new Tag(index + 1, "T" + ((index * 3) % TEXTS))));
+		}
+	}
+
+	private QueryStatement<Tag, Tag, TagInformer> findSorted(final SortingExpression.Direction direction) {
+		return tagService.find().matching(new QueryBuilder<TagInformer>() {
+
+			public QueryExpression createMatchingExpression(TagInformer object) {
+				return Expressions.not(object.getText().equalsTo("T3"));
+			}
+		}).sortBy(new SortingBuilder<TagInformer>() {
+
+			public SortingExpression createSortingExpression(TagInformer informer) {
+				return new SortingExpressionImpl().add(informer.getText(), direction);
+			}
+		});
+	}
+
+	/**
+	 * Build expected sorted list : for each text, in sort order, tags having that text, in insertion order
+	 */
+	private List<Tag> expected(SortingExpression.Direction direction) {
+		List<Tag> returned = new ArrayList<Tag>();
+		for (int text = 0; text < TEXTS; text++) {
+			String searched = "T" + (direction == SortingExpression.Direction.Ascending ? text : TEXTS - 1 - text);
+			if (!"T3".equals(searched)) {
+				for (Tag tag : tags) {
+					if (searched.equals(tag.getText()))
+						returned.add(tag);
+				}
+			}
+		}
+		return returned;
+	}
+
+	private List<Tag> toList(Iterable<Tag> values) {
+		List<Tag> returned = new ArrayList<Tag>();
+		for (Tag tag : values) {
+			returned.add(tag);
+		}
+		return returned;
+	}
+
+	@Test
+	public void testGetAllIsStable() {
+		for (SortingExpression.Direction direction : SortingExpression.Direction.values()) {
+			assertThat(toList(findSorted(direction).getAll()), Is.is(expected(direction)));
+		}
+	}
+
+	@Test
+	public void testPagesAreSlicesOfFullResults() {
+		for (SortingExpression.Direction direction : SortingExpression.Direction.values()) {
+			List<Tag> expected = expected(direction);
+			for (int start = 0; start <= expected.size(); start += 5) {
+				for (int size = 1; size <= 13; size += 4) {
+					int end = start + size;
+					List<Tag> page = toList(findSorted(direction).get(start, end));
+					assertThat(page, Is.is(expected.subList(start, Math.min(end, expected.size()))));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFirstIsFirstInsertedOfLowestText() {
+		assertThat(findSorted(SortingExpression.Direction.Ascending).getFirst(), Is.is(tags.get(0)));
+		assertThat(findSorted(SortingExpression.Direction.Descending).getFirst(), Is.is(expected(SortingExpression.Direction.Descending).get(0)));
+	}
+
+	@Test
+	public void testPageBeyondResultsIsEmpty() {
+		assertThat(toList(findSorted(SortingExpression.Direction.Ascending).get(TAGS, TAGS + 10)).isEmpty(), Is.is(true));
+	}
+}
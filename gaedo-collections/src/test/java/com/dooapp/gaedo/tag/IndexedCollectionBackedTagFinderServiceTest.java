@@ -0,0 +1,100 @@
+package com.dooapp.gaedo.tag;
+
+import java.util.List;
+
+import org.hamcrest.core.Is;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dooapp.gaedo.finders.QueryBuilder;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.finders.collections.CollectionBackedFinderService;
+import com.dooapp.gaedo.finders.expressions.Expressions;
+import com.dooapp.gaedo.finders.repository.ServiceRepository;
+import com.dooapp.gaedo.test.beans.Tag;
+import com.dooapp.gaedo.test.beans.TagInformer;
+
+import static org.junit.Assert.assertThat;
+
+/**
+ * Ensure queries answered using indexes return the same results than the ones answered by a full scan
+ * @author ndx
+ *
+ */
+public class IndexedCollectionBackedTagFinderServiceTest {
+	private static final String A = "A";
+	private static final String AB = "AB";
+	private static final String B = "B";
+	private static final String C = "C";
+	private CollectionBackedFinderService<Tag, TagInformer> tagService;
+	private Tag a;
+	private Tag ab;
+	private Tag b;
+
+	@Before
+	public void loadService() {
+		ServiceRepository repository = TestEnvironmentProvider.create();
+		tagService = (CollectionBackedFinderService<Tag, TagInformer>) repository.<Tag, TagInformer> get(Tag.class);
+		a = tagService.create(new Tag(A));
+		tagService.addSortedIndex(tagService.getInformer().getText());
+		ab = tagService.create(new Tag(AB));
+		b = tagService.create(new Tag(B));
+	}
+
+	private List<Tag> findAll(QueryBuilder<TagInformer> query) {
+		return (List<Tag>) tagService.find().matching(query).getAll();
+	}
+
+	@Test
+	public void testFindByEquality() {
+		List<Tag> values = findAll(new QueryBuilder<TagInformer>() {
+
+			public QueryExpression createMatchingExpression(TagInformer object) {
+				return object.getText().equalsTo(A);
+			}
+		});
+		assertThat(values.size(), Is.is(1));
+		assertThat(values.get(0), Is.is(a));
+	}
+
+	@Test
+	public void testFindByStartKeepsInsertionOrder() {
+		List<Tag> values = findAll(new QueryBuilder<TagInformer>() {
+
+			public QueryExpression createMatchingExpression(TagInformer object) {
+				return Expressions.or(object.getText().startsWith(A), object.getText().equalsTo(B));
+			}
+		});
+		assertThat(values.size(), Is.is(3));
+		assertThat(values.get(0), Is.is(a));
+		assertThat(values.get(1), Is.is(ab));
+		assertThat(values.get(2), Is.is(b));
+	}
+
+	@Test
+	public void testFindByNotIndexableExpression() {
+		List<Tag> values = findAll(new QueryBuilder<TagInformer>() {
+
+			public QueryExpression createMatchingExpression(TagInformer object) {
+				return Expressions.and(object.getText().startsWith(A), Expressions.not(object.getText().equalsTo(A)));
+			}
+		});
+		assertThat(values.size(), Is.is(1));
+		assertThat(values.get(0), Is.is(ab));
+	}
+
+	@Test
+	public void testIndexFollowsUpdateAndDelete() {
+		a.setText(C);
+		tagService.update(a);
+		tagService.delete(b);
+		List<Tag> values = findAll(new QueryBuilder<TagInformer>() {
+
+			public QueryExpression createMatchingExpression(TagInformer object) {
+				return Expressions.or(object.getText().equalsTo(B), object.getText().equalsTo(C));
+			}
+		});
+		assertThat(values.size(), Is.is(1));
+		assertThat(values.get(0), Is.is(a));
+	}
+}
@@ -1,5 +1,7 @@
 package com.dooapp.gaedo.tag;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
 import java.util.Collection;
 import java.util.List;
 
@@ -195,4 +197,36 @@ public class ServiceGeneratorTest {
 		TagsWithId service = (TagsWithId) generator.generate(
 						TagsWithId.class, backEnd);
 	}
+
+	/**
+	 * Proxies of the same interface over the same back end share their handler
+	 */
+	@Test
+	public void testHandlerIsSharedForSameBackEnd() {
+		CorrectService first = (CorrectService) generator.generate(CorrectService.class, backEnd);
+		CorrectService second = (CorrectService) generator.generate(CorrectService.class, backEnd);
+		Assert.assertSame(Proxy.getInvocationHandler(first), Proxy.getInvocationHandler(second));
+		FinderCrudService other = (FinderCrudService) TestEnvironmentProvider.create().get(Tag.class);
+		CorrectService third = (CorrectService) generator.generate(CorrectService.class, other);
+		Assert.assertNotSame(Proxy.getInvocationHandler(first), Proxy.getInvocationHandler(third));
+		Assert.assertThat(third.findAllByTextStartsWith("a").size(), Is.is(0));
+	}
+
+	/**
+	 * Generator handlers cache must not keep back ends alive once their proxies are no more used
+	 */
+	@Test
+	public void testBackEndIsNotRetainedByGenerator() throws InterruptedException {
+		FinderCrudService other = (FinderCrudService) TestEnvironmentProvider.create().get(Tag.class);
+		CorrectService service = (CorrectService) generator.generate(CorrectService.class, other);
+		Assert.assertThat(service.findAllByTextStartsWith("a").size(), Is.is(0));
+		WeakReference<FinderCrudService> reference = new WeakReference<FinderCrudService>(other);
+		other = null;
+		service = null;
+		for (int attempt = 0; attempt < 20 && reference.get() != null; attempt++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		Assert.assertNull(reference.get());
+	}
 }
@@ -0,0 +1,208 @@
+package com.dooapp.gaedo.tag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.hamcrest.core.Is;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dooapp.gaedo.finders.QueryBuilder;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.finders.collections.CollectionBackedFinderService;
+import com.dooapp.gaedo.finders.collections.storage.Partitionable;
+import com.dooapp.gaedo.finders.collections.storage.StripedStorage;
+import com.dooapp.gaedo.finders.repository.ServiceRepository;
+import com.dooapp.gaedo.test.beans.Tag;
+import com.dooapp.gaedo.test.beans.TagInformer;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Ensure storage positions are never reused, and that concurrent writers keep storage and indexes consistent
+ * @author ndx
+ *
+ */
+public class StripedStorageTest {
+	private static final int WRITERS = 8;
+	private static final int TAGS_PER_WRITER = 500;
+
+	private StripedStorage<String> storage;
+
+	@Before
+	public void createStorage() {
+		storage = new StripedStorage<String>(4);
+	}
+
+	private long add(String element) {
+		long position = storage.nextPosition();
+		synchronized(storage.getLock(position)) {
+			assertNull(storage.add(position, element));
+		}
+		return position;
+	}
+
+	private List<String> values() {
+		return new ArrayList<String>(storage.values());
+	}
+
+	@Test
+	public void testPositionsAreNeverReused() {
+		String a = "a";
+		long first = add(a);
+		long second = add("b");
+		assertThat(storage.remove(first), Is.is(a));
+		assertNull(storage.get(first));
+		long third = add(a);
+		assertTrue(third > second);
+		assertThat(storage.positionOf(a), Is.is(third));
+		// re-added element comes after the ones that were never removed
+		assertThat(values().toString(), Is.is("[b, a]"));
+		assertThat(storage.size(), Is.is(2));
+	}
+
+	@Test
+	public void testNullIsRejectedWithoutAnyPosition() {
+		try {
+			add(null);
+			fail("null can't be stored");
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+		assertNull(storage.positionOf(null));
+		assertThat(storage.size(), Is.is(0));
+		// storage is still usable
+		add("a");
+		assertThat(values().toString(), Is.is("[a]"));
+	}
+
+	@Test
+	public void testAddingSameElementTwiceKeepsFirstPosition() {
+		String a = "a";
+		long first = add(a);
+		long second = storage.nextPosition();
+		assertThat(storage.add(second, a), Is.is(first));
+		assertNull(storage.get(second));
+		assertThat(storage.size(), Is.is(1));
+	}
+
+	@Test
+	public void testPositionOfFallsBackToEquality() {
+		long position = add(new String("a"));
+		assertThat(storage.positionOf(new String("a")), Is.is(position));
+		assertNull(storage.positionOf("b"));
+	}
+
+	@Test
+	public void testRemovingMissingPositionDoesNothing() {
+		add("a");
+		assertNull(storage.remove(storage.nextPosition()));
+		assertThat(storage.size(), Is.is(1));
+	}
+
+	@Test
+	public void testPartitionsCoverAllElementsOnce() {
+		List<Long> positions = new ArrayList<Long>();
+		for (int index = 0; index < 100; index++) {
+			positions.add(add(Integer.toString(index)));
+		}
+		for (int index = 0; index < 100; index += 3) {
+			storage.remove(positions.get(index));
+		}
+		List<String> partitioned = new ArrayList<String>();
+		for (Collection<String> partition : ((Partitionable<String>) storage.values()).partition(7)) {
+			partitioned.addAll(partition);
+		}
+		assertThat(partitioned, Is.is(values()));
+		assertThat(partitioned.size(), Is.is(storage.size()));
+	}
+
+	@Test
+	public void testEmptyStorageHasNoPartition() {
+		assertThat(((Partitionable<String>) storage.values()).partition(4).size(), Is.is(0));
+	}
+
+	/**
+	 * Writers create tags and delete half of them while a reader keeps browsing storage. At the end, storage and index must
+	 * contain exactly the remaining tags.
+	 */
+	@Test
+	public void testConcurrentWritesKeepServiceConsistent() throws Exception {
+		ServiceRepository repository = TestEnvironmentProvider.create();
+		final CollectionBackedFinderService<Tag, TagInformer> tagService = (CollectionBackedFinderService<Tag, TagInformer>) repository.<Tag, TagInformer> get(Tag.class);
+		tagService.addHashIndex(tagService.getInformer().getText());
+		ExecutorService executor = Executors.newFixedThreadPool(WRITERS + 1);
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		try {
+			List<Future<Integer>> writers = new ArrayList<Future<Integer>>();
+			for (int writer = 0; writer < WRITERS; writer++) {
+				final int prefix = writer;
+				writers.add(executor.submit(new Callable<Integer>() {
+					public Integer call() throws Exception {
+						start.await();
+						for (int index = 0; index < TAGS_PER_WRITER; index++) {
+							Tag created = tagService.create(new Tag(prefix + "-" + index));
+							if (index % 2 == 1)
+								tagService.delete(created);
+						}
+						return TAGS_PER_WRITER / 2;
+					}
+				}));
+			}
+			Future<Integer> reader = executor.submit(new Callable<Integer>() {
+				public Integer call() throws Exception {
+					start.await();
+					int browsed = 0;
+					while (writing.get()) {
+						for (Tag tag : tagService.findAll()) {
+							browsed++;
+						}
+					}
+					return browsed;
+				}
+			});
+			start.countDown();
+			int expected = 0;
+			for (Future<Integer> writer : writers) {
+				expected += writer.get(1, TimeUnit.MINUTES);
+			}
+			writing.set(false);
+			reader.get(1, TimeUnit.MINUTES);
+			IdentityHashMap<Tag, Tag> distinct = new IdentityHashMap<Tag, Tag>();
+			for (Tag tag : tagService.findAll()) {
+				distinct.put(tag, tag);
+			}
+			assertThat(distinct.size(), Is.is(expected));
+			for (int writer = 0; writer < WRITERS; writer++) {
+				for (int index = 0; index < TAGS_PER_WRITER; index++) {
+					assertThat(countByText(tagService, writer + "-" + index), Is.is(index % 2 == 1 ? 0 : 1));
+				}
+			}
+		} finally {
+			writing.set(false);
+			executor.shutdownNow();
+		}
+	}
+
+	private int countByText(CollectionBackedFinderService<Tag, TagInformer> tagService, final String text) {
+		return tagService.find().matching(new QueryBuilder<TagInformer>() {
+
+			public QueryExpression createMatchingExpression(TagInformer object) {
+				return object.getText().equalsTo(text);
+			}
+		}).count();
+	}
+}
@@ -0,0 +1,194 @@
+package com.dooapp.gaedo.finders.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size bounded (in a LRU fashion) map, safe for concurrent use. To avoid having all threads contend for one lock, entries are spread
+ * over segments, selected by key hash, each one being an access ordered map guarded by its own lock and holding its share of the maximum size.
+ * As a consequence, the evicted entry is the least recently used one of its segment, which is not always the least recently used one of the whole cache.
+ * Small caches (less than {@link #MINIMUM_SEGMENT_SIZE} entries per segment) use only one segment, and as such are strictly LRU.
+ * @author ndx
+ *
+ * @param <Key>
+ * @param <Value>
+ */
+public class BoundedCache<Key, Value> {
+	public static final int DEFAULT_SEGMENTS = 16;
+
+	/**
+	 * Minimum number of entries a segment can hold. Below that, segments are merged.
+	 */
+	public static final int MINIMUM_SEGMENT_SIZE = 64;
+
+	/**
+	 * An access ordered map holding part of cache entries
+	 * @author ndx
+	 *
+	 */
+	private static class Segment<Key, Value> extends LinkedHashMap<Key, Value> {
+		private static final long serialVersionUID = 1L;
+
+		private final int maximumSize;
+
+		private final AtomicLong evictions;
+
+		public Segment(int maximumSize, AtomicLong evictions) {
+			super(16, 0.75f, true);
+			this.maximumSize = maximumSize;
+			this.evictions = evictions;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Value> eldest) {
+			if(size()>maximumSize) {
+				evictions.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	}
+
+	private final Segment<Key, Value>[] segments;
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * Build a cache using at most {@link #DEFAULT_SEGMENTS} segments
+	 * @param maximumSize maximum number of entries. When reached, least recently used entry of segment is evicted.
+	 */
+	public BoundedCache(int maximumSize) {
+		this(maximumSize, DEFAULT_SEGMENTS);
+	}
+
+	/**
+	 * @param maximumSize maximum number of entries. When reached, least recently used entry of segment is evicted.
+	 * @param concurrency maximum number of segments
+	 */
+	@SuppressWarnings("unchecked")
+	public BoundedCache(int maximumSize, int concurrency) {
+		int count = Math.max(1, Math.min(concurrency, maximumSize/MINIMUM_SEGMENT_SIZE));
+		this.segments = new Segment[count];
+		for (int index = 0; index < count; index++) {
+			// remainder of the division is given to first segments, to have a total size of exactly maximumSize
+			segments[index] = new Segment<Key, Value>(maximumSize/count+(index<maximumSize%count ? 1 : 0), evictions);
+		}
+	}
+
+	/**
+	 * Select segment holding the given key
+	 * @param key
+	 * @return segment in which key is (or would be) stored
+	 */
+	private Segment<Key, Value> segmentFor(Object key) {
+		if(segments.length==1)
+			return segments[0];
+		int hash = key==null ? 0 : key.hashCode();
+		// spread bits, as String hash codes of similar ids often only differ by their low bits
+		hash ^= (hash >>> 20) ^ (hash >>> 12);
+		hash ^= (hash >>> 7) ^ (hash >>> 4);
+		return segments[(hash & 0x7fffffff) % segments.length];
+	}
+
+	/**
+	 * @param key
+	 * @return value associated to key, or null if there is none
+	 */
+	public Value get(Object key) {
+		Segment<Key, Value> segment = segmentFor(key);
+		synchronized(segment) {
+			return segment.get(key);
+		}
+	}
+
+	/**
+	 * Associate value to key
+	 * @param key
+	 * @param value
+	 * @return value previously associated to key
+	 */
+	public Value put(Key key, Value value) {
+		Segment<Key, Value> segment = segmentFor(key);
+		synchronized(segment) {
+			return segment.put(key, value);
+		}
+	}
+
+	/**
+	 * Associate value to key, unless a value is already associated to it
+	 * @param key
+	 * @param value
+	 * @return value associated to key after that call (either the already present one, or the given one)
+	 */
+	public Value putIfAbsent(Key key, Value value) {
+		Segment<Key, Value> segment = segmentFor(key);
+		synchronized(segment) {
+			Value present = segment.get(key);
+			if(present!=null)
+				return present;
+			segment.put(key, value);
+			return value;
+		}
+	}
+
+	/**
+	 * Remove value associated to key
+	 * @param key
+	 * @return removed value
+	 */
+	public Value remove(Object key) {
+		Segment<Key, Value> segment = segmentFor(key);
+		synchronized(segment) {
+			return segment.remove(key);
+		}
+	}
+
+	/**
+	 * Remove value associated to key, provided it is still the given one
+	 * @param key
+	 * @param value
+	 * @return true if value was removed
+	 */
+	public boolean remove(Object key, Object value) {
+		Segment<Key, Value> segment = segmentFor(key);
+		synchronized(segment) {
+			if(segment.containsKey(key) && segment.get(key)==value) {
+				segment.remove(key);
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Drop all entries. Segments are cleared one after the other, so entries put concurrently may survive.
+	 */
+	public void clear() {
+		for(Segment<Key, Value> segment : segments) {
+			synchronized(segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * @return number of entries
+	 */
+	public int size() {
+		int returned = 0;
+		for(Segment<Key, Value> segment : segments) {
+			synchronized(segment) {
+				returned += segment.size();
+			}
+		}
+		return returned;
+	}
+
+	/**
+	 * @return number of entries evicted because their segment was full
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+}
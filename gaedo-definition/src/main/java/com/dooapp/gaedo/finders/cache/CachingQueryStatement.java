@@ -0,0 +1,165 @@
+package com.dooapp.gaedo.finders.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.dooapp.gaedo.finders.Informer;
+import com.dooapp.gaedo.finders.QueryBrowser;
+import com.dooapp.gaedo.finders.QueryExpressionContainerVisitor;
+import com.dooapp.gaedo.finders.QueryStatement;
+import com.dooapp.gaedo.finders.SortingBuilder;
+import com.dooapp.gaedo.finders.projection.ProjectionBuilder;
+import com.dooapp.gaedo.finders.root.AbstractFinderService;
+import com.dooapp.gaedo.finders.root.AbstractQueryStatement;
+
+/**
+ * Query statement decorator looking for results in a {@link QueryCache} before running the decorated statement.
+ * Cache key is made of the source service, the browsing method (with its range), and the query and sorting expressions
+ * (see {@link QueryKeyBuilder}). Projected queries are never cached, as projectors can't be compared.
+ * Results are cached as references given by {@link AbstractFinderService#getReferenceTo(Object)}, and dereferenced for each caller, so that
+ * services building objects for each query never share them between callers.
+ * @author ndx
+ *
+ */
+public class CachingQueryStatement<DataType, InformerType extends Informer<DataType>> implements QueryStatement<DataType, DataType, InformerType> {
+	private final QueryStatement<DataType, DataType, InformerType> delegate;
+
+	private final QueryCache cache;
+
+	/**
+	 * Service that created the delegate statement, which identifies source of data and resolves cached references
+	 */
+	private final AbstractFinderService<DataType, InformerType> source;
+
+	public CachingQueryStatement(QueryStatement<DataType, DataType, InformerType> delegate, QueryCache cache, AbstractFinderService<DataType, InformerType> source) {
+		this.delegate = delegate;
+		this.cache = cache;
+		this.source = source;
+	}
+
+	private List<Object> createKey(Object... operation) {
+		QueryKeyBuilder builder = new QueryKeyBuilder(source);
+		for(Object o : operation) {
+			builder.getKey().add(o);
+		}
+		delegate.accept(builder);
+		return builder.getKey();
+	}
+
+	/**
+	 * As cached results don't run the delegate, its state must be set there
+	 */
+	private void executed() {
+		if (delegate instanceof AbstractQueryStatement) {
+			((AbstractQueryStatement<?, ?, ?>) delegate).setState(State.EXECUTED);
+		}
+	}
+
+	private Object reference(DataType value) {
+		return value==null ? null : source.getReferenceTo(value);
+	}
+
+	private DataType dereference(Object reference) {
+		return reference==null ? null : source.dereference(reference);
+	}
+
+	private List<Object> references(Iterable<DataType> values) {
+		List<Object> returned = new ArrayList<Object>();
+		for(DataType value : values) {
+			returned.add(reference(value));
+		}
+		return Collections.unmodifiableList(returned);
+	}
+
+	private List<DataType> dereferenceAll(List<Object> references) {
+		List<DataType> returned = new ArrayList<DataType>(references.size());
+		for(Object reference : references) {
+			returned.add(dereference(reference));
+		}
+		return returned;
+	}
+
+	@Override
+	public DataType getFirst() {
+		try {
+			return dereference(cache.get(createKey("getFirst"), new QueryCache.Loader<Object>() {
+				public Object load() {
+					return reference(delegate.getFirst());
+				}
+			}));
+		} finally {
+			executed();
+		}
+	}
+
+	@Override
+	public Iterable<DataType> getAll() {
+		try {
+			return dereferenceAll(cache.get(createKey("getAll"), new QueryCache.Loader<List<Object>>() {
+				public List<Object> load() {
+					return references(delegate.getAll());
+				}
+			}));
+		} finally {
+			executed();
+		}
+	}
+
+	@Override
+	public Iterable<DataType> get(final int start, final int end) {
+		try {
+			return dereferenceAll(cache.get(createKey("get", start, end), new QueryCache.Loader<List<Object>>() {
+				public List<Object> load() {
+					return references(delegate.get(start, end));
+				}
+			}));
+		} finally {
+			executed();
+		}
+	}
+
+	@Override
+	public int count() {
+		try {
+			return cache.get(createKey("count"), new QueryCache.Loader<Integer>() {
+				public Integer load() {
+					return delegate.count();
+				}
+			});
+		} finally {
+			executed();
+		}
+	}
+
+	@Override
+	public QueryStatement<DataType, DataType, InformerType> sortBy(SortingBuilder<InformerType> expression) {
+		delegate.sortBy(expression);
+		return this;
+	}
+
+	@Override
+	public void accept(QueryExpressionContainerVisitor visitor) {
+		delegate.accept(visitor);
+	}
+
+	@Override
+	public State getState() {
+		return delegate.getState();
+	}
+
+	@Override
+	public String getId() {
+		return delegate.getId();
+	}
+
+	@Override
+	public void setId(String id) {
+		delegate.setId(id);
+	}
+
+	@Override
+	public <ProjectedValueType> QueryBrowser<ProjectedValueType> projectOn(ProjectionBuilder<ProjectedValueType, DataType, InformerType> projector) {
+		return delegate.projectOn(projector);
+	}
+}
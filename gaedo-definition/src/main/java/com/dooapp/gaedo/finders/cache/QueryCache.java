@@ -0,0 +1,183 @@
+package com.dooapp.gaedo.finders.cache;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dooapp.gaedo.finders.FinderCrudService;
+import com.dooapp.gaedo.finders.repository.ServiceRepository;
+import com.dooapp.gaedo.finders.root.AbstractFinderService;
+
+/**
+ * A size bounded (in a LRU fashion), time limited, cache of query results. This cache is used by {@link CachingQueryStatement} to avoid running
+ * again and again the same query shapes (typically the ones issued by dynamic finders). It is invalidated as a whole on any write operation
+ * made on a service using it.
+ * As queries may navigate through objects managed by other services, a write in one service may change results of queries in another.
+ * To handle that case, the same cache can be shared by all services of a {@link ServiceRepository} (see {@link #install(ServiceRepository)}).
+ * @author ndx
+ *
+ */
+public class QueryCache {
+	/**
+	 * Code computing a value when cache doesn't contain it
+	 * @author ndx
+	 *
+	 * @param <Type>
+	 */
+	public static interface Loader<Type> {
+		Type load();
+	}
+
+	/**
+	 * A cached value, with its creation time. Allows null values to be cached.
+	 * @author ndx
+	 *
+	 */
+	private static class Entry {
+		private final Object value;
+		private final long created;
+
+		public Entry(Object value, long created) {
+			this.value = value;
+			this.created = created;
+		}
+	}
+
+	public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+	/**
+	 * Cached entries
+	 */
+	private final BoundedCache<Object, Entry> entries;
+
+	/**
+	 * Time to live of entries, in nanoseconds. When 0 or negative, entries never expire.
+	 */
+	private final long timeToLive;
+
+	/**
+	 * Incremented on each invalidation, so that a result computed before an invalidation is never stored after it
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Number of entries removed because they expired
+	 */
+	private final AtomicLong expirations = new AtomicLong();
+
+	/**
+	 * Build a cache of {@link #DEFAULT_MAXIMUM_SIZE} entries which never expire
+	 */
+	public QueryCache() {
+		this(DEFAULT_MAXIMUM_SIZE, 0, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @param maximumSize maximum number of cached results. When reached, least recently used result is evicted.
+	 * @param timeToLive duration during which a cached result can be used. Use 0 for results to never expire.
+	 * @param unit unit of timeToLive
+	 */
+	public QueryCache(final int maximumSize, long timeToLive, TimeUnit unit) {
+		this.timeToLive = unit.toNanos(timeToLive);
+		this.entries = new BoundedCache<Object, Entry>(maximumSize);
+	}
+
+	/**
+	 * Get the value associated to key, loading it if not present or expired. Loaded value is stored only if no invalidation
+	 * occured while loading it. Exceptions thrown by loader are not cached.
+	 * @param key key built by {@link QueryKeyBuilder}
+	 * @param loader code used to load value
+	 * @return cached or loaded value
+	 */
+	@SuppressWarnings("unchecked")
+	public <Type> Type get(Object key, Loader<Type> loader) {
+		long loadedGeneration = generation.get();
+		Entry entry = entries.get(key);
+		if(entry!=null) {
+			if(timeToLive<=0 || System.nanoTime()-entry.created<timeToLive) {
+				hits.incrementAndGet();
+				return (Type) entry.value;
+			}
+			if(entries.remove(key, entry))
+				expirations.incrementAndGet();
+		}
+		misses.incrementAndGet();
+		Type returned = loader.load();
+		if(generation.get()==loadedGeneration) {
+			Entry stored = new Entry(returned, System.nanoTime());
+			entries.put(key, stored);
+			// an invalidation may have cleared cache between generation check and put
+			if(generation.get()!=loadedGeneration)
+				entries.remove(key, stored);
+		}
+		return returned;
+	}
+
+	/**
+	 * Drop all cached results. Called by services on each write.
+	 */
+	public void invalidate() {
+		generation.incrementAndGet();
+		entries.clear();
+	}
+
+	/**
+	 * Make all {@link AbstractFinderService} of the given repository share this cache, so that a write in any of them invalidates
+	 * query results of all others. Services added to repository later will also use that cache.
+	 * @param repository
+	 */
+	public void install(ServiceRepository repository) {
+		for(FinderCrudService<?, ?> service : repository.values()) {
+			use(service);
+		}
+		repository.getSupport().addPropertyChangeListener(ServiceRepository.SERVICES_PROPERTY, new PropertyChangeListener() {
+
+			@Override
+			public void propertyChange(PropertyChangeEvent evt) {
+				use(evt.getNewValue());
+			}
+		});
+	}
+
+	/**
+	 * Make service use this cache, if it can
+	 * @param service
+	 */
+	private void use(Object service) {
+		if (service instanceof AbstractFinderService) {
+			((AbstractFinderService<?, ?>) service).setQueryCache(this);
+		}
+	}
+
+	/**
+	 * @return number of cached entries
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return number of entries removed either because cache was full, or because they expired. Invalidations are not counted.
+	 */
+	public long getEvictions() {
+		return entries.getEvictions()+expirations.get();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+"(size:"+size()+"; hits:"+hits+"; misses:"+misses+"; evictions:"+getEvictions()+")";
+	}
+}
@@ -0,0 +1,172 @@
+package com.dooapp.gaedo.finders.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import com.dooapp.gaedo.finders.FieldInformer;
+import com.dooapp.gaedo.finders.QueryExpressionContainer;
+import com.dooapp.gaedo.finders.QueryExpressionContainerVisitor;
+import com.dooapp.gaedo.finders.SortingExpression;
+import com.dooapp.gaedo.finders.SortingExpression.Direction;
+import com.dooapp.gaedo.finders.expressions.AbstractBasicExpression;
+import com.dooapp.gaedo.finders.expressions.AndQueryExpression;
+import com.dooapp.gaedo.finders.expressions.AnythingExpression;
+import com.dooapp.gaedo.finders.expressions.CollectionContaingExpression;
+import com.dooapp.gaedo.finders.expressions.ContainsStringExpression;
+import com.dooapp.gaedo.finders.expressions.EndsWithExpression;
+import com.dooapp.gaedo.finders.expressions.EqualsExpression;
+import com.dooapp.gaedo.finders.expressions.GreaterThanExpression;
+import com.dooapp.gaedo.finders.expressions.LowerThanExpression;
+import com.dooapp.gaedo.finders.expressions.MapContainingKeyExpression;
+import com.dooapp.gaedo.finders.expressions.NotQueryExpression;
+import com.dooapp.gaedo.finders.expressions.OrQueryExpression;
+import com.dooapp.gaedo.finders.expressions.StartsWithExpression;
+import com.dooapp.gaedo.finders.informers.MapContainingValueExpression;
+import com.dooapp.gaedo.properties.Property;
+
+/**
+ * Visitor building a cache key from a query statement query and sorting expressions. As expressions don't implement equals, key is
+ * a flat list of tokens : expression kind, field path, and compared values. Two statements built from the same query shape with
+ * equal parameters will then give equal keys.
+ * @author ndx
+ *
+ */
+public class QueryKeyBuilder implements QueryExpressionContainerVisitor {
+	private final List<Object> key = new ArrayList<Object>();
+
+	/**
+	 * Build a key builder whose keys all start with the given prefixes (typically the service and the browsing operation)
+	 * @param prefixes
+	 */
+	public QueryKeyBuilder(Object... prefixes) {
+		for(Object prefix : prefixes) {
+			key.add(prefix);
+		}
+	}
+
+	/**
+	 * @return built key
+	 */
+	public List<Object> getKey() {
+		return key;
+	}
+
+	private void add(String kind, AbstractBasicExpression expression, Object value) {
+		key.add(kind);
+		List<Property> path = new ArrayList<Property>();
+		for(Property p : expression.getFieldPath()) {
+			path.add(p);
+		}
+		key.add(path);
+		key.add(value);
+	}
+
+	@Override
+	public void visit(EqualsExpression expression) {
+		add("==", expression, expression.getValue());
+	}
+
+	@Override
+	public void startVisit(OrQueryExpression orQueryExpression) {
+		key.add("or(");
+	}
+
+	@Override
+	public void endVisit(OrQueryExpression orQueryExpression) {
+		key.add(")");
+	}
+
+	@Override
+	public void startVisit(AndQueryExpression andQueryExpression) {
+		key.add("and(");
+	}
+
+	@Override
+	public void endVisit(AndQueryExpression andQueryExpression) {
+		key.add(")");
+	}
+
+	@Override
+	public void startVisit(NotQueryExpression notQueryExpression) {
+		key.add("not(");
+	}
+
+	@Override
+	public void endVisit(NotQueryExpression notQueryExpression) {
+		key.add(")");
+	}
+
+	@Override
+	public <ComparableType extends Comparable<ComparableType>> void visit(GreaterThanExpression<ComparableType> greaterThanExpression) {
+		add(greaterThanExpression.isStrictly() ? ">" : ">=", greaterThanExpression, greaterThanExpression.getValue());
+	}
+
+	@Override
+	public <ComparableType extends Comparable<ComparableType>> void visit(LowerThanExpression<ComparableType> lowerThanExpression) {
+		add(lowerThanExpression.isStrictly() ? "<" : "<=", lowerThanExpression, lowerThanExpression.getValue());
+	}
+
+	@Override
+	public void visit(ContainsStringExpression containsStringExpression) {
+		add("contains", containsStringExpression, containsStringExpression.getContained());
+	}
+
+	@Override
+	public void visit(StartsWithExpression startsWithExpression) {
+		add("startsWith", startsWithExpression, startsWithExpression.getStart());
+	}
+
+	@Override
+	public void visit(EndsWithExpression endsWithExpression) {
+		add("endsWith", endsWithExpression, endsWithExpression.getEnd());
+	}
+
+	@Override
+	public void visit(CollectionContaingExpression collectionContaingExpression) {
+		add("containing", collectionContaingExpression, collectionContaingExpression.getContained());
+	}
+
+	@Override
+	public void visit(MapContainingValueExpression mapContainingValueExpression) {
+		add("containingValue", mapContainingValueExpression, mapContainingValueExpression.getContained());
+	}
+
+	@Override
+	public void visit(MapContainingKeyExpression mapContainingKeyExpression) {
+		add("containingKey", mapContainingKeyExpression, mapContainingKeyExpression.getContained());
+	}
+
+	@Override
+	public void visit(AnythingExpression anythingExpression) {
+		key.add("*");
+	}
+
+	@Override
+	public void startVisit(SortingExpression sortingExpression) {
+		key.add("sort(");
+	}
+
+	@Override
+	public void endVisit(SortingExpression sortingExpression) {
+		key.add(")");
+	}
+
+	@Override
+	public void visit(Entry<FieldInformer, Direction> entry) {
+		List<Property> path = new ArrayList<Property>();
+		for(Object p : entry.getKey().getFieldPath()) {
+			path.add((Property) p);
+		}
+		key.add(path);
+		key.add(entry.getValue());
+	}
+
+	@Override
+	public void startVisit(QueryExpressionContainer queryStatement) {
+	}
+
+	@Override
+	public void endVisit(QueryExpressionContainer queryStatement) {
+	}
+}
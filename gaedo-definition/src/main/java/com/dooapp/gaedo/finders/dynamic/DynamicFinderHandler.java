@@ -4,7 +4,10 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Logger;
 
 import com.dooapp.gaedo.exceptions.finder.dynamic.UnableToBuildDueToMissingQueryExpressionException;
@@ -64,6 +67,11 @@ public class DynamicFinderHandler<DataType> extends BasicInvocationHandler<DataT
 	}
 	private static final Logger logger  = Logger.getLogger(DynamicFinderHandler.class.getName());
 
+	/**
+	 * Query methods of field informers classes, by uppercased name. This map is shared by all handlers, as it only depends upon informer class.
+	 */
+	private static final ConcurrentMap<Class<?>, Map<String, Method>> informerMethods = new ConcurrentHashMap<Class<?>, Map<String, Method>>();
+
 	/**
 	 * Backend which will receive forwarded calls
 	 */
@@ -74,6 +82,16 @@ public class DynamicFinderHandler<DataType> extends BasicInvocationHandler<DataT
 	 */
 	protected final PropertyProvider propertyProvider;
 
+	/**
+	 * Back end properties, by uppercased name, lazily loaded when first method resolver is created
+	 */
+	private Map<String, String> fieldNames;
+
+	/**
+	 * Back end informer, lazily loaded when first method resolver is created
+	 */
+	private Informer<DataType> informer;
+
 	/**
 	 * Define the handler by giving it the class to implement and the back end used to implement it.
 	 * Due to issue #18, we eager create method resolvers.
@@ -88,6 +106,42 @@ public class DynamicFinderHandler<DataType> extends BasicInvocationHandler<DataT
 		createAllMethodResolvers(toImplement);
 	}
 
+	/**
+	 * Get uppercased map of informer methods, reusing the one built for the same informer class if any
+	 * @param fieldInformer
+	 * @return a map linking uppercased method names to methods
+	 */
+	private static Map<String, Method> getInformerMethods(FieldInformer fieldInformer) {
+		Class<?> informerClass = fieldInformer.getClass();
+		Map<String, Method> returned = informerMethods.get(informerClass);
+		if(returned==null) {
+			returned = Collections.unmodifiableMap(Utils.getUppercasedMap(informerClass.getMethods()));
+			Map<String, Method> existing = informerMethods.putIfAbsent(informerClass, returned);
+			if(existing!=null)
+				returned = existing;
+		}
+		return returned;
+	}
+
+	/**
+	 * @return back end informer, loaded only once
+	 */
+	@SuppressWarnings("unchecked")
+	private Informer<DataType> getInformer() {
+		if(informer==null)
+			informer = (Informer<DataType>) backEnd.getInformer();
+		return informer;
+	}
+
+	/**
+	 * @return back end properties by uppercased name, loaded only once
+	 */
+	private Map<String, String> getFieldNames() {
+		if(fieldNames==null)
+			fieldNames = Utils.getUppercasedMap(PropertyProviderUtils.getAllProperties(propertyProvider, backEnd.getContainedClass()));
+		return fieldNames;
+	}
+
 	/**
 	 * Consume text to populate the sorting expression
 	 * @category dynamic_method_builder
@@ -97,7 +151,7 @@ public class DynamicFinderHandler<DataType> extends BasicInvocationHandler<DataT
 		for(Map.Entry<String, String> fieldEntry: fieldNames.entrySet()) {
 			if(consumableText.startsWith(fieldEntry.getKey())) {
 				consumableText = consumableText.substring(fieldEntry.getKey().length());
-				FieldInformer informer = backEnd.getInformer().get(fieldEntry.getValue());
+				FieldInformer informer = getInformer().get(fieldEntry.getValue());
 				found = false;
 				for(SortingExpression.Direction direction : SortingExpression.Direction.values()) {
 					if(consumableText.startsWith(direction.getText())) {
@@ -128,8 +182,8 @@ public class DynamicFinderHandler<DataType> extends BasicInvocationHandler<DataT
 		for(Map.Entry<String, String> fieldEntry: fieldNames.entrySet()) {
 			if(consumableText.startsWith(fieldEntry.getKey())) {
 				consumableText = consumableText.substring(fieldEntry.getKey().length());
-				FieldInformer informer = backEnd.getInformer().get(fieldEntry.getValue());
-				Map<String, Method> queries = Utils.getUppercasedMap(informer.getClass().getMethods());
+				FieldInformer informer = getInformer().get(fieldEntry.getValue());
+				Map<String, Method> queries = getInformerMethods(informer);
 				found = false;
 				for(Map.Entry<String, Method> methodEntry : queries.entrySet()) {
 					if(consumableText.startsWith(methodEntry.getKey())) {
@@ -196,7 +250,7 @@ public class DynamicFinderHandler<DataType> extends BasicInvocationHandler<DataT
 			throw new UnableToBuildDueToMissingModeException(methodName);
 		}
 		consumableText = consumableText.substring(created.getMode().getPrefix().length());
-		Map<String, String> fieldNames = Utils.getUppercasedMap(PropertyProviderUtils.getAllProperties(propertyProvider, backEnd.getContainedClass()));
+		Map<String, String> fieldNames = getFieldNames();
 		while(consumableText.length()>0) {
 			String initialText = consumableText;
 			consumableText = mode.consumeText(this, methodName, consumableText, fieldNames, created);
@@ -234,7 +288,7 @@ public class DynamicFinderHandler<DataType> extends BasicInvocationHandler<DataT
 			throw new UnableToBuildDueToMissingModeException(method);
 		}
 		consumableText = consumableText.substring(created.getMode().getPrefix().length());
-		Map<String, String> fieldNames = Utils.getUppercasedMap(PropertyProviderUtils.getAllProperties(propertyProvider, backEnd.getContainedClass()));
+		Map<String, String> fieldNames = getFieldNames();
 		while(consumableText.length()>0) {
 			String initialText = consumableText;
 			consumableText = mode.consumeText(this, method.toGenericString(), consumableText, fieldNames, created);
@@ -5,16 +5,14 @@ package com.dooapp.gaedo.finders.dynamic;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 import com.dooapp.gaedo.exceptions.finder.dynamic.MethodBindingException;
-import com.dooapp.gaedo.exceptions.finder.dynamic.UnableToBuildQueryExpressionException;
 import com.dooapp.gaedo.finders.FieldInformer;
 import com.dooapp.gaedo.finders.FinderCrudService;
 import com.dooapp.gaedo.finders.QueryExpression;
@@ -33,14 +31,20 @@ import com.dooapp.gaedo.utils.Utils;
  *
  */
 public class DynamicFinderMethodResolver implements QueryExpressionContainer, MethodResolver {
+	/**
+	 * Arguments used when a method without parameters is invoked (in which case proxies give a null arguments array)
+	 */
+	private static final Object[] NO_ARGS = new Object[0];
+
 	/**
 	 * Combination mode for method
 	 */
 	private Combinator combinator = Combinator.And;
 	/**
-	 * We use a collection of entries to associate the {@link FieldInformer} in a unique way to the {@link Method} used to get associated expression
+	 * Templates of query expressions, in method parameters order. Each template associates a {@link FieldInformer} to the {@link Method}
+	 * used to get associated expression, and is able to create that expression without any lookup.
 	 */
-	private Collection<Entry<FieldInformer, Method>> queryExpressions = new LinkedList<Entry<FieldInformer, Method>>();
+	private List<QueryExpressionTemplate> queryExpressions = new ArrayList<QueryExpressionTemplate>();
 	/**
 	 * Mode defining how the produced QueryStatement will be executed
 	 */
@@ -87,7 +91,7 @@ public class DynamicFinderMethodResolver implements QueryExpressionContainer, Me
 	 * @param method
 	 */
 	public void addQueryExpression(FieldInformer informer, Method method) {
-		queryExpressions.add(new com.dooapp.gaedo.utils.Entry<FieldInformer, Method>(informer, method));
+		queryExpressions.add(QueryExpressionTemplate.compile(informer, method));
 	}
 
 	/**
@@ -106,24 +110,17 @@ public class DynamicFinderMethodResolver implements QueryExpressionContainer, Me
 	 * @return
 	 */
 	public Object call(Object[] args) {
-		Collection<QueryExpression> resolvedExpressions = new LinkedList<QueryExpression>();
+		if(args==null)
+			args = NO_ARGS;
+		List<QueryExpression> resolvedExpressions = new ArrayList<QueryExpression>(queryExpressions.size());
 		int offset = mode.getOffset();
-		for(Map.Entry<FieldInformer, Method> entry : queryExpressions) {
-			int consumableLength = entry.getValue().getParameterTypes().length;
-			Object[] methodArgs = new Object[consumableLength];
-			System.arraycopy(args, offset, methodArgs, 0, consumableLength);
-			offset += consumableLength;
-			try {
-				resolvedExpressions.add((QueryExpression) entry.getValue().invoke(entry.getKey(), methodArgs));
-			} catch (Exception e) {
-				throw new UnableToBuildQueryExpressionException(entry.getKey(), entry.getValue(), methodArgs, e);
-			}
+		for(QueryExpressionTemplate template : queryExpressions) {
+			resolvedExpressions.add(template.create(args, offset));
+			offset += template.getArity();
 		}
 		QueryExpression queryExpression = combinator.create(resolvedExpressions);
-		// Creates an array of parameters going from 0 to offset
-		Object[] modeArgs = new Object[mode.getOffset()];
-		System.arraycopy(args, 0, modeArgs, 0, mode.getOffset());
-		Object returned = mode.execute(backEnd, queryExpression, sortingExpression, modeArgs, executionId);
+		// Mode parameters are the first ones, so there is no need to copy them
+		Object returned = mode.execute(backEnd, queryExpression, sortingExpression, args, executionId);
 		// Find all tricky trick
 		if(mode==Mode.FIND_ALL || mode==Mode.FIND_RANGE) {
 			// If method return type is not iterable but a sub-interface, put my merlin's cape !
@@ -152,11 +149,11 @@ public class DynamicFinderMethodResolver implements QueryExpressionContainer, Me
 		System.arraycopy(consumableParameters, 0, modeArgs, 0, mode.getOffset());
 		mode.checkParametersClasses(method, modeArgs, this);
 		int paramIndex = mode.getOffset();
-		for(Map.Entry<FieldInformer, Method> entry : queryExpressions) {
-			Class<?>[] parameters = entry.getValue().getParameterTypes();
+		for(QueryExpressionTemplate template : queryExpressions) {
+			Class<?>[] parameters = template.getMethod().getParameterTypes();
 			for(Class<?> p : parameters) {
 				if(consumableList.size()==0) {
-					errors.add("there are not enough parameters to match method call "+entry.getKey().toString()+" "+entry.getValue().toGenericString());
+					errors.add("there are not enough parameters to match method call "+template.getInformer().toString()+" "+template.getMethod().toGenericString());
 					continue;
 				}
 				Type toCompare = consumableList.remove(0);
@@ -167,7 +164,7 @@ public class DynamicFinderMethodResolver implements QueryExpressionContainer, Me
 						toCompareClass = Utils.objectify(toCompareClass);
 					}
 					if(!p.isAssignableFrom(toCompareClass)) {
-						errors.add("parameter "+p.getName()+" of method "+entry.getValue().toGenericString()+"cannot use value of type "+toCompareClass.getName());
+						errors.add("parameter "+p.getName()+" of method "+template.getMethod().toGenericString()+"cannot use value of type "+toCompareClass.getName());
 					}
 				} else {
 					throw new UnsupportedOperationException(toCompare.getClass().getName()+" not supported in that case. please fill a gaedo-definition bug report");
@@ -197,8 +194,8 @@ public class DynamicFinderMethodResolver implements QueryExpressionContainer, Me
 		StringBuilder sOut = new StringBuilder();
 		sOut.append("combination : ").append(combinator).append("\n");
 		sOut.append("expression :\n");
-		for(Map.Entry<FieldInformer, Method> entry : queryExpressions) {
-			sOut.append("\t").append(entry.getKey().toString()).append("\tinvoking\t").append(entry.getValue().toGenericString()).append("\n");
+		for(QueryExpressionTemplate template : queryExpressions) {
+			sOut.append("\t").append(template.getInformer().toString()).append("\tinvoking\t").append(template.getMethod().toGenericString()).append("\n");
 		}
 		return sOut.toString();
 	}
@@ -0,0 +1,220 @@
+package com.dooapp.gaedo.finders.dynamic;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import com.dooapp.gaedo.exceptions.finder.dynamic.UnableToBuildQueryExpressionException;
+import com.dooapp.gaedo.finders.FieldInformer;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.finders.informers.BooleanFieldInformer;
+import com.dooapp.gaedo.finders.informers.CollectionFieldInformer;
+import com.dooapp.gaedo.finders.informers.ComparableFieldInformer;
+import com.dooapp.gaedo.finders.informers.MapFieldInformer;
+import com.dooapp.gaedo.finders.informers.ObjectFieldInformer;
+import com.dooapp.gaedo.finders.informers.StringFieldInformer;
+
+/**
+ * Precompiled call of a {@link FieldInformer} method building a {@link QueryExpression}. Templates are created once, when a dynamic
+ * finder method is parsed. Then, at each invocation, they only bind method arguments to the informer call.
+ * Known informer methods are called directly. Other ones (declared by custom informers, including overloads of known methods) are called using reflection.
+ * Whatever the way informer method is called, its failures are reported as {@link UnableToBuildQueryExpressionException}.
+ * @author ndx
+ *
+ */
+abstract class QueryExpressionTemplate {
+	/**
+	 * Template directly calling a known informer method
+	 * @author ndx
+	 *
+	 */
+	private static abstract class Direct extends QueryExpressionTemplate {
+		public Direct(FieldInformer informer, Method method) {
+			super(informer, method);
+		}
+
+		@Override
+		public QueryExpression create(Object[] args, int offset) {
+			try {
+				return doCreate(args, offset);
+			} catch(RuntimeException e) {
+				throw new UnableToBuildQueryExpressionException(informer, method, copyArgs(args, offset), e);
+			}
+		}
+
+		protected abstract QueryExpression doCreate(Object[] args, int offset);
+	}
+
+	/**
+	 * Template calling informer method by reflection, used for methods that are not known here
+	 * @author ndx
+	 *
+	 */
+	private static class Reflective extends QueryExpressionTemplate {
+		public Reflective(FieldInformer informer, Method method) {
+			super(informer, method);
+		}
+
+		@Override
+		public QueryExpression create(Object[] args, int offset) {
+			Object[] methodArgs = copyArgs(args, offset);
+			try {
+				return (QueryExpression) method.invoke(informer, methodArgs);
+			} catch (InvocationTargetException e) {
+				// Report informer failure the same way direct templates do
+				Throwable cause = e.getCause();
+				throw new UnableToBuildQueryExpressionException(informer, method, methodArgs, cause instanceof Exception ? (Exception) cause : e);
+			} catch (Exception e) {
+				throw new UnableToBuildQueryExpressionException(informer, method, methodArgs, e);
+			}
+		}
+	}
+
+	/**
+	 * Informer on which method is called
+	 */
+	protected final FieldInformer informer;
+
+	/**
+	 * Informer method, kept for type checking and error reporting
+	 */
+	protected final Method method;
+
+	/**
+	 * Number of method arguments consumed by this template
+	 */
+	private final int arity;
+
+	private QueryExpressionTemplate(FieldInformer informer, Method method) {
+		this.informer = informer;
+		this.method = method;
+		this.arity = method.getParameterTypes().length;
+	}
+
+	/**
+	 * Create template for the given informer method
+	 * @param informer
+	 * @param method a method of informer class, returning a {@link QueryExpression}
+	 * @return a template directly calling method when it is a known one (same name and same parameter types), or a reflective one elsewhere
+	 */
+	@SuppressWarnings("unchecked")
+	public static QueryExpressionTemplate compile(final FieldInformer informer, Method method) {
+		String name = method.getName();
+		Class<?>[] parameters = method.getParameterTypes();
+		if(parameters.length==1) {
+			// Parameter type is checked, as a custom informer may overload a known method with the same arity
+			Class<?> parameter = parameters[0];
+			if("equalsTo".equals(name) && Object.class.equals(parameter)) {
+				return new Direct(informer, method) {
+					protected QueryExpression doCreate(Object[] args, int offset) {
+						return informer.equalsTo(args[offset]);
+					}
+				};
+			} else if(informer instanceof StringFieldInformer && "startsWith".equals(name) && String.class.equals(parameter)) {
+				return new Direct(informer, method) {
+					protected QueryExpression doCreate(Object[] args, int offset) {
+						return ((StringFieldInformer) informer).startsWith((String) args[offset]);
+					}
+				};
+			} else if(informer instanceof StringFieldInformer && "endsWith".equals(name) && String.class.equals(parameter)) {
+				return new Direct(informer, method) {
+					protected QueryExpression doCreate(Object[] args, int offset) {
+						return ((StringFieldInformer) informer).endsWith((String) args[offset]);
+					}
+				};
+			} else if(informer instanceof StringFieldInformer && "contains".equals(name) && String.class.equals(parameter)) {
+				return new Direct(informer, method) {
+					protected QueryExpression doCreate(Object[] args, int offset) {
+						return ((StringFieldInformer) informer).contains((String) args[offset]);
+					}
+				};
+			} else if(informer instanceof ComparableFieldInformer && "greaterThan".equals(name) && Comparable.class.equals(parameter)) {
+				return new Direct(informer, method) {
+					protected QueryExpression doCreate(Object[] args, int offset) {
+						return ((ComparableFieldInformer) informer).greaterThan((Comparable) args[offset]);
+					}
+				};
+			} else if(informer instanceof ComparableFieldInformer && "lowerThan".equals(name) && Comparable.class.equals(parameter)) {
+				return new Direct(informer, method) {
+					protected QueryExpression doCreate(Object[] args, int offset) {
+						return ((ComparableFieldInformer) informer).lowerThan((Comparable) args[offset]);
+					}
+				};
+			} else if(informer instanceof CollectionFieldInformer && "containing".equals(name) && Object.class.equals(parameter)) {
+				return new Direct(informer, method) {
+					protected QueryExpression doCreate(Object[] args, int offset) {
+						return ((CollectionFieldInformer) informer).containing(args[offset]);
+					}
+				};
+			} else if(informer instanceof MapFieldInformer && "containingKey".equals(name) && Object.class.equals(parameter)) {
+				return new Direct(informer, method) {
+					protected QueryExpression doCreate(Object[] args, int offset) {
+						return ((MapFieldInformer) informer).containingKey(args[offset]);
+					}
+				};
+			} else if(informer instanceof MapFieldInformer && "containingValue".equals(name) && Object.class.equals(parameter)) {
+				return new Direct(informer, method) {
+					protected QueryExpression doCreate(Object[] args, int offset) {
+						return ((MapFieldInformer) informer).containingValue(args[offset]);
+					}
+				};
+			} else if(informer instanceof ObjectFieldInformer && "differentFrom".equals(name) && Object.class.equals(parameter)) {
+				return new Direct(informer, method) {
+					protected QueryExpression doCreate(Object[] args, int offset) {
+						return ((ObjectFieldInformer) informer).differentFrom(args[offset]);
+					}
+				};
+			}
+		} else if(parameters.length==0) {
+			if(informer instanceof BooleanFieldInformer && "isTrue".equals(name)) {
+				return new Direct(informer, method) {
+					protected QueryExpression doCreate(Object[] args, int offset) {
+						return ((BooleanFieldInformer) informer).isTrue();
+					}
+				};
+			} else if(informer instanceof BooleanFieldInformer && "isFalse".equals(name)) {
+				return new Direct(informer, method) {
+					protected QueryExpression doCreate(Object[] args, int offset) {
+						return ((BooleanFieldInformer) informer).isFalse();
+					}
+				};
+			} else if(informer instanceof ObjectFieldInformer && "isAnything".equals(name)) {
+				return new Direct(informer, method) {
+					protected QueryExpression doCreate(Object[] args, int offset) {
+						return ((ObjectFieldInformer) informer).isAnything();
+					}
+				};
+			}
+		}
+		return new Reflective(informer, method);
+	}
+
+	/**
+	 * Build query expression from invocation arguments
+	 * @param args all arguments of dynamic finder method invocation
+	 * @param offset index of first argument consumed by this template
+	 * @return the query expression
+	 * @throws UnableToBuildQueryExpressionException if informer call fails
+	 */
+	public abstract QueryExpression create(Object[] args, int offset);
+
+	protected Object[] copyArgs(Object[] args, int offset) {
+		Object[] methodArgs = new Object[arity];
+		System.arraycopy(args, offset, methodArgs, 0, arity);
+		return methodArgs;
+	}
+
+	public FieldInformer getInformer() {
+		return informer;
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return number of invocation arguments consumed by this template
+	 */
+	public int getArity() {
+		return arity;
+	}
+}
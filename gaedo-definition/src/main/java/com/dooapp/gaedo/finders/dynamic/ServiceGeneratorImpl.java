@@ -1,9 +1,14 @@
 package com.dooapp.gaedo.finders.dynamic;
 
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Proxy;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -24,7 +29,16 @@ public class ServiceGeneratorImpl implements ServiceGenerator {
 	 * Application-wide property provider
 	 */
 	protected final PropertyProvider provider;
-	
+
+	/**
+	 * Handlers already created, by back end and implemented interface. Once built, a handler only contains precompiled method plans,
+	 * so all proxies of the same interface over the same back end can share it, and methods parsing is done only once.
+	 * Back ends are weakly referenced, and so are handlers (as they reference their back end, and are kept alive by the proxies using them),
+	 * so this cache never prevents a back end, or the classes it uses, from being collected.
+	 */
+	private final Map<FinderCrudService<?, ?>, Map<Class<?>, Reference<DynamicFinderHandler<?>>>> handlers =
+					new WeakHashMap<FinderCrudService<?, ?>, Map<Class<?>, Reference<DynamicFinderHandler<?>>>>();
+
 	public ServiceGeneratorImpl(PropertyProvider provider) {
 		this.provider = provider;
 	}
@@ -44,7 +58,7 @@ public class ServiceGeneratorImpl implements ServiceGenerator {
 		try {
 			Implementation proxy = (Implementation) Proxy.newProxyInstance(
 					toImplement.getClassLoader(), new Class[] { toImplement },
-					new DynamicFinderHandler(toImplement, backEnd, provider));
+					getHandler(toImplement, backEnd));
 			return proxy;
 		} catch(UnableToCreateInvocationHandlerException e) {
 			if (logger.isLoggable(Level.SEVERE)) {
@@ -57,4 +71,26 @@ public class ServiceGeneratorImpl implements ServiceGenerator {
 		}
 	}
 
+	/**
+	 * Get handler for given interface and back end, creating it if needed
+	 * @param toImplement
+	 * @param backEnd
+	 * @return a shared handler
+	 */
+	private DynamicFinderHandler<?> getHandler(Class<?> toImplement, FinderCrudService<?, ?> backEnd) {
+		synchronized(handlers) {
+			Map<Class<?>, Reference<DynamicFinderHandler<?>>> backEndHandlers = handlers.get(backEnd);
+			if(backEndHandlers==null) {
+				backEndHandlers = new HashMap<Class<?>, Reference<DynamicFinderHandler<?>>>();
+				handlers.put(backEnd, backEndHandlers);
+			}
+			Reference<DynamicFinderHandler<?>> reference = backEndHandlers.get(toImplement);
+			DynamicFinderHandler<?> returned = reference==null ? null : reference.get();
+			if(returned==null) {
+				returned = new DynamicFinderHandler(toImplement, backEnd, provider);
+				backEndHandlers.put(toImplement, new WeakReference<DynamicFinderHandler<?>>(returned));
+			}
+			return returned;
+		}
+	}
 }
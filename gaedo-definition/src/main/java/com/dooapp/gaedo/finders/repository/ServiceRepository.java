@@ -15,6 +15,11 @@ import com.dooapp.gaedo.utils.PropertyChangeEmitter;
  *
  */
 public interface ServiceRepository extends Map<Class<?>, FinderCrudService<?, ?>> {
+	/**
+	 * Name of the property changed each time a service is added to repository. New value of fired event is the added service.
+	 */
+	public static final String SERVICES_PROPERTY = "services";
+
 	/**
 	 * Check if service repository contains the given class
 	 * @param dataType
@@ -22,7 +27,7 @@ public interface ServiceRepository extends Map<Class<?>, FinderCrudService<?, ?>
 	 */
 	public boolean containsKey(Class<?> dataType);
 	/**
-	 * Adds a service to this repository
+	 * Adds a service to this repository, then notifies listeners of {@link #SERVICES_PROPERTY}
 	 * @param <DataType> managed data type
 	 * @param <InformerType> informer type
 	 * @param service service to add
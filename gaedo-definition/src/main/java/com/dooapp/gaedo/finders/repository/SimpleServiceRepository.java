@@ -1,5 +1,6 @@
 package com.dooapp.gaedo.finders.repository;
 
+import java.beans.PropertyChangeEvent;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Collection;
@@ -39,7 +40,8 @@ public class SimpleServiceRepository implements ServiceRepository {
 	@Override
 	public <DataType, InformerType extends Informer<DataType>> void add(
 			FinderCrudService<DataType, InformerType> service) {
-		services.put(service.getContainedClass(), service);
+		FinderCrudService<?, ?> previous = services.put(service.getContainedClass(), service);
+		getSupport().firePropertyChange(new PropertyChangeEvent(this, SERVICES_PROPERTY, previous, service));
 	}
 
 	@Override
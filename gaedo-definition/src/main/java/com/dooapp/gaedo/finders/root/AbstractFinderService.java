@@ -5,6 +5,7 @@ import com.dooapp.gaedo.finders.FinderCrudService;
 import com.dooapp.gaedo.finders.Informer;
 import com.dooapp.gaedo.finders.QueryBuilder;
 import com.dooapp.gaedo.finders.QueryStatement;
+import com.dooapp.gaedo.finders.cache.QueryCache;
 
 /**
  * Base class for finder service providing the required finder abstractioncs
@@ -30,6 +31,16 @@ public abstract class AbstractFinderService<DataType, InformerType extends Infor
 	 */
 	private InformerFactory informerFactory;
 
+	/**
+	 * Informer obtained from {@link #informerFactory}, memoized as it is requested by nearly all operations
+	 */
+	private volatile InformerType informer;
+
+	/**
+	 * Cache of query results. Null by default, which means each query is run against storage.
+	 */
+	private QueryCache queryCache;
+
 	public AbstractFinderService(Class<DataType> containedClass,
 			Class<InformerType> informerClass,
 			InformerFactory factory) {
@@ -56,7 +67,12 @@ public abstract class AbstractFinderService<DataType, InformerType extends Infor
 	 * @return
 	 */
 	public InformerType getInformer() {
-		return informerFactory.get(informerClass, containedClass);
+		InformerType returned = informer;
+		if(returned==null) {
+			returned = informerFactory.get(informerClass, containedClass);
+			informer = returned;
+		}
+		return returned;
 	}
 
 	public Class<DataType> getContainedClass() {
@@ -73,6 +89,55 @@ public abstract class AbstractFinderService<DataType, InformerType extends Infor
 		return sOut.toString();
 	}
 
+	/**
+	 * @return the queryCache
+	 * @category getter
+	 * @category queryCache
+	 */
+	public QueryCache getQueryCache() {
+		return queryCache;
+	}
+
+	/**
+	 * Set cache used to store query results. Once set, any query is first looked up in that cache. Implementations must call
+	 * {@link #invalidateQueryCache()} on each write for that cache to stay consistent.
+	 * @param queryCache the queryCache to set. Set to null to disable caching.
+	 * @category setter
+	 * @category queryCache
+	 */
+	public void setQueryCache(QueryCache queryCache) {
+		this.queryCache = queryCache;
+	}
+
+	/**
+	 * Get what {@link QueryCache} stores in place of a query result. As cached results are served to all callers (and threads), services building
+	 * new objects for each query must override this method (and {@link #dereference(Object)}) to store something from which each caller can get
+	 * its own objects. Default implementation returns object itself, which suits services returning their stored instances from queries.
+	 * @param object a query result, never null
+	 * @return a reference to that object
+	 */
+	public Object getReferenceTo(DataType object) {
+		return object;
+	}
+
+	/**
+	 * Get object a reference obtained by {@link #getReferenceTo(Object)} points to.
+	 * @param reference a reference, never null
+	 * @return referenced object
+	 */
+	@SuppressWarnings("unchecked")
+	public DataType dereference(Object reference) {
+		return (DataType) reference;
+	}
+
+	/**
+	 * Invalidate query cache, if any. To be called by implementations each time data is created, updated or deleted.
+	 */
+	protected void invalidateQueryCache() {
+		if(queryCache!=null)
+			queryCache.invalidate();
+	}
+
 	/**
 	 * @return the informerFactory
 	 * @category getter
@@ -89,5 +154,6 @@ public abstract class AbstractFinderService<DataType, InformerType extends Infor
 	 */
 	protected void setInformerFactory(InformerFactory informerFactory) {
 		this.informerFactory = informerFactory;
+		this.informer = null;
 	}
 }
@@ -0,0 +1,130 @@
+package com.dooapp.gaedo.finders.root;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.dooapp.gaedo.finders.FieldInformer;
+import com.dooapp.gaedo.finders.FieldInformerAPI;
+import com.dooapp.gaedo.finders.Informer;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.properties.Property;
+
+/**
+ * Base class of informer implementations generated by gaedo-informer-generator. Those implementations replace the proxies created by
+ * {@link ProxyBackedInformerFactory} : each synthetic getter is a plain method which loads its field informer once from {@link #realInformer}
+ * then keeps it. All {@link Informer} methods are delegated to {@link #realInformer}, excepted projection ones, which return (cached)
+ * instances of the same generated class wrapping the projected informer.
+ * These classes are used by {@link GeneratedInformerFactory}.
+ * @author ndx
+ *
+ * @param <Informed> informed type
+ */
+public abstract class AbstractGeneratedInformer<Informed> implements Validable {
+	/**
+	 * Real used informer, all calls will be directed to it
+	 */
+	protected final Informer<Informed> realInformer;
+
+	/**
+	 * Projections of this informer, by projection method and arguments
+	 */
+	private final ConcurrentMap<Object, Object> projections = new ConcurrentHashMap<Object, Object>();
+
+	protected AbstractGeneratedInformer(Informer<Informed> realInformer) {
+		this.realInformer = realInformer;
+	}
+
+	/**
+	 * Create an instance of the concrete generated class wrapping the given informer
+	 * @param projected projected informer
+	 * @return a new generated informer
+	 */
+	protected abstract Object createProjected(Informer<Informed> projected);
+
+	/**
+	 * @return the informer interface implemented by concrete generated class
+	 */
+	public abstract Class<?> getInformerClass();
+
+	/**
+	 * Store a projection, unless another thread already did it
+	 * @param key projection key
+	 * @param projected projected informer
+	 * @return the generated informer stored for that key
+	 */
+	private Object putProjection(Object key, Informer<Informed> projected) {
+		Object returned = createProjected(projected);
+		Object existing = projections.putIfAbsent(key, returned);
+		return existing==null ? returned : existing;
+	}
+
+	public FieldInformer get(String string) {
+		return realInformer.get(string);
+	}
+
+	public FieldInformer get(String string, Collection<Property> propertyPath) {
+		return realInformer.get(string, propertyPath);
+	}
+
+	public Collection<FieldInformer> getAllFieldInformers() {
+		return realInformer.getAllFieldInformers();
+	}
+
+	public Collection<Property> getAllFields() {
+		return realInformer.getAllFields();
+	}
+
+	public QueryExpression equalsTo(Object value) {
+		return realInformer.equalsTo(value);
+	}
+
+	public Property getField() {
+		return realInformer.getField();
+	}
+
+	public Iterable<Property> getFieldPath() {
+		return realInformer.getFieldPath();
+	}
+
+	@SuppressWarnings("unchecked")
+	public Informer<Informed> asField(Property field) {
+		Object key = Arrays.asList("asField", field);
+		Object returned = projections.get(key);
+		if(returned==null)
+			returned = putProjection(key, realInformer.asField(field));
+		return (Informer<Informed>) returned;
+	}
+
+	@SuppressWarnings("unchecked")
+	public FieldInformer with(Collection<Property> propertyPath) {
+		Object key = Arrays.asList("with", new ArrayList<Property>(propertyPath));
+		Object returned = projections.get(key);
+		if(returned==null)
+			returned = putProjection(key, (Informer<Informed>) ((FieldInformerAPI<Informed>) realInformer).with(propertyPath));
+		return (FieldInformer) returned;
+	}
+
+	/**
+	 * Upon validation, generated classes load all their field informers, which may fail noisily.
+	 */
+	@Override
+	public void validate() {
+	}
+
+	public Informer<Informed> getRealInformer() {
+		return realInformer;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sOut = new StringBuilder();
+		sOut.append(getClass().getName()).append("(");
+		sOut.append("informerClass:").append(getInformerClass().getName());
+		sOut.append("; realInformer:").append(realInformer.getClass().getName());
+		sOut.append(")");
+		return sOut.toString();
+	}
+}
@@ -1,8 +1,13 @@
 package com.dooapp.gaedo.finders.root;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import com.dooapp.gaedo.finders.FinderCrudService;
 import com.dooapp.gaedo.finders.Informer;
 
 /**
@@ -16,7 +21,18 @@ public abstract class AbstractInformerFactory {
 	/**
 	 * Map of loaded informers. Notice contained informers are often more "intelligent" instances than raw {@link Informer} (typically proxies)
 	 */
-	protected Map<Class, Informer> loaded = new HashMap();
+	protected Map<Class, Informer> loaded = new ConcurrentHashMap<Class, Informer>();
+	/**
+	 * Map of loaded informers, by informer class and contained type. This is the map {@link #get(Class, Class)} reads from : reads are lock-free,
+	 * only informers creation is synchronized. Each informer published here is also put in {@link #loaded}.
+	 */
+	private final ConcurrentMap<List<Class<?>>, Informer<?>> informers = new ConcurrentHashMap<List<Class<?>>, Informer<?>>();
+	/**
+	 * Informers created but not yet validated, by the same key than {@link #informers}. Only accessed while holding the creation lock.
+	 * They're visible to the creating thread (which allows circular references), but are only published in {@link #informers}
+	 * once the outermost creation has been validated, so other threads never see an informer whose validation isn't finished.
+	 */
+	private final Map<List<Class<?>>, Informer<?>> creating = new HashMap<List<Class<?>>, Informer<?>>();
 	/**
 	 * Basic informer factory, to provide raw {@link Informer} for input classes
 	 */
@@ -43,21 +59,58 @@ public abstract class AbstractInformerFactory {
 	public <InformerType extends Informer<ContainedType>, ContainedType> InformerType get(
 			Class<InformerType> informerClass,
 			Class<ContainedType> containedType) {
-		if (!loaded.containsKey(informerClass)) {
+		List<Class<?>> key = Arrays.<Class<?>> asList(informerClass, containedType);
+		Informer<?> returned = informers.get(key);
+		if (returned==null) {
+			// Creation stays in a (reentrant) lock, as validation of an informer may require loading informers referencing it
 			synchronized (this) {
-				if (!loaded.containsKey(informerClass)) {
-					Informer<ContainedType> reflectiveInformer = reflectiveInformerFactory.get(containedType);
-					InformerType dynamicInformer = createDynamicInformer(informerClass, containedType, reflectiveInformer);
-					loaded.put(informerClass,
-							dynamicInformer);
-					// Separation of loading and validation allows circular references
-					if(dynamicInformer instanceof Validable) {
-						((Validable) dynamicInformer).validate();
+				returned = informers.get(key);
+				if (returned==null)
+					returned = creating.get(key);
+				if (returned==null) {
+					boolean outermost = creating.isEmpty();
+					try {
+						Informer<ContainedType> reflectiveInformer = reflectiveInformerFactory.get(containedType);
+						InformerType dynamicInformer = createDynamicInformer(informerClass, containedType, reflectiveInformer);
+						creating.put(key, dynamicInformer);
+						// Separation of loading and validation allows circular references
+						if(dynamicInformer instanceof Validable) {
+							((Validable) dynamicInformer).validate();
+						}
+						if(outermost)
+							publish();
+						returned = dynamicInformer;
+					} finally {
+						// on failure, informers created along with the failed one are dropped, as they may reference it
+						if(outermost)
+							creating.clear();
 					}
 				}
 			}
 		}
-		return (InformerType) loaded.get(informerClass);
+		return informerClass.cast(returned);
+	}
+
+	/**
+	 * Publish all {@link #creating} informers, once outermost one has been validated. Must be called while holding the creation lock.
+	 */
+	private void publish() {
+		for(Map.Entry<List<Class<?>>, Informer<?>> entry : creating.entrySet()) {
+			informers.put(entry.getKey(), entry.getValue());
+			loaded.put(entry.getKey().get(0), entry.getValue());
+		}
+	}
+
+	/**
+	 * Load, at startup, informers (and, as a consequence, properties) used by the given services, in order for the first queries not to pay the
+	 * reflection cost
+	 * @param services services to warm up, typically the values of a {@link com.dooapp.gaedo.finders.repository.ServiceRepository}
+	 */
+	public void warmup(Iterable<? extends FinderCrudService<?, ?>> services) {
+		for(FinderCrudService<?, ?> service : services) {
+			reflectiveInformerFactory.get(service.getContainedClass()).getAllFieldInformers();
+			service.getInformer();
+		}
 	}
 
 	/**
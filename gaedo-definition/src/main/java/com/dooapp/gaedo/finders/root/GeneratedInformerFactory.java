@@ -0,0 +1,57 @@
+package com.dooapp.gaedo.finders.root;
+
+import java.lang.reflect.Constructor;
+
+import com.dooapp.gaedo.finders.Informer;
+
+/**
+ * Informer factory using, when available, informer implementations generated by gaedo-informer-generator (see {@link AbstractGeneratedInformer}).
+ * For an informer interface named <code>UserInformer</code>, the implementation looked for is <code>UserInformerImpl</code>, in the same package.
+ * When no such implementation exists (typically for hand-written informer interfaces), this factory falls back to the proxies created by
+ * {@link ProxyBackedInformerFactory}. As a consequence, it can be used anywhere a {@link ProxyBackedInformerFactory} is.
+ * @author ndx
+ *
+ */
+public class GeneratedInformerFactory extends ProxyBackedInformerFactory {
+	/**
+	 * Suffix appended to informer interface name to get name of generated implementation
+	 */
+	public static final String IMPLEMENTATION_SUFFIX = "Impl";
+
+	public GeneratedInformerFactory(ReflectionBackedInformerFactory reflectiveInformerFactory) {
+		super(reflectiveInformerFactory);
+	}
+
+	@Override
+	protected <InformerType extends Informer<ContainedType>, ContainedType> InformerType createDynamicInformer(
+			Class<InformerType> informerClass,
+			Class<ContainedType> containedType,
+			Informer<ContainedType> existingInformer) {
+		Class<?> implementation = findImplementation(informerClass);
+		if(implementation==null) {
+			return super.createDynamicInformer(informerClass, containedType, existingInformer);
+		}
+		try {
+			Constructor<?> constructor = implementation.getConstructor(Informer.class);
+			return informerClass.cast(constructor.newInstance(existingInformer));
+		} catch (Exception e) {
+			throw new InvocationFailedException(e);
+		}
+	}
+
+	/**
+	 * Find generated implementation of an informer interface
+	 * @param informerClass
+	 * @return generated implementation class, or null if none exist
+	 */
+	protected Class<?> findImplementation(Class<?> informerClass) {
+		try {
+			Class<?> returned = Class.forName(informerClass.getName()+IMPLEMENTATION_SUFFIX, true, informerClass.getClassLoader());
+			if(informerClass.isAssignableFrom(returned) && AbstractGeneratedInformer.class.isAssignableFrom(returned))
+				return returned;
+		} catch(ClassNotFoundException e) {
+			// no generated implementation, which is perfectly fine
+		}
+		return null;
+	}
+}
@@ -4,7 +4,11 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Logger;
 
 import com.dooapp.gaedo.CrudServiceException;
@@ -103,6 +107,12 @@ public class InformerClassInvocationHandler<InformerType extends Informer<Contai
 	 */
 	protected final Informer<ContainedType> realInformer;
 
+	/**
+	 * Proxies returned by projector methods, by method and arguments. Creating a proxy (and its handler, and all its method resolvers)
+	 * is far too costly to be done on each projection.
+	 */
+	private final ConcurrentMap<List<Object>, Object> projections = new ConcurrentHashMap<List<Object>, Object>();
+
 	/**
 	 * This class used to eager load all methods, but this generates failures in case when a class refers to
 	 * itself as member (see Tag test bean for an example of such a configuration).
@@ -249,7 +259,8 @@ public class InformerClassInvocationHandler<InformerType extends Informer<Contai
 	}
 
 	/**
-	 * A new proxy is created, proxying the object returned by {@link Informer#asField(java.lang.reflect.Field)} with the same interface than the source {@link #realInformer}
+	 * A proxy is created, proxying the object returned by {@link Informer#asField(java.lang.reflect.Field)} with the same interface than the source {@link #realInformer}.
+	 * That proxy is kept and returned for any later call with the same arguments.
 	 * @param invokedMethod
 	 * @param invokedArgs
 	 * @return
@@ -257,9 +268,22 @@ public class InformerClassInvocationHandler<InformerType extends Informer<Contai
 	 */
 	private Object invokeProjectorMethod(Method invokedMethod,
 			Object[] invokedArgs) throws Throwable {
-		Informer asField = (Informer) invokedMethod.invoke(realInformer, invokedArgs);
-		return Proxy.newProxyInstance(informerClass.getClassLoader(), new Class<?>[] {informerClass},
-				new InformerClassInvocationHandler(informerClass, containedType, asField));
+		List<Object> key = new ArrayList<Object>();
+		key.add(invokedMethod);
+		for(Object arg : invokedArgs) {
+			// Collections are copied, as caller may later modify them
+			key.add(arg instanceof Collection ? new ArrayList<Object>((Collection<?>) arg) : arg);
+		}
+		Object returned = projections.get(key);
+		if(returned==null) {
+			Informer asField = (Informer) invokedMethod.invoke(realInformer, invokedArgs);
+			returned = Proxy.newProxyInstance(informerClass.getClassLoader(), new Class<?>[] {informerClass},
+					new InformerClassInvocationHandler(informerClass, containedType, asField));
+			Object existing = projections.putIfAbsent(key, returned);
+			if(existing!=null)
+				returned = existing;
+		}
+		return returned;
 	}
 
 	/**
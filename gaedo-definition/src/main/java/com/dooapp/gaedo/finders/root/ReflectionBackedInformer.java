@@ -151,9 +151,10 @@ public class ReflectionBackedInformer<DataType> implements Informer<DataType> {
 	private final Class<DataType> informedClass;
 
 	/**
-	 * Map linking known properties to effective informers. Notice this map is to be lazily loaded by {@link #loadFieldsInformers(ReflectionBackedInformerFactory)}
+	 * Map linking known properties to effective informers. Notice this map is to be lazily loaded by {@link #loadFieldsInformers(ReflectionBackedInformerFactory)}.
+	 * It is only published once fully loaded, so concurrent readers at worst load it twice.
 	 */
-	private Map<Property, FieldInformer> fields;
+	private volatile Map<Property, FieldInformer> fields;
 
 	private PropertyProvider propertyProvider;
 
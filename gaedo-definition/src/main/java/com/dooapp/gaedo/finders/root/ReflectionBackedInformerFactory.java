@@ -1,7 +1,7 @@
 package com.dooapp.gaedo.finders.root;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.dooapp.gaedo.finders.FieldInformer;
 import com.dooapp.gaedo.finders.FieldInformerAPI;
@@ -20,7 +20,7 @@ public class ReflectionBackedInformerFactory {
 	 * Map linking object classes to reflection backed informers used to gather
 	 * field informations for these classes
 	 */
-	private Map<Class<?>, ReflectionBackedInformer<?>> loaded = new HashMap<Class<?>, ReflectionBackedInformer<?>>();
+	private final ConcurrentMap<Class<?>, ReflectionBackedInformer<?>> loaded = new ConcurrentHashMap<Class<?>, ReflectionBackedInformer<?>>();
 
 	/**
 	 * Pluggable field informer locator
@@ -45,15 +45,18 @@ public class ReflectionBackedInformerFactory {
 	 * @return loaded informer for that class
 	 */
 	public <T> Informer<T> get(Class<T> clazz) {
-		if (!loaded.containsKey(clazz)) {
+		ReflectionBackedInformer<?> returned = loaded.get(clazz);
+		if (returned==null) {
 			synchronized (this) {
-				if (!loaded.containsKey(clazz)) {
-					loaded.put(clazz, new ReflectionBackedInformer<T>(clazz,
-							this, propertyProvider));
+				returned = loaded.get(clazz);
+				if (returned==null) {
+					returned = new ReflectionBackedInformer<T>(clazz,
+							this, propertyProvider);
+					loaded.put(clazz, returned);
 				}
 			}
 		}
-		return (Informer<T>) loaded.get(clazz);
+		return (Informer<T>) returned;
 	}
 
 	/**
@@ -4,6 +4,8 @@ import com.dooapp.gaedo.finders.Finder;
 import com.dooapp.gaedo.finders.Informer;
 import com.dooapp.gaedo.finders.QueryBuilder;
 import com.dooapp.gaedo.finders.QueryStatement;
+import com.dooapp.gaedo.finders.cache.CachingQueryStatement;
+import com.dooapp.gaedo.finders.cache.QueryCache;
 
 /**
  * Ultra-simple finder class
@@ -28,10 +30,14 @@ class SimpleFinder<DataType, InformerType extends Informer<DataType>>
 	}
 
 	/**
-	 * Build a query statement from the input query builder provided. Notice that we provide the query a maybe not unique id
+	 * Build a query statement from the input query builder provided. Notice that we provide the query a maybe not unique id.
+	 * When service has a {@link QueryCache}, the statement is decorated to use it.
 	 */
 	public QueryStatement<DataType, DataType, InformerType> matching(QueryBuilder<InformerType> query) {
 		QueryStatement<DataType, DataType, InformerType> returned = service.createQueryStatement(query);
+		QueryCache cache = service.getQueryCache();
+		if(cache!=null)
+			returned = new CachingQueryStatement<DataType, InformerType>(returned, cache, service);
 		StackTraceElement creator = new Throwable().getStackTrace()[1];
 		returned.setId(creator.getClassName()+" "+creator.getMethodName());
 		return returned;
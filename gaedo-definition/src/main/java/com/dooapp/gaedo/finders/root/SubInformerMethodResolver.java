@@ -15,6 +15,11 @@ public class SubInformerMethodResolver implements MethodResolver {
 	private Informer<?> informer;
 	private String fieldName;
 
+	/**
+	 * Field informer returned by {@link #call(Object[])}. As field informers are immutable, it is loaded once, then kept.
+	 */
+	private volatile Object loaded;
+
 	public SubInformerMethodResolver(Class<?> returnType,
 			Informer<?> realInformer, String realFieldName) {
 		this.returnType = returnType;
@@ -33,13 +38,18 @@ public class SubInformerMethodResolver implements MethodResolver {
 	}
 
 	/**
-	 * Call method and return given result
+	 * Call method and return given result. Result is obtained from informer on first call only.
 	 * @param invokedArgs
 	 * @return
 	 */
 	@Override
 	public Object call(Object[] invokedArgs) {
-		return returnType.cast(informer.get(fieldName));
+		Object returned = loaded;
+		if(returned==null) {
+			returned = returnType.cast(informer.get(fieldName));
+			loaded = returned;
+		}
+		return returned;
 	}
 
 }
@@ -1,7 +1,7 @@
 package com.dooapp.gaedo.properties;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Facade for property provider providing a caching feature (hope this will accelerate code)
@@ -12,7 +12,7 @@ public class CachingPropertyProvider implements PropertyProvider {
 	/**
 	 * Cache of loaded classes to properties association
 	 */
-	private Map<Class<?>, Property[]> classes = new HashMap<Class<?>, Property[]>();
+	private final ConcurrentMap<Class<?>, Property[]> classes = new ConcurrentHashMap<Class<?>, Property[]>();
 	/**
 	 * Source property provider
 	 */
@@ -25,10 +25,26 @@ public class CachingPropertyProvider implements PropertyProvider {
 
 	@Override
 	public Property[] get(Class<?> containedClass) {
-		if(!classes.containsKey(containedClass)) {
-			classes.put(containedClass, source.get(containedClass));
+		Property[] returned = classes.get(containedClass);
+		if(returned==null) {
+			returned = source.get(containedClass);
+			Property[] existing = classes.putIfAbsent(containedClass, returned);
+			if(existing!=null)
+				returned = existing;
+		}
+		return returned;
+	}
+
+	/**
+	 * Load properties of the given classes (and of their superclasses) at startup, rather than on first use
+	 * @param containedClasses
+	 */
+	public void warmup(Class<?>... containedClasses) {
+		for(Class<?> containedClass : containedClasses) {
+			for(Class<?> current = containedClass; current!=null && !Object.class.equals(current); current = current.getSuperclass()) {
+				get(current);
+			}
 		}
-		return classes.get(containedClass);
 	}
 
 }
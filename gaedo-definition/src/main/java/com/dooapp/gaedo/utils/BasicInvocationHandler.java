@@ -4,10 +4,11 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.dooapp.gaedo.CrudServiceException;
 
@@ -21,9 +22,9 @@ import com.dooapp.gaedo.CrudServiceException;
 public abstract class BasicInvocationHandler<ImplementedType, VirtualMethodResolver extends MethodResolver> {
 
 	/**
-	 * Map of method resolvers.
+	 * Map of method resolvers. As handlers are shared by all threads using a proxy, it has to be a concurrent one.
 	 */
-	private final Map<Method, VirtualMethodResolver> resolvers = new HashMap<Method, VirtualMethodResolver>();
+	private final ConcurrentMap<Method, VirtualMethodResolver> resolvers = new ConcurrentHashMap<Method, VirtualMethodResolver>();
 
 	/**
 	 * Map of method resolvers usable by subclass. This one is a read-only view
@@ -88,16 +89,20 @@ public abstract class BasicInvocationHandler<ImplementedType, VirtualMethodResol
 	}
 
 	/**
-	 * Get resolver and cache it
+	 * Get resolver and cache it. When two threads concurrently create a resolver for the same method, only the first one stored is kept.
 	 * 
 	 * @param method
 	 * @return
 	 */
 	protected VirtualMethodResolver getResolver(Method method) {
-		if (!resolvers.containsKey(method)) {
-			resolvers.put(method, createResolver(method));
+		VirtualMethodResolver returned = resolvers.get(method);
+		if (returned==null) {
+			returned = createResolver(method);
+			VirtualMethodResolver existing = resolvers.putIfAbsent(method, returned);
+			if(existing!=null)
+				returned = existing;
 		}
-		return resolvers.get(method);
+		return returned;
 	}
 
 	/**
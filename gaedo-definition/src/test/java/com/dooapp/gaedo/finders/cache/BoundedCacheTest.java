@@ -0,0 +1,46 @@
+package com.dooapp.gaedo.finders.cache;
+
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsNull;
+import org.junit.Test;
+
+import static org.junit.Assert.assertThat;
+
+public class BoundedCacheTest {
+
+	@Test
+	public void smallCacheEvictsLeastRecentlyUsedEntry() {
+		BoundedCache<String, Integer> cache = new BoundedCache<String, Integer>(2);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		// make "b" the least recently used entry
+		cache.get("a");
+		cache.put("c", 3);
+		assertThat(cache.get("b"), IsNull.nullValue());
+		assertThat(cache.get("a"), Is.is(1));
+		assertThat(cache.get("c"), Is.is(3));
+		assertThat(cache.getEvictions(), Is.is(1l));
+	}
+
+	@Test
+	public void segmentedCacheNeverExceedsMaximumSize() {
+		int maximumSize = BoundedCache.MINIMUM_SEGMENT_SIZE*BoundedCache.DEFAULT_SEGMENTS+5;
+		BoundedCache<String, Integer> cache = new BoundedCache<String, Integer>(maximumSize);
+		for (int index = 0; index < maximumSize*3; index++) {
+			cache.put("key"+index, index);
+		}
+		assertThat(cache.size()<=maximumSize, Is.is(true));
+		assertThat(cache.size()+cache.getEvictions(), Is.is((long) maximumSize*3));
+	}
+
+	@Test
+	public void removeWithValueOnlyRemovesThatValue() {
+		BoundedCache<String, Integer> cache = new BoundedCache<String, Integer>(10);
+		Integer first = new Integer(1000);
+		cache.put("a", first);
+		assertThat(cache.remove("a", new Integer(1000)), Is.is(false));
+		assertThat(cache.putIfAbsent("a", 2), Is.is(first));
+		assertThat(cache.remove("a", first), Is.is(true));
+		assertThat(cache.size(), Is.is(0));
+	}
+}
@@ -0,0 +1,135 @@
+package com.dooapp.gaedo.finders.dynamic;
+
+import java.lang.reflect.Method;
+
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dooapp.gaedo.exceptions.finder.dynamic.UnableToBuildQueryExpressionException;
+import com.dooapp.gaedo.finders.QueryExpression;
+import com.dooapp.gaedo.finders.expressions.AnythingExpression;
+import com.dooapp.gaedo.finders.expressions.EqualsExpression;
+import com.dooapp.gaedo.finders.expressions.StartsWithExpression;
+import com.dooapp.gaedo.finders.informers.StringFieldInformer;
+import com.dooapp.gaedo.properties.FieldBackedPropertyProvider;
+import com.dooapp.gaedo.properties.Property;
+import com.dooapp.gaedo.properties.RootBean;
+
+/**
+ * Ensure templates call the informer method they were compiled for, even when a custom informer overloads a known method, and that
+ * informer failures are reported the same way whatever the template kind
+ * @author ndx
+ *
+ */
+public class QueryExpressionTemplateTest {
+	/**
+	 * Custom informer overloading some known methods with the same arity
+	 * @author ndx
+	 *
+	 */
+	public static class OverloadingInformer extends StringFieldInformer {
+		private int overloadCalls = 0;
+
+		public OverloadingInformer(Property source) {
+			super(source);
+		}
+
+		public QueryExpression startsWith(Integer length) {
+			overloadCalls++;
+			if(length<0)
+				throw new IllegalArgumentException("length can't be negative");
+			return super.startsWith(Integer.toString(length));
+		}
+
+		public QueryExpression equalsTo(String value) {
+			overloadCalls++;
+			return super.startsWith(value);
+		}
+
+		@Override
+		public QueryExpression endsWith(String end) {
+			throw new IllegalStateException("endsWith is not supported");
+		}
+	}
+
+	private OverloadingInformer informer;
+
+	@Before
+	public void createInformer() {
+		for(Property property : new FieldBackedPropertyProvider().get(RootBean.class)) {
+			if(RootBean.Names.S.equals(property.getName()))
+				informer = new OverloadingInformer(property);
+		}
+	}
+
+	private QueryExpression create(String name, Class<?> parameter, Object... args) throws Exception {
+		Method method = parameter==null ? OverloadingInformer.class.getMethod(name) : OverloadingInformer.class.getMethod(name, parameter);
+		QueryExpressionTemplate template = QueryExpressionTemplate.compile(informer, method);
+		Assert.assertThat(template.getArity(), Is.is(method.getParameterTypes().length));
+		// Template arguments are given at an offset of invocation arguments
+		Object[] invocation = new Object[args.length+1];
+		System.arraycopy(args, 0, invocation, 1, args.length);
+		return template.create(invocation, 1);
+	}
+
+	@Test
+	public void testKnownMethodIsCalled() throws Exception {
+		QueryExpression created = create("startsWith", String.class, "a");
+		Assert.assertThat(created, IsInstanceOf.instanceOf(StartsWithExpression.class));
+		Assert.assertThat(((StartsWithExpression) created).getStart(), Is.is("a"));
+		Assert.assertThat(informer.overloadCalls, Is.is(0));
+	}
+
+	@Test
+	public void testOverloadOfKnownMethodIsCalled() throws Exception {
+		QueryExpression created = create("startsWith", Integer.class, 12);
+		Assert.assertThat(((StartsWithExpression) created).getStart(), Is.is("12"));
+		Assert.assertThat(informer.overloadCalls, Is.is(1));
+	}
+
+	@Test
+	public void testOverloadOfEqualsToIsCalled() throws Exception {
+		Assert.assertThat(create("equalsTo", String.class, "a"), IsInstanceOf.instanceOf(StartsWithExpression.class));
+		Assert.assertThat(informer.overloadCalls, Is.is(1));
+		Assert.assertThat(create("equalsTo", Object.class, "a"), IsInstanceOf.instanceOf(EqualsExpression.class));
+		Assert.assertThat(informer.overloadCalls, Is.is(1));
+	}
+
+	@Test
+	public void testNoArgumentMethodIsCalled() throws Exception {
+		Assert.assertThat(create("isAnything", null), IsInstanceOf.instanceOf(AnythingExpression.class));
+	}
+
+	@Test
+	public void testBadArgumentOfKnownMethodIsWrapped() throws Exception {
+		try {
+			create("startsWith", String.class, 12);
+			Assert.fail("an Integer can't be used as a String");
+		} catch(UnableToBuildQueryExpressionException e) {
+			Assert.assertThat(e.getCause(), IsInstanceOf.instanceOf(ClassCastException.class));
+		}
+	}
+
+	@Test
+	public void testFailureOfKnownMethodIsWrapped() throws Exception {
+		try {
+			create("endsWith", String.class, "a");
+			Assert.fail("endsWith always fails");
+		} catch(UnableToBuildQueryExpressionException e) {
+			Assert.assertThat(e.getCause(), IsInstanceOf.instanceOf(IllegalStateException.class));
+		}
+	}
+
+	@Test
+	public void testFailureOfCustomMethodIsWrapped() throws Exception {
+		try {
+			create("startsWith", Integer.class, -1);
+			Assert.fail("a negative length is rejected");
+		} catch(UnableToBuildQueryExpressionException e) {
+			Assert.assertThat(e.getCause(), IsInstanceOf.instanceOf(IllegalArgumentException.class));
+		}
+	}
+}
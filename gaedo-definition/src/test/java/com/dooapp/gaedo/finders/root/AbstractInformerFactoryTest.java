@@ -0,0 +1,209 @@
+package com.dooapp.gaedo.finders.root;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hamcrest.core.Is;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dooapp.gaedo.finders.Informer;
+import com.dooapp.gaedo.properties.FieldBackedPropertyProvider;
+import com.dooapp.gaedo.properties.LeafBean;
+import com.dooapp.gaedo.properties.RootBean;
+
+/**
+ * Ensure informers are created once, even when many threads ask for them, and that no thread ever gets an informer whose validation
+ * isn't finished
+ * @author ndx
+ *
+ */
+public class AbstractInformerFactoryTest {
+	public static interface RootBeanInformer extends Informer<RootBean> {
+	}
+
+	public static interface LeafBeanInformer extends Informer<LeafBean> {
+	}
+
+	/**
+	 * Informer which validation can be made slow, failing, or loading another informer
+	 * @author ndx
+	 *
+	 */
+	public static class ValidatedInformer<Informed> extends AbstractGeneratedInformer<Informed> {
+		private final TestedFactory factory;
+		private volatile boolean validated = false;
+
+		public ValidatedInformer(TestedFactory factory, Informer<Informed> realInformer) {
+			super(realInformer);
+			this.factory = factory;
+		}
+
+		@Override
+		public void validate() {
+			super.validate();
+			factory.validations.incrementAndGet();
+			try {
+				if(factory.validationStarted!=null) {
+					factory.validationStarted.countDown();
+					factory.validationAllowed.await(10, TimeUnit.SECONDS);
+				}
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+			if(factory.failures.getAndDecrement()>0)
+				throw new IllegalStateException("validation failed");
+			if(factory.circular && this instanceof RootBeanInformer) {
+				factory.get(LeafBeanInformer.class, LeafBean.class);
+			} else if(factory.circular) {
+				factory.circularInformer = factory.get(RootBeanInformer.class, RootBean.class);
+			}
+			validated = true;
+		}
+
+		@Override
+		protected Object createProjected(Informer<Informed> projected) {
+			return new ValidatedInformer<Informed>(factory, projected);
+		}
+
+		@Override
+		public Class<?> getInformerClass() {
+			return Informer.class;
+		}
+	}
+
+	public static class ValidatedRootBeanInformer extends ValidatedInformer<RootBean> implements RootBeanInformer {
+		public ValidatedRootBeanInformer(TestedFactory factory, Informer<RootBean> realInformer) {
+			super(factory, realInformer);
+		}
+	}
+
+	public static class ValidatedLeafBeanInformer extends ValidatedInformer<LeafBean> implements LeafBeanInformer {
+		public ValidatedLeafBeanInformer(TestedFactory factory, Informer<LeafBean> realInformer) {
+			super(factory, realInformer);
+		}
+	}
+
+	private static class TestedFactory extends AbstractInformerFactory {
+		private final AtomicInteger creations = new AtomicInteger();
+		private final AtomicInteger validations = new AtomicInteger();
+		private final AtomicInteger failures = new AtomicInteger();
+		private CountDownLatch validationStarted;
+		private CountDownLatch validationAllowed;
+		private boolean circular = false;
+		private Informer<?> circularInformer;
+
+		public TestedFactory() {
+			super(new ReflectionBackedInformerFactory(new BasicFieldInformerLocator(), new FieldBackedPropertyProvider()));
+		}
+
+		@Override
+		protected <InformerType extends Informer<ContainedType>, ContainedType> InformerType createDynamicInformer(Class<InformerType> informerClass,
+						Class<ContainedType> containedType, Informer<ContainedType> existingInformer) {
+			creations.incrementAndGet();
+			if(RootBeanInformer.class.equals(informerClass)) {
+				return informerClass.cast(new ValidatedRootBeanInformer(this, (Informer<RootBean>) existingInformer));
+			} else {
+				return informerClass.cast(new ValidatedLeafBeanInformer(this, (Informer<LeafBean>) existingInformer));
+			}
+		}
+	}
+
+	private TestedFactory tested;
+	private ExecutorService executor;
+
+	@Before
+	public void prepare() {
+		tested = new TestedFactory();
+		executor = Executors.newFixedThreadPool(8);
+	}
+
+	@After
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private Callable<RootBeanInformer> getter(final CountDownLatch start) {
+		return new Callable<RootBeanInformer>() {
+			public RootBeanInformer call() throws Exception {
+				start.await();
+				return tested.get(RootBeanInformer.class, RootBean.class);
+			}
+		};
+	}
+
+	@Test
+	public void testConcurrentGetsCreateOneInformer() throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<RootBeanInformer>> results = new ArrayList<Future<RootBeanInformer>>();
+		for (int index = 0; index < 32; index++) {
+			results.add(executor.submit(getter(start)));
+		}
+		start.countDown();
+		RootBeanInformer first = results.get(0).get(10, TimeUnit.SECONDS);
+		for (Future<RootBeanInformer> result : results) {
+			Assert.assertSame(first, result.get(10, TimeUnit.SECONDS));
+		}
+		Assert.assertThat(tested.creations.get(), Is.is(1));
+		Assert.assertThat(tested.validations.get(), Is.is(1));
+	}
+
+	@Test
+	public void testInformerIsNotVisibleBeforeValidation() throws Exception {
+		tested.validationStarted = new CountDownLatch(1);
+		tested.validationAllowed = new CountDownLatch(1);
+		CountDownLatch start = new CountDownLatch(1);
+		start.countDown();
+		Future<RootBeanInformer> creator = executor.submit(getter(start));
+		Assert.assertTrue(tested.validationStarted.await(10, TimeUnit.SECONDS));
+		// while validation runs, another thread must wait for it
+		Future<RootBeanInformer> reader = executor.submit(getter(start));
+		Thread.sleep(100);
+		Assert.assertThat(reader.isDone(), Is.is(false));
+		tested.validationAllowed.countDown();
+		ValidatedInformer<?> read = (ValidatedInformer<?>) reader.get(10, TimeUnit.SECONDS);
+		Assert.assertThat(read.validated, Is.is(true));
+		Assert.assertSame(creator.get(10, TimeUnit.SECONDS), read);
+	}
+
+	@Test
+	public void testFailedValidationIsNotCached() {
+		tested.failures.set(1);
+		try {
+			tested.get(RootBeanInformer.class, RootBean.class);
+			Assert.fail("first validation fails");
+		} catch(IllegalStateException e) {
+			// expected
+		}
+		ValidatedInformer<?> informer = (ValidatedInformer<?>) tested.get(RootBeanInformer.class, RootBean.class);
+		Assert.assertThat(informer.validated, Is.is(true));
+		Assert.assertThat(tested.creations.get(), Is.is(2));
+	}
+
+	@Test
+	public void testCircularReferencesAreResolved() {
+		tested.circular = true;
+		RootBeanInformer root = tested.get(RootBeanInformer.class, RootBean.class);
+		// leaf informer validation got the root informer being validated
+		Assert.assertSame(root, tested.circularInformer);
+		LeafBeanInformer leaf = tested.get(LeafBeanInformer.class, LeafBean.class);
+		Assert.assertThat(((ValidatedInformer<?>) leaf).validated, Is.is(true));
+		Assert.assertThat(tested.creations.get(), Is.is(2));
+	}
+
+	@Test
+	public void testInformersAreKeyedByContainedType() {
+		RootBeanInformer root = tested.get(RootBeanInformer.class, RootBean.class);
+		Assert.assertSame(root, tested.get(RootBeanInformer.class, RootBean.class));
+		Assert.assertNotSame(root, tested.get(LeafBeanInformer.class, LeafBean.class));
+	}
+}
@@ -0,0 +1,115 @@
+package com.dooapp.gaedo.finders.root;
+
+import java.lang.reflect.Proxy;
+
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dooapp.gaedo.finders.Informer;
+import com.dooapp.gaedo.finders.informers.StringFieldInformer;
+import com.dooapp.gaedo.properties.FieldBackedPropertyProvider;
+import com.dooapp.gaedo.properties.PropertyProvider;
+import com.dooapp.gaedo.properties.RootBean;
+
+/**
+ * Ensure {@link GeneratedInformerFactory} uses generated implementations when they exist, and proxies elsewhere
+ * @author ndx
+ *
+ */
+public class GeneratedInformerFactoryTest {
+	public static interface RootBeanInformer extends Informer<RootBean> {
+		StringFieldInformer getS();
+	}
+
+	/**
+	 * Implementation written the way gaedo-informer-generator does
+	 * @author ndx
+	 *
+	 */
+	public static class RootBeanInformerImpl extends AbstractGeneratedInformer<RootBean> implements RootBeanInformer {
+		private volatile StringFieldInformer sInformer;
+
+		public RootBeanInformerImpl(Informer<RootBean> realInformer) {
+			super(realInformer);
+		}
+
+		public StringFieldInformer getS() {
+			StringFieldInformer returned = sInformer;
+			if (returned == null) {
+				returned = (StringFieldInformer) get("s");
+				sInformer = returned;
+			}
+			return returned;
+		}
+
+		@Override
+		protected Object createProjected(Informer<RootBean> projected) {
+			return new RootBeanInformerImpl(projected);
+		}
+
+		@Override
+		public Class<?> getInformerClass() {
+			return RootBeanInformer.class;
+		}
+	}
+
+	/**
+	 * An informer interface for which no implementation exists
+	 */
+	public static interface NotGeneratedRootBeanInformer extends Informer<RootBean> {
+		StringFieldInformer getS();
+	}
+
+	/**
+	 * An informer interface which implementation name is used by a class that is not an implementation
+	 */
+	public static interface WronglyGeneratedRootBeanInformer extends Informer<RootBean> {
+		StringFieldInformer getS();
+	}
+
+	public static class WronglyGeneratedRootBeanInformerImpl {
+	}
+
+	private GeneratedInformerFactory tested;
+
+	@Before
+	public void prepare() {
+		PropertyProvider provider = new FieldBackedPropertyProvider();
+		CumulativeFieldInformerLocator locator = new CumulativeFieldInformerLocator();
+		locator.add(new BasicFieldInformerLocator());
+		tested = new GeneratedInformerFactory(new ReflectionBackedInformerFactory(locator, provider));
+	}
+
+	@Test
+	public void testGeneratedImplementationIsUsed() {
+		RootBeanInformer informer = tested.get(RootBeanInformer.class, RootBean.class);
+		Assert.assertThat(informer, IsInstanceOf.instanceOf(RootBeanInformerImpl.class));
+		StringFieldInformer s = informer.getS();
+		Assert.assertThat(s.getField().getName(), Is.is(RootBean.Names.S));
+		Assert.assertSame(s, informer.getS());
+	}
+
+	@Test
+	public void testProxyIsUsedWhenNoImplementationExists() {
+		NotGeneratedRootBeanInformer informer = tested.get(NotGeneratedRootBeanInformer.class, RootBean.class);
+		Assert.assertThat(Proxy.isProxyClass(informer.getClass()), Is.is(true));
+		Assert.assertThat(informer.getS().getField().getName(), Is.is(RootBean.Names.S));
+	}
+
+	@Test
+	public void testProxyIsUsedWhenImplementationIsInvalid() {
+		Assert.assertNull(tested.findImplementation(WronglyGeneratedRootBeanInformer.class));
+		WronglyGeneratedRootBeanInformer informer = tested.get(WronglyGeneratedRootBeanInformer.class, RootBean.class);
+		Assert.assertThat(Proxy.isProxyClass(informer.getClass()), Is.is(true));
+		Assert.assertThat(informer.getS().getField().getName(), Is.is(RootBean.Names.S));
+	}
+
+	@Test
+	public void testImplementationLookup() {
+		Assert.assertSame(RootBeanInformerImpl.class, tested.findImplementation(RootBeanInformer.class));
+		Assert.assertNull(tested.findImplementation(NotGeneratedRootBeanInformer.class));
+	}
+}
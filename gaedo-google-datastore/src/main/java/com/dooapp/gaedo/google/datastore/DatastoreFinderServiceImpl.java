@@ -210,6 +210,7 @@ public class DatastoreFinderServiceImpl<DataType, InformerType extends Informer<
 			// notice we remove it in the finally block, to ensure it is done
 			// after all elements have been created
 			removeAccessed(key);
+			invalidateQueryCache();
 		}
 	}
 
@@ -242,6 +243,7 @@ public class DatastoreFinderServiceImpl<DataType, InformerType extends Informer<
 			keysToDelete.add(e.getKey());
 		}
 		datastore.delete(keysToDelete);
+		invalidateQueryCache();
 		if (logger.isLoggable(Level.FINE)) {
 			logger.fine("object " + toDelete + " has been deleted");
 		}
@@ -517,6 +519,7 @@ public class DatastoreFinderServiceImpl<DataType, InformerType extends Informer<
 			} else {
 				cache.put(KEY_TO_EVICT, key);
 			}
+			invalidateQueryCache();
 		}
 	}
 
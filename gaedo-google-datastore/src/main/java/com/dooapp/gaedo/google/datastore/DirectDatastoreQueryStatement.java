@@ -65,13 +65,23 @@ public class DirectDatastoreQueryStatement<DataType, InformerType extends Inform
 		this.repository = repository;
 	}
 
+	/**
+	 * Lazily build filter expression from query. Once built, it is memorized in {@link #filterExpression}, which allows visitors
+	 * (see {@link #accept(QueryExpressionContainerVisitor)}) to be used before query is run.
+	 * @return the filter expression
+	 */
+	private QueryExpression getFilterExpression() {
+		if(filterExpression==null) {
+			filterExpression = query.createMatchingExpression(service.getInformer());
+		}
+		return filterExpression;
+	}
+
 	private DataStoreExecutableQuery prepareQuery() {
 		try {
 			GAEQueryBuilder builder = new GAEQueryBuilder(service.getKind(),
 					service.getIdManager(), repository);
-			InformerType informer = service.getInformer();
-			filterExpression = query.createMatchingExpression(informer);
-			filterExpression.accept(builder);
+			getFilterExpression().accept(builder);
 			return builder.getQuery(datastore, sortingExpression);
 		} finally {
 			setState(State.MATCHING);
@@ -149,7 +159,7 @@ public class DirectDatastoreQueryStatement<DataType, InformerType extends Inform
 	@Override
 	public void accept(QueryExpressionContainerVisitor visitor) {
 		visitor.startVisit(this);
-		filterExpression.accept(visitor);
+		getFilterExpression().accept(visitor);
 		sortingExpression.accept(visitor);
 		visitor.endVisit(this);
 	}
@@ -8,6 +8,7 @@ import com.dooapp.gaedo.finders.repository.SimpleServiceRepository;
 import com.dooapp.gaedo.finders.root.BasicFieldInformerLocator;
 import com.dooapp.gaedo.finders.root.CumulativeFieldInformerLocator;
 import com.dooapp.gaedo.finders.root.FieldInformerLocator;
+import com.dooapp.gaedo.finders.root.GeneratedInformerFactory;
 import com.dooapp.gaedo.finders.root.ProxyBackedInformerFactory;
 import com.dooapp.gaedo.finders.root.ReflectionBackedInformerFactory;
 import com.dooapp.gaedo.properties.FieldBackedPropertyProvider;
@@ -91,8 +92,9 @@ public class GaedoModule extends AbstractModule {
 	}
 	
 	/**
-	 * Directly provides the {@link ProxyBackedInformerFactory}. Notice that, although it uses
-	 * a {@link ReflectionBackedInformerFactory}, this one is not made visible through guice, since
+	 * Directly provides the {@link ProxyBackedInformerFactory}. Provided instance is a {@link GeneratedInformerFactory}, which uses
+	 * informer implementations generated by gaedo-informer-generator when they exist, and falls back to proxies otherwise.
+	 * Notice that, although it uses a {@link ReflectionBackedInformerFactory}, this one is not made visible through guice, since
 	 * it more and more appears to be an internal object
 	 * @param locator
 	 * @return
@@ -101,7 +103,7 @@ public class GaedoModule extends AbstractModule {
 	public ProxyBackedInformerFactory getInformerFactory(FieldInformerLocator locator, PropertyProvider provider) {
 		ReflectionBackedInformerFactory reflectiveFactory = new ReflectionBackedInformerFactory(
 				locator, provider);
-		ProxyBackedInformerFactory proxyInformerFactory = new ProxyBackedInformerFactory(
+		ProxyBackedInformerFactory proxyInformerFactory = new GeneratedInformerFactory(
 				reflectiveFactory);
 		return proxyInformerFactory;
 	}
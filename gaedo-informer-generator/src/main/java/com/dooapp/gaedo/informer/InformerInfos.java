@@ -7,6 +7,8 @@ import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 
+import com.dooapp.gaedo.finders.root.GeneratedInformerFactory;
+
 
 public class InformerInfos {
 	/**
@@ -68,4 +70,22 @@ public class InformerInfos {
 	public static String buildAbstractInformerName(String className) {
 		return "InternalGaedo"+buildInformerName(className);
 	}
+
+	/**
+	 * @return name of the concrete class implementing informer, as generated for {@link com.dooapp.gaedo.finders.root.GeneratedInformerFactory}
+	 */
+	public String getInformerImplementationName() {
+		return getInformerName()+GeneratedInformerFactory.IMPLEMENTATION_SUFFIX;
+	}
+
+	/**
+	 * @return name of the abstract class implementing {@link #getAbstractInformerName()}
+	 */
+	public String getAbstractInformerImplementationName() {
+		return buildAbstractInformerImplementationName(className);
+	}
+
+	public static String buildAbstractInformerImplementationName(String className) {
+		return buildAbstractInformerName(className)+GeneratedInformerFactory.IMPLEMENTATION_SUFFIX;
+	}
 }
@@ -222,6 +222,12 @@ public class InformerMojo extends AbstractMojo implements Serializable {
 		effective = new File(baseOutput+"/"+informerInfos.classPackage.replace('.', '/')+"/"+informerInfos.getAbstractInformerName()+".java");
 		effective.getParentFile().mkdirs();
 		FileUtils.fileWrite(effective, cu.toString());
+		cu = InformerTextGenerator.generateAbstractInformerImplementation(informerInfos, qualifiedEnums, resolvedInformers, getLog());
+		effective = new File(baseOutput+"/"+informerInfos.classPackage.replace('.', '/')+"/"+informerInfos.getAbstractInformerImplementationName()+".java");
+		FileUtils.fileWrite(effective, cu.toString());
+		cu = InformerTextGenerator.generateInformerImplementation(informerInfos);
+		effective = new File(baseOutput+"/"+informerInfos.classPackage.replace('.', '/')+"/"+informerInfos.getInformerImplementationName()+".java");
+		FileUtils.fileWrite(effective, cu.toString());
 		if(generateMappings) {
 			currentInformerMappings.setProperty(informerInfos.getQualifiedClassName(), informerInfos.getQualifiedInformerName());
 		}
@@ -1,6 +1,8 @@
 package com.dooapp.gaedo.informer;
 
 import japa.parser.ASTHelper;
+import japa.parser.JavaParser;
+import japa.parser.ParseException;
 import japa.parser.ast.CompilationUnit;
 import japa.parser.ast.ImportDeclaration;
 import japa.parser.ast.PackageDeclaration;
@@ -16,6 +18,8 @@ import japa.parser.ast.expr.NormalAnnotationExpr;
 import japa.parser.ast.expr.StringLiteralExpr;
 import japa.parser.ast.type.ClassOrInterfaceType;
 
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.GregorianCalendar;
@@ -29,6 +33,7 @@ import org.apache.maven.plugin.logging.Log;
 
 import com.dooapp.gaedo.finders.Informer;
 import com.dooapp.gaedo.finders.informers.ObjectFieldInformer;
+import com.dooapp.gaedo.finders.root.AbstractGeneratedInformer;
 import com.dooapp.gaedo.utils.Utils;
 
 /**
@@ -180,4 +185,145 @@ public class InformerTextGenerator {
 		return cu;
 	}
 
+
+	/**
+	 * Generates the abstract class implementing the interface generated by {@link #generateAbstractInformer(InformerInfos, Collection, Map, Log)}.
+	 * Each of its getters loads its field informer from the real informer on first call, then keeps it in a volatile field (two threads
+	 * may both load it, which is harmless, as they get equivalent field informers).
+	 * @param informerInfos informations extracted from a compilation unit
+	 * @param qualifiedEnums already known qualified enums
+	 * @param resolvedInformers resolved informers
+	 * @param log
+	 * @return a compilation unit for the InternalGaedo...InformerImpl class
+	 */
+	public static CompilationUnit generateAbstractInformerImplementation(InformerInfos informerInfos, Collection<String> qualifiedEnums, Map<String, Class> resolvedInformers, Log log) {
+		Collection<String> imports = new LinkedList<String>();
+		// Add current package to import for resolution (but do not forget to remove it before writing the effective imports)
+		imports.add(informerInfos.classPackage);
+		imports.add("java.lang");
+		String superClassPackage = null;
+		String superClassSuffix = null;
+		if(informerInfos.superClassName!=null)
+			superClassSuffix = "."+informerInfos.superClassName;
+		for (ImportDeclaration d : informerInfos.imports) {
+			String importName = d.getName().toString();
+			imports.add(importName);
+			if(superClassSuffix!=null && importName.endsWith(superClassSuffix)) {
+				superClassPackage = importName.substring(0, importName.lastIndexOf(superClassSuffix));
+			}
+		}
+		String superImplementation = AbstractGeneratedInformer.class.getSimpleName();
+		if(informerInfos.superClassName!=null && !"Object".equals(informerInfos.superClassName)) {
+			superImplementation = InformerInfos.buildAbstractInformerImplementationName(informerInfos.superClassName);
+			if(superClassPackage!=null) {
+				imports.add(superClassPackage+"."+superImplementation);
+			}
+		}
+		StringBuilder body = new StringBuilder();
+		StringBuilder validation = new StringBuilder();
+		for (PropertyInfos infos : informerInfos.properties) {
+			String informerTypeFor = InformerTypeFinder.getInformerTypeFor(resolvedInformers, qualifiedEnums, imports, infos);
+			String getter = "get" + Utils.uppercaseFirst(infos.name);
+			String field = infos.name+"Informer";
+			// volatile, as informers are shared between threads : a thread must never see a field informer that is not fully built
+			body.append("\tprivate volatile ").append(informerTypeFor).append(" ").append(field).append(";\n");
+			body.append("\tpublic ").append(informerTypeFor).append(" ").append(getter).append("() {\n");
+			body.append("\t\t").append(informerTypeFor).append(" returned = ").append(field).append(";\n");
+			body.append("\t\tif (returned == null) {\n");
+			body.append("\t\t\treturned = (").append(informerTypeFor).append(") get(\"").append(infos.name).append("\");\n");
+			body.append("\t\t\t").append(field).append(" = returned;\n");
+			body.append("\t\t}\n");
+			body.append("\t\treturn returned;\n");
+			body.append("\t}\n");
+			validation.append("\t\t").append(getter).append("();\n");
+		}
+		imports.remove(informerInfos.classPackage);
+		imports.remove("java.lang");
+		imports.add(Informer.class.getCanonicalName());
+		imports.add(AbstractGeneratedInformer.class.getCanonicalName());
+		StringBuilder sOut = new StringBuilder();
+		sOut.append("package ").append(informerInfos.classPackage).append(";\n");
+		appendImports(sOut, imports);
+		sOut.append("/**\n");
+		sOut.append(" * Informer implementation for {@link ").append(informerInfos.className).append("}\n");
+		sOut.append(" * This class is to be used only by gaedo code (through GeneratedInformerFactory). It replaces the proxy that would otherwise back informer.\n");
+		sOut.append(" * @author InformerMojos\n");
+		sOut.append(" */\n");
+		appendGenerated(sOut, informerInfos);
+		sOut.append("@SuppressWarnings(\"unchecked\")\n");
+		sOut.append("public abstract class ").append(informerInfos.getAbstractInformerImplementationName()).append("<Informed> extends ").append(superImplementation).append("<Informed> implements ").append(informerInfos.getAbstractInformerName()).append(" {\n");
+		sOut.append("\tprotected ").append(informerInfos.getAbstractInformerImplementationName()).append("(Informer<Informed> realInformer) {\n");
+		sOut.append("\t\tsuper(realInformer);\n");
+		sOut.append("\t}\n");
+		sOut.append(body);
+		sOut.append("\tpublic void validate() {\n");
+		sOut.append("\t\tsuper.validate();\n");
+		sOut.append(validation);
+		sOut.append("\t}\n");
+		sOut.append("}\n");
+		return parse(sOut);
+	}
+
+	/**
+	 * Generates the concrete informer implementation, the one {@link com.dooapp.gaedo.finders.root.GeneratedInformerFactory} instanciates in place of a proxy.
+	 * @param informerInfos informations extracted from a compilation unit
+	 * @return a compilation unit for the ...InformerImpl class
+	 */
+	public static CompilationUnit generateInformerImplementation(InformerInfos informerInfos) {
+		String implementation = informerInfos.getInformerImplementationName();
+		Collection<String> imports = new LinkedList<String>();
+		imports.add(Informer.class.getCanonicalName());
+		StringBuilder sOut = new StringBuilder();
+		sOut.append("package ").append(informerInfos.classPackage).append(";\n");
+		appendImports(sOut, imports);
+		sOut.append("/**\n");
+		sOut.append(" * Informer implementation for {@link ").append(informerInfos.className).append("}\n");
+		sOut.append(" * Instances of this class are created by GeneratedInformerFactory.\n");
+		sOut.append(" * @author InformerMojos\n");
+		sOut.append(" */\n");
+		appendGenerated(sOut, informerInfos);
+		sOut.append("public final class ").append(implementation).append(" extends ").append(informerInfos.getAbstractInformerImplementationName()).
+			append("<").append(informerInfos.className).append("> implements ").append(informerInfos.getInformerName()).append(" {\n");
+		sOut.append("\tpublic ").append(implementation).append("(Informer<").append(informerInfos.className).append("> realInformer) {\n");
+		sOut.append("\t\tsuper(realInformer);\n");
+		sOut.append("\t}\n");
+		sOut.append("\tprotected Object createProjected(Informer<").append(informerInfos.className).append("> projected) {\n");
+		sOut.append("\t\treturn new ").append(implementation).append("(projected);\n");
+		sOut.append("\t}\n");
+		sOut.append("\tpublic Class<?> getInformerClass() {\n");
+		sOut.append("\t\treturn ").append(informerInfos.getInformerName()).append(".class;\n");
+		sOut.append("\t}\n");
+		sOut.append("}\n");
+		return parse(sOut);
+	}
+
+	private static void appendImports(StringBuilder sOut, Collection<String> imports) {
+		for(String name : imports) {
+			sOut.append("import ").append(name).append(";\n");
+		}
+		sOut.append("import ").append(ObjectFieldInformer.class.getPackage().getName()).append(".*;\n");
+	}
+
+	private static void appendGenerated(StringBuilder sOut, InformerInfos informerInfos) {
+		sOut.append("@").append(Generated.class.getName()).append("(");
+		sOut.append("date=\"").append(javax.xml.bind.DatatypeConverter.printDateTime(GregorianCalendar.getInstance())).append("\", ");
+		sOut.append("comments=\"generated by gaedo-informer-generator\", ");
+		sOut.append("value={\"").append(informerInfos.getQualifiedClassName()).append("\"})\n");
+	}
+
+	/**
+	 * Parse generated source text, in order for it to be written the same way other generated compilation units are
+	 * @param source
+	 * @return
+	 */
+	private static CompilationUnit parse(StringBuilder source) {
+		try {
+			return JavaParser.parse(new ByteArrayInputStream(source.toString().getBytes("UTF-8")), "UTF-8");
+		} catch (ParseException e) {
+			throw new IllegalStateException("gaedo-informer-generator produced invalid code\n"+source, e);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 }
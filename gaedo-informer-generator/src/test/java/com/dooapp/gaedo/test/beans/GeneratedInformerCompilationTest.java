@@ -0,0 +1,129 @@
+package com.dooapp.gaedo.test.beans;
+
+import japa.parser.ast.CompilationUnit;
+
+import java.io.File;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dooapp.gaedo.finders.FieldInformer;
+import com.dooapp.gaedo.finders.Informer;
+import com.dooapp.gaedo.finders.informers.StringFieldInformer;
+import com.dooapp.gaedo.finders.root.AbstractGeneratedInformer;
+import com.dooapp.gaedo.finders.root.BasicFieldInformerLocator;
+import com.dooapp.gaedo.finders.root.GeneratedInformerFactory;
+import com.dooapp.gaedo.finders.root.ReflectionBackedInformerFactory;
+import com.dooapp.gaedo.informer.InformerInfos;
+import com.dooapp.gaedo.informer.InformerMojo;
+import com.dooapp.gaedo.properties.FieldBackedPropertyProvider;
+
+import static com.dooapp.gaedo.informer.InformerTypeFinderTest.these;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Generate informers for a bean, compile them along with that bean, then make sure {@link GeneratedInformerFactory} uses them.
+ * @author ndx
+ *
+ */
+public class GeneratedInformerCompilationTest {
+	private static final String BEAN = "com.dooapp.gaedo.test.beans.compiled.Label";
+	private static final String TEST_PATH = "/src/test/resources/";
+
+	private File beanFile;
+	private File output;
+	private File classes;
+	private InformerMojo tested;
+
+	@Before
+	public void setUp() throws Exception {
+		String base = System.getProperty("user.dir");
+		beanFile = new File(base + TEST_PATH + BEAN.replace('.', '/') + ".java");
+		output = new File(base + "/target/generated/compiled-informers");
+		classes = new File(base + "/target/generated/compiled-informers-classes");
+		FileUtils.deleteDirectory(output);
+		FileUtils.deleteDirectory(classes);
+		classes.mkdirs();
+		tested = new InformerMojo();
+		tested.project = new MavenProject();
+		tested.setOutput(output);
+		tested.requiredInterfaces = new String[] { Serializable.class.getCanonicalName() };
+	}
+
+	@Test
+	public void generatedInformerCompilesAndIsUsedByFactory() throws Exception {
+		List<CompilationUnit> sources = tested.findMatchingSources(Arrays.asList(beanFile));
+		assertThat(sources.size(), Is.is(1));
+		InformerInfos infos = tested.extractInformerOf(sources.get(0), false, these());
+		tested.createInformerFileFrom(infos, output, these(), com.dooapp.gaedo.informer.Utils.createResolvedInformers());
+
+		File generatedFolder = new File(output, infos.classPackage.replace('.', '/'));
+		Collection<File> toCompile = new LinkedList<File>();
+		toCompile.add(beanFile);
+		toCompile.add(new File(generatedFolder, infos.getInformerName() + ".java"));
+		toCompile.add(new File(generatedFolder, infos.getAbstractInformerName() + ".java"));
+		toCompile.add(new File(generatedFolder, infos.getAbstractInformerImplementationName() + ".java"));
+		toCompile.add(new File(generatedFolder, infos.getInformerImplementationName() + ".java"));
+		compile(toCompile);
+
+		URLClassLoader loader = new URLClassLoader(new URL[] { classes.toURI().toURL() }, getClass().getClassLoader());
+		Class<?> beanClass = loader.loadClass(BEAN);
+		Class<?> informerClass = loader.loadClass(infos.getQualifiedInformerName());
+		Class<?> implementationClass = loader.loadClass(infos.classPackage + "." + infos.getInformerImplementationName());
+
+		GeneratedInformerFactory factory = new GeneratedInformerFactory(new ReflectionBackedInformerFactory(new BasicFieldInformerLocator(),
+						new FieldBackedPropertyProvider()));
+		Informer<?> informer = get(factory, informerClass, beanClass);
+		assertThat(informer, IsInstanceOf.instanceOf(implementationClass));
+		assertThat(Proxy.isProxyClass(informer.getClass()), Is.is(false));
+		assertSame(informerClass, ((AbstractGeneratedInformer<?>) informer).getInformerClass());
+
+		Method getText = informerClass.getMethod("getText");
+		Object text = getText.invoke(informer);
+		assertThat(text, IsInstanceOf.instanceOf(StringFieldInformer.class));
+		assertThat(((FieldInformer) text).getField().getName(), Is.is("text"));
+		// field informers are loaded once, then kept
+		assertSame(text, getText.invoke(informer));
+		assertNotNull(informerClass.getMethod("getId").invoke(informer));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Informer<?> get(GeneratedInformerFactory factory, Class informerClass, Class beanClass) {
+		return (Informer<?>) factory.get(informerClass, beanClass);
+	}
+
+	private void compile(Collection<File> files) throws Exception {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assertNotNull("tests must be run with a JDK", compiler);
+		StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+		try {
+			Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(files);
+			List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d", classes.getAbsolutePath());
+			assertTrue("generated informers should compile", compiler.getTask(null, fileManager, null, options, null, units).call());
+		} finally {
+			fileManager.close();
+		}
+	}
+}
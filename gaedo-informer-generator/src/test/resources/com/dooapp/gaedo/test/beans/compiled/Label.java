@@ -0,0 +1,29 @@
+package com.dooapp.gaedo.test.beans.compiled;
+
+import java.io.Serializable;
+
+/**
+ * Bean which informer is generated, then compiled, by GeneratedInformerCompilationTest
+ * @author ndx
+ *
+ */
+public class Label implements Serializable {
+	private Long id;
+	private String text;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public void setText(String text) {
+		this.text = text;
+	}
+}
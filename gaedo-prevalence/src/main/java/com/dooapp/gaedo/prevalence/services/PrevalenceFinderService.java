@@ -10,6 +10,7 @@ import com.dooapp.gaedo.finders.Informer;
 import com.dooapp.gaedo.finders.QueryBuilder;
 import com.dooapp.gaedo.finders.QueryStatement;
 import com.dooapp.gaedo.finders.collections.CollectionQueryStatement;
+import com.dooapp.gaedo.finders.collections.ParallelExecution;
 import com.dooapp.gaedo.finders.root.AbstractFinderService;
 import com.dooapp.gaedo.finders.root.ProxyBackedInformerFactory;
 import com.dooapp.gaedo.prevalence.space.ExecutionSpace;
@@ -41,6 +42,11 @@ public class PrevalenceFinderService<DataType extends Serializable, InformerType
 
 	private final PropertyChangeEmitter support = new PropertyChangeEmitterImpl();
 
+	/**
+	 * Parallel execution settings given to query statements. Null by default, which means queries are evaluated in calling thread.
+	 */
+	private ParallelExecution parallelExecution;
+
 	public PrevalenceFinderService(Class<DataType> containedClass,
 			Class<InformerType> informerClass,
 			ProxyBackedInformerFactory factory,
@@ -72,17 +78,23 @@ public class PrevalenceFinderService<DataType extends Serializable, InformerType
 	@Override
 	public DataType create(DataType toCreate) {
 		executionSpace.execute(new PutInCollection<String>(getStorageName(), toCreate));
+		invalidateQueryCache();
 		return toCreate;
 	}
 
 	@Override
 	public void delete(DataType toDelete) {
 		executionSpace.execute(new RemoveFromCollection<String>(getStorageName(), toDelete));
+		invalidateQueryCache();
 	}
 
 	@Override
 	public DataType update(DataType toUpdate) {
-		return executionSpace.execute(new UpdateInCollection<DataType, String>(getStorageName(), toUpdate));
+		try {
+			return executionSpace.execute(new UpdateInCollection<DataType, String>(getStorageName(), toUpdate));
+		} finally {
+			invalidateQueryCache();
+		}
 	}
 
 	@Override
@@ -116,6 +128,21 @@ public class PrevalenceFinderService<DataType extends Serializable, InformerType
 	@Override
 	protected QueryStatement<DataType, DataType, InformerType> createQueryStatement(
 			QueryBuilder<InformerType> query) {
-		return new CollectionQueryStatement<DataType, DataType, InformerType>(query, getInformer(), findAll(), support);
+		CollectionQueryStatement<DataType, DataType, InformerType> returned = new CollectionQueryStatement<DataType, DataType, InformerType>(query, getInformer(), findAll(), support);
+		returned.setParallelExecution(parallelExecution);
+		return returned;
+	}
+
+	public ParallelExecution getParallelExecution() {
+		return parallelExecution;
+	}
+
+	/**
+	 * Set parallel execution settings used by all queries created after that call. As {@link #findAll()} returns a snapshot of
+	 * stored data, that snapshot is split in partitions evaluated concurrently.
+	 * @param parallelExecution new settings. Set to null to disable parallel execution.
+	 */
+	public void setParallelExecution(ParallelExecution parallelExecution) {
+		this.parallelExecution = parallelExecution;
 	}
 }
@@ -24,6 +24,7 @@ import com.dooapp.gaedo.finders.dynamic.DynamicFinder;
 import com.dooapp.gaedo.finders.dynamic.DynamicFinderHandler;
 import com.dooapp.gaedo.finders.id.IdBasedService;
 import com.dooapp.gaedo.finders.repository.ServiceRepository;
+import com.dooapp.gaedo.finders.root.AbstractGeneratedInformer;
 import com.dooapp.gaedo.finders.root.InformerClassInvocationHandler;
 
 /**
@@ -245,6 +246,8 @@ public class ServicesList extends ServerResource {
 				InformerClassInvocationHandler informerHandler = (InformerClassInvocationHandler) handler;
 				resourcePublisher.setInformerType(informerHandler.getInformerClass());
 			}
+		} else if(service.getInformer() instanceof AbstractGeneratedInformer) {
+			resourcePublisher.setInformerType(((AbstractGeneratedInformer) service.getInformer()).getInformerClass());
 		} else {
 			resourcePublisher.setInformerType(service.getInformer().getClass());
 		}
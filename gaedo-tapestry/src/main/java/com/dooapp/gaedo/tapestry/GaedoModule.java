@@ -14,6 +14,7 @@ import com.dooapp.gaedo.finders.repository.SimpleServiceRepository;
 import com.dooapp.gaedo.finders.root.BasicFieldInformerLocator;
 import com.dooapp.gaedo.finders.root.CumulativeFieldInformerLocator;
 import com.dooapp.gaedo.finders.root.FieldInformerLocator;
+import com.dooapp.gaedo.finders.root.GeneratedInformerFactory;
 import com.dooapp.gaedo.finders.root.ProxyBackedInformerFactory;
 import com.dooapp.gaedo.finders.root.ReflectionBackedInformerFactory;
 import com.dooapp.gaedo.properties.CachingPropertyProvider;
@@ -66,9 +67,16 @@ public final class GaedoModule {
 		configuration.add(new ServiceBackedFieldLocator(serviceRepository));
 	}
 
+	/**
+	 * Build the informer factory. Built instance is a {@link GeneratedInformerFactory}, which uses informer implementations
+	 * generated by gaedo-informer-generator when they exist, and falls back to proxies otherwise.
+	 * @param locator
+	 * @param provider
+	 * @return
+	 */
 	public static ProxyBackedInformerFactory build(FieldInformerLocator locator, PropertyProvider provider) {
 		ReflectionBackedInformerFactory reflectiveFactory = new ReflectionBackedInformerFactory(
 				locator, provider);
-		return new ProxyBackedInformerFactory(reflectiveFactory);
+		return new GeneratedInformerFactory(reflectiveFactory);
 	}
 }